@@ -0,0 +1,136 @@
+package com.nashss.se.chessplayerservice.activity;
+
+import com.nashss.se.chessplayerservice.activity.request.AnalyzeGameRequest;
+import com.nashss.se.chessplayerservice.activity.response.AnalyzeGameResponse;
+import com.nashss.se.chessplayerservice.chess.Piece;
+import com.nashss.se.chessplayerservice.chess.Position;
+import com.nashss.se.chessplayerservice.dynamodb.dao.GameDao;
+import com.nashss.se.chessplayerservice.dynamodb.models.Game;
+import com.nashss.se.chessplayerservice.dynamodb.models.PlyAnalysis;
+import com.nashss.se.chessplayerservice.engine.Analysis;
+import com.nashss.se.chessplayerservice.engine.EngineJob;
+import com.nashss.se.chessplayerservice.engine.EnginePriority;
+import com.nashss.se.chessplayerservice.engine.GameAnalyzer;
+import com.nashss.se.chessplayerservice.exceptions.InvalidRequestException;
+import com.nashss.se.chessplayerservice.utils.ChessUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import javax.inject.Inject;
+
+/**
+ * Implementation of the AnalyzeGameActivity for the ChessPlayerClient's AnalyzeGame API.
+ *
+ * This API has the engine analyse every ply of a finished game and saves the analysis with the {@link Game}.
+ * Long games are analysed over several calls: each call analyses what it can before the function's deadline, saves
+ * it, and reports whether the analysis is complete, so the client calls again until it is.
+ */
+public class AnalyzeGameActivity {
+    /** Time to analyse for when the request does not know its deadline. */
+    public static final long DEFAULT_BUDGET_MILLIS = 10_000;
+    /** Time kept back from the deadline for the searches still running and for saving the game. */
+    public static final long DEADLINE_MARGIN_MILLIS = 3_000;
+
+    private final GameDao gameDao;
+    private final GameAnalyzer gameAnalyzer;
+
+    /**
+     * Instantiates a new AnalyzeGameActivity object.
+     *
+     * @param gameDao DAO to access the games table.
+     * @param gameAnalyzer analyses the game's positions on several engines at once
+     */
+    @Inject
+    public AnalyzeGameActivity(GameDao gameDao, GameAnalyzer gameAnalyzer) {
+        this.gameDao = gameDao;
+        this.gameAnalyzer = gameAnalyzer;
+    }
+
+    /**
+     * This method handles the incoming request by analysing the plies of the game that have no analysis yet, and
+     * saving them with the game.
+     * <p>
+     * It then returns the game object, and whether every ply has been analysed.
+     * <p>
+     * If the gameId is null, the game does not exist, or the game is still active, this should throw an
+     * InvalidRequestException.
+     *
+     * @param request request object containing the gameId
+     * @return AnalyzeGameResponse object containing the {@link Game} and whether its analysis is complete
+     */
+    public AnalyzeGameResponse handleRequest(AnalyzeGameRequest request) {
+        long startNanos = System.nanoTime();
+        if (request.getGameId() == null) {
+            throw new InvalidRequestException("Game ID must be present");
+        }
+        Game game = gameDao.load(request.getGameId());
+        if (game == null) {
+            throw new InvalidRequestException("A game with that ID does not exist.");
+        }
+        if (!"false".equals(game.getActive())) {
+            throw new InvalidRequestException("Cannot analyze a game that is still active");
+        }
+
+        // Replay the game to get the position before each ply
+        String[] moves = game.getMoves() == null || game.getMoves().isEmpty() ?
+                new String[0] : game.getMoves().split(" ");
+        List<Position> positions = new ArrayList<>(moves.length);
+        Position position = Position.STARTING;
+        for (String move : moves) {
+            positions.add(position);
+            position = position.play(move);
+        }
+
+        Analysis[] results = new Analysis[moves.length];
+        if (game.getAnalysis() != null) {
+            for (PlyAnalysis saved : game.getAnalysis()) {
+                results[saved.getPly()] = fromSaved(saved, positions.get(saved.getPly()));
+            }
+        }
+        long budgetMillis = request.getRemainingTimeMillis() == null ?
+                DEFAULT_BUDGET_MILLIS : request.getRemainingTimeMillis();
+        long deadlineNanos = startNanos + (budgetMillis - DEADLINE_MARGIN_MILLIS) * 1_000_000;
+        // Analysis is bulk work, so it only gets the engines no player is waiting on
+        int analysed = EngineJob.run(EnginePriority.BACKGROUND, ChessUtils.playerOf(game),
+            () -> gameAnalyzer.analyze(game.getGameId(), positions, results, deadlineNanos));
+
+        List<PlyAnalysis> analysis = new ArrayList<>(moves.length);
+        for (int ply = 0; ply < moves.length; ply++) {
+            if (results[ply] != null) {
+                analysis.add(toSaved(ply, moves[ply], results[ply], positions.get(ply)));
+            }
+        }
+        if (analysed > 0) {
+            game.setAnalysis(analysis);
+            gameDao.save(game);
+        }
+
+        return AnalyzeGameResponse.builder()
+                .withGame(game)
+                .withComplete(analysis.size() == moves.length)
+                .build();
+    }
+
+    private static PlyAnalysis toSaved(int ply, String move, Analysis result, Position position) {
+        // The engine scores for the side to move, the saved analysis for white
+        int sign = position.getSideToMove() == Piece.WHITE ? 1 : -1;
+        PlyAnalysis saved = new PlyAnalysis();
+        saved.setPly(ply);
+        saved.setMove(move);
+        saved.setBestMove(result.getBestMove());
+        saved.setDepth(result.getDepth());
+        if (result.getMateIn() == null) {
+            saved.setScoreCp(sign * result.getScoreCp());
+        } else {
+            saved.setMateIn(sign * result.getMateIn());
+        }
+        return saved;
+    }
+
+    private static Analysis fromSaved(PlyAnalysis saved, Position position) {
+        int sign = position.getSideToMove() == Piece.WHITE ? 1 : -1;
+        return new Analysis(saved.getBestMove(), saved.getScoreCp() == null ? 0 : sign * saved.getScoreCp(),
+                saved.getMateIn() == null ? null : sign * saved.getMateIn(), saved.getDepth(),
+                List.of(saved.getBestMove()));
+    }
+}
@@ -2,17 +2,38 @@ package com.nashss.se.chessplayerservice.activity;
 
 import com.nashss.se.chessplayerservice.activity.request.GetNextMoveRequest;
 import com.nashss.se.chessplayerservice.activity.response.GetNextMoveResponse;
+import com.nashss.se.chessplayerservice.chess.Piece;
+import com.nashss.se.chessplayerservice.chess.Position;
+import com.nashss.se.chessplayerservice.chess.RepetitionHistory;
+import com.nashss.se.chessplayerservice.chess.Termination;
+import com.nashss.se.chessplayerservice.chess.TerminationDetector;
 import com.nashss.se.chessplayerservice.dynamodb.dao.GameDao;
 import com.nashss.se.chessplayerservice.dynamodb.dao.UserDao;
 import com.nashss.se.chessplayerservice.dynamodb.models.Game;
 import com.nashss.se.chessplayerservice.dynamodb.models.User;
-import com.nashss.se.chessplayerservice.engine.Stockfish;
+import com.nashss.se.chessplayerservice.engine.BestMoveCache;
+import com.nashss.se.chessplayerservice.engine.ChessEngine;
+import com.nashss.se.chessplayerservice.engine.EngineJob;
+import com.nashss.se.chessplayerservice.engine.EnginePriority;
+import com.nashss.se.chessplayerservice.engine.EngineProfile;
+import com.nashss.se.chessplayerservice.engine.JavaEngine;
+import com.nashss.se.chessplayerservice.engine.OpeningBook;
+import com.nashss.se.chessplayerservice.engine.SearchBudget;
+import com.nashss.se.chessplayerservice.engine.SearchInfo;
+import com.nashss.se.chessplayerservice.engine.SpeculativeSearch;
+import com.nashss.se.chessplayerservice.engine.SyzygyTablebase;
+import com.nashss.se.chessplayerservice.engine.TablebaseResult;
 import com.nashss.se.chessplayerservice.exceptions.InvalidRequestException;
-import com.nashss.se.chessplayerservice.exceptions.StockfishException;
+import com.nashss.se.chessplayerservice.metrics.MetricsConstants;
+import com.nashss.se.chessplayerservice.metrics.MetricsPublisher;
 import com.nashss.se.chessplayerservice.utils.ChessUtils;
 
+import com.amazonaws.services.cloudwatch.model.StandardUnit;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
 import java.util.Arrays;
-import java.util.List;
+import java.util.OptionalLong;
 import javax.inject.Inject;
 
 /**
@@ -22,10 +43,18 @@ import javax.inject.Inject;
  * May also update the User in the database if the game ends.
  */
 public class GetNextMoveActivity {
+    private static final Logger log = LogManager.getLogger();
 
     private final GameDao gameDao;
     private final UserDao userDao;
-    private final Stockfish stockfish;
+    private final BestMoveCache bestMoveCache;
+    private final OpeningBook openingBook;
+    private final SyzygyTablebase tablebase;
+    private final SearchBudget searchBudget;
+    private final JavaEngine javaEngine;
+    private final ChessEngine engine;
+    private final SpeculativeSearch speculativeSearch;
+    private final MetricsPublisher metricsPublisher;
 
 
     /**
@@ -33,13 +62,30 @@ public class GetNextMoveActivity {
      *
      * @param gameDao DAO to access the games table.
      * @param userDao DAO to access the users table.
-     * @param stockfish Stockfish object to interface with the chess engine
+     * @param bestMoveCache cache of engine moves for positions that have already been searched
+     * @param openingBook opening book consulted before the engine
+     * @param tablebase endgame tablebases that decide positions with few pieces
+     * @param searchBudget decides how long the engine may search within the request's deadline
+     * @param javaEngine in-process engine that plays the easiest bots without leasing Stockfish
+     * @param engine the configured engine backend that searches for every other bot
+     * @param speculativeSearch answers the player's likely replies in the background
+     * @param metricsPublisher publishes the service's metrics
      */
     @Inject
-    public GetNextMoveActivity(GameDao gameDao, UserDao userDao, Stockfish stockfish) {
+    public GetNextMoveActivity(GameDao gameDao, UserDao userDao, BestMoveCache bestMoveCache,
+                               OpeningBook openingBook, SyzygyTablebase tablebase, SearchBudget searchBudget,
+                               JavaEngine javaEngine, ChessEngine engine, SpeculativeSearch speculativeSearch,
+                               MetricsPublisher metricsPublisher) {
         this.gameDao = gameDao;
         this.userDao = userDao;
-        this.stockfish = stockfish;
+        this.bestMoveCache = bestMoveCache;
+        this.openingBook = openingBook;
+        this.tablebase = tablebase;
+        this.searchBudget = searchBudget;
+        this.javaEngine = javaEngine;
+        this.engine = engine;
+        this.speculativeSearch = speculativeSearch;
+        this.metricsPublisher = metricsPublisher;
     }
 
     /**
@@ -56,6 +102,7 @@ public class GetNextMoveActivity {
      * @return GetNextMoveResponse object containing the updated {@link Game} and the engine move
      */
     public GetNextMoveResponse handleRequest(GetNextMoveRequest request) {
+        long startNanos = request.getReceivedNanos() == null ? System.nanoTime() : request.getReceivedNanos();
         if (request.getMove() == null || request.getGameId() == null) {
             throw new InvalidRequestException(
                     String.format("Missing one or more required fields: move={%s}, gameId={%s}",
@@ -71,46 +118,7 @@ public class GetNextMoveActivity {
             throw new InvalidRequestException("That game is inactive");
         }
 
-        // Initialize stockfish
-        if (!stockfish.startEngine()) {
-            throw new StockfishException("Engine failed to start");
-        }
-        stockfish.getOutput(3);
-        // Check if the submitted move is legal
-        String[] legalMoves = game.getValidMoves().split(",");
-        if (Arrays.stream(legalMoves).noneMatch(move -> move.equals(request.getMove()))) {
-            throw new InvalidRequestException("That is not a legal move: " + Arrays.toString(legalMoves));
-        }
-        game.setNotation(game.getNotation() + " moves " + request.getMove());
-        String moves = game.getMoves() == null ? request.getMove() : game.getMoves() + " " + request.getMove();
-        game.setMoves(moves);
-
-        // Check if the player move ends the game
-        // This method also updates the game's moves to be fen notation
-        gameOverChecker(game);
-
-        stockfish.sendCommand("uci");
-        stockfish.sendCommand("setoption name skill level value " + game.getBotDifficulty());
-        stockfish.getOutput(10);
-        String engineMove = null;
-        List<String> validMoves = null;
-        if (game.getWinner() == null) {
-            // If the player move did not end the game, make an engine move
-            engineMove = stockfish.getBestMove(String.format("fen %s", game.getNotation()), 500).trim();
-            game.setNotation(game.getNotation() + " moves " + engineMove);
-            game.setMoves(game.getMoves() == null ? engineMove : game.getMoves() + " " + engineMove);
-            // Check if the engine move ends the game
-            gameOverChecker(game);
-            StringBuilder sb = new StringBuilder();
-            for (String move : stockfish.getLegalMoves(game.getNotation())) {
-                sb.append(move);
-                sb.append(",");
-            }
-            game.setValidMoves(sb.toString());
-        }
-
-        stockfish.stopEngine();
-
+        String engineMove = playMoves(game, request, startNanos);
 
         // If the game is over, edit the user(s) rating scores
         // If expected Score is above .5, you are expected to either win or draw
@@ -149,7 +157,9 @@ public class GetNextMoveActivity {
         }
 
         // Save the new notation to the database before returning
+        long saveStartNanos = System.nanoTime();
         gameDao.save(game);
+        searchBudget.recordSave(millisSince(saveStartNanos));
 
         return GetNextMoveResponse.builder()
                 .withGame(game)
@@ -157,80 +167,143 @@ public class GetNextMoveActivity {
                 .build();
     }
 
-    private void gameOverChecker(Game game) {
-        List<String> legalMoves = stockfish.getLegalMoves("fen " + game.getNotation());
-
-        // Initialize inCheck to false
-        boolean inCheck = false;
-        int fiftyMoveRule = 0;
-        String pieces = "";
-        stockfish.sendCommand("d");
-        String[] dump = stockfish.getOutput(10).split("\n");
-        for (String line : dump) {
-            // Get new simplified notation
-            // 5th field of fen string is 50 move rule
-            if (line.startsWith("Fen: ")) {
-                String fen = line.split("Fen: ")[1];
-                game.setNotation(fen);
-                pieces = fen.split(" ")[0];
-                fiftyMoveRule = Integer.parseInt(fen.split(" ")[4]);
+    private String playMoves(Game game, GetNextMoveRequest request, long startNanos) {
+        String playerMove = request.getMove();
+        // Check if the submitted move is legal
+        String[] legalMoves = game.getValidMoves().split(",");
+        if (Arrays.stream(legalMoves).noneMatch(move -> move.equals(playerMove))) {
+            throw new InvalidRequestException("That is not a legal move: " + Arrays.toString(legalMoves));
+        }
+        // Replay the game's moves into a history of position keys so repetitions can be detected
+        RepetitionHistory history = RepetitionHistory.fromMoves(game.getMoves());
+        Position position = recordMove(game, history, Position.fromFen(game.getNotation()), playerMove);
+
+        // Check if the player move ends the game
+        gameOverChecker(game, position, history);
+
+        String engineMove = null;
+        if (game.getWinner() == null) {
+            // If the player move did not end the game, make an engine move
+            engineMove = findBestMove(game, position,
+                    searchBudget.moveTimeMillis(millisSince(startNanos), request.getRemainingTimeMillis()));
+            position = recordMove(game, history, position, engineMove);
+            // Check if the engine move ends the game
+            gameOverChecker(game, position, history);
+            StringBuilder sb = new StringBuilder();
+            for (String move : position.legalMoves()) {
+                sb.append(move);
+                sb.append(",");
             }
-            if (line.startsWith("Checkers: ")) {
-                // See if position is in check
-                String tmp = line.replace("Checkers: ", "").trim();
-                if (!tmp.isBlank()) {
-                    inCheck = true;
-                }
+            game.setValidMoves(sb.toString());
+            if (game.getWinner() == null && !JavaEngine.handles(game.getBotDifficulty())) {
+                // Answer the player's likely replies while they think
+                speculativeSearch.speculate(game.getGameId(), position, game.getBotDifficulty());
             }
         }
+        if (game.getWinner() != null) {
+            // Engines that ponder hold on to a process for the game until it ends
+            engine.endGame(game.getGameId());
+        }
+        return engineMove;
+    }
 
-        // Logic to determine if enough material is present
-        List<Character> pieceList = List.of('p', 'P', 'q', 'Q', 'r', 'R');
-        StringBuilder whitePieces = new StringBuilder();
-        StringBuilder blackPieces = new StringBuilder();
-        boolean enoughMaterial = false;
-        // loop to collect all the relevant pieces
-        for (Character c : pieces.toCharArray()) {
-            // ignore fen notation breaks for rows
-            if (c.equals('/') || c.toString().equalsIgnoreCase("k")) {
-                continue;
-            }
-            // if a pawn, queen, or rook is found, there is enough material
-            if (pieceList.contains(c)) {
-                enoughMaterial = true;
-                break;
+    private String findBestMove(Game game, Position position, int moveTimeMillis) {
+        // Known openings are played straight from the book, varied according to the bot's skill level
+        String bookMove = openingBook.pickMove(position, game.getBotDifficulty());
+        if (bookMove != null) {
+            return bookMove;
+        }
+        EngineProfile profile = EngineProfile.forDifficulty(game.getBotDifficulty());
+        // The easiest bots search so little that an in-process engine plays them without leasing Stockfish
+        if (JavaEngine.handles(game.getBotDifficulty())) {
+            return javaEngine.bestMove(position, profile, moveTimeMillis);
+        }
+        // Endgames the tablebases cover are played perfectly without a full search, and their result is known
+        if (tablebase.covers(position)) {
+            TablebaseResult result = engine.probeTablebase(position, tablebase.getPath());
+            // Backends that cannot read the tables search the position as usual
+            if (result != null) {
+                log.info("Tablebase {} for the engine in game {}", result.getOutcome(), game.getGameId());
+                game.setTablebaseWinner(winnerOf(result.getOutcome(), position.getSideToMove()));
+                return result.getMove();
             }
-            if (Character.isLowerCase(c)) {
-                blackPieces.append(c);
-                if (blackPieces.length() > 1) {
-                    enoughMaterial = true;
-                    break;
-                }
-            } else {
-                whitePieces.append(c);
-                if (whitePieces.length() > 1) {
-                    enoughMaterial = true;
-                    break;
-                }
+        }
+        return search(game, position, profile, moveTimeMillis);
+    }
+
+    private String search(Game game, Position position, EngineProfile profile, int moveTimeMillis) {
+        // Popular positions have usually been searched already with the same settings
+        String fullSearchLimit = profile.searchLimit(SearchBudget.MAX_MOVE_TIME_MILLIS);
+        String cached = bestMoveCache.get(game.getNotation(), game.getBotDifficulty(), fullSearchLimit);
+        if (cached != null) {
+            return cached;
+        }
+        // The answer to a likely reply may have been worked out while the player was thinking
+        if (speculativeSearch.isEnabled()) {
+            String speculated = speculativeSearch.lookup(game.getGameId(), position, game.getBotDifficulty());
+            metricsPublisher.addCount(MetricsConstants.SPECULATION_HIT_COUNT, speculated == null ? 0 : 1);
+            if (speculated != null) {
+                return speculated;
             }
         }
+        // Forget any earlier waits, so the wait measured below is this search's alone
+        engine.takeQueueWaitMillis();
+        long searchStartNanos = System.nanoTime();
+        SearchInfo searchInfo = new SearchInfo();
+        String engineMove = EngineJob.run(EnginePriority.INTERACTIVE, ChessUtils.playerOf(game),
+            () -> engine.bestMove(game.getGameId(), position, profile, moveTimeMillis, searchInfo::copyFrom));
+        long searchMillis = millisSince(searchStartNanos);
+        // Only backends that queue for engines measure the wait and how busy the engines are
+        OptionalLong queueWait = engine.takeQueueWaitMillis();
+        long queueWaitMillis = queueWait.orElse(0);
+        queueWait.ifPresent(wait -> metricsPublisher.addTime(MetricsConstants.ENGINE_QUEUE_WAIT_TIME, wait));
+        metricsPublisher.addTime(MetricsConstants.ENGINE_SEARCH_TIME, searchMillis - queueWaitMillis);
+        engine.takeUtilization().ifPresent(utilization -> metricsPublisher.addMetric(
+                MetricsConstants.ENGINE_UTILIZATION, utilization * 100, StandardUnit.Percent));
+        if (searchInfo.hasScore()) {
+            searchBudget.recordSearch(searchMillis, queueWaitMillis, searchInfo.getTimeMillis());
+            log.info("Engine searched game {}: {}", game.getGameId(), searchInfo);
+            metricsPublisher.addCount(MetricsConstants.SEARCH_DEPTH, searchInfo.getDepth());
+            metricsPublisher.addCount(MetricsConstants.SEARCH_NODES, searchInfo.getNodes());
+        }
+        // Searches cut short by the deadline may be weaker, so only full-length ones are worth reusing
+        if (moveTimeMillis == SearchBudget.MAX_MOVE_TIME_MILLIS) {
+            bestMoveCache.put(game.getNotation(), game.getBotDifficulty(), fullSearchLimit, engineMove);
+        }
+        return engineMove;
+    }
 
-        // if in check and no valid moves, game is over by checkmate
-        if (inCheck && legalMoves.isEmpty()) {
-            game.setWinner(game.getNotation().split(" ")[1].equals("w") ? "black" : "white");
-            game.setActive("false");
-        } else if (legalMoves.isEmpty()) {
-            // if no valid moves, but you are not in check, game is over by stalemate
-            game.setWinner("draw");
-            game.setActive("false");
-        } else if (fiftyMoveRule >= 100) {
-            // fifty move rule is a draw condition;
-            // if there have been no pawn captures or advances in 50 moves, the game ends in a draw
-            // fen string tracks this for us
-            game.setWinner("draw");
+    /**
+     * Names the side that wins with perfect play the way a finished game's winner is named.
+     */
+    private static String winnerOf(TablebaseResult.Outcome outcome, int sideToMove) {
+        if (outcome == TablebaseResult.Outcome.DRAW) {
+            return "draw";
+        }
+        return (outcome == TablebaseResult.Outcome.WIN) == (sideToMove == Piece.WHITE) ? "white" : "black";
+    }
+
+    private static long millisSince(long startNanos) {
+        return (System.nanoTime() - startNanos) / 1_000_000;
+    }
+
+    private Position recordMove(Game game, RepetitionHistory history, Position position, String move) {
+        // The notation always holds the FEN of the current position, so play the move locally to get the next one
+        Position next = position.play(move);
+        game.setNotation(next.toFen());
+        game.setMoves(game.getMoves() == null ? move : game.getMoves() + " " + move);
+        history.push(next.getKey());
+        return next;
+    }
+
+    private void gameOverChecker(Game game, Position position, RepetitionHistory history) {
+        Termination termination = TerminationDetector.detect(position, history);
+        if (termination == Termination.CHECKMATE) {
+            // The side to move has been mated
+            game.setWinner(position.getSideToMove() == Piece.WHITE ? "black" : "white");
             game.setActive("false");
-        } else if (!enoughMaterial) {
-            // draw by not enough material
+        } else if (termination.isDraw()) {
+            // Stalemate, repetition, the fifty move rule and insufficient material all end the game in a draw
             game.setWinner("draw");
             game.setActive("false");
         }
@@ -0,0 +1,48 @@
+package com.nashss.se.chessplayerservice.activity.request;
+
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonPOJOBuilder;
+
+@JsonDeserialize(builder = AnalyzeGameRequest.Builder.class)
+public class AnalyzeGameRequest {
+    private final String gameId;
+    private final Long remainingTimeMillis;
+
+    private AnalyzeGameRequest(String gameId, Long remainingTimeMillis) {
+        this.gameId = gameId;
+        this.remainingTimeMillis = remainingTimeMillis;
+    }
+
+    public String getGameId() {
+        return gameId;
+    }
+
+    public Long getRemainingTimeMillis() {
+        return remainingTimeMillis;
+    }
+
+    //CHECKSTYLE:OFF:Builder
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    @JsonPOJOBuilder
+    public static class Builder {
+        private String gameId;
+        private Long remainingTimeMillis;
+
+        public Builder withGameId(String gameId) {
+            this.gameId = gameId;
+            return this;
+        }
+
+        public Builder withRemainingTimeMillis(Long remainingTimeMillis) {
+            this.remainingTimeMillis = remainingTimeMillis;
+            return this;
+        }
+
+        public AnalyzeGameRequest build() {
+            return new AnalyzeGameRequest(gameId, remainingTimeMillis);
+        }
+    }
+}
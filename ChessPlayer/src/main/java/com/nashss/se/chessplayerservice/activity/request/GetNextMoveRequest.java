@@ -8,10 +8,14 @@ public class GetNextMoveRequest {
 
     private final String move;
     private final String gameId;
+    private final Long remainingTimeMillis;
+    private final Long receivedNanos;
 
-    private GetNextMoveRequest(String move, String gameId) {
+    private GetNextMoveRequest(String move, String gameId, Long remainingTimeMillis, Long receivedNanos) {
         this.move = move;
         this.gameId = gameId;
+        this.remainingTimeMillis = remainingTimeMillis;
+        this.receivedNanos = receivedNanos;
     }
 
     public String getMove() {
@@ -22,6 +26,20 @@ public class GetNextMoveRequest {
         return gameId;
     }
 
+    public Long getRemainingTimeMillis() {
+        return remainingTimeMillis;
+    }
+
+    /**
+     * Gets the {@link System#nanoTime()} at which the remaining time was read, which is when the time spent on the
+     * request starts counting.
+     *
+     * @return the time the request was received, or null if it was not recorded
+     */
+    public Long getReceivedNanos() {
+        return receivedNanos;
+    }
+
     //CHECKSTYLE:OFF:Builder
     public static Builder builder() {
         return new Builder();
@@ -31,6 +49,8 @@ public class GetNextMoveRequest {
     public static class Builder {
         private String move;
         private String gameId;
+        private Long remainingTimeMillis;
+        private Long receivedNanos;
 
         public Builder withMove(String move) {
             this.move = move;
@@ -42,8 +62,18 @@ public class GetNextMoveRequest {
             return this;
         }
 
+        public Builder withRemainingTimeMillis(Long remainingTimeMillis) {
+            this.remainingTimeMillis = remainingTimeMillis;
+            return this;
+        }
+
+        public Builder withReceivedNanos(Long receivedNanos) {
+            this.receivedNanos = receivedNanos;
+            return this;
+        }
+
         public GetNextMoveRequest build() {
-            return new GetNextMoveRequest(move, gameId);
+            return new GetNextMoveRequest(move, gameId, remainingTimeMillis, receivedNanos);
         }
     }
 }
@@ -0,0 +1,45 @@
+package com.nashss.se.chessplayerservice.activity.response;
+
+import com.nashss.se.chessplayerservice.dynamodb.models.Game;
+
+public class AnalyzeGameResponse {
+    private final Game game;
+    private final boolean complete;
+
+    private AnalyzeGameResponse(Game game, boolean complete) {
+        this.game = game;
+        this.complete = complete;
+    }
+
+    public Game getGame() {
+        return game;
+    }
+
+    public boolean isComplete() {
+        return complete;
+    }
+
+    //CHECKSTYLE:OFF:Builder
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public static class Builder {
+        private Game game;
+        private boolean complete;
+
+        public Builder withGame(Game game) {
+            this.game = game;
+            return this;
+        }
+
+        public Builder withComplete(boolean complete) {
+            this.complete = complete;
+            return this;
+        }
+
+        public AnalyzeGameResponse build() {
+            return new AnalyzeGameResponse(game, complete);
+        }
+    }
+}
@@ -0,0 +1,257 @@
+package com.nashss.se.chessplayerservice.chess;
+
+/**
+ * Precomputed attack tables.
+ * <p>
+ * Knight, king and pawn attacks are plain lookup tables. Rook and bishop attacks use magic bitboards: the blockers on
+ * a slider's relevant rays are multiplied by a per-square magic number whose top bits index a table of attack sets.
+ * The magic numbers were found offline with a seeded random search so the tables can be built quickly at class load.
+ */
+public final class Attacks {
+    private static final long[] ROOK_MAGICS = {
+        0x5C800430400081E0L, 0x284005482000D000L, 0x6900102001010840L, 0x090010006100088CL,
+        0x0480240008004280L, 0x6200040A00103188L, 0x8400085092100401L, 0x0200064400810822L,
+        0x0000800020804001L, 0x0442401000200046L, 0x0001001100200048L, 0x000300201003000AL,
+        0x4000800400080081L, 0x40A9000400490002L, 0x2002000493480600L, 0x002180008002C100L,
+        0x82C4808000284000L, 0x2010104000402008L, 0x0000828020011002L, 0x1000808008001000L,
+        0x0060808008000401L, 0x0080808002000401L, 0x8000040008A25001L, 0x15141200208107CCL,
+        0x8800400180008024L, 0x4020002040401000L, 0x0000200080801000L, 0x0080100080080080L,
+        0x4450040080080080L, 0x1B00020080040080L, 0xC042000200018408L, 0x0180410A00004684L,
+        0x0218884000800020L, 0x02A0005000400020L, 0x0000200084801000L, 0x4008048008801000L,
+        0x1044800400800800L, 0x2010800400800200L, 0x0802000842000104L, 0x0040038422000059L,
+        0x0444228040048001L, 0x8340004020008080L, 0x2260170020010040L, 0xC110000800808010L,
+        0x0098020004004040L, 0x0020040002008080L, 0x0012000108420004L, 0x84004041108A0004L,
+        0x2A80002040810900L, 0x40110084C019A100L, 0x0000804012002200L, 0x0498100080080080L,
+        0x8108008008040080L, 0x2002018408100200L, 0x0400020190080400L, 0x0000011094004200L,
+        0x0000124280002103L, 0x0008120041082082L, 0x1200084104102001L, 0x0401002004100109L,
+        0x00B1004800502407L, 0x0001000204000801L, 0x1000209810110204L, 0x0800024308240882L
+    };
+
+    private static final long[] BISHOP_MAGICS = {
+        0x002020020E004012L, 0x0818016424820098L, 0x0050008202511841L, 0x0904040494010C00L,
+        0x4801104004040080L, 0x0052021006400000L, 0x100A0201200900C0L, 0x0042005400841060L,
+        0x000050030A040410L, 0x7400200220812902L, 0x1000100404883800L, 0x5820482088210291L,
+        0x0100420210008C08L, 0x1080020824040000L, 0x0028220090041200L, 0x0800A02084042000L,
+        0x000400A320042108L, 0x0144041014808410L, 0x0410060A00EC4100L, 0xD020400401002000L,
+        0x0004000080E02020L, 0x0002012100424200L, 0x000088004410082AL, 0x0400405098480802L,
+        0x0060100020841940L, 0x001010C008010140L, 0xA025010050041420L, 0x0104004008081100L,
+        0x0003001107004001L, 0x000843000080A002L, 0x03169100C2191020L, 0x4400A10802010081L,
+        0x2010034800210800L, 0x8C01082800208100L, 0x0011080100081041L, 0x0401400808208200L,
+        0x8010008200082200L, 0x8820240100002080L, 0x000101140032020CL, 0x1000850840270400L,
+        0x0022020220084109L, 0x8030880802802900L, 0x1440201048081000L, 0x440430C200828808L,
+        0x502022200A000100L, 0x4804411012080100L, 0x0004811846000103L, 0x121000C090820900L,
+        0x418C008211100004L, 0x040486089A200100L, 0x0008803108080800L, 0x8220029042020008L,
+        0x0009041002088000L, 0x1808083010322002L, 0x0241108111050504L, 0xA202102401084450L,
+        0x6C410022050CC000L, 0x08A0002908021001L, 0x2010084040445008L, 0x088C201002050401L,
+        0x0081001320204104L, 0x0052004002840104L, 0x0080C45004010C31L, 0x0008108488050420L
+    };
+
+    private static final int[][] ROOK_DIRECTIONS = {{1, 0}, {-1, 0}, {0, 1}, {0, -1}};
+    private static final int[][] BISHOP_DIRECTIONS = {{1, 1}, {1, -1}, {-1, 1}, {-1, -1}};
+
+    private static final long[] KNIGHT = new long[64];
+    private static final long[] KING = new long[64];
+    private static final long[][] PAWN = new long[2][64];
+
+    private static final long[] ROOK_MASKS = new long[64];
+    private static final int[] ROOK_SHIFTS = new int[64];
+    private static final int[] ROOK_OFFSETS = new int[64];
+    private static final long[] ROOK_TABLE = new long[102400];
+
+    private static final long[] BISHOP_MASKS = new long[64];
+    private static final int[] BISHOP_SHIFTS = new int[64];
+    private static final int[] BISHOP_OFFSETS = new int[64];
+    private static final long[] BISHOP_TABLE = new long[5248];
+
+    private static final long[][] BETWEEN = new long[64][64];
+    private static final long[][] LINE = new long[64][64];
+
+    static {
+        initLeaperTables();
+        initSliderTable(ROOK_DIRECTIONS, ROOK_MAGICS, ROOK_MASKS, ROOK_SHIFTS, ROOK_OFFSETS, ROOK_TABLE);
+        initSliderTable(BISHOP_DIRECTIONS, BISHOP_MAGICS, BISHOP_MASKS, BISHOP_SHIFTS, BISHOP_OFFSETS, BISHOP_TABLE);
+        initLines();
+    }
+
+    private Attacks() {
+    }
+
+    /**
+     * Gets the squares a knight attacks.
+     * @param square the knight's square
+     * @return the attacked squares
+     */
+    public static long knight(int square) {
+        return KNIGHT[square];
+    }
+
+    /**
+     * Gets the squares a king attacks.
+     * @param square the king's square
+     * @return the attacked squares
+     */
+    public static long king(int square) {
+        return KING[square];
+    }
+
+    /**
+     * Gets the squares a pawn attacks diagonally.
+     * @param color the pawn's color
+     * @param square the pawn's square
+     * @return the attacked squares
+     */
+    public static long pawn(int color, int square) {
+        return PAWN[color][square];
+    }
+
+    /**
+     * Gets the squares a rook attacks, stopping at and including the first blocker on each ray.
+     * @param square the rook's square
+     * @param occupied every occupied square
+     * @return the attacked squares
+     */
+    public static long rook(int square, long occupied) {
+        long blockers = occupied & ROOK_MASKS[square];
+        return ROOK_TABLE[ROOK_OFFSETS[square] + (int) ((blockers * ROOK_MAGICS[square]) >>> ROOK_SHIFTS[square])];
+    }
+
+    /**
+     * Gets the squares a bishop attacks, stopping at and including the first blocker on each ray.
+     * @param square the bishop's square
+     * @param occupied every occupied square
+     * @return the attacked squares
+     */
+    public static long bishop(int square, long occupied) {
+        long blockers = occupied & BISHOP_MASKS[square];
+        return BISHOP_TABLE[BISHOP_OFFSETS[square] +
+                (int) ((blockers * BISHOP_MAGICS[square]) >>> BISHOP_SHIFTS[square])];
+    }
+
+    /**
+     * Gets the squares a queen attacks, stopping at and including the first blocker on each ray.
+     * @param square the queen's square
+     * @param occupied every occupied square
+     * @return the attacked squares
+     */
+    public static long queen(int square, long occupied) {
+        return rook(square, occupied) | bishop(square, occupied);
+    }
+
+    /**
+     * Gets the squares strictly between two squares on the same rank, file or diagonal.
+     * @param from the first square
+     * @param to the second square
+     * @return the squares in between, or 0 if the squares are not aligned
+     */
+    public static long between(int from, int to) {
+        return BETWEEN[from][to];
+    }
+
+    /**
+     * Gets the whole rank, file or diagonal through two squares.
+     * @param from the first square
+     * @param to the second square
+     * @return the full line through both squares, or 0 if the squares are not aligned
+     */
+    public static long line(int from, int to) {
+        return LINE[from][to];
+    }
+
+    private static void initLeaperTables() {
+        int[][] knightSteps = {{1, 2}, {2, 1}, {2, -1}, {1, -2}, {-1, -2}, {-2, -1}, {-2, 1}, {-1, 2}};
+        int[][] kingSteps = {{1, 0}, {1, 1}, {0, 1}, {-1, 1}, {-1, 0}, {-1, -1}, {0, -1}, {1, -1}};
+        for (int square = 0; square < 64; square++) {
+            KNIGHT[square] = steps(square, knightSteps);
+            KING[square] = steps(square, kingSteps);
+            PAWN[Piece.WHITE][square] = steps(square, new int[][]{{-1, 1}, {1, 1}});
+            PAWN[Piece.BLACK][square] = steps(square, new int[][]{{-1, -1}, {1, -1}});
+        }
+    }
+
+    private static long steps(int square, int[][] deltas) {
+        long result = 0;
+        for (int[] delta : deltas) {
+            int file = Bitboards.file(square) + delta[0];
+            int rank = Bitboards.rank(square) + delta[1];
+            if (file >= 0 && file < 8 && rank >= 0 && rank < 8) {
+                result |= Bitboards.bit(Bitboards.square(file, rank));
+            }
+        }
+        return result;
+    }
+
+    private static void initSliderTable(int[][] directions, long[] magics, long[] masks, int[] shifts,
+                                        int[] offsets, long[] table) {
+        int offset = 0;
+        for (int square = 0; square < 64; square++) {
+            long mask = relevantBlockers(square, directions);
+            int bits = Long.bitCount(mask);
+            masks[square] = mask;
+            shifts[square] = 64 - bits;
+            offsets[square] = offset;
+            // Walk every subset of the mask with the carry-rippler trick
+            long subset = 0;
+            do {
+                int index = (int) ((subset * magics[square]) >>> shifts[square]);
+                table[offset + index] = slidingAttacks(square, subset, directions);
+                subset = (subset - mask) & mask;
+            } while (subset != 0);
+            offset += 1 << bits;
+        }
+    }
+
+    private static long relevantBlockers(int square, int[][] directions) {
+        long result = 0;
+        for (int[] direction : directions) {
+            int file = Bitboards.file(square) + direction[0];
+            int rank = Bitboards.rank(square) + direction[1];
+            // A piece on the last square of a ray never blocks anything behind it, so edges are left out
+            while (inside(file + direction[0], rank + direction[1])) {
+                result |= Bitboards.bit(Bitboards.square(file, rank));
+                file += direction[0];
+                rank += direction[1];
+            }
+        }
+        return result;
+    }
+
+    private static long slidingAttacks(int square, long occupied, int[][] directions) {
+        long result = 0;
+        for (int[] direction : directions) {
+            int file = Bitboards.file(square) + direction[0];
+            int rank = Bitboards.rank(square) + direction[1];
+            while (inside(file, rank)) {
+                long bit = Bitboards.bit(Bitboards.square(file, rank));
+                result |= bit;
+                if ((occupied & bit) != 0) {
+                    break;
+                }
+                file += direction[0];
+                rank += direction[1];
+            }
+        }
+        return result;
+    }
+
+    private static boolean inside(int file, int rank) {
+        return file >= 0 && file < 8 && rank >= 0 && rank < 8;
+    }
+
+    private static void initLines() {
+        for (int from = 0; from < 64; from++) {
+            for (int to = 0; to < 64; to++) {
+                if (from == to) {
+                    continue;
+                }
+                long toBit = Bitboards.bit(to);
+                if ((rook(from, 0) & toBit) != 0) {
+                    BETWEEN[from][to] = rook(from, toBit) & rook(to, Bitboards.bit(from));
+                    LINE[from][to] = (rook(from, 0) & rook(to, 0)) | Bitboards.bit(from) | toBit;
+                } else if ((bishop(from, 0) & toBit) != 0) {
+                    BETWEEN[from][to] = bishop(from, toBit) & bishop(to, Bitboards.bit(from));
+                    LINE[from][to] = (bishop(from, 0) & bishop(to, 0)) | Bitboards.bit(from) | toBit;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package com.nashss.se.chessplayerservice.chess;
+
+/**
+ * Square and bitboard helpers.
+ * <p>
+ * Squares are numbered 0-63 starting at a1, then b1, and so on up to h8. A bitboard is a {@code long} with bit n set
+ * when square n is part of the set.
+ */
+public final class Bitboards {
+    public static final long FILE_A = 0x0101010101010101L;
+    public static final long FILE_H = FILE_A << 7;
+    public static final long RANK_1 = 0xFFL;
+    public static final long RANK_2 = RANK_1 << 8;
+    public static final long RANK_4 = RANK_1 << 24;
+    public static final long RANK_5 = RANK_1 << 32;
+    public static final long RANK_7 = RANK_1 << 48;
+    public static final long RANK_8 = RANK_1 << 56;
+    public static final long LIGHT_SQUARES = 0x55AA55AA55AA55AAL;
+    public static final long DARK_SQUARES = ~LIGHT_SQUARES;
+
+    private Bitboards() {
+    }
+
+    /**
+     * Gets the bitboard containing only the given square.
+     * @param square a square from 0 to 63
+     * @return the single bit bitboard
+     */
+    public static long bit(int square) {
+        return 1L << square;
+    }
+
+    /**
+     * Gets the square of a file and rank.
+     * @param file 0 for the a-file up to 7 for the h-file
+     * @param rank 0 for the first rank up to 7 for the eighth rank
+     * @return the square
+     */
+    public static int square(int file, int rank) {
+        return rank * 8 + file;
+    }
+
+    /**
+     * Gets the file of a square.
+     * @param square a square from 0 to 63
+     * @return 0 for the a-file up to 7 for the h-file
+     */
+    public static int file(int square) {
+        return square & 7;
+    }
+
+    /**
+     * Gets the rank of a square.
+     * @param square a square from 0 to 63
+     * @return 0 for the first rank up to 7 for the eighth rank
+     */
+    public static int rank(int square) {
+        return square >>> 3;
+    }
+
+    /**
+     * Parses a square name such as "e4".
+     * @param text the text containing the square name
+     * @param offset the index of the file letter
+     * @return the square, or -1 if the text does not name a square
+     */
+    public static int parseSquare(CharSequence text, int offset) {
+        if (offset + 1 >= text.length()) {
+            return -1;
+        }
+        int file = text.charAt(offset) - 'a';
+        int rank = text.charAt(offset + 1) - '1';
+        if (file < 0 || file > 7 || rank < 0 || rank > 7) {
+            return -1;
+        }
+        return square(file, rank);
+    }
+
+    /**
+     * Appends the name of a square, such as "e4", to a builder.
+     * @param square a square from 0 to 63
+     * @param builder the builder to append to
+     */
+    public static void appendSquare(int square, StringBuilder builder) {
+        builder.append((char) ('a' + file(square))).append((char) ('1' + rank(square)));
+    }
+
+    /**
+     * Gets the name of a square, such as "e4".
+     * @param square a square from 0 to 63
+     * @return the square name
+     */
+    public static String squareName(int square) {
+        StringBuilder builder = new StringBuilder(2);
+        appendSquare(square, builder);
+        return builder.toString();
+    }
+}
@@ -0,0 +1,359 @@
+package com.nashss.se.chessplayerservice.chess;
+
+import java.util.Arrays;
+
+/**
+ * A mutable chess position backed by bitboards, with make and unmake for move generation and search.
+ * <p>
+ * Every piece is tracked both in a bitboard per colored piece and in a square-indexed mailbox, so attack queries and
+ * "what is on this square" lookups are both constant time. {@link #makeMove(int)} pushes the irreversible state onto
+ * an internal stack that {@link #unmakeMove(int)} pops, so a search can walk the tree without copying the board.
+ */
+public class Board {
+    public static final int WHITE_KINGSIDE = 1;
+    public static final int WHITE_QUEENSIDE = 2;
+    public static final int BLACK_KINGSIDE = 4;
+    public static final int BLACK_QUEENSIDE = 8;
+
+    private static final int[] CASTLING_MASK = new int[64];
+
+    static {
+        Arrays.fill(CASTLING_MASK, 0xF);
+        CASTLING_MASK[0] = ~WHITE_QUEENSIDE & 0xF;
+        CASTLING_MASK[7] = ~WHITE_KINGSIDE & 0xF;
+        CASTLING_MASK[4] = ~(WHITE_KINGSIDE | WHITE_QUEENSIDE) & 0xF;
+        CASTLING_MASK[56] = ~BLACK_QUEENSIDE & 0xF;
+        CASTLING_MASK[63] = ~BLACK_KINGSIDE & 0xF;
+        CASTLING_MASK[60] = ~(BLACK_KINGSIDE | BLACK_QUEENSIDE) & 0xF;
+    }
+
+    private final long[] pieces = new long[Piece.COUNT];
+    private final long[] colors = new long[2];
+    private final int[] mailbox = new int[64];
+
+    private int sideToMove;
+    private int castlingRights;
+    private int epSquare = -1;
+    private int halfmoveClock;
+    private int fullmoveNumber = 1;
+    private long key;
+
+    private long[] undoStack = new long[64];
+    private long[] keyStack = new long[64];
+    private int undoSize;
+
+    /**
+     * Creates an empty board with white to move. Use {@link #fromFen(String)} to set up a real position.
+     */
+    public Board() {
+        Arrays.fill(mailbox, Piece.NONE);
+    }
+
+    /**
+     * Parses a position in Forsyth-Edwards Notation.
+     *
+     * @param fen the FEN string. The halfmove clock and fullmove number may be omitted
+     * @return a new board holding the position
+     */
+    public static Board fromFen(String fen) {
+        return fromPosition(Fen.parse(fen));
+    }
+
+    /**
+     * Sets up a board holding an immutable position.
+     *
+     * @param position the position
+     * @return a new board holding the position
+     */
+    public static Board fromPosition(Position position) {
+        Board board = new Board();
+        for (int piece = 0; piece < Piece.COUNT; piece++) {
+            long squares = position.pieces(piece);
+            while (squares != 0) {
+                board.addPiece(piece, Long.numberOfTrailingZeros(squares));
+                squares &= squares - 1;
+            }
+        }
+        board.sideToMove = position.getSideToMove();
+        board.castlingRights = position.getCastlingRights();
+        board.epSquare = position.getEpSquare();
+        board.halfmoveClock = position.getHalfmoveClock();
+        board.fullmoveNumber = position.getFullmoveNumber();
+        board.key ^= Zobrist.castling(board.castlingRights) ^ Zobrist.enPassant(board.epSquare);
+        if (board.sideToMove == Piece.BLACK) {
+            board.key ^= Zobrist.side();
+        }
+        return board;
+    }
+
+    /**
+     * Takes an immutable snapshot of the current position.
+     *
+     * @return the position
+     */
+    public Position toPosition() {
+        return new Position(pieces.clone(), sideToMove, castlingRights, epSquare, halfmoveClock, fullmoveNumber);
+    }
+
+    /**
+     * Writes the position in Forsyth-Edwards Notation.
+     *
+     * @return the FEN string
+     */
+    public String toFen() {
+        return Fen.format(toPosition());
+    }
+
+    /**
+     * Plays a move given in UCI notation, for example "e2e4", "e1g1" or "e7e8q".
+     *
+     * @param uciMove the move to play
+     * @return the packed move that was played
+     * @throws IllegalArgumentException if the move is not legal in this position
+     */
+    public int play(String uciMove) {
+        int move = MoveGenerator.findLegalMove(this, uciMove);
+        if (move == Move.NONE) {
+            throw new IllegalArgumentException("Illegal move " + uciMove + " in position " + toFen());
+        }
+        makeMove(move);
+        return move;
+    }
+
+    /**
+     * Plays a legal move. The move must have come from {@link MoveGenerator} for this exact position.
+     *
+     * @param move the packed move
+     */
+    public void makeMove(int move) {
+        int from = Move.from(move);
+        int to = Move.to(move);
+        int kind = Move.kind(move);
+        int piece = mailbox[from];
+        int captureSquare = kind == Move.EN_PASSANT ? to ^ 8 : to;
+        int captured = kind == Move.CASTLING ? Piece.NONE : mailbox[captureSquare];
+
+        pushUndo(captured);
+        key ^= Zobrist.castling(castlingRights) ^ Zobrist.enPassant(epSquare);
+        halfmoveClock++;
+        epSquare = -1;
+
+        if (captured != Piece.NONE) {
+            removePiece(captured, captureSquare);
+            halfmoveClock = 0;
+        }
+        removePiece(piece, from);
+        if (kind == Move.PROMOTION) {
+            addPiece(Piece.of(sideToMove, Move.promotionType(move)), to);
+        } else {
+            addPiece(piece, to);
+        }
+        if (kind == Move.CASTLING) {
+            int rookFrom = to > from ? to + 1 : to - 2;
+            int rookTo = to > from ? to - 1 : to + 1;
+            movePiece(Piece.of(sideToMove, Piece.ROOK), rookFrom, rookTo);
+        }
+        if (Piece.type(piece) == Piece.PAWN) {
+            halfmoveClock = 0;
+            if (Math.abs(to - from) == 16) {
+                int passed = (from + to) >>> 1;
+                // Only record the square when a pawn could actually capture there, like Stockfish does
+                if ((Attacks.pawn(sideToMove, passed) & pieces[Piece.of(sideToMove ^ 1, Piece.PAWN)]) != 0) {
+                    epSquare = passed;
+                }
+            }
+        }
+        castlingRights &= CASTLING_MASK[from] & CASTLING_MASK[to];
+        key ^= Zobrist.castling(castlingRights) ^ Zobrist.enPassant(epSquare) ^ Zobrist.side();
+        if (sideToMove == Piece.BLACK) {
+            fullmoveNumber++;
+        }
+        sideToMove ^= 1;
+    }
+
+    /**
+     * Takes back the last move played with {@link #makeMove(int)}.
+     *
+     * @param move the same packed move that was played
+     */
+    public void unmakeMove(int move) {
+        sideToMove ^= 1;
+        if (sideToMove == Piece.BLACK) {
+            fullmoveNumber--;
+        }
+        int from = Move.from(move);
+        int to = Move.to(move);
+        int kind = Move.kind(move);
+        long undo = undoStack[--undoSize];
+
+        int moved = mailbox[to];
+        removePiece(moved, to);
+        addPiece(kind == Move.PROMOTION ? Piece.of(sideToMove, Piece.PAWN) : moved, from);
+        if (kind == Move.CASTLING) {
+            int rookFrom = to > from ? to + 1 : to - 2;
+            int rookTo = to > from ? to - 1 : to + 1;
+            movePiece(Piece.of(sideToMove, Piece.ROOK), rookTo, rookFrom);
+        }
+        int captured = (int) (undo & 0xF) - 1;
+        if (captured != Piece.NONE) {
+            addPiece(captured, kind == Move.EN_PASSANT ? to ^ 8 : to);
+        }
+        castlingRights = (int) (undo >>> 4) & 0xF;
+        epSquare = (int) ((undo >>> 8) & 0x7F) - 1;
+        halfmoveClock = (int) (undo >>> 16);
+        key = keyStack[undoSize];
+    }
+
+    /**
+     * Finds every piece of either color that attacks a square.
+     *
+     * @param square the square being attacked
+     * @param occupied the occupancy to use for sliding pieces
+     * @return the attacking pieces' squares
+     */
+    public long attackersTo(int square, long occupied) {
+        long queens = pieces[Piece.of(Piece.WHITE, Piece.QUEEN)] | pieces[Piece.of(Piece.BLACK, Piece.QUEEN)];
+        long bishops = pieces[Piece.of(Piece.WHITE, Piece.BISHOP)] | pieces[Piece.of(Piece.BLACK, Piece.BISHOP)];
+        long rooks = pieces[Piece.of(Piece.WHITE, Piece.ROOK)] | pieces[Piece.of(Piece.BLACK, Piece.ROOK)];
+        long knights = pieces[Piece.of(Piece.WHITE, Piece.KNIGHT)] | pieces[Piece.of(Piece.BLACK, Piece.KNIGHT)];
+        long kings = pieces[Piece.of(Piece.WHITE, Piece.KING)] | pieces[Piece.of(Piece.BLACK, Piece.KING)];
+
+        long attackers = Attacks.pawn(Piece.BLACK, square) & pieces[Piece.of(Piece.WHITE, Piece.PAWN)];
+        attackers |= Attacks.pawn(Piece.WHITE, square) & pieces[Piece.of(Piece.BLACK, Piece.PAWN)];
+        attackers |= Attacks.knight(square) & knights;
+        attackers |= Attacks.king(square) & kings;
+        attackers |= Attacks.bishop(square, occupied) & (bishops | queens);
+        attackers |= Attacks.rook(square, occupied) & (rooks | queens);
+        return attackers;
+    }
+
+    /**
+     * Checks whether any piece of the given color attacks a square.
+     *
+     * @param square the square being attacked
+     * @param byColor the attacking color
+     * @param occupied the occupancy to use for sliding pieces
+     * @return true if the square is attacked
+     */
+    public boolean isAttacked(int square, int byColor, long occupied) {
+        return (attackersTo(square, occupied) & colors[byColor]) != 0;
+    }
+
+    /**
+     * Checks whether the side to move is in check.
+     *
+     * @return true if the side to move's king is attacked
+     */
+    public boolean isInCheck() {
+        return isAttacked(kingSquare(sideToMove), sideToMove ^ 1, occupied());
+    }
+
+    /**
+     * Gets the square of a side's king.
+     *
+     * @param color the king's color
+     * @return the king's square
+     */
+    public int kingSquare(int color) {
+        return Long.numberOfTrailingZeros(pieces[Piece.of(color, Piece.KING)]);
+    }
+
+    /**
+     * Gets the squares holding a colored piece.
+     *
+     * @param piece a colored piece
+     * @return the bitboard of that piece
+     */
+    public long pieces(int piece) {
+        return pieces[piece];
+    }
+
+    /**
+     * Gets the squares holding any piece of one color.
+     *
+     * @param color {@link Piece#WHITE} or {@link Piece#BLACK}
+     * @return the bitboard of that color's pieces
+     */
+    public long occupancy(int color) {
+        return colors[color];
+    }
+
+    /**
+     * Gets every occupied square.
+     *
+     * @return the bitboard of both colors' pieces
+     */
+    public long occupied() {
+        return colors[Piece.WHITE] | colors[Piece.BLACK];
+    }
+
+    /**
+     * Gets the piece on a square.
+     *
+     * @param square a square from 0 to 63
+     * @return the colored piece, or {@link Piece#NONE} if the square is empty
+     */
+    public int pieceAt(int square) {
+        return mailbox[square];
+    }
+
+    public int getSideToMove() {
+        return sideToMove;
+    }
+
+    public int getCastlingRights() {
+        return castlingRights;
+    }
+
+    public int getEpSquare() {
+        return epSquare;
+    }
+
+    public int getHalfmoveClock() {
+        return halfmoveClock;
+    }
+
+    public int getFullmoveNumber() {
+        return fullmoveNumber;
+    }
+
+    /**
+     * Gets the Zobrist key of the position, which is kept up to date as moves are made and unmade.
+     *
+     * @return the key
+     */
+    public long getKey() {
+        return key;
+    }
+
+    private void pushUndo(int captured) {
+        if (undoSize == undoStack.length) {
+            undoStack = Arrays.copyOf(undoStack, undoSize * 2);
+            keyStack = Arrays.copyOf(keyStack, undoSize * 2);
+        }
+        keyStack[undoSize] = key;
+        undoStack[undoSize++] = (captured + 1) | (castlingRights << 4) | ((long) (epSquare + 1) << 8) |
+                ((long) halfmoveClock << 16);
+    }
+
+    private void addPiece(int piece, int square) {
+        long bit = Bitboards.bit(square);
+        pieces[piece] |= bit;
+        colors[Piece.color(piece)] |= bit;
+        mailbox[square] = piece;
+        key ^= Zobrist.piece(piece, square);
+    }
+
+    private void removePiece(int piece, int square) {
+        long bit = Bitboards.bit(square);
+        pieces[piece] &= ~bit;
+        colors[Piece.color(piece)] &= ~bit;
+        mailbox[square] = Piece.NONE;
+        key ^= Zobrist.piece(piece, square);
+    }
+
+    private void movePiece(int piece, int from, int to) {
+        removePiece(piece, from);
+        addPiece(piece, to);
+    }
+}
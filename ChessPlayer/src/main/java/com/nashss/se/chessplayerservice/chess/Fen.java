@@ -0,0 +1,199 @@
+package com.nashss.se.chessplayerservice.chess;
+
+/**
+ * Reads and writes Forsyth-Edwards Notation.
+ * <p>
+ * The parser walks the text once with a cursor instead of splitting it into fields, and the writer appends to a
+ * caller-provided builder, so the only allocations are the position itself and whatever the caller chooses to make.
+ */
+public final class Fen {
+    public static final String STARTING_FEN = "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1";
+
+    private Fen() {
+    }
+
+    /**
+     * Parses a position in Forsyth-Edwards Notation.
+     *
+     * @param fen the FEN text. The halfmove clock and fullmove number may be omitted
+     * @return the position
+     * @throws IllegalArgumentException if the text is not a valid FEN
+     */
+    public static Position parse(CharSequence fen) {
+        long[] pieces = new long[Piece.COUNT];
+        int length = fen.length();
+        int index = skipSpaces(fen, 0);
+
+        int rank = 7;
+        int file = 0;
+        for (; index < length && fen.charAt(index) != ' '; index++) {
+            char c = fen.charAt(index);
+            if (c == '/') {
+                rank--;
+                file = 0;
+            } else if (c >= '1' && c <= '8') {
+                file += c - '0';
+            } else {
+                int piece = Piece.fromFenChar(c);
+                if (piece == Piece.NONE || file > 7 || rank < 0) {
+                    throw invalid(fen);
+                }
+                pieces[piece] |= Bitboards.bit(Bitboards.square(file, rank));
+                file++;
+            }
+        }
+        if (Long.bitCount(pieces[Piece.of(Piece.WHITE, Piece.KING)]) != 1 ||
+                Long.bitCount(pieces[Piece.of(Piece.BLACK, Piece.KING)]) != 1) {
+            throw new IllegalArgumentException("Invalid FEN, each side needs exactly one king: " + fen);
+        }
+
+        index = skipSpaces(fen, index);
+        if (index >= length) {
+            throw invalid(fen);
+        }
+        int sideToMove = fen.charAt(index++) == 'b' ? Piece.BLACK : Piece.WHITE;
+
+        index = skipSpaces(fen, index);
+        int castlingRights = 0;
+        for (; index < length && fen.charAt(index) != ' '; index++) {
+            castlingRights |= castlingRight(fen.charAt(index));
+        }
+
+        index = skipSpaces(fen, index);
+        if (index >= length) {
+            throw invalid(fen);
+        }
+        int epSquare = Bitboards.parseSquare(fen, index);
+        index = skipField(fen, index);
+        if (epSquare >= 0 &&
+                (Attacks.pawn(sideToMove ^ 1, epSquare) & pieces[Piece.of(sideToMove, Piece.PAWN)]) == 0) {
+            // Keep the square only when a pawn can capture there, the same as Board, so equal positions hash equally
+            epSquare = -1;
+        }
+
+        int halfmoveClock = 0;
+        int fullmoveNumber = 1;
+        index = skipSpaces(fen, index);
+        if (index < length) {
+            int end = skipField(fen, index);
+            halfmoveClock = parseNumber(fen, index, end);
+            index = skipSpaces(fen, end);
+            if (index < length) {
+                fullmoveNumber = parseNumber(fen, index, skipField(fen, index));
+            }
+        }
+        return new Position(pieces, sideToMove, castlingRights, epSquare, halfmoveClock, fullmoveNumber);
+    }
+
+    /**
+     * Writes a position in Forsyth-Edwards Notation.
+     *
+     * @param position the position
+     * @return the FEN text
+     */
+    public static String format(Position position) {
+        StringBuilder builder = new StringBuilder(90);
+        append(position, builder);
+        return builder.toString();
+    }
+
+    /**
+     * Appends a position in Forsyth-Edwards Notation to a builder.
+     *
+     * @param position the position
+     * @param builder the builder to append to
+     */
+    public static void append(Position position, StringBuilder builder) {
+        for (int rank = 7; rank >= 0; rank--) {
+            int empty = 0;
+            for (int file = 0; file < 8; file++) {
+                int piece = position.pieceAt(Bitboards.square(file, rank));
+                if (piece == Piece.NONE) {
+                    empty++;
+                    continue;
+                }
+                if (empty > 0) {
+                    builder.append(empty);
+                    empty = 0;
+                }
+                builder.append(Piece.toFenChar(piece));
+            }
+            if (empty > 0) {
+                builder.append(empty);
+            }
+            if (rank > 0) {
+                builder.append('/');
+            }
+        }
+        builder.append(position.getSideToMove() == Piece.WHITE ? " w " : " b ");
+        int rights = position.getCastlingRights();
+        if (rights == 0) {
+            builder.append('-');
+        }
+        appendIf(builder, rights, Board.WHITE_KINGSIDE, 'K');
+        appendIf(builder, rights, Board.WHITE_QUEENSIDE, 'Q');
+        appendIf(builder, rights, Board.BLACK_KINGSIDE, 'k');
+        appendIf(builder, rights, Board.BLACK_QUEENSIDE, 'q');
+        builder.append(' ');
+        if (position.getEpSquare() < 0) {
+            builder.append('-');
+        } else {
+            Bitboards.appendSquare(position.getEpSquare(), builder);
+        }
+        builder.append(' ').append(position.getHalfmoveClock()).append(' ').append(position.getFullmoveNumber());
+    }
+
+    private static int castlingRight(char c) {
+        if (c == 'K') {
+            return Board.WHITE_KINGSIDE;
+        }
+        if (c == 'Q') {
+            return Board.WHITE_QUEENSIDE;
+        }
+        if (c == 'k') {
+            return Board.BLACK_KINGSIDE;
+        }
+        return c == 'q' ? Board.BLACK_QUEENSIDE : 0;
+    }
+
+    private static void appendIf(StringBuilder builder, int rights, int right, char c) {
+        if ((rights & right) != 0) {
+            builder.append(c);
+        }
+    }
+
+    private static int skipSpaces(CharSequence fen, int from) {
+        int index = from;
+        while (index < fen.length() && fen.charAt(index) == ' ') {
+            index++;
+        }
+        return index;
+    }
+
+    private static int skipField(CharSequence fen, int from) {
+        int index = from;
+        while (index < fen.length() && fen.charAt(index) != ' ') {
+            index++;
+        }
+        return index;
+    }
+
+    private static int parseNumber(CharSequence fen, int from, int to) {
+        if (from == to) {
+            throw invalid(fen);
+        }
+        int value = 0;
+        for (int i = from; i < to; i++) {
+            char c = fen.charAt(i);
+            if (c < '0' || c > '9') {
+                throw invalid(fen);
+            }
+            value = value * 10 + (c - '0');
+        }
+        return value;
+    }
+
+    private static IllegalArgumentException invalid(CharSequence fen) {
+        return new IllegalArgumentException("Invalid FEN: " + fen);
+    }
+}
@@ -0,0 +1,101 @@
+package com.nashss.se.chessplayerservice.chess;
+
+/**
+ * Moves packed into an {@code int} so move lists can live in primitive arrays.
+ * <p>
+ * Bits 0-5 hold the origin square, bits 6-11 the target square, bits 12-14 the promotion piece type and bits 15-16
+ * the move kind. Castling moves are encoded as the king moving two squares, which is also how UCI writes them.
+ */
+public final class Move {
+    public static final int NORMAL = 0;
+    public static final int PROMOTION = 1;
+    public static final int EN_PASSANT = 2;
+    public static final int CASTLING = 3;
+
+    public static final int NONE = 0;
+
+    private Move() {
+    }
+
+    /**
+     * Packs a move that is not a promotion.
+     * @param from the origin square
+     * @param to the target square
+     * @param kind {@link #NORMAL}, {@link #EN_PASSANT} or {@link #CASTLING}
+     * @return the packed move
+     */
+    public static int of(int from, int to, int kind) {
+        return from | (to << 6) | (kind << 15);
+    }
+
+    /**
+     * Packs a promotion.
+     * @param from the origin square
+     * @param to the target square
+     * @param promotionType the piece type the pawn becomes
+     * @return the packed move
+     */
+    public static int promotion(int from, int to, int promotionType) {
+        return from | (to << 6) | (promotionType << 12) | (PROMOTION << 15);
+    }
+
+    /**
+     * Gets the origin square of a move.
+     * @param move a packed move
+     * @return the origin square
+     */
+    public static int from(int move) {
+        return move & 0x3F;
+    }
+
+    /**
+     * Gets the target square of a move.
+     * @param move a packed move
+     * @return the target square
+     */
+    public static int to(int move) {
+        return (move >>> 6) & 0x3F;
+    }
+
+    /**
+     * Gets the piece type a promotion creates.
+     * @param move a packed move
+     * @return the promotion piece type, only meaningful for {@link #PROMOTION} moves
+     */
+    public static int promotionType(int move) {
+        return (move >>> 12) & 0x7;
+    }
+
+    /**
+     * Gets the kind of a move.
+     * @param move a packed move
+     * @return {@link #NORMAL}, {@link #PROMOTION}, {@link #EN_PASSANT} or {@link #CASTLING}
+     */
+    public static int kind(int move) {
+        return (move >>> 15) & 0x3;
+    }
+
+    /**
+     * Appends a move in UCI long algebraic notation, for example "e2e4" or "e7e8q", to a builder.
+     * @param move a packed move
+     * @param builder the builder to append to
+     */
+    public static void appendUci(int move, StringBuilder builder) {
+        Bitboards.appendSquare(from(move), builder);
+        Bitboards.appendSquare(to(move), builder);
+        if (kind(move) == PROMOTION) {
+            builder.append(Piece.toPromotionChar(promotionType(move)));
+        }
+    }
+
+    /**
+     * Formats a move in UCI long algebraic notation, for example "e2e4" or "e7e8q".
+     * @param move a packed move
+     * @return the UCI move
+     */
+    public static String toUci(int move) {
+        StringBuilder builder = new StringBuilder(5);
+        appendUci(move, builder);
+        return builder.toString();
+    }
+}
@@ -0,0 +1,246 @@
+package com.nashss.se.chessplayerservice.chess;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Generates strictly legal moves for a {@link Board}.
+ * <p>
+ * Check evasions and pins are resolved up front: when the king is in check only moves that capture the checker or
+ * block the check survive, and a pinned piece may only move along the line between its king and the pinning piece.
+ * That leaves en passant as the one move that is verified by playing it, since it removes two pieces from a rank.
+ */
+public final class MoveGenerator {
+    public static final int MAX_MOVES = 256;
+
+    private static final int[] PROMOTION_TYPES = {Piece.QUEEN, Piece.ROOK, Piece.BISHOP, Piece.KNIGHT};
+
+    private MoveGenerator() {
+    }
+
+    /**
+     * Writes every legal move of the side to move into a caller-provided buffer.
+     *
+     * @param board the position
+     * @param moves a buffer of at least {@link #MAX_MOVES} entries
+     * @return the number of moves written
+     */
+    public static int generateLegalMoves(Board board, int[] moves) {
+        int us = board.getSideToMove();
+        int them = us ^ 1;
+        long ours = board.occupancy(us);
+        long occupied = board.occupied();
+        int kingSquare = board.kingSquare(us);
+        long checkers = board.attackersTo(kingSquare, occupied) & board.occupancy(them);
+
+        int count = generateKingMoves(board, kingSquare, ours, occupied, moves, 0);
+        if (Long.bitCount(checkers) > 1) {
+            // Only the king can answer a double check
+            return count;
+        }
+
+        long checkMask = -1L;
+        if (checkers != 0) {
+            checkMask = checkers | Attacks.between(kingSquare, Long.numberOfTrailingZeros(checkers));
+        } else {
+            count = generateCastling(board, us, occupied, moves, count);
+        }
+        long pinned = pinnedPieces(board, us, kingSquare, occupied);
+        long targets = ~ours & checkMask;
+
+        count = generatePawnMoves(board, us, kingSquare, pinned, checkMask, moves, count);
+        for (int type = Piece.KNIGHT; type <= Piece.QUEEN; type++) {
+            long pieces = board.pieces(Piece.of(us, type));
+            while (pieces != 0) {
+                int from = Long.numberOfTrailingZeros(pieces);
+                pieces &= pieces - 1;
+                long attacks = pieceAttacks(type, from, occupied) & targets;
+                if ((pinned & Bitboards.bit(from)) != 0) {
+                    attacks &= Attacks.line(kingSquare, from);
+                }
+                count = addMoves(from, attacks, Move.NORMAL, moves, count);
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Lists every legal move of the side to move in UCI notation.
+     *
+     * @param board the position
+     * @return the legal moves, for example ["e2e4", "g1f3", ...]
+     */
+    public static List<String> legalMoves(Board board) {
+        int[] moves = new int[MAX_MOVES];
+        int count = generateLegalMoves(board, moves);
+        List<String> result = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            result.add(Move.toUci(moves[i]));
+        }
+        return result;
+    }
+
+    /**
+     * Finds the legal move matching a move in UCI notation.
+     *
+     * @param board the position
+     * @param uciMove the move, for example "e2e4" or "e7e8q"
+     * @return the packed move, or {@link Move#NONE} if it is not legal
+     */
+    public static int findLegalMove(Board board, String uciMove) {
+        if (uciMove == null || uciMove.length() < 4) {
+            return Move.NONE;
+        }
+        int from = Bitboards.parseSquare(uciMove, 0);
+        int to = Bitboards.parseSquare(uciMove, 2);
+        int promotion = uciMove.length() > 4 ? Piece.type(Piece.fromFenChar(uciMove.charAt(4))) : Piece.NONE;
+        int[] moves = new int[MAX_MOVES];
+        int count = generateLegalMoves(board, moves);
+        for (int i = 0; i < count; i++) {
+            int move = moves[i];
+            if (Move.from(move) == from && Move.to(move) == to &&
+                    (Move.kind(move) != Move.PROMOTION || Move.promotionType(move) == promotion)) {
+                return move;
+            }
+        }
+        return Move.NONE;
+    }
+
+    private static long pieceAttacks(int type, int square, long occupied) {
+        if (type == Piece.KNIGHT) {
+            return Attacks.knight(square);
+        }
+        if (type == Piece.BISHOP) {
+            return Attacks.bishop(square, occupied);
+        }
+        return type == Piece.ROOK ? Attacks.rook(square, occupied) : Attacks.queen(square, occupied);
+    }
+
+    private static int generateKingMoves(Board board, int kingSquare, long ours, long occupied, int[] moves,
+                                         int count) {
+        int them = board.getSideToMove() ^ 1;
+        // Take the king off the board so sliders see through the square it is stepping away from
+        long withoutKing = occupied & ~Bitboards.bit(kingSquare);
+        long targets = Attacks.king(kingSquare) & ~ours;
+        int result = count;
+        while (targets != 0) {
+            int to = Long.numberOfTrailingZeros(targets);
+            targets &= targets - 1;
+            if (!board.isAttacked(to, them, withoutKing)) {
+                moves[result++] = Move.of(kingSquare, to, Move.NORMAL);
+            }
+        }
+        return result;
+    }
+
+    private static int generateCastling(Board board, int us, long occupied, int[] moves, int count) {
+        int rights = board.getCastlingRights() >>> (us * 2);
+        int kingSquare = us == Piece.WHITE ? 4 : 60;
+        if (rights == 0 || board.kingSquare(us) != kingSquare) {
+            return count;
+        }
+        long rooks = board.pieces(Piece.of(us, Piece.ROOK));
+        int them = us ^ 1;
+        int result = count;
+        if ((rights & Board.WHITE_KINGSIDE) != 0 && (rooks & Bitboards.bit(kingSquare + 3)) != 0 &&
+                (occupied & Attacks.between(kingSquare, kingSquare + 3)) == 0 &&
+                !board.isAttacked(kingSquare + 1, them, occupied) &&
+                !board.isAttacked(kingSquare + 2, them, occupied)) {
+            moves[result++] = Move.of(kingSquare, kingSquare + 2, Move.CASTLING);
+        }
+        if ((rights & Board.WHITE_QUEENSIDE) != 0 && (rooks & Bitboards.bit(kingSquare - 4)) != 0 &&
+                (occupied & Attacks.between(kingSquare, kingSquare - 4)) == 0 &&
+                !board.isAttacked(kingSquare - 1, them, occupied) &&
+                !board.isAttacked(kingSquare - 2, them, occupied)) {
+            moves[result++] = Move.of(kingSquare, kingSquare - 2, Move.CASTLING);
+        }
+        return result;
+    }
+
+    private static long pinnedPieces(Board board, int us, int kingSquare, long occupied) {
+        int them = us ^ 1;
+        long queens = board.pieces(Piece.of(them, Piece.QUEEN));
+        long snipers = (Attacks.rook(kingSquare, 0) & (board.pieces(Piece.of(them, Piece.ROOK)) | queens)) |
+                (Attacks.bishop(kingSquare, 0) & (board.pieces(Piece.of(them, Piece.BISHOP)) | queens));
+        long pinned = 0;
+        while (snipers != 0) {
+            int sniper = Long.numberOfTrailingZeros(snipers);
+            snipers &= snipers - 1;
+            long blockers = Attacks.between(kingSquare, sniper) & occupied;
+            if (Long.bitCount(blockers) == 1) {
+                pinned |= blockers & board.occupancy(us);
+            }
+        }
+        return pinned;
+    }
+
+    private static int generatePawnMoves(Board board, int us, int kingSquare, long pinned, long checkMask,
+                                         int[] moves, int count) {
+        long empty = ~board.occupied();
+        long enemies = board.occupancy(us ^ 1);
+        int forward = us == Piece.WHITE ? 8 : -8;
+        long startRank = us == Piece.WHITE ? Bitboards.RANK_2 : Bitboards.RANK_7;
+        long lastRank = us == Piece.WHITE ? Bitboards.RANK_8 : Bitboards.RANK_1;
+        int epSquare = board.getEpSquare();
+        int result = count;
+
+        long pawns = board.pieces(Piece.of(us, Piece.PAWN));
+        while (pawns != 0) {
+            int from = Long.numberOfTrailingZeros(pawns);
+            pawns &= pawns - 1;
+            long fromBit = Bitboards.bit(from);
+
+            long targets = Attacks.pawn(us, from) & enemies;
+            long single = Bitboards.bit(from + forward) & empty;
+            targets |= single;
+            if (single != 0 && (fromBit & startRank) != 0) {
+                targets |= Bitboards.bit(from + 2 * forward) & empty;
+            }
+            targets &= checkMask;
+            if ((pinned & fromBit) != 0) {
+                targets &= Attacks.line(kingSquare, from);
+            }
+
+            if ((targets & lastRank) != 0) {
+                result = addPromotions(from, targets & lastRank, moves, result);
+                targets &= ~lastRank;
+            }
+            result = addMoves(from, targets, Move.NORMAL, moves, result);
+
+            if (epSquare >= 0 && (Attacks.pawn(us, from) & Bitboards.bit(epSquare)) != 0) {
+                int move = Move.of(from, epSquare, Move.EN_PASSANT);
+                board.makeMove(move);
+                boolean legal = !board.isAttacked(kingSquare, us ^ 1, board.occupied());
+                board.unmakeMove(move);
+                if (legal) {
+                    moves[result++] = move;
+                }
+            }
+        }
+        return result;
+    }
+
+    private static int addPromotions(int from, long targets, int[] moves, int count) {
+        int result = count;
+        long remaining = targets;
+        while (remaining != 0) {
+            int to = Long.numberOfTrailingZeros(remaining);
+            remaining &= remaining - 1;
+            for (int type : PROMOTION_TYPES) {
+                moves[result++] = Move.promotion(from, to, type);
+            }
+        }
+        return result;
+    }
+
+    private static int addMoves(int from, long targets, int kind, int[] moves, int count) {
+        int result = count;
+        long remaining = targets;
+        while (remaining != 0) {
+            int to = Long.numberOfTrailingZeros(remaining);
+            remaining &= remaining - 1;
+            moves[result++] = Move.of(from, to, kind);
+        }
+        return result;
+    }
+}
@@ -0,0 +1,41 @@
+package com.nashss.se.chessplayerservice.chess;
+
+/**
+ * Counts the leaf nodes of the legal move tree to a fixed depth.
+ * <p>
+ * Perft results for well known positions are published, so comparing against them is the standard way to prove a
+ * move generator handles castling, en passant, promotions, pins and checks correctly.
+ */
+public final class Perft {
+
+    private Perft() {
+    }
+
+    /**
+     * Counts the positions reachable from the board in exactly the given number of moves.
+     * The board is returned to its original state afterwards.
+     *
+     * @param board the starting position
+     * @param depth the number of plies to search, at least 1
+     * @return the number of leaf positions
+     */
+    public static long perft(Board board, int depth) {
+        int[][] buffers = new int[depth][MoveGenerator.MAX_MOVES];
+        return perft(board, depth, buffers);
+    }
+
+    private static long perft(Board board, int depth, int[][] buffers) {
+        int[] moves = buffers[depth - 1];
+        int count = MoveGenerator.generateLegalMoves(board, moves);
+        if (depth == 1) {
+            return count;
+        }
+        long nodes = 0;
+        for (int i = 0; i < count; i++) {
+            board.makeMove(moves[i]);
+            nodes += perft(board, depth - 1, buffers);
+            board.unmakeMove(moves[i]);
+        }
+        return nodes;
+    }
+}
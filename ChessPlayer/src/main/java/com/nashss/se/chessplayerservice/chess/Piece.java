@@ -0,0 +1,82 @@
+package com.nashss.se.chessplayerservice.chess;
+
+/**
+ * Integer constants for colors, piece types and colored pieces.
+ * <p>
+ * A colored piece is encoded as {@code color * 6 + type}, so white pieces are 0-5 and black pieces are 6-11.
+ * {@link #NONE} marks an empty square.
+ */
+public final class Piece {
+    public static final int WHITE = 0;
+    public static final int BLACK = 1;
+
+    public static final int PAWN = 0;
+    public static final int KNIGHT = 1;
+    public static final int BISHOP = 2;
+    public static final int ROOK = 3;
+    public static final int QUEEN = 4;
+    public static final int KING = 5;
+
+    public static final int NONE = -1;
+    public static final int COUNT = 12;
+
+    private static final String FEN_CHARS = "PNBRQKpnbrqk";
+
+    private Piece() {
+    }
+
+    /**
+     * Combines a color and a piece type into a colored piece.
+     * @param color {@link #WHITE} or {@link #BLACK}
+     * @param type one of the piece type constants
+     * @return the colored piece
+     */
+    public static int of(int color, int type) {
+        return color * 6 + type;
+    }
+
+    /**
+     * Gets the color of a colored piece.
+     * @param piece a colored piece
+     * @return {@link #WHITE} or {@link #BLACK}
+     */
+    public static int color(int piece) {
+        return piece < 6 ? WHITE : BLACK;
+    }
+
+    /**
+     * Gets the type of a colored piece.
+     * @param piece a colored piece
+     * @return one of the piece type constants
+     */
+    public static int type(int piece) {
+        return piece % 6;
+    }
+
+    /**
+     * Parses a FEN piece letter, upper case for white and lower case for black.
+     * @param c the FEN letter
+     * @return the colored piece, or {@link #NONE} if the letter is not a piece
+     */
+    public static int fromFenChar(char c) {
+        return FEN_CHARS.indexOf(c);
+    }
+
+    /**
+     * Gets the FEN letter of a colored piece.
+     * @param piece a colored piece
+     * @return the FEN letter, upper case for white and lower case for black
+     */
+    public static char toFenChar(int piece) {
+        return FEN_CHARS.charAt(piece);
+    }
+
+    /**
+     * Gets the lower case letter UCI uses for a promotion piece type.
+     * @param type a piece type
+     * @return the promotion letter
+     */
+    public static char toPromotionChar(int type) {
+        return FEN_CHARS.charAt(6 + type);
+    }
+}
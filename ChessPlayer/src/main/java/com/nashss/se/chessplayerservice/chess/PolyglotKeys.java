@@ -0,0 +1,140 @@
+package com.nashss.se.chessplayerservice.chess;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Hashes positions the way Polyglot opening books do.
+ * <p>
+ * Polyglot keys are built like {@link Zobrist} keys but from Polyglot's own table of 781 random numbers: 768 for
+ * pieces on squares, 4 for castling rights, 8 for the en passant file and 1 that is toggled when white is to move.
+ * The table is data rather than code, so it is read from a file of 781 big-endian 64-bit values that ships with the
+ * book. A table is only accepted if it reproduces the keys published with Polyglot's book format, since a book read
+ * with any other table silently finds nothing. As in Polyglot, the en passant file only counts when a pawn can
+ * capture there, which is how {@link Position} already stores it.
+ */
+public final class PolyglotKeys {
+    public static final int TABLE_SIZE = 781;
+    /** Polyglot's key for the starting position. */
+    public static final long STARTING_KEY = 0x463B96181691FC9CL;
+
+    /** Games published with Polyglot's book format, with the key after each one. */
+    private static final String[] REFERENCE_GAMES = {
+        "",
+        "e2e4",
+        "e2e4 d7d5",
+        "e2e4 d7d5 e4e5",
+        "e2e4 d7d5 e4e5 f7f5",
+        "e2e4 d7d5 e4e5 f7f5 e1e2",
+        "e2e4 d7d5 e4e5 f7f5 e1e2 e8f7",
+        "a2a4 b7b5 h2h4 b5b4 c2c4",
+        "a2a4 b7b5 h2h4 b5b4 c2c4 b4c3 a1a3"
+    };
+    private static final long[] REFERENCE_KEYS = {
+        STARTING_KEY,
+        0x823C9B50FD114196L,
+        0x0756B94461C50FB0L,
+        0x662FAFB965DB29D4L,
+        0x22A48B5A8E47FF78L,
+        0x652A607CA3F242C1L,
+        0x00FDD303C946BDD9L,
+        0x3C8123EA7B067637L,
+        0x5C3F9B829B279560L
+    };
+
+    private static final int CASTLING_OFFSET = 768;
+    private static final int EN_PASSANT_OFFSET = 772;
+    private static final int TURN_OFFSET = 780;
+
+    private final long[] random64;
+
+    /**
+     * Creates a hasher from Polyglot's random number table.
+     *
+     * @param random64 the 781 random numbers, in Polyglot's order
+     */
+    public PolyglotKeys(long[] random64) {
+        if (random64.length != TABLE_SIZE) {
+            throw new IllegalArgumentException("Polyglot needs " + TABLE_SIZE + " random numbers, got " +
+                    random64.length);
+        }
+        this.random64 = random64.clone();
+    }
+
+    /**
+     * Reads Polyglot's random number table from a file.
+     *
+     * @param file a file of 781 big-endian 64-bit values
+     * @return the hasher
+     * @throws IOException if the file cannot be read, has the wrong size or is not Polyglot's table
+     */
+    public static PolyglotKeys load(Path file) throws IOException {
+        ByteBuffer bytes = ByteBuffer.wrap(Files.readAllBytes(file));
+        if (bytes.remaining() != TABLE_SIZE * Long.BYTES) {
+            throw new IOException("Expected " + TABLE_SIZE * Long.BYTES + " bytes in " + file + ", got " +
+                    bytes.remaining());
+        }
+        long[] random64 = new long[TABLE_SIZE];
+        bytes.asLongBuffer().get(random64);
+        PolyglotKeys keys = new PolyglotKeys(random64);
+        if (!keys.matchesReferenceKeys()) {
+            throw new IOException(file + " is not Polyglot's random number table, its keys differ from the " +
+                    "reference keys");
+        }
+        return keys;
+    }
+
+    /**
+     * Checks the table against the keys published with Polyglot's book format, which only the standard table
+     * reproduces.
+     *
+     * @return true if every reference position hashes to its published key
+     */
+    public boolean matchesReferenceKeys() {
+        for (int i = 0; i < REFERENCE_GAMES.length; i++) {
+            Position position = Position.STARTING;
+            for (String move : REFERENCE_GAMES[i].isEmpty() ? new String[0] : REFERENCE_GAMES[i].split(" ")) {
+                position = position.play(move);
+            }
+            if (hash(position) != REFERENCE_KEYS[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Computes the Polyglot key of a position.
+     *
+     * @param position the position
+     * @return the key
+     */
+    public long hash(Position position) {
+        long key = 0;
+        for (int piece = 0; piece < Piece.COUNT; piece++) {
+            // Polyglot orders pieces black pawn, white pawn, black knight, white knight, ...
+            int kind = Piece.type(piece) * 2 + (Piece.color(piece) == Piece.WHITE ? 1 : 0);
+            long squares = position.pieces(piece);
+            while (squares != 0) {
+                key ^= random64[kind * 64 + Long.numberOfTrailingZeros(squares)];
+                squares &= squares - 1;
+            }
+        }
+        int rights = position.getCastlingRights();
+        for (int i = 0; i < 4; i++) {
+            // Board's castling flags use the same order as Polyglot: white short, white long, black short, black long
+            if ((rights & (1 << i)) != 0) {
+                key ^= random64[CASTLING_OFFSET + i];
+            }
+        }
+        if (position.getEpSquare() >= 0) {
+            key ^= random64[EN_PASSANT_OFFSET + Bitboards.file(position.getEpSquare())];
+        }
+        if (position.getSideToMove() == Piece.WHITE) {
+            key ^= random64[TURN_OFFSET];
+        }
+        return key;
+    }
+}
@@ -0,0 +1,173 @@
+package com.nashss.se.chessplayerservice.chess;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * An immutable chess position.
+ * <p>
+ * A position is twelve bitboards plus the side to move, castling rights, en passant square and move counters, so it
+ * is cheap to keep around and safe to share between threads. Playing a move returns a new position and leaves this
+ * one untouched; use a {@link Board} instead when walking a search tree.
+ */
+public final class Position {
+    public static final Position STARTING = Fen.parse(Fen.STARTING_FEN);
+
+    private final long[] pieces;
+    private final int sideToMove;
+    private final int castlingRights;
+    private final int epSquare;
+    private final int halfmoveClock;
+    private final int fullmoveNumber;
+    private final long key;
+
+    /**
+     * Creates a position. The bitboard array is owned by the new position and must not be modified afterwards.
+     *
+     * @param pieces one bitboard per colored piece, indexed by {@link Piece#of(int, int)}
+     * @param sideToMove {@link Piece#WHITE} or {@link Piece#BLACK}
+     * @param castlingRights the {@link Board} castling right flags
+     * @param epSquare the en passant target square, or -1
+     * @param halfmoveClock plies since the last capture or pawn move
+     * @param fullmoveNumber the move number, starting at 1
+     */
+    Position(long[] pieces, int sideToMove, int castlingRights, int epSquare, int halfmoveClock,
+             int fullmoveNumber) {
+        this.pieces = pieces;
+        this.sideToMove = sideToMove;
+        this.castlingRights = castlingRights;
+        this.epSquare = epSquare;
+        this.halfmoveClock = halfmoveClock;
+        this.fullmoveNumber = fullmoveNumber;
+        this.key = Zobrist.hash(this);
+    }
+
+    /**
+     * Parses a position in Forsyth-Edwards Notation.
+     *
+     * @param fen the FEN text
+     * @return the position
+     */
+    public static Position fromFen(CharSequence fen) {
+        return Fen.parse(fen);
+    }
+
+    /**
+     * Writes the position in Forsyth-Edwards Notation.
+     *
+     * @return the FEN text
+     */
+    public String toFen() {
+        return Fen.format(this);
+    }
+
+    /**
+     * Plays a move given in UCI notation.
+     *
+     * @param uciMove the move, for example "e2e4", "e1g1" or "e7e8q"
+     * @return the position after the move
+     * @throws IllegalArgumentException if the move is not legal in this position
+     */
+    public Position play(String uciMove) {
+        Board board = toBoard();
+        board.play(uciMove);
+        return board.toPosition();
+    }
+
+    /**
+     * Lists every legal move of the side to move in UCI notation.
+     *
+     * @return the legal moves
+     */
+    public List<String> legalMoves() {
+        return MoveGenerator.legalMoves(toBoard());
+    }
+
+    /**
+     * Sets up a mutable board holding this position.
+     *
+     * @return a new board
+     */
+    public Board toBoard() {
+        return Board.fromPosition(this);
+    }
+
+    /**
+     * Gets the squares holding a colored piece.
+     *
+     * @param piece a colored piece
+     * @return the bitboard of that piece
+     */
+    public long pieces(int piece) {
+        return pieces[piece];
+    }
+
+    /**
+     * Gets the piece on a square.
+     *
+     * @param square a square from 0 to 63
+     * @return the colored piece, or {@link Piece#NONE} if the square is empty
+     */
+    public int pieceAt(int square) {
+        long bit = Bitboards.bit(square);
+        for (int piece = 0; piece < Piece.COUNT; piece++) {
+            if ((pieces[piece] & bit) != 0) {
+                return piece;
+            }
+        }
+        return Piece.NONE;
+    }
+
+    public int getSideToMove() {
+        return sideToMove;
+    }
+
+    public int getCastlingRights() {
+        return castlingRights;
+    }
+
+    public int getEpSquare() {
+        return epSquare;
+    }
+
+    public int getHalfmoveClock() {
+        return halfmoveClock;
+    }
+
+    public int getFullmoveNumber() {
+        return fullmoveNumber;
+    }
+
+    public long getKey() {
+        return key;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        Position position = (Position) o;
+        return sideToMove == position.sideToMove && castlingRights == position.castlingRights &&
+                epSquare == position.epSquare && halfmoveClock == position.halfmoveClock &&
+                fullmoveNumber == position.fullmoveNumber && Arrays.equals(pieces, position.pieces);
+    }
+
+    @Override
+    public int hashCode() {
+        int result = Arrays.hashCode(pieces);
+        result = 31 * result + sideToMove;
+        result = 31 * result + castlingRights;
+        result = 31 * result + epSquare;
+        result = 31 * result + halfmoveClock;
+        return 31 * result + fullmoveNumber;
+    }
+
+    @Override
+    public String toString() {
+        return toFen();
+    }
+}
@@ -0,0 +1,88 @@
+package com.nashss.se.chessplayerservice.chess;
+
+import java.util.Arrays;
+
+/**
+ * The Zobrist keys of every position reached in a game, oldest first, kept in a growable {@code long[]}.
+ * <p>
+ * A position can only repeat since the last capture, pawn move or loss of castling rights, and each of those resets
+ * the halfmove clock or changes the key for good, so a repetition count only has to look back as many plies as the
+ * halfmove clock, and only at positions with the same side to move.
+ */
+public final class RepetitionHistory {
+    private static final int INITIAL_CAPACITY = 128;
+
+    private long[] keys = new long[INITIAL_CAPACITY];
+    private int size;
+
+    /**
+     * Replays a game from the starting position.
+     *
+     * @param moves the game's moves in UCI notation separated by spaces, or null if none have been played
+     * @return the history, holding the starting position followed by one key per move
+     */
+    public static RepetitionHistory fromMoves(String moves) {
+        RepetitionHistory history = new RepetitionHistory();
+        Board board = Position.STARTING.toBoard();
+        history.push(board.getKey());
+        if (moves == null) {
+            return history;
+        }
+        int length = moves.length();
+        int start = 0;
+        while (start < length) {
+            int end = moves.indexOf(' ', start);
+            if (end < 0) {
+                end = length;
+            }
+            if (end > start) {
+                board.play(moves.substring(start, end));
+                history.push(board.getKey());
+            }
+            start = end + 1;
+        }
+        return history;
+    }
+
+    /**
+     * Records the position reached by the latest move.
+     *
+     * @param key the position's Zobrist key
+     */
+    public void push(long key) {
+        if (size == keys.length) {
+            keys = Arrays.copyOf(keys, size * 2);
+        }
+        keys[size++] = key;
+    }
+
+    /**
+     * Counts how many times the latest position has occurred, including this occurrence.
+     *
+     * @param halfmoveClock the latest position's halfmove clock
+     * @return the number of occurrences, at least 1 once a position has been recorded
+     */
+    public int occurrences(int halfmoveClock) {
+        if (size == 0) {
+            return 0;
+        }
+        long current = keys[size - 1];
+        int oldest = Math.max(0, size - 1 - halfmoveClock);
+        int count = 1;
+        for (int i = size - 3; i >= oldest; i -= 2) {
+            if (keys[i] == current) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Gets the number of positions recorded.
+     *
+     * @return the number of positions, one more than the number of moves
+     */
+    public int size() {
+        return size;
+    }
+}
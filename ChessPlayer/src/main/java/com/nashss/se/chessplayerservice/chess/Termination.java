@@ -0,0 +1,32 @@
+package com.nashss.se.chessplayerservice.chess;
+
+/**
+ * The ways a game can end on the board, or {@link #NONE} if it goes on.
+ */
+public enum Termination {
+    NONE(false),
+    CHECKMATE(false),
+    STALEMATE(true),
+    FIFTY_MOVE_RULE(true),
+    INSUFFICIENT_MATERIAL(true),
+    THREEFOLD_REPETITION(true),
+    FIVEFOLD_REPETITION(true);
+
+    private final boolean draw;
+
+    /**
+     * Creates a termination.
+     * @param draw whether the game ends in a draw
+     */
+    Termination(boolean draw) {
+        this.draw = draw;
+    }
+
+    public boolean isDraw() {
+        return draw;
+    }
+
+    public boolean isGameOver() {
+        return this != NONE;
+    }
+}
@@ -0,0 +1,111 @@
+package com.nashss.se.chessplayerservice.chess;
+
+/**
+ * Decides whether a position ends the game without asking the engine.
+ * <p>
+ * The checks only read bitboards and reuse a per-thread move buffer, so a verdict costs one legal move generation
+ * and allocates nothing once the thread has warmed up.
+ */
+public final class TerminationDetector {
+    private static final int FIFTY_MOVE_PLIES = 100;
+    private static final int THREEFOLD = 3;
+    private static final int FIVEFOLD = 5;
+
+    private static final ThreadLocal<int[]> MOVE_BUFFER =
+            ThreadLocal.withInitial(() -> new int[MoveGenerator.MAX_MOVES]);
+
+    private TerminationDetector() {
+    }
+
+    /**
+     * Decides whether a position ends the game.
+     *
+     * @param fen the position in Forsyth-Edwards Notation
+     * @return the termination, or {@link Termination#NONE} if the game goes on
+     */
+    public static Termination detect(String fen) {
+        return detect(Board.fromFen(fen));
+    }
+
+    /**
+     * Decides whether a position ends the game.
+     *
+     * @param position the position
+     * @return the termination, or {@link Termination#NONE} if the game goes on
+     */
+    public static Termination detect(Position position) {
+        return detect(position.toBoard());
+    }
+
+    /**
+     * Decides whether a position ends the game, including by repetition. A repetition only ends the game once the
+     * position has no mate or stalemate on the board.
+     *
+     * @param position the position
+     * @param history the game's positions, ending with this one
+     * @return the termination, or {@link Termination#NONE} if the game goes on
+     */
+    public static Termination detect(Position position, RepetitionHistory history) {
+        Termination termination = detect(position);
+        if (termination == Termination.CHECKMATE || termination == Termination.STALEMATE) {
+            return termination;
+        }
+        int occurrences = history.occurrences(position.getHalfmoveClock());
+        if (occurrences >= FIVEFOLD) {
+            return Termination.FIVEFOLD_REPETITION;
+        }
+        if (occurrences >= THREEFOLD) {
+            return Termination.THREEFOLD_REPETITION;
+        }
+        return termination;
+    }
+
+    /**
+     * Decides whether a position ends the game. Checkmate and stalemate take precedence over the
+     * fifty-move rule, which takes precedence over insufficient material.
+     *
+     * @param board the position
+     * @return the termination, or {@link Termination#NONE} if the game goes on
+     */
+    public static Termination detect(Board board) {
+        if (MoveGenerator.generateLegalMoves(board, MOVE_BUFFER.get()) == 0) {
+            return board.isInCheck() ? Termination.CHECKMATE : Termination.STALEMATE;
+        }
+        if (board.getHalfmoveClock() >= FIFTY_MOVE_PLIES) {
+            return Termination.FIFTY_MOVE_RULE;
+        }
+        if (isInsufficientMaterial(board)) {
+            return Termination.INSUFFICIENT_MATERIAL;
+        }
+        return Termination.NONE;
+    }
+
+    /**
+     * Checks whether neither side can possibly deliver mate: king against king, a lone minor piece against a bare
+     * king, or any number of bishops that all stand on squares of the same color.
+     *
+     * @param board the position
+     * @return true if the position is a dead draw by material
+     */
+    public static boolean isInsufficientMaterial(Board board) {
+        long heavyOrPawns = 0;
+        for (int color = Piece.WHITE; color <= Piece.BLACK; color++) {
+            heavyOrPawns |= board.pieces(Piece.of(color, Piece.PAWN)) |
+                    board.pieces(Piece.of(color, Piece.ROOK)) |
+                    board.pieces(Piece.of(color, Piece.QUEEN));
+        }
+        if (heavyOrPawns != 0) {
+            return false;
+        }
+        long knights = board.pieces(Piece.of(Piece.WHITE, Piece.KNIGHT)) |
+                board.pieces(Piece.of(Piece.BLACK, Piece.KNIGHT));
+        long bishops = board.pieces(Piece.of(Piece.WHITE, Piece.BISHOP)) |
+                board.pieces(Piece.of(Piece.BLACK, Piece.BISHOP));
+        int minors = Long.bitCount(knights | bishops);
+        if (minors <= 1) {
+            return true;
+        }
+        return knights == 0 &&
+                ((bishops & Bitboards.LIGHT_SQUARES) == 0 || (bishops & Bitboards.DARK_SQUARES) == 0);
+    }
+}
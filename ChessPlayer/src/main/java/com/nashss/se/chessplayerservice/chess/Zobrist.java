@@ -0,0 +1,116 @@
+package com.nashss.se.chessplayerservice.chess;
+
+/**
+ * Zobrist hash keys.
+ * <p>
+ * A position's key is the exclusive or of one random number per piece on its square, one per castling right still
+ * held, one for the en passant file when a capture there is possible, and one when black is to move. Because every
+ * component is its own xor, a {@link Board} can update its key incrementally as pieces move. The numbers come from a
+ * fixed-seed generator so keys are stable across processes and can be stored.
+ */
+public final class Zobrist {
+    private static final long SEED = 0x2545F4914F6CDD1DL;
+
+    private static final long[] PIECE_SQUARE = new long[Piece.COUNT * 64];
+    private static final long[] CASTLING = new long[16];
+    private static final long[] EN_PASSANT_FILE = new long[8];
+    private static final long SIDE;
+
+    static {
+        long state = SEED;
+        for (int i = 0; i < PIECE_SQUARE.length; i++) {
+            state += 0x9E3779B97F4A7C15L;
+            PIECE_SQUARE[i] = mix(state);
+        }
+        long[] rights = new long[4];
+        for (int i = 0; i < rights.length; i++) {
+            state += 0x9E3779B97F4A7C15L;
+            rights[i] = mix(state);
+        }
+        for (int flags = 0; flags < CASTLING.length; flags++) {
+            for (int i = 0; i < rights.length; i++) {
+                if ((flags & (1 << i)) != 0) {
+                    CASTLING[flags] ^= rights[i];
+                }
+            }
+        }
+        for (int i = 0; i < EN_PASSANT_FILE.length; i++) {
+            state += 0x9E3779B97F4A7C15L;
+            EN_PASSANT_FILE[i] = mix(state);
+        }
+        state += 0x9E3779B97F4A7C15L;
+        SIDE = mix(state);
+    }
+
+    private Zobrist() {
+    }
+
+    /**
+     * Gets the key of a piece standing on a square.
+     *
+     * @param piece a colored piece
+     * @param square a square from 0 to 63
+     * @return the key
+     */
+    public static long piece(int piece, int square) {
+        return PIECE_SQUARE[piece * 64 + square];
+    }
+
+    /**
+     * Gets the combined key of a set of castling rights.
+     *
+     * @param rights the {@link Board} castling right flags
+     * @return the key, 0 when no rights are held
+     */
+    public static long castling(int rights) {
+        return CASTLING[rights];
+    }
+
+    /**
+     * Gets the key of an en passant square.
+     *
+     * @param square the en passant target square, or -1
+     * @return the key of its file, 0 when there is no en passant square
+     */
+    public static long enPassant(int square) {
+        return square < 0 ? 0 : EN_PASSANT_FILE[Bitboards.file(square)];
+    }
+
+    /**
+     * Gets the key that is toggled every time the side to move changes.
+     *
+     * @return the key
+     */
+    public static long side() {
+        return SIDE;
+    }
+
+    /**
+     * Computes a position's key from scratch.
+     *
+     * @param position the position
+     * @return the key
+     */
+    public static long hash(Position position) {
+        long key = castling(position.getCastlingRights()) ^ enPassant(position.getEpSquare());
+        if (position.getSideToMove() == Piece.BLACK) {
+            key ^= SIDE;
+        }
+        for (int piece = 0; piece < Piece.COUNT; piece++) {
+            long squares = position.pieces(piece);
+            while (squares != 0) {
+                key ^= piece(piece, Long.numberOfTrailingZeros(squares));
+                squares &= squares - 1;
+            }
+        }
+        return key;
+    }
+
+    private static long mix(long value) {
+        // SplitMix64 finalizer
+        long z = value;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -0,0 +1,25 @@
+package com.nashss.se.chessplayerservice.dependency;
+
+import com.amazonaws.regions.Regions;
+import com.amazonaws.services.cloudwatch.AmazonCloudWatch;
+import com.amazonaws.services.cloudwatch.AmazonCloudWatchClientBuilder;
+import dagger.Module;
+import dagger.Provides;
+
+import javax.inject.Singleton;
+
+@Module
+public class MetricsModule {
+
+    /**
+     * Provides a CloudWatch client for publishing metrics.
+     * @return AmazonCloudWatch
+     */
+    @Singleton
+    @Provides
+    public AmazonCloudWatch provideCloudWatch() {
+        return AmazonCloudWatchClientBuilder.standard()
+                .withRegion(Regions.US_EAST_2)
+                .build();
+    }
+}
@@ -1,5 +1,6 @@
 package com.nashss.se.chessplayerservice.dependency;
 
+import com.nashss.se.chessplayerservice.activity.AnalyzeGameActivity;
 import com.nashss.se.chessplayerservice.activity.CreateNewGameActivity;
 import com.nashss.se.chessplayerservice.activity.CreateUserActivity;
 import com.nashss.se.chessplayerservice.activity.GetAllGamesActivity;
@@ -19,7 +20,7 @@ import javax.inject.Singleton;
  * Dagger component for providing dependency injection in the Chess Player Service.
  */
 @Singleton
-@Component(modules = {DaoModule.class, StockfishModule.class})
+@Component(modules = {DaoModule.class, MetricsModule.class, StockfishModule.class})
 public interface ServiceComponent {
 
     /**
@@ -81,4 +82,10 @@ public interface ServiceComponent {
      * @return HideGamesActivity
      */
     HideGamesActivity provideHideGamesActivity();
+
+    /**
+     * Provides the relevant activity.
+     * @return AnalyzeGameActivity
+     */
+    AnalyzeGameActivity provideAnalyzeGameActivity();
 }
@@ -1,6 +1,23 @@
 package com.nashss.se.chessplayerservice.dependency;
 
-import com.nashss.se.chessplayerservice.engine.Stockfish;
+import com.nashss.se.chessplayerservice.engine.BestMoveCache;
+import com.nashss.se.chessplayerservice.engine.ChessEngine;
+import com.nashss.se.chessplayerservice.engine.EngineBackend;
+import com.nashss.se.chessplayerservice.engine.EngineBinary;
+import com.nashss.se.chessplayerservice.engine.EngineConfiguration;
+import com.nashss.se.chessplayerservice.engine.FakeEngine;
+import com.nashss.se.chessplayerservice.engine.GameAnalyzer;
+import com.nashss.se.chessplayerservice.engine.JavaEngine;
+import com.nashss.se.chessplayerservice.engine.NativeEngine;
+import com.nashss.se.chessplayerservice.engine.OpeningBook;
+import com.nashss.se.chessplayerservice.engine.PonderingEngine;
+import com.nashss.se.chessplayerservice.engine.RemoteEngine;
+import com.nashss.se.chessplayerservice.engine.SearchBudget;
+import com.nashss.se.chessplayerservice.engine.SpeculativeSearch;
+import com.nashss.se.chessplayerservice.engine.StockfishPool;
+import com.nashss.se.chessplayerservice.engine.SyzygyTablebase;
+import com.nashss.se.chessplayerservice.metrics.MetricsConstants;
+import com.nashss.se.chessplayerservice.metrics.MetricsPublisher;
 
 import dagger.Module;
 import dagger.Provides;
@@ -11,12 +28,139 @@ import javax.inject.Singleton;
 public class StockfishModule {
 
     /**
-     * Provides the stockfish engine.
-     * @return Stockfish
+     * Provides the engine binary, provisioned once per container when the first engine starts. The time that takes
+     * is published as a startup metric.
+     * @param metricsPublisher publishes the provisioning time
+     * @return EngineBinary
      */
     @Singleton
     @Provides
-    Stockfish provideStockfish() {
-        return new Stockfish();
+    EngineBinary provideEngineBinary(MetricsPublisher metricsPublisher) {
+        return new EngineBinary(millis -> metricsPublisher.addTime(MetricsConstants.ENGINE_PROVISIONING_TIME, millis));
+    }
+
+    /**
+     * Provides the pool of warm stockfish engines, shared across invocations of the same container. Its size is
+     * read from the "ENGINE_POOL_SIZE" environment variable, so functions that search in parallel can have more.
+     * The engines' threads and hash tables share the function's processors and memory between them.
+     * @param engineBinary the engine binary the pool starts
+     * @return StockfishPool
+     */
+    @Singleton
+    @Provides
+    StockfishPool provideStockfishPool(EngineBinary engineBinary) {
+        String size = System.getenv(StockfishPool.POOL_SIZE_VARIABLE);
+        int poolSize = size == null ? StockfishPool.DEFAULT_POOL_SIZE : Integer.parseInt(size);
+        return new StockfishPool(poolSize, engineBinary, EngineConfiguration.detect(poolSize));
+    }
+
+    /**
+     * Provides the cache of best moves already found, shared across invocations of the same container.
+     * @return BestMoveCache
+     */
+    @Singleton
+    @Provides
+    BestMoveCache provideBestMoveCache() {
+        return new BestMoveCache(BestMoveCache.DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Provides the opening book shipped next to the engine, memory-mapped once per container.
+     * @return OpeningBook
+     */
+    @Singleton
+    @Provides
+    OpeningBook provideOpeningBook() {
+        return OpeningBook.load();
+    }
+
+    /**
+     * Provides the endgame tablebases shipped next to the engine, opened lazily as positions need them.
+     * @return SyzygyTablebase
+     */
+    @Singleton
+    @Provides
+    SyzygyTablebase provideSyzygyTablebase() {
+        return SyzygyTablebase.load();
+    }
+
+    /**
+     * Provides the search budget, whose latency estimates are shared across invocations of the same container.
+     * @return SearchBudget
+     */
+    @Singleton
+    @Provides
+    SearchBudget provideSearchBudget() {
+        return new SearchBudget(SearchBudget.DEFAULT_TARGET_LATENCY_MILLIS);
+    }
+
+    /**
+     * Provides the in-process engine that plays the easiest bots.
+     * @return JavaEngine
+     */
+    @Singleton
+    @Provides
+    JavaEngine provideJavaEngine() {
+        return new JavaEngine();
+    }
+
+    /**
+     * Provides the engine backend named by the "ENGINE_BACKEND" environment variable, the native engine by default.
+     * @param stockfishPool the pool the native backend leases from
+     * @param javaEngine the in-process engine
+     * @return ChessEngine
+     */
+    @Singleton
+    @Provides
+    ChessEngine provideChessEngine(StockfishPool stockfishPool, JavaEngine javaEngine) {
+        ChessEngine engine;
+        switch (EngineBackend.fromName(System.getenv(EngineBackend.ENVIRONMENT_VARIABLE))) {
+            case PONDERING:
+                engine = new PonderingEngine(stockfishPool);
+                break;
+            case JAVA:
+                engine = javaEngine;
+                break;
+            case FAKE:
+                engine = new FakeEngine();
+                break;
+            case REMOTE:
+                engine = RemoteEngine.fromEndpoints(System.getenv(RemoteEngine.ENDPOINT_VARIABLE));
+                break;
+            default:
+                engine = new NativeEngine(stockfishPool);
+                break;
+        }
+        return engine;
+    }
+
+    /**
+     * Provides the speculative search, whose background thread and answers are shared across invocations of the same
+     * container. It is only turned on by setting the "SPECULATIVE_SEARCH" environment variable to "true", since a
+     * frozen Lambda container cannot work while the player thinks.
+     * @param engine the configured engine backend
+     * @param openingBook the opening book
+     * @return SpeculativeSearch
+     */
+    @Singleton
+    @Provides
+    SpeculativeSearch provideSpeculativeSearch(ChessEngine engine, OpeningBook openingBook) {
+        if (!SpeculativeSearch.enabledBy(System.getenv(SpeculativeSearch.ENVIRONMENT_VARIABLE))) {
+            return SpeculativeSearch.disabled();
+        }
+        return new SpeculativeSearch(engine, openingBook, SpeculativeSearch.newBackgroundExecutor(),
+                SpeculativeSearch.DEFAULT_REPLIES, SpeculativeSearch.DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Provides the game analyzer, which runs as many searches at once as the pool has engines.
+     * @param engine the configured engine backend
+     * @param stockfishPool the pool of warm stockfish engines
+     * @return GameAnalyzer
+     */
+    @Singleton
+    @Provides
+    GameAnalyzer provideGameAnalyzer(ChessEngine engine, StockfishPool stockfishPool) {
+        return new GameAnalyzer(engine, stockfishPool.getPoolSize(), GameAnalyzer.DEFAULT_DEPTH);
     }
 }
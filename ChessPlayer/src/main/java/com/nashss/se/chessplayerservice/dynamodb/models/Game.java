@@ -4,6 +4,7 @@ import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBAttribute;
 import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBHashKey;
 import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBTable;
 
+import java.util.List;
 import java.util.Objects;
 
 import javax.annotation.Nonnull;
@@ -21,6 +22,8 @@ public class Game {
     private String blackPlayerUsername;
     private Integer botDifficulty;
     private String isVisible;
+    private List<PlyAnalysis> analysis;
+    private String tablebaseWinner;
 
     @DynamoDBHashKey(attributeName = "gameId")
     public String getGameId() {
@@ -112,6 +115,30 @@ public class Game {
         this.isVisible = isVisible;
     }
 
+    @DynamoDBAttribute(attributeName = "analysis")
+    public List<PlyAnalysis> getAnalysis() {
+        return analysis;
+    }
+
+    public void setAnalysis(List<PlyAnalysis> analysis) {
+        this.analysis = analysis;
+    }
+
+    /**
+     * Gets the side the endgame tablebases say wins with perfect play from the last position they decided, named
+     * like the winner: "white", "black" or "draw".
+     *
+     * @return the perfect-play result, or null if the game has not reached a tablebase position
+     */
+    @DynamoDBAttribute(attributeName = "tablebaseWinner")
+    public String getTablebaseWinner() {
+        return tablebaseWinner;
+    }
+
+    public void setTablebaseWinner(String tablebaseWinner) {
+        this.tablebaseWinner = tablebaseWinner;
+    }
+
     @Override
     public String toString() {
         return "Game{" +
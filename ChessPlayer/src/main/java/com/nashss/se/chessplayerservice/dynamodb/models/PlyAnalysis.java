@@ -0,0 +1,109 @@
+package com.nashss.se.chessplayerservice.dynamodb.models;
+
+import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBAttribute;
+import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBDocument;
+
+import java.util.Objects;
+
+/**
+ * The engine's analysis of the position before one ply of a {@link Game}. Scores are from white's point of view so
+ * that a replay can chart them without knowing whose turn it was.
+ */
+@DynamoDBDocument
+public class PlyAnalysis {
+
+    private Integer ply;
+    private String move;
+    private String bestMove;
+    private Integer scoreCp;
+    private Integer mateIn;
+    private Integer depth;
+
+    @DynamoDBAttribute(attributeName = "ply")
+    public Integer getPly() {
+        return ply;
+    }
+
+    public void setPly(Integer ply) {
+        this.ply = ply;
+    }
+
+    @DynamoDBAttribute(attributeName = "move")
+    public String getMove() {
+        return move;
+    }
+
+    public void setMove(String move) {
+        this.move = move;
+    }
+
+    @DynamoDBAttribute(attributeName = "bestMove")
+    public String getBestMove() {
+        return bestMove;
+    }
+
+    public void setBestMove(String bestMove) {
+        this.bestMove = bestMove;
+    }
+
+    @DynamoDBAttribute(attributeName = "scoreCp")
+    public Integer getScoreCp() {
+        return scoreCp;
+    }
+
+    public void setScoreCp(Integer scoreCp) {
+        this.scoreCp = scoreCp;
+    }
+
+    @DynamoDBAttribute(attributeName = "mateIn")
+    public Integer getMateIn() {
+        return mateIn;
+    }
+
+    public void setMateIn(Integer mateIn) {
+        this.mateIn = mateIn;
+    }
+
+    @DynamoDBAttribute(attributeName = "depth")
+    public Integer getDepth() {
+        return depth;
+    }
+
+    public void setDepth(Integer depth) {
+        this.depth = depth;
+    }
+
+    @Override
+    public String toString() {
+        return "PlyAnalysis{" +
+                "ply=" + ply +
+                ", move='" + move + '\'' +
+                ", bestMove='" + bestMove + '\'' +
+                ", scoreCp=" + scoreCp +
+                ", mateIn=" + mateIn +
+                ", depth=" + depth +
+                '}';
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        PlyAnalysis that = (PlyAnalysis) o;
+        return Objects.equals(ply, that.ply) &&
+                Objects.equals(move, that.move) &&
+                Objects.equals(bestMove, that.bestMove) &&
+                Objects.equals(scoreCp, that.scoreCp) &&
+                Objects.equals(mateIn, that.mateIn) &&
+                Objects.equals(depth, that.depth);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(ply, move, bestMove, scoreCp, mateIn, depth);
+    }
+}
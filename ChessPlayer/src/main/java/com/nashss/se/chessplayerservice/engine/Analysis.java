@@ -0,0 +1,126 @@
+package com.nashss.se.chessplayerservice.engine;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The result of analysing a position at full strength: the best move, its score and the line the engine expects.
+ * Scores are from the point of view of the side to move.
+ */
+public final class Analysis {
+    private final String bestMove;
+    private final int scoreCp;
+    private final Integer mateIn;
+    private final int depth;
+    private final List<String> principalVariation;
+
+    /**
+     * Instantiates a new Analysis.
+     *
+     * @param bestMove the best move in UCI notation
+     * @param scoreCp the score in centipawns, ignored when there is a forced mate
+     * @param mateIn moves until mate, negative when the side to move is mated, or null if there is no forced mate
+     * @param depth the depth the search completed
+     * @param principalVariation the expected line, starting with the best move
+     */
+    public Analysis(String bestMove, int scoreCp, Integer mateIn, int depth, List<String> principalVariation) {
+        this.bestMove = bestMove;
+        this.scoreCp = scoreCp;
+        this.mateIn = mateIn;
+        this.depth = depth;
+        this.principalVariation = Collections.unmodifiableList(new ArrayList<>(principalVariation));
+    }
+
+    /**
+     * Creates an analysis from the last search info of a completed search.
+     *
+     * @param info the deepest completed iteration's info, or one without a score if the engine printed none
+     * @param bestMove the engine's best move in UCI notation
+     * @return the analysis
+     */
+    public static Analysis fromSearchInfo(SearchInfo info, String bestMove) {
+        List<String> line = info.getPvLength() == 0 ? List.of(bestMove) : info.getPrincipalVariation();
+        return new Analysis(bestMove, info.getScoreCp(), info.getMateIn(), info.getDepth(), line);
+    }
+
+    /**
+     * Reads an analysis from the output of a UCI search. The last "info" line with a score holds the deepest
+     * completed iteration.
+     *
+     * @param output the engine's output for the search, ending with the "bestmove" line
+     * @return the analysis
+     */
+    public static Analysis fromSearchOutput(List<String> output) {
+        String bestMove = bestMoveOf(output);
+        SearchInfo info = new SearchInfo();
+        for (int i = output.size() - 1; i >= 0; i--) {
+            if (UciInfoParser.parse(output.get(i), info) && info.hasScore()) {
+                return fromSearchInfo(info, bestMove);
+            }
+        }
+        info.reset();
+        return fromSearchInfo(info, bestMove);
+    }
+
+    /**
+     * Reads every line of a UCI search made with "MultiPV" above 1. The last "info" line of each "multipv" number
+     * holds that line's deepest completed iteration.
+     *
+     * @param output the engine's output for the search, ending with the "bestmove" line
+     * @return the lines, best first
+     */
+    public static List<Analysis> linesFromSearchOutput(List<String> output) {
+        List<Analysis> lines = new ArrayList<>();
+        SearchInfo info = new SearchInfo();
+        for (int i = output.size() - 1; i >= 0; i--) {
+            if (!UciInfoParser.parse(output.get(i), info) || !info.hasScore() || info.getPvLength() == 0) {
+                continue;
+            }
+            while (lines.size() < info.getMultiPv()) {
+                lines.add(null);
+            }
+            if (lines.get(info.getMultiPv() - 1) == null) {
+                lines.set(info.getMultiPv() - 1, fromSearchInfo(info, info.getPvMove(0)));
+            }
+        }
+        lines.removeIf(line -> line == null);
+        return lines.isEmpty() ? List.of(fromSearchOutput(output)) : lines;
+    }
+
+    /**
+     * Reads the best move from the "bestmove" line that ends a UCI search.
+     *
+     * @param output the engine's output for the search
+     * @return the best move in UCI notation
+     */
+    static String bestMoveOf(List<String> output) {
+        return output.get(output.size() - 1).trim().split(" ")[1];
+    }
+
+    public String getBestMove() {
+        return bestMove;
+    }
+
+    public int getScoreCp() {
+        return scoreCp;
+    }
+
+    public Integer getMateIn() {
+        return mateIn;
+    }
+
+    public int getDepth() {
+        return depth;
+    }
+
+    public List<String> getPrincipalVariation() {
+        return principalVariation;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Analysis{bestMove=%s, score=%s, depth=%d, pv=%s}", bestMove,
+                mateIn == null ? scoreCp + "cp" : "mate " + mateIn, depth, principalVariation);
+    }
+}
@@ -0,0 +1,149 @@
+package com.nashss.se.chessplayerservice.engine;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Remembers the engine's best move for positions it has already searched, so that popular lines are answered with a
+ * map lookup instead of a search.
+ * <p>
+ * Entries are keyed by the position, the skill level and the search limit, since the engine can pick a different move
+ * when either of those changes. The halfmove clock and fullmove number are left out of the position so that the same
+ * position reached by a different move order shares an entry. The least recently used entry is evicted once the cache
+ * is full.
+ */
+public class BestMoveCache {
+    public static final int DEFAULT_CAPACITY = 10_000;
+
+    private final Map<CacheKey, String> entries;
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final int capacity;
+
+    /**
+     * Instantiates a new BestMoveCache.
+     *
+     * @param capacity the maximum number of positions remembered
+     */
+    public BestMoveCache(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Capacity must be at least 1");
+        }
+        this.capacity = capacity;
+        this.entries = new LinkedHashMap<CacheKey, String>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<CacheKey, String> eldest) {
+                return size() > BestMoveCache.this.capacity;
+            }
+        };
+    }
+
+    /**
+     * Looks up the best move found earlier for a position.
+     *
+     * @param fen the position in Forsyth-Edwards Notation
+     * @param skillLevel the engine skill level the move was searched with
+     * @param searchLimit the search limit the move was searched with, such as "movetime 500"
+     * @return the move in UCI notation, or null if the position has not been searched with these settings
+     */
+    public String get(String fen, Integer skillLevel, String searchLimit) {
+        String move;
+        synchronized (entries) {
+            move = entries.get(new CacheKey(normalize(fen), skillLevel, searchLimit));
+        }
+        if (move == null) {
+            misses.incrementAndGet();
+        } else {
+            hits.incrementAndGet();
+        }
+        return move;
+    }
+
+    /**
+     * Remembers the best move for a position.
+     *
+     * @param fen the position in Forsyth-Edwards Notation
+     * @param skillLevel the engine skill level the move was searched with
+     * @param searchLimit the search limit the move was searched with, such as "movetime 500"
+     * @param move the move in UCI notation
+     */
+    public void put(String fen, Integer skillLevel, String searchLimit, String move) {
+        CacheKey key = new CacheKey(normalize(fen), skillLevel, searchLimit);
+        synchronized (entries) {
+            entries.put(key, move);
+        }
+    }
+
+    /**
+     * Gets the number of positions currently remembered.
+     *
+     * @return the number of entries
+     */
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    /**
+     * Strips the halfmove clock and fullmove number from a FEN, keeping the placement, side to move, castling rights
+     * and en passant square.
+     *
+     * @param fen the position in Forsyth-Edwards Notation
+     * @return the first four fields of the FEN
+     */
+    static String normalize(String fen) {
+        String trimmed = fen.trim();
+        int spaces = 0;
+        for (int i = 0; i < trimmed.length(); i++) {
+            if (trimmed.charAt(i) == ' ' && ++spaces == 4) {
+                return trimmed.substring(0, i);
+            }
+        }
+        return trimmed;
+    }
+
+    private static final class CacheKey {
+        private final String fen;
+        private final Integer skillLevel;
+        private final String searchLimit;
+
+        private CacheKey(String fen, Integer skillLevel, String searchLimit) {
+            this.fen = fen;
+            this.skillLevel = skillLevel;
+            this.searchLimit = searchLimit;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            CacheKey cacheKey = (CacheKey) o;
+            return fen.equals(cacheKey.fen) && Objects.equals(skillLevel, cacheKey.skillLevel) &&
+                    Objects.equals(searchLimit, cacheKey.searchLimit);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(fen, skillLevel, searchLimit);
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package com.nashss.se.chessplayerservice.engine;
+
+import com.nashss.se.chessplayerservice.chess.Position;
+
+import java.util.List;
+import java.util.OptionalDouble;
+import java.util.OptionalLong;
+
+/**
+ * A chess engine backend. Every backend answers the same questions about a position, so the service, its tests and
+ * its benchmarks can run against the native Stockfish process, the in-process {@link JavaEngine}, the deterministic
+ * {@link FakeEngine} or a remote worker, as chosen by {@link EngineBackend}.
+ */
+public interface ChessEngine {
+
+    /**
+     * Chooses the move to play in a position.
+     *
+     * @param position the position, with at least one legal move
+     * @param profile the strength and node budget of the bot's difficulty
+     * @param moveTimeMillis the most time the search may take
+     * @return the move in UCI notation
+     */
+    String bestMove(Position position, EngineProfile profile, int moveTimeMillis);
+
+    /**
+     * Chooses the move to play in one of a game's positions. Backends that keep state between a game's moves, such
+     * as one that ponders during the opponent's turn, use the game ID; the others just search the position.
+     *
+     * @param gameId the game the position belongs to
+     * @param position the position, with at least one legal move
+     * @param profile the strength and node budget of the bot's difficulty
+     * @param moveTimeMillis the most time the search may take
+     * @return the move in UCI notation
+     */
+    default String bestMove(String gameId, Position position, EngineProfile profile, int moveTimeMillis) {
+        return bestMove(gameId, position, profile, moveTimeMillis, null);
+    }
+
+    /**
+     * Chooses the move to play in one of a game's positions, reporting the search's progress as it goes. Backends
+     * that run a UCI search give the listener its scored "info" lines, so the score, depth, node count and principal
+     * variation of every move can be collected without parsing; the others report nothing.
+     *
+     * @param gameId the game the position belongs to
+     * @param position the position, with at least one legal move
+     * @param profile the strength and node budget of the bot's difficulty
+     * @param moveTimeMillis the most time the search may take
+     * @param listener receives the search info, or null for none
+     * @return the move in UCI notation
+     */
+    default String bestMove(String gameId, Position position, EngineProfile profile, int moveTimeMillis,
+                            SearchInfoListener listener) {
+        return bestMove(position, profile, moveTimeMillis);
+    }
+
+    /**
+     * Lets go of anything kept for a game that has ended.
+     *
+     * @param gameId the game
+     */
+    default void endGame(String gameId) {
+    }
+
+    /**
+     * Lists the legal moves in a position.
+     *
+     * @param position the position
+     * @return the moves in UCI notation, empty when the game is over
+     */
+    List<String> legalMoves(Position position);
+
+    /**
+     * Evaluates a position without searching it.
+     *
+     * @param position the position
+     * @return the score in centipawns, positive when the side to move is better
+     */
+    int evaluate(Position position);
+
+    /**
+     * Analyses a position at full strength.
+     *
+     * @param position the position, with at least one legal move
+     * @param depth the depth to search to
+     * @return the best move, its score and the expected line
+     */
+    Analysis analyze(Position position, int depth);
+
+    /**
+     * Analyses one of a run of related positions at full strength, such as consecutive plies of a game. Backends that
+     * keep an engine's hash table between searches analyse a run on the same engine while it is free, so each search
+     * starts from what the one before it found; the others just analyse the position.
+     *
+     * @param runKey the key shared by every position of the run, or null for a position on its own
+     * @param position the position, with at least one legal move
+     * @param depth the depth to search to
+     * @return the best move, its score and the expected line
+     */
+    default Analysis analyze(String runKey, Position position, int depth) {
+        return analyze(position, depth);
+    }
+
+    /**
+     * Analyses the best few moves of a position at full strength, as with UCI's "MultiPV". Backends that can only
+     * find the best move return just that line.
+     *
+     * @param position the position, with at least one legal move
+     * @param depth the depth to search to
+     * @param lines the most moves to analyse
+     * @return an analysis per move, best first
+     */
+    default List<Analysis> analyzeLines(Position position, int depth, int lines) {
+        return List.of(analyze(position, depth));
+    }
+
+    /**
+     * Finds the best move in a position covered by the endgame tablebases, at full strength. Backends that cannot
+     * read the tables find nothing, and the position is searched as usual.
+     *
+     * @param position the position, with at least one legal move
+     * @param syzygyPath the directory holding the tablebase files
+     * @return the move and the outcome with perfect play for the side to move, or null if the backend has no tables
+     */
+    default TablebaseResult probeTablebase(Position position, String syzygyPath) {
+        return null;
+    }
+
+    /**
+     * Gets how long the calling thread has waited in line for the backend's engines since the last call, and starts
+     * counting again. Backends that never queue their callers measure nothing.
+     *
+     * @return the time spent waiting in milliseconds, or empty if the backend does not queue
+     */
+    default OptionalLong takeQueueWaitMillis() {
+        return OptionalLong.empty();
+    }
+
+    /**
+     * Measures the share of the backend's engine time that was in use since the last call, and starts measuring
+     * again. Backends without engines of their own to keep busy measure nothing.
+     *
+     * @return the utilization, from 0 for idle engines to 1 for engines that were never free, or empty if the backend
+     *     does not measure it
+     */
+    default OptionalDouble takeUtilization() {
+        return OptionalDouble.empty();
+    }
+}
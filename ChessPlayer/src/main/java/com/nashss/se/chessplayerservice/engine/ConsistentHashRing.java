@@ -0,0 +1,107 @@
+package com.nashss.se.chessplayerservice.engine;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Maps keys, such as game IDs, to one of a set of nodes, such as engine workers, so that a key keeps going to the
+ * same node.
+ * <p>
+ * Each node is placed on a ring of hashes at many points, its virtual nodes, and a key belongs to the first node at
+ * or after the key's own hash. Adding or removing a node only moves the keys next to its points, about one in every
+ * {@code nodes} keys, rather than reshuffling them all as {@code hash % nodes} would. Walking on around the ring from
+ * a key gives the order to fall back on when the key's node is busy, so a key's fallbacks are stable too.
+ *
+ * @param <T> the type of the nodes, identified on the ring by their {@link Object#toString()}
+ */
+public final class ConsistentHashRing<T> {
+    public static final int DEFAULT_VIRTUAL_NODES = 64;
+
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private final NavigableMap<Long, T> ring = new TreeMap<>();
+    private final int nodeCount;
+
+    /**
+     * Instantiates a new ConsistentHashRing.
+     *
+     * @param nodes the nodes, with distinct string forms
+     * @param virtualNodes the points each node has on the ring; more spread the keys more evenly
+     */
+    public ConsistentHashRing(Collection<T> nodes, int virtualNodes) {
+        if (nodes.isEmpty()) {
+            throw new IllegalArgumentException("The ring needs at least one node");
+        }
+        for (T node : nodes) {
+            for (int i = 0; i < virtualNodes; i++) {
+                ring.put(hash(node + "#" + i), node);
+            }
+        }
+        this.nodeCount = nodes.size();
+    }
+
+    /**
+     * Finds the node a key belongs to.
+     *
+     * @param key the key
+     * @return the key's node
+     */
+    public T nodeFor(String key) {
+        Map.Entry<Long, T> entry = ring.ceilingEntry(hash(key));
+        return entry == null ? ring.firstEntry().getValue() : entry.getValue();
+    }
+
+    /**
+     * Lists every node in the order a key should try them: its own node first, then the others in ring order.
+     *
+     * @param key the key
+     * @return each node once
+     */
+    public List<T> preferenceList(String key) {
+        Set<T> order = new LinkedHashSet<>();
+        long hash = hash(key);
+        collect(ring.tailMap(hash, true).values(), order);
+        collect(ring.headMap(hash, false).values(), order);
+        return new ArrayList<>(order);
+    }
+
+    public int getNodeCount() {
+        return nodeCount;
+    }
+
+    private void collect(Collection<T> points, Set<T> order) {
+        for (T node : points) {
+            if (order.size() == nodeCount) {
+                break;
+            }
+            order.add(node);
+        }
+    }
+
+    /**
+     * Hashes a string with 64-bit FNV-1a and a final mix, which spreads similar keys such as "game-1" and "game-2"
+     * over the whole ring, where {@link String#hashCode()} would place them side by side.
+     *
+     * @param value the string to hash
+     * @return the hash, a point on the ring
+     */
+    static long hash(String value) {
+        long hash = FNV_OFFSET_BASIS;
+        for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b & 0xff;
+            hash *= FNV_PRIME;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
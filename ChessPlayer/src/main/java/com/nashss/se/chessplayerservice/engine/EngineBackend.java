@@ -0,0 +1,42 @@
+package com.nashss.se.chessplayerservice.engine;
+
+import java.util.Locale;
+
+/**
+ * The engine backends the service can be configured to search with, chosen by the "ENGINE_BACKEND" environment
+ * variable.
+ */
+public enum EngineBackend {
+    /** Stockfish processes leased from the {@link StockfishPool}. */
+    NATIVE,
+    /**
+     * Stockfish processes that keep searching the expected reply between a game's moves, see {@link PonderingEngine}.
+     * Only worth it on hosts that keep running between requests.
+     */
+    PONDERING,
+    /** The in-process {@link JavaEngine}. */
+    JAVA,
+    /** The deterministic {@link FakeEngine}, for tests and benchmarks of everything but the search. */
+    FAKE,
+    /** A remote engine worker, see {@link RemoteEngine}. */
+    REMOTE;
+
+    public static final String ENVIRONMENT_VARIABLE = "ENGINE_BACKEND";
+
+    /**
+     * Looks up a backend by name, ignoring case.
+     *
+     * @param name the backend's name, or null or blank for the default
+     * @return the backend, {@link #NATIVE} by default
+     */
+    public static EngineBackend fromName(String name) {
+        if (name == null || name.isBlank()) {
+            return NATIVE;
+        }
+        try {
+            return valueOf(name.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown engine backend: " + name, e);
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package com.nashss.se.chessplayerservice.engine;
+
+import com.nashss.se.chessplayerservice.chess.Position;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Measures the engine's search speed, in nodes per second, for each combination of "Threads" and "Hash", so the
+ * function's memory size, and with it its CPU share, can be chosen for cost.
+ * <p>
+ * Run it on the memory tier being considered, for example with
+ * {@code ./gradlew :ChessPlayer:benchmark -PbenchmarkArgs="threads=1,2 hash=16,128,512 movetime=2000"}. Every
+ * configuration searches the same positions, after a new game, for the same time; a configuration's speed is the
+ * nodes of all of its searches over their time.
+ */
+public final class EngineBenchmark {
+    public static final int DEFAULT_MOVE_TIME_MILLIS = 1_000;
+
+    /** An opening, a tactical middlegame, a quiet middlegame and an endgame. */
+    static final List<Position> POSITIONS = List.of(
+            Position.STARTING,
+            Position.fromFen("r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1"),
+            Position.fromFen("r1bq1rk1/pp2bppp/2n1pn2/3p4/2PP4/2N1PN2/PP2BPPP/R2QKB1R w KQ - 0 8"),
+            Position.fromFen("8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1"));
+
+    private EngineBenchmark() {
+    }
+
+    /**
+     * Runs the benchmark on the local engine and prints a line per configuration.
+     *
+     * @param args optional "threads=1,2", "hash=16,64" and "movetime=1000" settings; by default the detected
+     *             configuration is compared with Stockfish's defaults
+     */
+    public static void main(String[] args) {
+        EngineConfiguration detected = EngineConfiguration.detect(1);
+        List<Integer> threads = List.of(1, detected.getThreads());
+        List<Integer> hashes = List.of(EngineConfiguration.MIN_HASH_MB, detected.getHashMb());
+        int moveTimeMillis = DEFAULT_MOVE_TIME_MILLIS;
+        for (String arg : args) {
+            String[] setting = arg.split("=", 2);
+            if ("threads".equals(setting[0])) {
+                threads = parseList(setting[1]);
+            } else if ("hash".equals(setting[0])) {
+                hashes = parseList(setting[1]);
+            } else if ("movetime".equals(setting[0])) {
+                moveTimeMillis = Integer.parseInt(setting[1]);
+            } else {
+                throw new IllegalArgumentException("Unknown benchmark setting " + arg);
+            }
+        }
+
+        Stockfish stockfish = new Stockfish(new EngineBinary(millis -> { }).getPath(), detected);
+        if (!stockfish.startEngine()) {
+            throw new IllegalStateException("The engine could not be started");
+        }
+        try {
+            stockfish.initialize();
+            System.out.printf("%d processors, detected %s%n", Runtime.getRuntime().availableProcessors(), detected);
+            for (EngineConfiguration configuration : configurations(threads, hashes, detected)) {
+                System.out.println(measure(stockfish, configuration, POSITIONS, moveTimeMillis));
+            }
+        } finally {
+            stockfish.stopEngine();
+        }
+    }
+
+    /**
+     * Measures one configuration.
+     *
+     * @param stockfish a started and initialized engine
+     * @param configuration the options to measure
+     * @param positions the positions to search
+     * @param moveTimeMillis the time to search each position
+     * @return the nodes searched and the time it took
+     */
+    static Result measure(Stockfish stockfish, EngineConfiguration configuration, List<Position> positions,
+                          int moveTimeMillis) {
+        stockfish.configure(configuration);
+        // Also waits for the new hash table to be allocated, which should not count as search time
+        stockfish.newGame();
+        stockfish.applyProfile(EngineProfile.forDifficulty(EngineProfile.MAX_DIFFICULTY));
+        long nodes = 0;
+        long millis = 0;
+        for (Position position : positions) {
+            stockfish.getBestMove("fen " + position.toFen(), "movetime " + moveTimeMillis);
+            nodes += stockfish.getLastSearchInfo().getNodes();
+            millis += stockfish.getLastSearchInfo().getTimeMillis();
+        }
+        return new Result(configuration, nodes, millis);
+    }
+
+    private static List<EngineConfiguration> configurations(List<Integer> threads, List<Integer> hashes,
+                                                            EngineConfiguration detected) {
+        List<EngineConfiguration> configurations = new ArrayList<>();
+        for (int threadCount : threads) {
+            for (int hashMb : hashes) {
+                EngineConfiguration configuration =
+                        new EngineConfiguration(threadCount, hashMb, detected.getMoveOverheadMillis());
+                if (!configurations.contains(configuration)) {
+                    configurations.add(configuration);
+                }
+            }
+        }
+        return configurations;
+    }
+
+    private static List<Integer> parseList(String values) {
+        return Arrays.stream(values.split(",")).map(Integer::parseInt).collect(Collectors.toList());
+    }
+
+    /**
+     * The speed of one configuration.
+     */
+    static final class Result {
+        private final EngineConfiguration configuration;
+        private final long nodes;
+        private final long millis;
+
+        private Result(EngineConfiguration configuration, long nodes, long millis) {
+            this.configuration = configuration;
+            this.nodes = nodes;
+            this.millis = millis;
+        }
+
+        /**
+         * Calculates the nodes searched per second.
+         *
+         * @return the speed, or 0 if no time was measured
+         */
+        long getNodesPerSecond() {
+            return millis == 0 ? 0 : nodes * 1_000 / millis;
+        }
+
+        EngineConfiguration getConfiguration() {
+            return configuration;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s: %,d nodes in %,d ms, %,d nodes/s", configuration, nodes, millis,
+                    getNodesPerSecond());
+        }
+    }
+}
@@ -0,0 +1,172 @@
+package com.nashss.se.chessplayerservice.engine;
+
+import com.nashss.se.chessplayerservice.exceptions.StockfishException;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.PosixFilePermission;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Set;
+import java.util.function.LongConsumer;
+
+/**
+ * Finds the Stockfish binary, making an executable copy of it first where the packaged one cannot be run.
+ * <p>
+ * Locally the engine lives in engine/, and in Lambda it is packaged under lib/. Where the packaged file is not
+ * executable, as in some docker images, it is copied to /tmp. A copy left there by an earlier container start is
+ * reused when its checksum matches the packaged binary, and a new copy is written next to it and moved into place, so
+ * a half-written file is never run. Permissions are set through NIO rather than a chmod process.
+ * <p>
+ * The work runs once, the first time an engine is started, and the time it took is reported to a listener so cold
+ * starts can be measured.
+ */
+public class EngineBinary {
+    public static final Path LOCAL_PATH = Path.of("engine", "stockfish");
+    public static final Path PACKAGED_PATH = Path.of("/var/task/lib/stockfish");
+    public static final Path EXTRACTED_PATH = Path.of("/tmp/stockfish");
+
+    private static final Set<PosixFilePermission> EXECUTABLE = PosixFilePermissions.fromString("rwxr-xr-x");
+    private static final int DIGEST_BUFFER_BYTES = 64 * 1024;
+
+    private static final Logger log = LogManager.getLogger();
+
+    private final Path localPath;
+    private final Path packagedPath;
+    private final Path extractedPath;
+    private final LongConsumer provisioningTimeListener;
+    private Path path;
+
+    /**
+     * Instantiates a new EngineBinary at the standard locations.
+     *
+     * @param provisioningTimeListener receives the milliseconds provisioning took, once
+     */
+    public EngineBinary(LongConsumer provisioningTimeListener) {
+        this(LOCAL_PATH, PACKAGED_PATH, EXTRACTED_PATH, provisioningTimeListener);
+    }
+
+    /**
+     * Instantiates a new EngineBinary at custom locations.
+     *
+     * @param localPath the binary when running locally
+     * @param packagedPath the binary packaged with the function
+     * @param extractedPath where the packaged binary is copied when it cannot be run in place
+     * @param provisioningTimeListener receives the milliseconds provisioning took, once
+     */
+    public EngineBinary(Path localPath, Path packagedPath, Path extractedPath, LongConsumer provisioningTimeListener) {
+        this.localPath = localPath;
+        this.packagedPath = packagedPath;
+        this.extractedPath = extractedPath;
+        this.provisioningTimeListener = provisioningTimeListener;
+    }
+
+    /**
+     * Finds a data file shipped next to the engine binary, such as an opening book.
+     *
+     * @param fileName name of the file in the engine directory
+     * @return the file's path, or null if it is not there
+     */
+    public static Path findEngineFile(String fileName) {
+        for (Path directory : new Path[] {LOCAL_PATH.getParent(), PACKAGED_PATH.getParent()}) {
+            Path file = directory.resolve(fileName);
+            if (Files.isReadable(file)) {
+                return file;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Gets the path of a binary ready to run, provisioning it on the first call.
+     *
+     * @return the path of the executable engine
+     */
+    public synchronized Path getPath() {
+        if (path == null) {
+            long startNanos = System.nanoTime();
+            path = provision();
+            long millis = (System.nanoTime() - startNanos) / 1_000_000;
+            log.info("Engine binary {} provisioned in {} ms", path, millis);
+            provisioningTimeListener.accept(millis);
+        }
+        return path;
+    }
+
+    private Path provision() {
+        if (Files.isExecutable(localPath)) {
+            return localPath;
+        }
+        if (Files.isExecutable(packagedPath)) {
+            return packagedPath;
+        }
+        try {
+            if (isCopyOf(extractedPath, packagedPath)) {
+                log.info("Reusing the engine binary already extracted to {}", extractedPath);
+            } else {
+                extract();
+            }
+            if (!Files.isExecutable(extractedPath)) {
+                makeExecutable(extractedPath);
+            }
+        } catch (IOException e) {
+            throw new StockfishException("The engine binary could not be provisioned", e);
+        }
+        return extractedPath;
+    }
+
+    private void extract() throws IOException {
+        Path parent = extractedPath.toAbsolutePath().getParent();
+        Path partial = Files.createTempFile(parent, extractedPath.getFileName().toString(), ".partial");
+        try {
+            Files.copy(packagedPath, partial, StandardCopyOption.REPLACE_EXISTING);
+            makeExecutable(partial);
+            Files.move(partial, extractedPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(partial);
+        }
+    }
+
+    private static boolean isCopyOf(Path copy, Path original) throws IOException {
+        // The sizes differ for almost any other file, so only hash files that could match
+        return Files.isRegularFile(copy) && Files.size(copy) == Files.size(original) &&
+                Arrays.equals(checksum(copy), checksum(original));
+    }
+
+    private static byte[] checksum(Path file) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("Every JVM supports SHA-256", e);
+        }
+        byte[] buffer = new byte[DIGEST_BUFFER_BYTES];
+        try (InputStream input = Files.newInputStream(file)) {
+            int read = input.read(buffer);
+            while (read >= 0) {
+                digest.update(buffer, 0, read);
+                read = input.read(buffer);
+            }
+        }
+        return digest.digest();
+    }
+
+    private static void makeExecutable(Path file) throws IOException {
+        try {
+            Files.setPosixFilePermissions(file, EXECUTABLE);
+        } catch (UnsupportedOperationException e) {
+            // Not a POSIX file system, so fall back to the basic permission bits
+            if (!file.toFile().setExecutable(true, false)) {
+                throw new IOException("Could not make " + file + " executable", e);
+            }
+        }
+    }
+}
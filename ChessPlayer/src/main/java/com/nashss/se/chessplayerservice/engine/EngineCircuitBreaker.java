@@ -0,0 +1,109 @@
+package com.nashss.se.chessplayerservice.engine;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.function.LongSupplier;
+
+/**
+ * Fails engine requests fast while the engines keep failing, instead of letting every request wait out a hung or
+ * crashing engine.
+ * <p>
+ * The breaker is closed while engines work. After {@code failureThreshold} failures in a row it opens, and every
+ * request is refused for the open period. Once that has passed, one request is let through as a trial: if it succeeds
+ * the breaker closes, and if it fails the breaker opens again for another period.
+ */
+public class EngineCircuitBreaker {
+    public static final int DEFAULT_FAILURE_THRESHOLD = 3;
+    public static final long DEFAULT_OPEN_MILLIS = 30_000;
+
+    private static final Logger log = LogManager.getLogger();
+
+    private final int failureThreshold;
+    private final long openNanos;
+    private final LongSupplier nanoClock;
+
+    private State state = State.CLOSED;
+    private int consecutiveFailures;
+    private long openedAtNanos;
+
+    /**
+     * Instantiates a new EngineCircuitBreaker on the system clock.
+     *
+     * @param failureThreshold failures in a row that open the breaker
+     * @param openMillis how long the breaker refuses requests once open
+     */
+    public EngineCircuitBreaker(int failureThreshold, long openMillis) {
+        this(failureThreshold, openMillis, System::nanoTime);
+    }
+
+    /**
+     * Instantiates a new EngineCircuitBreaker on the given clock.
+     *
+     * @param failureThreshold failures in a row that open the breaker
+     * @param openMillis how long the breaker refuses requests once open
+     * @param nanoClock the clock, in nanoseconds like {@link System#nanoTime()}
+     */
+    public EngineCircuitBreaker(int failureThreshold, long openMillis, LongSupplier nanoClock) {
+        if (failureThreshold < 1) {
+            throw new IllegalArgumentException("Failure threshold must be at least 1");
+        }
+        this.failureThreshold = failureThreshold;
+        this.openNanos = openMillis * 1_000_000;
+        this.nanoClock = nanoClock;
+    }
+
+    /**
+     * Checks whether a request may use an engine, letting one trial request through once the open period is over.
+     *
+     * @return true if the request may go ahead. False if it should fail fast
+     */
+    public synchronized boolean allowRequest() {
+        if (state == State.OPEN && nanoClock.getAsLong() - openedAtNanos >= openNanos) {
+            state = State.HALF_OPEN;
+            return true;
+        }
+        return state == State.CLOSED;
+    }
+
+    /**
+     * Records that an engine worked, closing the breaker.
+     */
+    public synchronized void recordSuccess() {
+        if (state != State.CLOSED) {
+            log.info("Engines are healthy again, closing the circuit breaker");
+        }
+        state = State.CLOSED;
+        consecutiveFailures = 0;
+    }
+
+    /**
+     * Records that an engine failed, opening the breaker after too many failures in a row or a failed trial.
+     */
+    public synchronized void recordFailure() {
+        consecutiveFailures++;
+        if (state == State.HALF_OPEN || consecutiveFailures >= failureThreshold) {
+            if (state != State.OPEN) {
+                log.warn("Engines failed {} times in a row, opening the circuit breaker", consecutiveFailures);
+            }
+            state = State.OPEN;
+            openedAtNanos = nanoClock.getAsLong();
+        }
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+
+    /**
+     * The states of the breaker.
+     */
+    public enum State {
+        /** Requests go ahead. */
+        CLOSED,
+        /** Requests fail fast. */
+        OPEN,
+        /** One trial request has gone ahead to see whether the engines work again. */
+        HALF_OPEN
+    }
+}
@@ -0,0 +1,134 @@
+package com.nashss.se.chessplayerservice.engine;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.OperatingSystemMXBean;
+import java.util.Objects;
+
+/**
+ * The resource options of the engine processes: "Threads", "Hash" and "Move Overhead", sized for the machine.
+ * <p>
+ * A Lambda function's CPU share grows with its memory size, so the same code can run on a fraction of a core or on
+ * several. The processors and memory are split evenly between the pool's engines: each gets its share of the cores
+ * as search threads, and half of what is left of its memory share, after the JVM's heap and the engine's own
+ * network and code, as hash table, rounded down to a power of two. With a single core the engine is also told to
+ * keep a larger safety margin on its move time, since it shares that core with the JVM.
+ */
+public final class EngineConfiguration {
+    /** Set by Lambda to the function's memory size in megabytes. */
+    public static final String MEMORY_SIZE_VARIABLE = "AWS_LAMBDA_FUNCTION_MEMORY_SIZE";
+    /** Stockfish's default hash size, and the smallest this ever sets. */
+    public static final int MIN_HASH_MB = 16;
+    public static final int MAX_HASH_MB = 4096;
+    /** Memory an engine process needs besides its hash table, mostly its evaluation network. */
+    static final int ENGINE_BASE_MB = 96;
+    static final int MOVE_OVERHEAD_MILLIS = 30;
+    static final int SHARED_CORE_MOVE_OVERHEAD_MILLIS = 100;
+    private static final long BYTES_PER_MB = 1024 * 1024;
+
+    private static final Logger log = LogManager.getLogger();
+
+    private final int threads;
+    private final int hashMb;
+    private final int moveOverheadMillis;
+
+    /**
+     * Instantiates a new EngineConfiguration.
+     *
+     * @param threads the search threads of each engine
+     * @param hashMb the hash table size of each engine, in megabytes
+     * @param moveOverheadMillis the time each engine keeps back from its move time for communication
+     */
+    public EngineConfiguration(int threads, int hashMb, int moveOverheadMillis) {
+        this.threads = threads;
+        this.hashMb = hashMb;
+        this.moveOverheadMillis = moveOverheadMillis;
+    }
+
+    /**
+     * Sizes the options for the machine the service runs on.
+     *
+     * @param engines the number of engine processes sharing the machine
+     * @return the configuration
+     */
+    public static EngineConfiguration detect(int engines) {
+        Runtime runtime = Runtime.getRuntime();
+        // The heap's maximum rather than what it has committed so far, which only grows after startup
+        EngineConfiguration configuration = forResources(runtime.availableProcessors(), detectMemoryMb(),
+                runtime.maxMemory() / BYTES_PER_MB, engines);
+        log.info("Configuring {} engines with {}", engines, configuration);
+        return configuration;
+    }
+
+    /**
+     * Sizes the options for the given resources.
+     *
+     * @param processors the processors available
+     * @param memoryMb the memory available, in megabytes
+     * @param jvmHeapMb the memory the JVM's heap may grow to, in megabytes
+     * @param engines the number of engine processes sharing the resources
+     * @return the configuration
+     */
+    public static EngineConfiguration forResources(int processors, long memoryMb, long jvmHeapMb, int engines) {
+        int engineCount = Math.max(1, engines);
+        int threads = Math.max(1, processors / engineCount);
+        long spareMb = (memoryMb - jvmHeapMb) / engineCount - ENGINE_BASE_MB;
+        int hashMb = MIN_HASH_MB;
+        while (hashMb * 2L <= spareMb / 2 && hashMb < MAX_HASH_MB) {
+            hashMb *= 2;
+        }
+        return new EngineConfiguration(threads, hashMb,
+                processors < 2 ? SHARED_CORE_MOVE_OVERHEAD_MILLIS : MOVE_OVERHEAD_MILLIS);
+    }
+
+    public int getThreads() {
+        return threads;
+    }
+
+    public int getHashMb() {
+        return hashMb;
+    }
+
+    public int getMoveOverheadMillis() {
+        return moveOverheadMillis;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        EngineConfiguration that = (EngineConfiguration) o;
+        return threads == that.threads && hashMb == that.hashMb && moveOverheadMillis == that.moveOverheadMillis;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(threads, hashMb, moveOverheadMillis);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Threads=%d, Hash=%d MB, Move Overhead=%d ms", threads, hashMb, moveOverheadMillis);
+    }
+
+    // getTotalPhysicalMemorySize is deprecated from Java 14, but its replacement does not exist on the java11 runtime
+    @SuppressWarnings("deprecation")
+    private static long detectMemoryMb() {
+        String lambdaMemory = System.getenv(MEMORY_SIZE_VARIABLE);
+        if (lambdaMemory != null) {
+            return Long.parseLong(lambdaMemory);
+        }
+        // Outside Lambda, use the machine's memory where the JVM can tell
+        OperatingSystemMXBean os = ManagementFactory.getOperatingSystemMXBean();
+        if (os instanceof com.sun.management.OperatingSystemMXBean) {
+            return ((com.sun.management.OperatingSystemMXBean) os).getTotalPhysicalMemorySize() / BYTES_PER_MB;
+        }
+        return Runtime.getRuntime().maxMemory() / BYTES_PER_MB;
+    }
+}
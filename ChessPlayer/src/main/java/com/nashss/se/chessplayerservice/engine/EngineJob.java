@@ -0,0 +1,126 @@
+package com.nashss.se.chessplayerservice.engine;
+
+import java.util.function.Supplier;
+
+/**
+ * Says what the engine work on the current thread is for: how urgent it is and which user it is done for, so the
+ * {@link EngineScheduler} can order the thread's engine leases.
+ * <p>
+ * Work is run as a job with {@link #run}, and once it is done the thread is back on the job it was doing before.
+ * Work with no job is interactive, so callers that never start one keep the engines' full priority.
+ * Threads that work on a job's behalf, such as the workers of a fork-join pool, run the same job themselves.
+ */
+public final class EngineJob implements AutoCloseable {
+    /** The owner of work no job was started for. */
+    public static final String NO_OWNER = "";
+
+    private static final EngineJob DEFAULT = new EngineJob(EnginePriority.INTERACTIVE, NO_OWNER, null);
+    private static final ThreadLocal<EngineJob> CURRENT = new ThreadLocal<>();
+
+    private final EnginePriority priority;
+    private final String owner;
+    private final EngineJob previous;
+    private volatile boolean preempted;
+
+    private EngineJob(EnginePriority priority, String owner, EngineJob previous) {
+        this.priority = priority;
+        this.owner = owner;
+        this.previous = previous;
+    }
+
+    /**
+     * Starts a job on the current thread, until it is closed.
+     *
+     * @param priority how urgently the job needs engines
+     * @param owner the user the job is done for, or null if it is not known
+     * @return the job, to be closed on the same thread
+     */
+    public static EngineJob start(EnginePriority priority, String owner) {
+        EngineJob job = new EngineJob(priority, owner == null ? NO_OWNER : owner, CURRENT.get());
+        CURRENT.set(job);
+        return job;
+    }
+
+    /**
+     * Runs work as a job on the current thread.
+     *
+     * @param priority how urgently the job needs engines
+     * @param owner the user the job is done for, or null if it is not known
+     * @param work the work, whose engine leases are scheduled as the job's
+     * @param <T> the type of the work's result
+     * @return the work's result
+     */
+    public static <T> T run(EnginePriority priority, String owner, Supplier<T> work) {
+        EngineJob job = start(priority, owner);
+        try {
+            return work.get();
+        } finally {
+            job.close();
+        }
+    }
+
+    /**
+     * Runs work that has no result as a job on the current thread.
+     *
+     * @param priority how urgently the job needs engines
+     * @param owner the user the job is done for, or null if it is not known
+     * @param work the work, whose engine leases are scheduled as the job's
+     */
+    public static void run(EnginePriority priority, String owner, Runnable work) {
+        EngineJob job = start(priority, owner);
+        try {
+            work.run();
+        } finally {
+            job.close();
+        }
+    }
+
+    /**
+     * Gets the job the current thread is doing.
+     *
+     * @return the job, an interactive one with no owner if none was started
+     */
+    public static EngineJob current() {
+        EngineJob job = CURRENT.get();
+        return job == null ? DEFAULT : job;
+    }
+
+    public EnginePriority getPriority() {
+        return priority;
+    }
+
+    public String getOwner() {
+        return owner;
+    }
+
+    /**
+     * Checks whether the scheduler stopped one of the job's searches early for an interactive job. That search
+     * answered with the best move it had found, which may be weaker than a full search's.
+     *
+     * @return true once the job has been preempted
+     */
+    public boolean isPreempted() {
+        return preempted;
+    }
+
+    /**
+     * Marks the job as preempted, when the scheduler stops one of its searches.
+     */
+    void preempt() {
+        preempted = true;
+    }
+
+    @Override
+    public void close() {
+        if (previous == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(previous);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "EngineJob{" + priority + ", owner='" + owner + "'}";
+    }
+}
@@ -0,0 +1,11 @@
+package com.nashss.se.chessplayerservice.engine;
+
+/**
+ * How urgently an engine job needs an engine, see {@link EngineScheduler}. Declared most urgent first.
+ */
+public enum EnginePriority {
+    /** A player is waiting on the answer, such as the engine's reply to a move. */
+    INTERACTIVE,
+    /** Bulk work nobody is waiting on, such as analysing a finished game or speculating on a player's reply. */
+    BACKGROUND
+}
@@ -0,0 +1,137 @@
+package com.nashss.se.chessplayerservice.engine;
+
+/**
+ * How the engine plays at one bot difficulty: its strength options and how many nodes it may search.
+ * <p>
+ * A node budget makes a search cost about the same CPU time on every host, unlike a movetime, so easy bots are cheap
+ * and capacity can be sized per difficulty. The movetime from {@link SearchBudget} still caps every search, which only
+ * matters when a host is too slow to finish the node budget in time.
+ * <p>
+ * Stockfish 15 accepts a "UCI_Elo" from {@link #MIN_UCI_ELO} to {@link #MAX_UCI_ELO}, so difficulties 5 to 15, whose
+ * bot ratings (see {@code ChessUtils.botDifficultyToRating}) lie in that range, play with "UCI_LimitStrength" at that
+ * rating. Difficulties 0 to 4 are rated below it and 16 to 20 above it, so they use "Skill Level" instead.
+ */
+public final class EngineProfile {
+    public static final int MAX_DIFFICULTY = 20;
+    /** Nodes per second of one engine thread on the Lambda hosts, used to estimate CPU cost. */
+    public static final long CALIBRATION_NODES_PER_SECOND = 1_000_000;
+    /** The weakest rating Stockfish 15 can play at with "UCI_LimitStrength". */
+    public static final int MIN_UCI_ELO = 1350;
+    /** The strongest rating Stockfish 15 can play at with "UCI_LimitStrength". */
+    public static final int MAX_UCI_ELO = 2850;
+
+    private static final int NO_ELO = 0;
+
+    /** The calibration table, indexed by bot difficulty: skill level, UCI_Elo or 0, node budget, depth or 0. */
+    private static final long[][] CALIBRATION = {
+        {0, NO_ELO, 1_000, 1},
+        {1, NO_ELO, 2_000, 2},
+        {2, NO_ELO, 4_000, 3},
+        {3, NO_ELO, 8_000, 4},
+        {4, NO_ELO, 12_000, 5},
+        {5, 1350, 20_000, 0},
+        {6, 1500, 30_000, 0},
+        {7, 1650, 45_000, 0},
+        {8, 1800, 60_000, 0},
+        {9, 1950, 80_000, 0},
+        {10, 2100, 100_000, 0},
+        {11, 2250, 130_000, 0},
+        {12, 2400, 160_000, 0},
+        {13, 2550, 200_000, 0},
+        {14, 2700, 250_000, 0},
+        {15, 2850, 300_000, 0},
+        {16, NO_ELO, 400_000, 0},
+        {17, NO_ELO, 500_000, 0},
+        {18, NO_ELO, 650_000, 0},
+        {19, NO_ELO, 800_000, 0},
+        {20, NO_ELO, 1_000_000, 0}
+    };
+
+    private static final EngineProfile[] PROFILES = new EngineProfile[CALIBRATION.length];
+
+    static {
+        for (int difficulty = 0; difficulty < CALIBRATION.length; difficulty++) {
+            long[] row = CALIBRATION[difficulty];
+            PROFILES[difficulty] = new EngineProfile(difficulty, (int) row[0], (int) row[1], row[2], (int) row[3]);
+        }
+    }
+
+    private final int difficulty;
+    private final int skillLevel;
+    private final int uciElo;
+    private final long nodes;
+    private final int depth;
+
+    private EngineProfile(int difficulty, int skillLevel, int uciElo, long nodes, int depth) {
+        this.difficulty = difficulty;
+        this.skillLevel = skillLevel;
+        this.uciElo = uciElo;
+        this.nodes = nodes;
+        this.depth = depth;
+    }
+
+    /**
+     * Looks up the profile of a bot difficulty.
+     *
+     * @param botDifficulty the difficulty from 0 to 20, or null for full strength
+     * @return the profile, clamped to the calibrated range
+     */
+    public static EngineProfile forDifficulty(Integer botDifficulty) {
+        if (botDifficulty == null) {
+            return PROFILES[MAX_DIFFICULTY];
+        }
+        return PROFILES[Math.max(0, Math.min(MAX_DIFFICULTY, botDifficulty))];
+    }
+
+    /**
+     * Builds the arguments of the "go" command for a search with this profile.
+     *
+     * @param moveTimeMillis the most time the search may take
+     * @return the search limit, for example "nodes 20000 movetime 500"
+     */
+    public String searchLimit(int moveTimeMillis) {
+        StringBuilder limit = new StringBuilder(40).append("nodes ").append(nodes);
+        if (depth > 0) {
+            limit.append(" depth ").append(depth);
+        }
+        return limit.append(" movetime ").append(moveTimeMillis).toString();
+    }
+
+    /**
+     * Estimates the CPU time a full search with this profile takes on a calibrated host.
+     *
+     * @return the estimate in milliseconds
+     */
+    public long estimatedCpuMillis() {
+        return nodes * 1000 / CALIBRATION_NODES_PER_SECOND;
+    }
+
+    /**
+     * Whether the engine plays at a target rating rather than at a skill level.
+     *
+     * @return true if "UCI_LimitStrength" should be on
+     */
+    public boolean isLimitStrength() {
+        return uciElo != NO_ELO;
+    }
+
+    public int getDifficulty() {
+        return difficulty;
+    }
+
+    public int getSkillLevel() {
+        return skillLevel;
+    }
+
+    public int getUciElo() {
+        return uciElo;
+    }
+
+    public long getNodes() {
+        return nodes;
+    }
+
+    public int getDepth() {
+        return depth;
+    }
+}
@@ -0,0 +1,346 @@
+package com.nashss.se.chessplayerservice.engine;
+
+import com.nashss.se.chessplayerservice.exceptions.StockfishException;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+/**
+ * Decides which {@link EngineJob} gets the next free engine.
+ * <p>
+ * Each engine is a slot. When every slot is taken, jobs wait by {@link EnginePriority}: no background job gets a slot
+ * while an interactive one is waiting, so bulk analysis only ever uses engines players have left idle. Within a
+ * priority, slots go round-robin to the waiting users, and first come, first served for each user, so a user with many
+ * queued jobs cannot starve the others.
+ * <p>
+ * A waiting interactive job also preempts a running background job: the background job's engine is told to stop and
+ * answers with the best move it has found so far, which frees its slot within moments rather than after a full
+ * search. The scheduler measures how busy its slots are, for the engine utilization metric.
+ */
+public class EngineScheduler {
+    private static final Logger log = LogManager.getLogger();
+
+    private final int slots;
+    private final LongSupplier nanoClock;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Map<EnginePriority, Map<String, Deque<Waiter>>> waiting = new EnumMap<>(EnginePriority.class);
+    private final Set<Grant> running = new HashSet<>();
+    private int waiterCount;
+    private long preemptions;
+    private long busyNanos;
+    private long sampleStartNanos;
+
+    /**
+     * Instantiates a new EngineScheduler on the system clock.
+     *
+     * @param slots the number of engines jobs share
+     */
+    public EngineScheduler(int slots) {
+        this(slots, System::nanoTime);
+    }
+
+    /**
+     * Instantiates a new EngineScheduler on the given clock.
+     *
+     * @param slots the number of engines jobs share
+     * @param nanoClock the clock, in nanoseconds like {@link System#nanoTime()}
+     */
+    public EngineScheduler(int slots, LongSupplier nanoClock) {
+        if (slots < 1) {
+            throw new IllegalArgumentException("There must be at least 1 slot");
+        }
+        this.slots = slots;
+        this.nanoClock = nanoClock;
+        this.sampleStartNanos = nanoClock.getAsLong();
+        for (EnginePriority priority : EnginePriority.values()) {
+            waiting.put(priority, new LinkedHashMap<>());
+        }
+    }
+
+    /**
+     * Takes a slot for a job, waiting for one if every slot is taken or other jobs are already waiting.
+     *
+     * @param job the job that needs an engine
+     * @return the job's grant, to be given back with {@link #release(Grant)}
+     * @throws InterruptedException if the thread is interrupted while waiting; the job then holds no slot
+     */
+    public Grant acquire(EngineJob job) throws InterruptedException {
+        Waiter waiter;
+        Grant preempted;
+        lock.lock();
+        try {
+            if (running.size() < slots && waiterCount == 0) {
+                return grant(job);
+            }
+            waiter = enqueue(job);
+            preempted = job.getPriority() == EnginePriority.INTERACTIVE ? choosePreemption() : null;
+        } finally {
+            lock.unlock();
+        }
+        if (preempted != null) {
+            log.info("Preempting {} for {}", preempted.getJob(), job);
+            preempted.preempt();
+        }
+        return awaitGrant(waiter);
+    }
+
+    /**
+     * Gives a slot back, handing it to the next waiting job.
+     *
+     * @param grant the grant from {@link #acquire(EngineJob)}; giving it back twice does nothing
+     */
+    public void release(Grant grant) {
+        lock.lock();
+        try {
+            if (running.remove(grant)) {
+                busyNanos += nanoClock.getAsLong() - Math.max(grant.startNanos, sampleStartNanos);
+                handOn();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Checks whether a job asking for a slot now would have to wait.
+     *
+     * @return true if every slot is taken or jobs are waiting
+     */
+    public boolean isSaturated() {
+        lock.lock();
+        try {
+            return running.size() >= slots || waiterCount > 0;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Measures the share of slot time that jobs held since the last call, and starts measuring again.
+     *
+     * @return the utilization, from 0 for idle engines to 1 for engines that were never free
+     */
+    public double takeUtilization() {
+        lock.lock();
+        try {
+            long now = nanoClock.getAsLong();
+            long busy = busyNanos;
+            for (Grant grant : running) {
+                busy += now - Math.max(grant.startNanos, sampleStartNanos);
+            }
+            long elapsed = now - sampleStartNanos;
+            busyNanos = 0;
+            sampleStartNanos = now;
+            return elapsed <= 0 ? 0 : Math.min(1, (double) busy / ((double) slots * elapsed));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Counts the jobs waiting for a slot.
+     *
+     * @return the number of waiting jobs
+     */
+    public int getQueueLength() {
+        lock.lock();
+        try {
+            return waiterCount;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Counts the jobs holding a slot.
+     *
+     * @return the number of running jobs
+     */
+    public int getRunningCount() {
+        lock.lock();
+        try {
+            return running.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Counts the background jobs told to stop for an interactive one.
+     *
+     * @return the number of preemptions since the scheduler was created
+     */
+    public long getPreemptions() {
+        lock.lock();
+        try {
+            return preemptions;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getSlots() {
+        return slots;
+    }
+
+    private Grant awaitGrant(Waiter waiter) throws InterruptedException {
+        lock.lock();
+        try {
+            while (waiter.grant == null) {
+                try {
+                    waiter.condition.await();
+                } catch (InterruptedException e) {
+                    abandon(waiter);
+                    throw e;
+                }
+            }
+            return waiter.grant;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private Grant grant(EngineJob job) {
+        Grant grant = new Grant(job, nanoClock.getAsLong());
+        running.add(grant);
+        return grant;
+    }
+
+    private Waiter enqueue(EngineJob job) {
+        Waiter waiter = new Waiter(job, lock.newCondition());
+        waiting.get(job.getPriority()).computeIfAbsent(job.getOwner(), owner -> new ArrayDeque<>()).add(waiter);
+        waiterCount++;
+        return waiter;
+    }
+
+    private void abandon(Waiter waiter) {
+        if (waiter.grant != null) {
+            // The slot was handed over just as the wait was interrupted, so pass it on
+            release(waiter.grant);
+        } else {
+            Map<String, Deque<Waiter>> owners = waiting.get(waiter.job.getPriority());
+            Deque<Waiter> queue = owners.get(waiter.job.getOwner());
+            if (queue.remove(waiter)) {
+                waiterCount--;
+            }
+            if (queue.isEmpty()) {
+                owners.remove(waiter.job.getOwner());
+            }
+        }
+    }
+
+    /**
+     * Hands a free slot to the first waiting user of the most urgent priority, and moves that user to the back of
+     * the line.
+     */
+    private void handOn() {
+        for (Map<String, Deque<Waiter>> owners : waiting.values()) {
+            Iterator<Map.Entry<String, Deque<Waiter>>> first = owners.entrySet().iterator();
+            if (first.hasNext()) {
+                Map.Entry<String, Deque<Waiter>> entry = first.next();
+                first.remove();
+                Waiter waiter = entry.getValue().poll();
+                if (!entry.getValue().isEmpty()) {
+                    owners.put(entry.getKey(), entry.getValue());
+                }
+                waiterCount--;
+                waiter.grant = grant(waiter.job);
+                waiter.condition.signal();
+                break;
+            }
+        }
+    }
+
+    /**
+     * Chooses a running background job to stop, unless enough have been stopped already to free a slot for every
+     * waiting interactive job.
+     */
+    private Grant choosePreemption() {
+        int interactiveWaiting = 0;
+        for (Deque<Waiter> queue : waiting.get(EnginePriority.INTERACTIVE).values()) {
+            interactiveWaiting += queue.size();
+        }
+        int stopping = 0;
+        Grant candidate = null;
+        for (Grant grant : running) {
+            if (grant.preempted) {
+                stopping++;
+            } else if (grant.getJob().getPriority() == EnginePriority.BACKGROUND && candidate == null) {
+                candidate = grant;
+            }
+        }
+        if (candidate == null || stopping >= interactiveWaiting) {
+            return null;
+        }
+        candidate.preempted = true;
+        preemptions++;
+        return candidate;
+    }
+
+    /**
+     * A job's hold on a slot, and the engine it was given for it.
+     */
+    public static final class Grant {
+        private final EngineJob job;
+        private final long startNanos;
+        private volatile Stockfish engine;
+        private boolean preempted;
+
+        private Grant(EngineJob job, long startNanos) {
+            this.job = job;
+            this.startNanos = startNanos;
+        }
+
+        public EngineJob getJob() {
+            return job;
+        }
+
+        /**
+         * Records the engine the job searches on, so that it can be told to stop.
+         *
+         * @param leased the engine, or null once it is given back
+         */
+        void attach(Stockfish leased) {
+            this.engine = leased;
+        }
+
+        private void preempt() {
+            job.preempt();
+            Stockfish leased = engine;
+            if (leased != null) {
+                try {
+                    leased.stopSearch();
+                } catch (StockfishException e) {
+                    // The engine died, which frees the slot just as well
+                    log.warn("Could not stop a background search", e);
+                }
+            }
+        }
+    }
+
+    /**
+     * A job waiting for a slot.
+     */
+    private static final class Waiter {
+        private final EngineJob job;
+        private final Condition condition;
+        private Grant grant;
+
+        private Waiter(EngineJob job, Condition condition) {
+            this.job = job;
+            this.condition = condition;
+        }
+    }
+}
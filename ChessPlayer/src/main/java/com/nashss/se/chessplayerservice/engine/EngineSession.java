@@ -0,0 +1,123 @@
+package com.nashss.se.chessplayerservice.engine;
+
+import com.nashss.se.chessplayerservice.chess.Position;
+
+import java.util.List;
+
+/**
+ * Exclusive use of one engine process by one thread, for as long as a request needs it.
+ * <p>
+ * A Stockfish process holds the state of a single UCI conversation, so two threads sending it commands at the same
+ * time would corrupt each other's searches. A session leases a process from the pool when it is opened, and only the
+ * thread that opened it may use it or close it; any other thread is refused rather than allowed to interleave
+ * commands. Closing the session gives the process back, so sessions are meant for try-with-resources. Any number of
+ * sessions may be open at once, up to the pool's size, with further openers waiting for a free process.
+ */
+public final class EngineSession implements ChessEngine, AutoCloseable {
+    private final StockfishPool stockfishPool;
+    private final Stockfish stockfish;
+    private final Thread owner;
+    private boolean closed;
+
+    private EngineSession(StockfishPool stockfishPool, Stockfish stockfish, Thread owner) {
+        this.stockfishPool = stockfishPool;
+        this.stockfish = stockfish;
+        this.owner = owner;
+    }
+
+    /**
+     * Opens a session on the calling thread, waiting for a free engine if every one is in use.
+     *
+     * @param stockfishPool the pool to lease the engine from
+     * @return the session, confined to the calling thread
+     */
+    public static EngineSession open(StockfishPool stockfishPool) {
+        return new EngineSession(stockfishPool, stockfishPool.lease(), Thread.currentThread());
+    }
+
+    /**
+     * Opens a session on the calling thread for a game, on the game's warm engine if it is free, waiting for a free
+     * engine if every one is in use.
+     *
+     * @param stockfishPool the pool to lease the engine from
+     * @param gameId the game the session searches for, or null for none
+     * @return the session, confined to the calling thread
+     */
+    public static EngineSession open(StockfishPool stockfishPool, String gameId) {
+        return new EngineSession(stockfishPool, stockfishPool.lease(gameId), Thread.currentThread());
+    }
+
+    @Override
+    public String bestMove(Position position, EngineProfile profile, int moveTimeMillis) {
+        return engine().bestMove(position, profile, moveTimeMillis);
+    }
+
+    @Override
+    public String bestMove(String gameId, Position position, EngineProfile profile, int moveTimeMillis,
+                           SearchInfoListener listener) {
+        return engine().bestMove(gameId, position, profile, moveTimeMillis, listener);
+    }
+
+    @Override
+    public List<String> legalMoves(Position position) {
+        return engine().legalMoves(position);
+    }
+
+    @Override
+    public int evaluate(Position position) {
+        return engine().evaluate(position);
+    }
+
+    @Override
+    public Analysis analyze(Position position, int depth) {
+        return engine().analyze(position, depth);
+    }
+
+    @Override
+    public List<Analysis> analyzeLines(Position position, int depth, int lines) {
+        return engine().analyzeLines(position, depth, lines);
+    }
+
+    /**
+     * Finds the best move in a position covered by the endgame tablebases.
+     *
+     * @param position Position string, "fen " followed by a position in FEN notation
+     * @param syzygyPath directory holding the tablebase files
+     * @return the move and the outcome with perfect play for the side to move
+     */
+    public TablebaseResult probeTablebase(String position, String syzygyPath) {
+        return engine().probeTablebase(position, syzygyPath);
+    }
+
+    @Override
+    public TablebaseResult probeTablebase(Position position, String syzygyPath) {
+        return engine().probeTablebase(position, syzygyPath);
+    }
+
+    /**
+     * Gives the engine back to the pool. Closing a closed session does nothing.
+     */
+    @Override
+    public void close() {
+        checkOwner();
+        if (!closed) {
+            closed = true;
+            stockfishPool.release(stockfish);
+        }
+    }
+
+    private Stockfish engine() {
+        checkOwner();
+        if (closed) {
+            throw new IllegalStateException("The engine session is closed");
+        }
+        return stockfish;
+    }
+
+    private void checkOwner() {
+        if (Thread.currentThread() != owner) {
+            throw new IllegalStateException("The engine session belongs to thread " + owner.getName() +
+                    " and cannot be used from " + Thread.currentThread().getName());
+        }
+    }
+}
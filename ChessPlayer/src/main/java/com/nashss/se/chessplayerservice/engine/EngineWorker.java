@@ -0,0 +1,250 @@
+package com.nashss.se.chessplayerservice.engine;
+
+import com.nashss.se.chessplayerservice.chess.Position;
+import com.nashss.se.chessplayerservice.exceptions.EngineTimeoutException;
+
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * A standalone engine service: runs {@link SearchJob}s sent by {@link RemoteEngine} clients on its own engines, so the
+ * API functions can stay small while engine capacity is scaled on its own.
+ * <p>
+ * Jobs arrive over HTTP in the {@link WorkerProtocol} format, and each runs on a thread of its own against the
+ * worker's {@link ChessEngine}, in practice a {@link NativeEngine} over a {@link StockfishPool}. The job's game and
+ * {@link EngineJob} are passed on, so games keep their warm engines and players' jobs go ahead of background ones.
+ * Search info is streamed back while the engine searches, and the result follows. Run {@link #main} for a local
+ * worker on the engine binary, for example with {@code ./gradlew :ChessPlayer:engineWorker}.
+ */
+public class EngineWorker {
+    public static final String PORT_VARIABLE = "ENGINE_WORKER_PORT";
+    public static final int DEFAULT_PORT = 8099;
+    /** Seconds a stopping worker gives the jobs still running. */
+    private static final int STOP_DELAY_SECONDS = 2;
+
+    private static final Logger log = LogManager.getLogger();
+
+    private final ChessEngine engine;
+    private final HttpServer server;
+    private final ExecutorService executor;
+
+    /**
+     * Instantiates a new EngineWorker, which listens once started.
+     *
+     * @param engine the engine jobs run on
+     * @param port the port to listen on, or 0 for any free port
+     */
+    public EngineWorker(ChessEngine engine, int port) {
+        this.engine = engine;
+        try {
+            this.server = HttpServer.create(new InetSocketAddress(port), 0);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not listen on port " + port, e);
+        }
+        this.executor = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "engine-worker");
+            thread.setDaemon(true);
+            return thread;
+        });
+        server.setExecutor(executor);
+        server.createContext(WorkerProtocol.JOBS_PATH, this::handleJob);
+        server.createContext(WorkerProtocol.HEALTH_PATH, this::handleHealth);
+    }
+
+    /**
+     * Runs a worker until the JVM is stopped, on a pool of engines sized by the "ENGINE_POOL_SIZE" environment
+     * variable and a port set by "ENGINE_WORKER_PORT".
+     *
+     * @param args unused
+     */
+    public static void main(String[] args) {
+        String poolSize = System.getenv(StockfishPool.POOL_SIZE_VARIABLE);
+        int engines = poolSize == null ? StockfishPool.DEFAULT_POOL_SIZE : Integer.parseInt(poolSize);
+        String port = System.getenv(PORT_VARIABLE);
+        StockfishPool pool = new StockfishPool(engines,
+                new EngineBinary(millis -> log.info("Provisioned the engine in {} ms", millis)),
+                EngineConfiguration.detect(engines));
+        EngineWorker worker = new EngineWorker(new NativeEngine(pool),
+                port == null ? DEFAULT_PORT : Integer.parseInt(port));
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            worker.stop();
+            pool.shutdown();
+        }));
+        worker.start();
+    }
+
+    /**
+     * Starts accepting jobs.
+     */
+    public void start() {
+        server.start();
+        log.info("Engine worker listening on port {}", getPort());
+    }
+
+    /**
+     * Stops accepting jobs, giving the running ones a moment to finish.
+     */
+    public void stop() {
+        server.stop(STOP_DELAY_SECONDS);
+        executor.shutdownNow();
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    private void handleHealth(HttpExchange exchange) throws IOException {
+        byte[] body = "ok".getBytes(StandardCharsets.UTF_8);
+        exchange.sendResponseHeaders(200, body.length);
+        exchange.getResponseBody().write(body);
+        exchange.close();
+    }
+
+    private void handleJob(HttpExchange exchange) throws IOException {
+        try {
+            SearchJob job = readJob(exchange);
+            if (job == null) {
+                sendError(exchange, 400, "Expected a POST of a search job with a kind and a FEN");
+            } else {
+                exchange.getResponseHeaders().set("Content-Type", WorkerProtocol.CONTENT_TYPE);
+                // A length of 0 streams the response in chunks, so info can be sent while the engine searches
+                exchange.sendResponseHeaders(200, 0);
+                EventStream events = new EventStream(exchange);
+                events.write(runJob(job, events));
+            }
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private SearchJob readJob(HttpExchange exchange) {
+        if (!"POST".equals(exchange.getRequestMethod())) {
+            return null;
+        }
+        try {
+            SearchJob job = WorkerProtocol.MAPPER.readValue(exchange.getRequestBody(), SearchJob.class);
+            return job.getKind() == null || job.getFen() == null ? null : job;
+        } catch (IOException e) {
+            log.warn("Could not read a search job", e);
+            return null;
+        }
+    }
+
+    /**
+     * Runs a job on the engine as part of the caller's {@link EngineJob}.
+     *
+     * @return the "result" event, or an "error" event if the job failed
+     */
+    private ObjectNode runJob(SearchJob job, SearchInfoListener listener) {
+        // Forget waits from the thread's earlier jobs, so the result reports this job's alone
+        engine.takeQueueWaitMillis();
+        try {
+            return EngineJob.run(job.getPriority(), job.getOwner(),
+                () -> result(job, Position.fromFen(job.getFen()), listener));
+        } catch (RuntimeException e) {
+            log.warn("Search job {} failed", job, e);
+            ObjectNode error = WorkerProtocol.event(WorkerProtocol.ERROR);
+            error.put(WorkerProtocol.MESSAGE, String.valueOf(e.getMessage()));
+            error.put(WorkerProtocol.TIMEOUT, e instanceof EngineTimeoutException);
+            return error;
+        }
+    }
+
+    private ObjectNode result(SearchJob job, Position position, SearchInfoListener listener) {
+        ObjectNode result = WorkerProtocol.event(WorkerProtocol.RESULT);
+        switch (job.getKind()) {
+            case BEST_MOVE:
+                result.put(WorkerProtocol.BEST_MOVE, engine.bestMove(job.getGameId(), position,
+                        EngineProfile.forDifficulty(job.getDifficulty()), job.getMoveTimeMillis(), listener));
+                break;
+            case LEGAL_MOVES:
+                ArrayNode moves = result.putArray(WorkerProtocol.LEGAL_MOVES);
+                engine.legalMoves(position).forEach(moves::add);
+                break;
+            case EVALUATE:
+                result.put(WorkerProtocol.EVALUATION, engine.evaluate(position));
+                break;
+            case ANALYZE:
+                result.set(WorkerProtocol.ANALYSIS,
+                        WorkerProtocol.toJson(engine.analyze(job.getGameId(), position, job.getDepth())));
+                break;
+            case ANALYZE_LINES:
+                ArrayNode lines = result.putArray(WorkerProtocol.LINES);
+                engine.analyzeLines(position, job.getDepth(), job.getLines())
+                        .forEach(line -> lines.add(WorkerProtocol.toJson(line)));
+                break;
+            case PROBE_TABLEBASE:
+                TablebaseResult probed = engine.probeTablebase(position, job.getSyzygyPath());
+                if (probed != null) {
+                    result.put(WorkerProtocol.BEST_MOVE, probed.getMove());
+                    result.put(WorkerProtocol.OUTCOME, probed.getOutcome().name());
+                }
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown search job " + job.getKind());
+        }
+        engine.takeQueueWaitMillis().ifPresent(wait -> result.put(WorkerProtocol.QUEUE_WAIT, wait));
+        return result;
+    }
+
+    private static void sendError(HttpExchange exchange, int status, String message) throws IOException {
+        ObjectNode error = WorkerProtocol.event(WorkerProtocol.ERROR);
+        error.put(WorkerProtocol.MESSAGE, message);
+        error.put(WorkerProtocol.TIMEOUT, false);
+        byte[] body = (WorkerProtocol.MAPPER.writeValueAsString(error) + "\n").getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", WorkerProtocol.CONTENT_TYPE);
+        exchange.sendResponseHeaders(status, body.length);
+        exchange.getResponseBody().write(body);
+    }
+
+    /**
+     * The events of one job's response. Info arrives on the engine's reader thread and the result on the job's
+     * thread, so writes are synchronized; once the client has gone away, later events are dropped.
+     */
+    private static final class EventStream implements SearchInfoListener {
+        private final Writer writer;
+        private final StringBuilder line = new StringBuilder(256);
+        private boolean clientGone;
+
+        private EventStream(HttpExchange exchange) {
+            this.writer = new BufferedWriter(new OutputStreamWriter(exchange.getResponseBody(),
+                    StandardCharsets.UTF_8));
+        }
+
+        @Override
+        public synchronized void onInfo(SearchInfo info) {
+            line.setLength(0);
+            info.appendUci(line);
+            ObjectNode event = WorkerProtocol.event(WorkerProtocol.INFO);
+            event.put(WorkerProtocol.LINE, line.toString());
+            write(event);
+        }
+
+        private synchronized void write(ObjectNode event) {
+            if (!clientGone) {
+                try {
+                    writer.write(WorkerProtocol.MAPPER.writeValueAsString(event));
+                    writer.write('\n');
+                    writer.flush();
+                } catch (IOException e) {
+                    log.warn("The client went away before its job finished", e);
+                    clientGone = true;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.nashss.se.chessplayerservice.engine;
+
+import com.nashss.se.chessplayerservice.chess.Evaluation;
+import com.nashss.se.chessplayerservice.chess.Position;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A deterministic backend that does not search: it always plays the first legal move in alphabetical order and
+ * evaluates with the static {@link Evaluation}. Its answers depend only on the position, so tests and benchmarks of
+ * the code around the engine are repeatable and cost next to nothing.
+ */
+public class FakeEngine implements ChessEngine {
+
+    @Override
+    public String bestMove(Position position, EngineProfile profile, int moveTimeMillis) {
+        return firstMove(position);
+    }
+
+    @Override
+    public List<String> legalMoves(Position position) {
+        return position.legalMoves();
+    }
+
+    @Override
+    public int evaluate(Position position) {
+        return Evaluation.evaluate(position.toBoard());
+    }
+
+    @Override
+    public Analysis analyze(Position position, int depth) {
+        String move = firstMove(position);
+        return new Analysis(move, evaluate(position), null, depth, List.of(move));
+    }
+
+    private static String firstMove(Position position) {
+        List<String> moves = new ArrayList<>(position.legalMoves());
+        if (moves.isEmpty()) {
+            throw new IllegalArgumentException("There are no legal moves in " + position);
+        }
+        Collections.sort(moves);
+        return moves.get(0);
+    }
+}
@@ -0,0 +1,127 @@
+package com.nashss.se.chessplayerservice.engine;
+
+import com.nashss.se.chessplayerservice.chess.Position;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Analyses many positions of a game at once, such as every ply of a finished game.
+ * <p>
+ * The positions are split in halves, fork-join style, until each task holds a short run of consecutive plies, which
+ * are analysed in order under a key of the task's own, so a backend that keeps hash tables between searches analyses
+ * them on one engine. The pool's parallelism bounds how many searches run at the same time, so it should match the
+ * number of engine processes available. Every task checks the deadline before each ply and leaves
+ * the rest unanalysed once it has passed, so a long game is analysed over several calls.
+ */
+public class GameAnalyzer {
+    public static final int DEFAULT_DEPTH = 12;
+    /** Plies one task analyses in order on one engine, long enough for its hash table to help between them. */
+    static final int PLIES_PER_TASK = 8;
+
+    private static final Logger log = LogManager.getLogger();
+
+    private final ChessEngine engine;
+    private final ForkJoinPool forkJoinPool;
+    private final int depth;
+
+    /**
+     * Instantiates a new GameAnalyzer.
+     *
+     * @param engine the engine that analyses each position
+     * @param maxConcurrentSearches the most searches running at the same time
+     * @param depth the depth each position is analysed to
+     */
+    public GameAnalyzer(ChessEngine engine, int maxConcurrentSearches, int depth) {
+        this.engine = engine;
+        this.forkJoinPool = new ForkJoinPool(maxConcurrentSearches);
+        this.depth = depth;
+    }
+
+    /**
+     * Analyses the positions that have not been analysed yet, as part of the calling thread's {@link EngineJob}.
+     *
+     * @param gameId the game the positions are from
+     * @param positions the positions, each with at least one legal move
+     * @param results the analysis of each position, null where it is still missing; filled in place
+     * @param deadlineNanos the {@link System#nanoTime()} after which no new search starts
+     * @return the number of positions analysed by this call
+     */
+    public int analyze(String gameId, List<Position> positions, Analysis[] results, long deadlineNanos) {
+        int[] missing = new int[positions.size()];
+        int count = 0;
+        for (int i = 0; i < positions.size(); i++) {
+            if (results[i] == null) {
+                missing[count++] = i;
+            }
+        }
+        if (count == 0) {
+            return 0;
+        }
+        AnalyzeTask task = new AnalyzeTask(EngineJob.current(), gameId, positions, results, missing, 0, count,
+                deadlineNanos);
+        forkJoinPool.invoke(task);
+        int analysed = 0;
+        for (int i = 0; i < count; i++) {
+            if (results[missing[i]] != null) {
+                analysed++;
+            }
+        }
+        log.info("Analysed {} of {} missing positions", analysed, count);
+        return analysed;
+    }
+
+    public int getMaxConcurrentSearches() {
+        return forkJoinPool.getParallelism();
+    }
+
+    /**
+     * Analyses the missing positions from index {@code from} to {@code to} of the missing array.
+     */
+    private final class AnalyzeTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final transient EngineJob job;
+        private final String gameId;
+        private final transient List<Position> positions;
+        private final transient Analysis[] results;
+        private final int[] missing;
+        private final int from;
+        private final int to;
+        private final long deadlineNanos;
+
+        private AnalyzeTask(EngineJob job, String gameId, List<Position> positions, Analysis[] results, int[] missing,
+                            int from, int to, long deadlineNanos) {
+            this.job = job;
+            this.gameId = gameId;
+            this.positions = positions;
+            this.results = results;
+            this.missing = missing;
+            this.from = from;
+            this.to = to;
+            this.deadlineNanos = deadlineNanos;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > PLIES_PER_TASK) {
+                int middle = (from + to) >>> 1;
+                invokeAll(new AnalyzeTask(job, gameId, positions, results, missing, from, middle, deadlineNanos),
+                        new AnalyzeTask(job, gameId, positions, results, missing, middle, to, deadlineNanos));
+                return;
+            }
+            // The pool's workers search on behalf of the caller's job
+            String runKey = gameId + "#" + from;
+            EngineJob.run(job.getPriority(), job.getOwner(), () -> {
+                for (int i = from; i < to && System.nanoTime() < deadlineNanos; i++) {
+                    int ply = missing[i];
+                    results[ply] = engine.analyze(runKey, positions.get(ply), depth);
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,308 @@
+package com.nashss.se.chessplayerservice.engine;
+
+import com.nashss.se.chessplayerservice.chess.Board;
+import com.nashss.se.chessplayerservice.chess.Evaluation;
+import com.nashss.se.chessplayerservice.chess.Move;
+import com.nashss.se.chessplayerservice.chess.MoveGenerator;
+import com.nashss.se.chessplayerservice.chess.Piece;
+import com.nashss.se.chessplayerservice.chess.Position;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+/**
+ * A small in-process engine for the easiest bots, so their games never need the Stockfish subprocess.
+ * <p>
+ * It runs an iteratively deepened alpha-beta search with a capture-only quiescence search over {@link Evaluation},
+ * capped at a shallow depth per difficulty. Every root move is then scored with random noise added, wider at lower
+ * difficulties, and the best noisy score is played, which makes weak bots miss things the way weak players do.
+ * A move's search also stops at the node budget of the difficulty's {@link EngineProfile} or at its movetime, but
+ * only once the first depth is done, so every root move has a real score; one ply and its captures are cheap even
+ * when the movetime is already spent. Analysis uses the same search without the noise, the difficulty's depth cap or
+ * its node budget.
+ */
+public class JavaEngine implements ChessEngine {
+    public static final int MAX_DIFFICULTY = 5;
+
+    /** Search depth by difficulty. */
+    private static final int[] MAX_DEPTH = {1, 1, 2, 2, 3, 3};
+    /** Largest random change to a root move's score, in centipawns, by difficulty. */
+    private static final int[] NOISE_CP = {300, 200, 120, 80, 40, 20};
+    /** Node limit of an analysis, and of a move whose profile has no node budget. */
+    private static final long MAX_NODES = 200_000;
+
+    private static final int MATE = 30_000;
+    private static final int MAX_PLY = 64;
+    private static final int TIME_CHECK_MASK = 1023;
+
+    private final Supplier<Random> random;
+
+    /**
+     * Instantiates a new JavaEngine with thread-local randomness.
+     */
+    public JavaEngine() {
+        this(ThreadLocalRandom::current);
+    }
+
+    /**
+     * Instantiates a new JavaEngine with a fixed source of randomness, for repeatable games.
+     *
+     * @param random the source of the noise added to root moves
+     */
+    public JavaEngine(Random random) {
+        this(() -> random);
+    }
+
+    private JavaEngine(Supplier<Random> random) {
+        this.random = random;
+    }
+
+    /**
+     * Checks whether a difficulty is easy enough to be played by this engine.
+     *
+     * @param botDifficulty the bot difficulty, or null for none
+     * @return true for difficulties 0 to {@link #MAX_DIFFICULTY}
+     */
+    public static boolean handles(Integer botDifficulty) {
+        return botDifficulty != null && botDifficulty <= MAX_DIFFICULTY;
+    }
+
+    @Override
+    public String bestMove(Position position, EngineProfile profile, int moveTimeMillis) {
+        int difficulty = Math.max(0, Math.min(MAX_DIFFICULTY, profile.getSkillLevel()));
+        Search search = new Search(position, System.nanoTime() + moveTimeMillis * 1_000_000L, nodeLimit(profile));
+        int[] scores = search.searchRoot(MAX_DEPTH[difficulty]);
+
+        Random noise = random.get();
+        int best = 0;
+        int bestScore = Integer.MIN_VALUE;
+        for (int i = 0; i < search.rootCount; i++) {
+            int score = scores[i] + noise.nextInt(2 * NOISE_CP[difficulty] + 1) - NOISE_CP[difficulty];
+            if (score > bestScore) {
+                bestScore = score;
+                best = i;
+            }
+        }
+        return Move.toUci(search.rootMoves[best]);
+    }
+
+    @Override
+    public List<String> legalMoves(Position position) {
+        return position.legalMoves();
+    }
+
+    @Override
+    public int evaluate(Position position) {
+        return Evaluation.evaluate(position.toBoard());
+    }
+
+    @Override
+    public Analysis analyze(Position position, int depth) {
+        return analyzeLines(position, depth, 1).get(0);
+    }
+
+    @Override
+    public List<Analysis> analyzeLines(Position position, int depth, int lines) {
+        Search search = new Search(position, Long.MAX_VALUE, MAX_NODES);
+        int[] scores = search.searchRoot(Math.max(1, Math.min(depth, MAX_PLY / 2)));
+        // Every root move is searched with a full window, so the scores of the other moves are exact too
+        Integer[] order = new Integer[search.rootCount];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> Integer.compare(scores[b], scores[a]));
+        List<Analysis> analyses = new ArrayList<>();
+        for (int i = 0; i < Math.min(Math.max(1, lines), order.length); i++) {
+            analyses.add(toAnalysis(Move.toUci(search.rootMoves[order[i]]), scores[order[i]], search.completedDepth));
+        }
+        return analyses;
+    }
+
+    /**
+     * Gets the most nodes a move's search may visit.
+     *
+     * @param profile the difficulty's profile
+     * @return the profile's node budget, or {@link #MAX_NODES} if it has none
+     */
+    static long nodeLimit(EngineProfile profile) {
+        return profile.getNodes() > 0 ? profile.getNodes() : MAX_NODES;
+    }
+
+    private static Analysis toAnalysis(String move, int score, int depth) {
+        if (Math.abs(score) < MATE - MAX_PLY) {
+            return new Analysis(move, score, null, depth, List.of(move));
+        }
+        // Mate scores count plies from the root, the analysis counts moves
+        int plies = MATE - Math.abs(score);
+        return new Analysis(move, 0, score > 0 ? (plies + 1) / 2 : -(plies / 2), depth, List.of(move));
+    }
+
+    /**
+     * The state of one search, so that the engine itself can be shared between threads.
+     */
+    private static final class Search {
+        private final Board board;
+        private final long deadlineNanos;
+        private final long maxNodes;
+        private final int[] rootMoves = new int[MoveGenerator.MAX_MOVES];
+        private final int rootCount;
+        private final int[][] moves = new int[MAX_PLY][MoveGenerator.MAX_MOVES];
+        private final int[][] orders = new int[MAX_PLY][MoveGenerator.MAX_MOVES];
+        private long nodes;
+        private boolean stopped;
+        private int completedDepth;
+
+        private Search(Position position, long deadlineNanos, long maxNodes) {
+            this.board = position.toBoard();
+            this.deadlineNanos = deadlineNanos;
+            this.maxNodes = maxNodes;
+            this.rootCount = MoveGenerator.generateLegalMoves(board, rootMoves);
+            if (rootCount == 0) {
+                throw new IllegalArgumentException("There are no legal moves in " + position);
+            }
+        }
+
+        /**
+         * Scores every root move, deepening one ply at a time until the depth is reached or the search runs out of
+         * nodes or time.
+         *
+         * @return the scores of the deepest iteration that finished, indexed like the root moves
+         */
+        private int[] searchRoot(int maxDepth) {
+            int[] scores = new int[rootCount];
+            int[] depthScores = new int[rootCount];
+            for (int depth = 1; depth <= maxDepth; depth++) {
+                for (int i = 0; i < rootCount; i++) {
+                    board.makeMove(rootMoves[i]);
+                    depthScores[i] = -alphaBeta(depth - 1, 1, -MATE, MATE);
+                    board.unmakeMove(rootMoves[i]);
+                }
+                if (stopped) {
+                    // Keep the scores of the last depth that finished
+                    break;
+                }
+                System.arraycopy(depthScores, 0, scores, 0, rootCount);
+                completedDepth = depth;
+            }
+            return scores;
+        }
+
+        private int alphaBeta(int depth, int ply, int alpha, int beta) {
+            if (depth <= 0 || ply >= MAX_PLY - 1) {
+                return quiesce(ply, alpha, beta);
+            }
+            if (shouldStop()) {
+                return 0;
+            }
+            int count = MoveGenerator.generateLegalMoves(board, moves[ply]);
+            if (count == 0) {
+                return board.isInCheck() ? -MATE + ply : 0;
+            }
+            orderMoves(ply, count, false);
+            int best = -MATE;
+            int bound = alpha;
+            for (int i = 0; i < count; i++) {
+                int move = moves[ply][i];
+                board.makeMove(move);
+                int score = -alphaBeta(depth - 1, ply + 1, -beta, -bound);
+                board.unmakeMove(move);
+                if (score > best) {
+                    best = score;
+                    bound = Math.max(bound, score);
+                    if (bound >= beta) {
+                        break;
+                    }
+                }
+            }
+            return best;
+        }
+
+        private int quiesce(int ply, int alpha, int beta) {
+            if (shouldStop()) {
+                return 0;
+            }
+            int standPat = Evaluation.evaluate(board);
+            if (standPat >= beta || ply >= MAX_PLY - 1) {
+                return standPat;
+            }
+            int bound = Math.max(alpha, standPat);
+            int count = orderMoves(ply, MoveGenerator.generateLegalMoves(board, moves[ply]), true);
+            for (int i = 0; i < count; i++) {
+                int move = moves[ply][i];
+                board.makeMove(move);
+                int score = -quiesce(ply + 1, -beta, -bound);
+                board.unmakeMove(move);
+                if (score > bound) {
+                    bound = score;
+                    if (bound >= beta) {
+                        break;
+                    }
+                }
+            }
+            return bound;
+        }
+
+        /**
+         * Sorts the moves at a ply with captures first, most valuable victim and then least valuable attacker.
+         *
+         * @return the number of moves kept, which is only the captures and promotions when capturesOnly is set
+         */
+        private int orderMoves(int ply, int count, boolean capturesOnly) {
+            int[] list = moves[ply];
+            int[] order = orders[ply];
+            int kept = 0;
+            for (int i = 0; i < count; i++) {
+                int score = captureScore(list[i]);
+                if (capturesOnly && score == 0) {
+                    continue;
+                }
+                list[kept] = list[i];
+                order[kept++] = score;
+            }
+            // Insertion sort, move lists are short
+            for (int i = 1; i < kept; i++) {
+                int move = list[i];
+                int score = order[i];
+                int j = i - 1;
+                while (j >= 0 && order[j] < score) {
+                    list[j + 1] = list[j];
+                    order[j + 1] = order[j];
+                    j--;
+                }
+                list[j + 1] = move;
+                order[j + 1] = score;
+            }
+            return kept;
+        }
+
+        private int captureScore(int move) {
+            int kind = Move.kind(move);
+            if (kind == Move.EN_PASSANT) {
+                return Evaluation.PIECE_VALUES[Piece.PAWN] * 10;
+            }
+            if (kind == Move.PROMOTION) {
+                return Evaluation.PIECE_VALUES[Move.promotionType(move)] * 10;
+            }
+            int victim = kind == Move.CASTLING ? Piece.NONE : board.pieceAt(Move.to(move));
+            if (victim == Piece.NONE) {
+                return 0;
+            }
+            int attacker = Piece.type(board.pieceAt(Move.from(move)));
+            return Evaluation.PIECE_VALUES[Piece.type(victim)] * 10 - Evaluation.PIECE_VALUES[attacker] / 10;
+        }
+
+        private boolean shouldStop() {
+            nodes++;
+            // Neither limit ends the search before the first depth has scored every root move
+            if ((nodes & TIME_CHECK_MASK) == 0 && completedDepth > 0 &&
+                    (nodes >= maxNodes || System.nanoTime() >= deadlineNanos)) {
+                stopped = true;
+            }
+            return stopped;
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.nashss.se.chessplayerservice.engine;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Keeps the last search info of every line of a "MultiPV" search, each in its own reused slot, and passes every info
+ * on to another listener.
+ */
+final class MultiPvCollector implements SearchInfoListener {
+    private final SearchInfo[] lastInfos;
+    private final SearchInfoListener next;
+
+    /**
+     * Instantiates a new MultiPvCollector.
+     *
+     * @param lines the number of lines the search was asked for
+     * @param next the listener every info is passed on to
+     */
+    MultiPvCollector(int lines, SearchInfoListener next) {
+        this.lastInfos = new SearchInfo[lines];
+        this.next = next;
+    }
+
+    @Override
+    public void onInfo(SearchInfo info) {
+        next.onInfo(info);
+        int line = info.getMultiPv() - 1;
+        if (line >= 0 && line < lastInfos.length && info.getPvLength() > 0) {
+            if (lastInfos[line] == null) {
+                lastInfos[line] = new SearchInfo();
+            }
+            lastInfos[line].copyFrom(info);
+        }
+    }
+
+    /**
+     * Creates the analysis of each line the engine reported.
+     *
+     * @return the lines, best first, or none if the engine reported no principal variation
+     */
+    List<Analysis> toAnalyses() {
+        List<Analysis> analyses = new ArrayList<>(lastInfos.length);
+        for (SearchInfo info : lastInfos) {
+            if (info != null) {
+                analyses.add(Analysis.fromSearchInfo(info, info.getPvMove(0)));
+            }
+        }
+        return analyses;
+    }
+}
@@ -0,0 +1,88 @@
+package com.nashss.se.chessplayerservice.engine;
+
+import com.nashss.se.chessplayerservice.chess.Position;
+
+import java.util.List;
+import java.util.OptionalDouble;
+import java.util.OptionalLong;
+import java.util.function.Function;
+
+/**
+ * The native backend: every call opens an {@link EngineSession} on a warm Stockfish process from the pool and closes
+ * it when done, so any number of threads may call it at once, each with a process of its own. A game's moves, and a
+ * run of analysed positions, are searched on the engine that searched the last one whenever it is free, so its hash
+ * table carries over.
+ */
+public class NativeEngine implements ChessEngine {
+    private final StockfishPool stockfishPool;
+
+    /**
+     * Instantiates a new NativeEngine.
+     *
+     * @param stockfishPool the pool of warm Stockfish processes
+     */
+    public NativeEngine(StockfishPool stockfishPool) {
+        this.stockfishPool = stockfishPool;
+    }
+
+    @Override
+    public String bestMove(Position position, EngineProfile profile, int moveTimeMillis) {
+        return withStockfish(stockfish -> stockfish.bestMove(position, profile, moveTimeMillis));
+    }
+
+    @Override
+    public String bestMove(String gameId, Position position, EngineProfile profile, int moveTimeMillis,
+                           SearchInfoListener listener) {
+        try (EngineSession session = EngineSession.open(stockfishPool, gameId)) {
+            return session.bestMove(gameId, position, profile, moveTimeMillis, listener);
+        }
+    }
+
+    @Override
+    public List<String> legalMoves(Position position) {
+        return withStockfish(stockfish -> stockfish.legalMoves(position));
+    }
+
+    @Override
+    public int evaluate(Position position) {
+        return withStockfish(stockfish -> stockfish.evaluate(position));
+    }
+
+    @Override
+    public Analysis analyze(Position position, int depth) {
+        return withStockfish(stockfish -> stockfish.analyze(position, depth));
+    }
+
+    @Override
+    public Analysis analyze(String runKey, Position position, int depth) {
+        try (EngineSession session = EngineSession.open(stockfishPool, runKey)) {
+            return session.analyze(position, depth);
+        }
+    }
+
+    @Override
+    public List<Analysis> analyzeLines(Position position, int depth, int lines) {
+        return withStockfish(stockfish -> stockfish.analyzeLines(position, depth, lines));
+    }
+
+    @Override
+    public TablebaseResult probeTablebase(Position position, String syzygyPath) {
+        return withStockfish(stockfish -> stockfish.probeTablebase(position, syzygyPath));
+    }
+
+    @Override
+    public OptionalLong takeQueueWaitMillis() {
+        return OptionalLong.of(stockfishPool.takeQueueWaitMillis());
+    }
+
+    @Override
+    public OptionalDouble takeUtilization() {
+        return OptionalDouble.of(stockfishPool.takeUtilization());
+    }
+
+    private <T> T withStockfish(Function<EngineSession, T> task) {
+        try (EngineSession session = EngineSession.open(stockfishPool)) {
+            return task.apply(session);
+        }
+    }
+}
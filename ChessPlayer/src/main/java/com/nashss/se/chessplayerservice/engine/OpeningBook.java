@@ -0,0 +1,247 @@
+package com.nashss.se.chessplayerservice.engine;
+
+import com.nashss.se.chessplayerservice.chess.Bitboards;
+import com.nashss.se.chessplayerservice.chess.Board;
+import com.nashss.se.chessplayerservice.chess.Move;
+import com.nashss.se.chessplayerservice.chess.MoveGenerator;
+import com.nashss.se.chessplayerservice.chess.Piece;
+import com.nashss.se.chessplayerservice.chess.PolyglotKeys;
+import com.nashss.se.chessplayerservice.chess.Position;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * An opening book in Polyglot's ".bin" format, memory-mapped and searched in place.
+ * <p>
+ * A Polyglot book is a sorted array of 16-byte big-endian entries: a 64-bit position key, a 16-bit move, a 16-bit
+ * weight and 32 bits of learning data that are ignored here. Lookups binary search the mapped file, so opening a book
+ * costs nothing but a mapping and the operating system pages in only the parts that are read.
+ * <p>
+ * Moves are picked at random in proportion to their weight raised to a power that grows with the skill level. Strong
+ * bots stick to the main lines, while weak bots spread their choices across every move in the book.
+ */
+public class OpeningBook {
+    public static final String BOOK_FILE = "book.bin";
+    public static final String KEYS_FILE = "polyglot-random64.bin";
+    public static final int ENTRY_SIZE = 16;
+
+    private static final Logger log = LogManager.getLogger();
+
+    private static final int MAX_SKILL_LEVEL = 20;
+    private static final double MIN_WEIGHT_EXPONENT = 0.25;
+    private static final double MAX_WEIGHT_EXPONENT = 2.0;
+    private static final int MAX_CANDIDATES = 64;
+    private static final int[] PROMOTION_TYPES = {Piece.NONE, Piece.KNIGHT, Piece.BISHOP, Piece.ROOK, Piece.QUEEN};
+
+    private final ByteBuffer entries;
+    private final PolyglotKeys keys;
+    private final int size;
+
+    /**
+     * Instantiates a new OpeningBook over entries already in memory.
+     *
+     * @param entries the book's bytes, a whole number of 16-byte entries sorted by key
+     * @param keys the Polyglot hasher matching the book
+     */
+    public OpeningBook(ByteBuffer entries, PolyglotKeys keys) {
+        this.entries = entries.duplicate();
+        this.keys = keys;
+        this.size = entries.remaining() / ENTRY_SIZE;
+    }
+
+    /**
+     * Memory-maps a Polyglot book.
+     *
+     * @param bookFile the ".bin" book
+     * @param keys the Polyglot hasher matching the book
+     * @return the book
+     * @throws IOException if the file cannot be mapped
+     */
+    public static OpeningBook open(Path bookFile, PolyglotKeys keys) throws IOException {
+        try (FileChannel channel = FileChannel.open(bookFile, StandardOpenOption.READ)) {
+            // The mapping stays valid after the channel is closed
+            return new OpeningBook(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()), keys);
+        }
+    }
+
+    /**
+     * Opens the book shipped next to the engine binary, in "engine/" locally and in the function package's "lib/"
+     * when deployed, alongside Polyglot's key table. Without a book, or without the key table needed to read it,
+     * the returned book is empty and every position falls through to the engine.
+     *
+     * @return the book, possibly empty
+     */
+    public static OpeningBook load() {
+        Path bookFile = EngineBinary.findEngineFile(BOOK_FILE);
+        Path keysFile = EngineBinary.findEngineFile(KEYS_FILE);
+        if (bookFile == null) {
+            log.info("No opening book found, every move will be searched");
+            return empty();
+        }
+        if (keysFile == null) {
+            log.warn("Found opening book {} but not {} to read it with, every move will be searched", bookFile,
+                    KEYS_FILE);
+            return empty();
+        }
+        try {
+            return open(bookFile, PolyglotKeys.load(keysFile));
+        } catch (IOException e) {
+            log.warn("The opening book could not be opened, every move will be searched", e);
+            return empty();
+        }
+    }
+
+    /**
+     * Creates a book without any entries.
+     *
+     * @return the empty book
+     */
+    public static OpeningBook empty() {
+        return new OpeningBook(ByteBuffer.allocate(0), null);
+    }
+
+    /**
+     * Picks a book move for a position.
+     *
+     * @param position the position
+     * @param skillLevel the bot's skill level from 0 to 20, or null to play at full strength
+     * @return the move in UCI notation, or null if the position is not in the book
+     */
+    public String pickMove(Position position, Integer skillLevel) {
+        return pickMove(position, skillLevel, ThreadLocalRandom.current());
+    }
+
+    /**
+     * Picks a book move for a position.
+     *
+     * @param position the position
+     * @param skillLevel the bot's skill level from 0 to 20, or null to play at full strength
+     * @param random the source of randomness for the weighted choice
+     * @return the move in UCI notation, or null if the position is not in the book
+     */
+    public String pickMove(Position position, Integer skillLevel, Random random) {
+        if (size == 0) {
+            return null;
+        }
+        long key = keys.hash(position);
+        int first = lowerBound(key);
+        Board board = position.toBoard();
+        double exponent = weightExponent(skillLevel);
+
+        int[] moves = new int[MAX_CANDIDATES];
+        double[] weights = new double[MAX_CANDIDATES];
+        int count = 0;
+        double total = 0;
+        for (int i = first; i < size && keyAt(i) == key && count < MAX_CANDIDATES; i++) {
+            int weight = entries.getShort(i * ENTRY_SIZE + 10) & 0xFFFF;
+            int move = toLegalMove(board, entries.getShort(i * ENTRY_SIZE + 8) & 0xFFFF);
+            if (weight == 0 || move == Move.NONE) {
+                continue;
+            }
+            moves[count] = move;
+            weights[count] = Math.pow(weight, exponent);
+            total += weights[count++];
+        }
+        if (count == 0) {
+            return null;
+        }
+        double pick = random.nextDouble() * total;
+        for (int i = 0; i < count - 1; i++) {
+            pick -= weights[i];
+            if (pick < 0) {
+                return Move.toUci(moves[i]);
+            }
+        }
+        return Move.toUci(moves[count - 1]);
+    }
+
+    /**
+     * Lists a position's book moves, most often played first, such as the replies a player is likely to choose.
+     *
+     * @param position the position
+     * @param limit the most moves to return
+     * @return the moves in UCI notation, empty if the position is not in the book
+     */
+    public List<String> likelyMoves(Position position, int limit) {
+        if (size == 0) {
+            return List.of();
+        }
+        long key = keys.hash(position);
+        Board board = position.toBoard();
+        List<int[]> candidates = new ArrayList<>();
+        for (int i = lowerBound(key); i < size && keyAt(i) == key && candidates.size() < MAX_CANDIDATES; i++) {
+            int weight = entries.getShort(i * ENTRY_SIZE + 10) & 0xFFFF;
+            int move = toLegalMove(board, entries.getShort(i * ENTRY_SIZE + 8) & 0xFFFF);
+            if (weight != 0 && move != Move.NONE) {
+                candidates.add(new int[] {move, weight});
+            }
+        }
+        candidates.sort((a, b) -> Integer.compare(b[1], a[1]));
+        List<String> moves = new ArrayList<>();
+        for (int i = 0; i < Math.min(limit, candidates.size()); i++) {
+            moves.add(Move.toUci(candidates.get(i)[0]));
+        }
+        return moves;
+    }
+
+    /**
+     * Gets the number of entries in the book.
+     *
+     * @return the number of entries
+     */
+    public int size() {
+        return size;
+    }
+
+    private static double weightExponent(Integer skillLevel) {
+        int skill = skillLevel == null ? MAX_SKILL_LEVEL : Math.max(0, Math.min(MAX_SKILL_LEVEL, skillLevel));
+        return MIN_WEIGHT_EXPONENT + (MAX_WEIGHT_EXPONENT - MIN_WEIGHT_EXPONENT) * skill / MAX_SKILL_LEVEL;
+    }
+
+    private int lowerBound(long key) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (Long.compareUnsigned(keyAt(mid), key) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private long keyAt(int index) {
+        return entries.getLong(index * ENTRY_SIZE);
+    }
+
+    private static int toLegalMove(Board board, int polyglotMove) {
+        int to = polyglotMove & 0x3F;
+        int from = (polyglotMove >>> 6) & 0x3F;
+        int promotion = PROMOTION_TYPES[Math.min((polyglotMove >>> 12) & 0x7, PROMOTION_TYPES.length - 1)];
+        // Polyglot writes castling as the king capturing its own rook
+        if (Piece.type(board.pieceAt(from)) == Piece.KING && board.pieceAt(to) != Piece.NONE &&
+                Piece.color(board.pieceAt(to)) == Piece.color(board.pieceAt(from))) {
+            to = to > from ? from + 2 : from - 2;
+        }
+        StringBuilder uci = new StringBuilder(5);
+        Bitboards.appendSquare(from, uci);
+        Bitboards.appendSquare(to, uci);
+        if (promotion != Piece.NONE) {
+            uci.append(Piece.toPromotionChar(promotion));
+        }
+        return MoveGenerator.findLegalMove(board, uci.toString());
+    }
+}
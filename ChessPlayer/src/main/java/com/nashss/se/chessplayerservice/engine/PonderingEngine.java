@@ -0,0 +1,173 @@
+package com.nashss.se.chessplayerservice.engine;
+
+import com.nashss.se.chessplayerservice.chess.Position;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The native backend with pondering: after the engine moves in a game, it keeps the same Stockfish process and
+ * searches the reply it expects while the player thinks.
+ * <p>
+ * Each game being pondered holds on to its engine, which is the game's affinity to a process. When the player's move
+ * arrives and it is the expected reply, a "ponderhit" answers from the warm, deeper search almost at once. Otherwise
+ * the ponder search is stopped and the position is searched as usual on the same engine. Held engines are given back
+ * to the pool when their game ends, when more games are pondered than the pool has engines, or whenever another
+ * caller finds the pool empty.
+ */
+public class PonderingEngine extends NativeEngine {
+    private static final Logger log = LogManager.getLogger();
+
+    private final StockfishPool stockfishPool;
+    private final Map<String, PonderSession> sessions = new LinkedHashMap<>(16, 0.75f, true);
+    private final AtomicLong ponderHits = new AtomicLong();
+    private final AtomicLong ponderMisses = new AtomicLong();
+
+    /**
+     * Instantiates a new PonderingEngine and lets the pool reclaim pondering engines when it runs out.
+     *
+     * @param stockfishPool the pool of warm Stockfish processes
+     */
+    public PonderingEngine(StockfishPool stockfishPool) {
+        super(stockfishPool);
+        this.stockfishPool = stockfishPool;
+        stockfishPool.setReclaimer(this::releaseOldestSession);
+    }
+
+    @Override
+    public String bestMove(String gameId, Position position, EngineProfile profile, int moveTimeMillis,
+                           SearchInfoListener listener) {
+        PonderSession session = takeSession(gameId);
+        Stockfish stockfish = session == null ? stockfishPool.lease(gameId) : session.stockfish;
+        try {
+            List<String> output = search(session, stockfish, position, profile, moveTimeMillis, listener);
+            String[] bestMove = output.get(output.size() - 1).trim().split(" ");
+            ponder(gameId, stockfish, position.play(bestMove[1]), bestMove.length > 3 ? bestMove[3] : null,
+                    profile, moveTimeMillis);
+            return bestMove[1];
+        } catch (RuntimeException e) {
+            stockfishPool.release(stockfish);
+            throw e;
+        }
+    }
+
+    private List<String> search(PonderSession session, Stockfish stockfish, Position position, EngineProfile profile,
+                                int moveTimeMillis, SearchInfoListener listener) {
+        boolean hit = session != null && session.isHit(position, profile);
+        if (session != null && !hit) {
+            ponderMisses.incrementAndGet();
+            stockfish.stopPonder();
+        }
+        // The listener only hears this move's search, never an abandoned ponder search or the one that follows
+        stockfish.setSearchInfoListener(listener);
+        try {
+            if (hit) {
+                ponderHits.incrementAndGet();
+                return stockfish.ponderHit();
+            }
+            return stockfish.search(position, profile, moveTimeMillis);
+        } finally {
+            stockfish.setSearchInfoListener(null);
+        }
+    }
+
+    @Override
+    public void endGame(String gameId) {
+        PonderSession session = takeSession(gameId);
+        if (session != null) {
+            stockfishPool.release(session.stockfish);
+        }
+    }
+
+    public long getPonderHits() {
+        return ponderHits.get();
+    }
+
+    public long getPonderMisses() {
+        return ponderMisses.get();
+    }
+
+    /**
+     * Counts the games whose engine is pondering right now.
+     *
+     * @return the number of games
+     */
+    public synchronized int size() {
+        return sessions.size();
+    }
+
+    private void ponder(String gameId, Stockfish stockfish, Position afterMove, String expectedReply,
+                        EngineProfile profile, int moveTimeMillis) {
+        // Only ponder a reply that is legal, the engine gives none when its move ends the game
+        if (expectedReply == null || !afterMove.legalMoves().contains(expectedReply)) {
+            stockfishPool.release(stockfish);
+            return;
+        }
+        stockfish.startPonder(afterMove, expectedReply, profile, moveTimeMillis);
+        PonderSession evicted = putSession(gameId,
+                new PonderSession(stockfish, afterMove.play(expectedReply), profile));
+        if (evicted != null) {
+            stockfishPool.release(evicted.stockfish);
+        }
+    }
+
+    private synchronized PonderSession takeSession(String gameId) {
+        return sessions.remove(gameId);
+    }
+
+    private synchronized PonderSession putSession(String gameId, PonderSession session) {
+        sessions.put(gameId, session);
+        if (sessions.size() <= stockfishPool.getPoolSize()) {
+            return null;
+        }
+        return removeOldest();
+    }
+
+    private boolean releaseOldestSession() {
+        PonderSession oldest;
+        synchronized (this) {
+            oldest = removeOldest();
+        }
+        if (oldest == null) {
+            return false;
+        }
+        log.debug("Reclaiming a pondering engine for another caller");
+        stockfishPool.release(oldest.stockfish);
+        return true;
+    }
+
+    private PonderSession removeOldest() {
+        Iterator<PonderSession> iterator = sessions.values().iterator();
+        if (!iterator.hasNext()) {
+            return null;
+        }
+        PonderSession oldest = iterator.next();
+        iterator.remove();
+        return oldest;
+    }
+
+    /**
+     * An engine pondering one game's expected position.
+     */
+    private static final class PonderSession {
+        private final Stockfish stockfish;
+        private final Position expected;
+        private final EngineProfile profile;
+
+        private PonderSession(Stockfish stockfish, Position expected, EngineProfile profile) {
+            this.stockfish = stockfish;
+            this.expected = expected;
+            this.profile = profile;
+        }
+
+        private boolean isHit(Position position, EngineProfile searchProfile) {
+            return expected.equals(position) && profile == searchProfile;
+        }
+    }
+}
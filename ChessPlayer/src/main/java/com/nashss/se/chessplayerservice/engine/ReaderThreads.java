@@ -0,0 +1,68 @@
+package com.nashss.se.chessplayerservice.engine;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Creates the threads that read engine output.
+ * <p>
+ * A reader spends nearly all of its life blocked on the engine's output, so on runtimes with virtual threads each
+ * reader is a virtual thread, and an idle engine costs no platform thread. Older runtimes, such as the function's
+ * Java 11, get daemon platform threads. Virtual threads are looked up reflectively so the code still compiles for
+ * those runtimes.
+ */
+final class ReaderThreads {
+    private static final Logger log = LogManager.getLogger();
+    private static final ThreadFactory FACTORY = createFactory();
+
+    private ReaderThreads() {
+    }
+
+    /**
+     * Creates an unstarted reader thread.
+     *
+     * @param reader the read loop
+     * @param name the thread's name
+     * @return the thread
+     */
+    static Thread newThread(Runnable reader, String name) {
+        Thread thread = FACTORY.newThread(reader);
+        thread.setName(name);
+        return thread;
+    }
+
+    /**
+     * Checks whether readers run on virtual threads.
+     *
+     * @return true if the runtime has virtual threads
+     */
+    static boolean isVirtual() {
+        return !(FACTORY instanceof PlatformThreadFactory);
+    }
+
+    private static ThreadFactory createFactory() {
+        try {
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            Method factory = Class.forName("java.lang.Thread$Builder").getMethod("factory");
+            return (ThreadFactory) factory.invoke(builder);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            log.debug("Virtual threads are not available, reading engine output on platform threads");
+            return new PlatformThreadFactory();
+        }
+    }
+
+    /**
+     * Creates daemon threads, so a reader never keeps the JVM alive.
+     */
+    private static final class PlatformThreadFactory implements ThreadFactory {
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable);
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
@@ -0,0 +1,358 @@
+package com.nashss.se.chessplayerservice.engine;
+
+import com.nashss.se.chessplayerservice.chess.Position;
+import com.nashss.se.chessplayerservice.exceptions.EngineTimeoutException;
+import com.nashss.se.chessplayerservice.exceptions.StockfishException;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.OptionalLong;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * A backend that sends positions to {@link EngineWorker}s running as their own service.
+ * <p>
+ * Every call becomes a {@link SearchJob} posted to a worker, which streams search info back while it searches and
+ * then the result. A game's jobs go to the same worker, picked by a {@link ConsistentHashRing} over the endpoints, so
+ * they find the game's engine warm there. Each job has one deadline of its search time plus a grace period, and a
+ * job the worker could not be reached for, or that a worker dropped, is retried on the next worker on the ring after
+ * a short backoff, with only the time left before that deadline. Jobs that fail on the worker, or miss their
+ * deadline, are not retried, since by then the caller's time is spent; they fail with a {@link StockfishException}
+ * like a local engine would.
+ */
+public class RemoteEngine implements ChessEngine {
+    public static final String ENDPOINT_VARIABLE = "ENGINE_ENDPOINT";
+    public static final int DEFAULT_MAX_ATTEMPTS = 3;
+    public static final long DEFAULT_RETRY_BACKOFF_MILLIS = 100;
+    public static final long CONNECT_TIMEOUT_MILLIS = 1_000;
+
+    private static final Logger log = LogManager.getLogger();
+
+    private final List<URI> endpoints;
+    private final ConsistentHashRing<URI> workers;
+    private final HttpClient httpClient;
+    private final int maxAttempts;
+    private final long retryBackoffMillis;
+    /** The time each calling thread's jobs waited for engines on the workers, as the workers reported it. */
+    private final ThreadLocal<long[]> queueWaitMillis = ThreadLocal.withInitial(() -> new long[1]);
+
+    /**
+     * Instantiates a new RemoteEngine for one worker.
+     *
+     * @param endpoint the worker's base URI
+     */
+    public RemoteEngine(URI endpoint) {
+        this(List.of(endpoint));
+    }
+
+    /**
+     * Instantiates a new RemoteEngine with the default timeouts and retries.
+     *
+     * @param endpoints the base URIs of the workers
+     */
+    public RemoteEngine(List<URI> endpoints) {
+        this(endpoints, HttpClient.newBuilder().connectTimeout(Duration.ofMillis(CONNECT_TIMEOUT_MILLIS)).build(),
+                DEFAULT_MAX_ATTEMPTS, DEFAULT_RETRY_BACKOFF_MILLIS);
+    }
+
+    /**
+     * Instantiates a new RemoteEngine.
+     *
+     * @param endpoints the base URIs of the workers
+     * @param httpClient the client jobs are sent with
+     * @param maxAttempts the most times a job is sent before it fails
+     * @param retryBackoffMillis the wait before the first retry, doubled before each one after it
+     */
+    public RemoteEngine(List<URI> endpoints, HttpClient httpClient, int maxAttempts, long retryBackoffMillis) {
+        if (maxAttempts < 1) {
+            throw new IllegalArgumentException("A job must be sent at least once");
+        }
+        this.endpoints = List.copyOf(endpoints);
+        this.workers = new ConsistentHashRing<>(this.endpoints, ConsistentHashRing.DEFAULT_VIRTUAL_NODES);
+        this.httpClient = httpClient;
+        this.maxAttempts = maxAttempts;
+        this.retryBackoffMillis = retryBackoffMillis;
+    }
+
+    /**
+     * Creates a RemoteEngine for the workers in the "ENGINE_ENDPOINT" environment variable's format.
+     *
+     * @param endpoints the workers' base URIs, separated by commas
+     * @return the engine
+     */
+    public static RemoteEngine fromEndpoints(String endpoints) {
+        List<URI> uris = new ArrayList<>();
+        if (endpoints != null) {
+            for (String endpoint : endpoints.split(",")) {
+                if (!endpoint.isBlank()) {
+                    uris.add(URI.create(endpoint.trim()));
+                }
+            }
+        }
+        if (uris.isEmpty()) {
+            throw new IllegalArgumentException(ENDPOINT_VARIABLE + " must name at least one engine worker");
+        }
+        return new RemoteEngine(uris);
+    }
+
+    @Override
+    public String bestMove(Position position, EngineProfile profile, int moveTimeMillis) {
+        return bestMove(null, position, profile, moveTimeMillis, null);
+    }
+
+    @Override
+    public String bestMove(String gameId, Position position, EngineProfile profile, int moveTimeMillis,
+                           SearchInfoListener listener) {
+        SearchJob job = job(SearchJob.Kind.BEST_MOVE, position)
+                .withGameId(gameId)
+                .withDifficulty(profile.getDifficulty())
+                .withMoveTimeMillis(moveTimeMillis)
+                .build();
+        return run(job, deadlineNanos(job), listener).get(WorkerProtocol.BEST_MOVE).asText();
+    }
+
+    @Override
+    public List<String> legalMoves(Position position) {
+        SearchJob job = job(SearchJob.Kind.LEGAL_MOVES, position).build();
+        return WorkerProtocol.strings(run(job, deadlineNanos(job), null).get(WorkerProtocol.LEGAL_MOVES));
+    }
+
+    @Override
+    public int evaluate(Position position) {
+        SearchJob job = job(SearchJob.Kind.EVALUATE, position).build();
+        return run(job, deadlineNanos(job), null).get(WorkerProtocol.EVALUATION).asInt();
+    }
+
+    @Override
+    public Analysis analyze(Position position, int depth) {
+        return analyze(null, position, depth);
+    }
+
+    @Override
+    public Analysis analyze(String runKey, Position position, int depth) {
+        // The run key stands in for the game, so a run goes to one worker and on to the same engine there
+        SearchJob job = job(SearchJob.Kind.ANALYZE, position).withGameId(runKey).withDepth(depth).build();
+        return WorkerProtocol.analysisFromJson(run(job, deadlineNanos(job), null).get(WorkerProtocol.ANALYSIS));
+    }
+
+    @Override
+    public List<Analysis> analyzeLines(Position position, int depth, int lines) {
+        SearchJob job = job(SearchJob.Kind.ANALYZE_LINES, position).withDepth(depth).withLines(lines).build();
+        List<Analysis> analyses = new ArrayList<>();
+        run(job, deadlineNanos(job), null).get(WorkerProtocol.LINES)
+                .forEach(line -> analyses.add(WorkerProtocol.analysisFromJson(line)));
+        return analyses;
+    }
+
+    @Override
+    public TablebaseResult probeTablebase(Position position, String syzygyPath) {
+        // Workers are packaged with the same engine files as the service, so their tables are at the same path
+        SearchJob job = job(SearchJob.Kind.PROBE_TABLEBASE, position).withSyzygyPath(syzygyPath).build();
+        JsonNode result = run(job, deadlineNanos(job), null);
+        return result.has(WorkerProtocol.OUTCOME) ? new TablebaseResult(result.get(WorkerProtocol.BEST_MOVE).asText(),
+                TablebaseResult.Outcome.valueOf(result.get(WorkerProtocol.OUTCOME).asText())) : null;
+    }
+
+    @Override
+    public OptionalLong takeQueueWaitMillis() {
+        long[] waited = queueWaitMillis.get();
+        long millis = waited[0];
+        waited[0] = 0;
+        return OptionalLong.of(millis);
+    }
+
+    public List<URI> getEndpoints() {
+        return endpoints;
+    }
+
+    /**
+     * Starts a job for a position, as part of the calling thread's {@link EngineJob}.
+     */
+    private static SearchJob.Builder job(SearchJob.Kind kind, Position position) {
+        EngineJob current = EngineJob.current();
+        return SearchJob.builder()
+                .withKind(kind)
+                .withFen(position.toFen())
+                .withPriority(current.getPriority())
+                .withOwner(current.getOwner());
+    }
+
+    /**
+     * Sends a job to its workers in ring order until one answers, backing off between attempts, for as long as the
+     * job's deadline allows.
+     *
+     * @return the "result" event
+     */
+    private JsonNode run(SearchJob job, long deadlineNanos, SearchInfoListener listener) {
+        List<URI> order = workers.preferenceList(job.getGameId() == null ? job.getFen() : job.getGameId());
+        IOException failure = null;
+        for (int attempt = 0; attempt < maxAttempts; attempt++) {
+            if (attempt > 0) {
+                backOff(attempt, deadlineNanos);
+            }
+            long remainingMillis = TimeUnit.NANOSECONDS.toMillis(deadlineNanos - System.nanoTime());
+            if (remainingMillis <= 0) {
+                throw new EngineTimeoutException("No engine worker answered " + job + " before its deadline",
+                        failure);
+            }
+            URI endpoint = order.get(attempt % order.size());
+            try {
+                JsonNode result = send(endpoint, job, listener, remainingMillis);
+                queueWaitMillis.get()[0] += result.path(WorkerProtocol.QUEUE_WAIT).asLong();
+                return result;
+            } catch (IOException e) {
+                log.warn("Engine worker {} did not answer {}, attempt {} of {}", endpoint, job, attempt + 1,
+                        maxAttempts, e);
+                failure = e;
+            }
+        }
+        throw new StockfishException("No engine worker answered " + job, failure);
+    }
+
+    /**
+     * Sends a job to one worker and waits for its result, passing search info on as it arrives.
+     *
+     * @throws IOException if the worker could not be reached or dropped the job, so it may be retried
+     */
+    private JsonNode send(URI endpoint, SearchJob job, SearchInfoListener listener, long timeoutMillis)
+            throws IOException {
+        HttpRequest request = HttpRequest.newBuilder(endpoint.resolve(WorkerProtocol.JOBS_PATH))
+                .timeout(Duration.ofMillis(timeoutMillis))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofByteArray(WorkerProtocol.MAPPER.writeValueAsBytes(job)))
+                .build();
+        EventReader events = new EventReader(listener);
+        CompletableFuture<HttpResponse<Void>> response =
+                httpClient.sendAsync(request, HttpResponse.BodyHandlers.fromLineSubscriber(events));
+        try {
+            // The response completes once the whole stream has been read, so this is the job's deadline
+            int status = response.get(timeoutMillis, TimeUnit.MILLISECONDS).statusCode();
+            if (status >= 500) {
+                throw new IOException("Engine worker " + endpoint + " answered with status " + status);
+            }
+            return events.result(endpoint);
+        } catch (TimeoutException e) {
+            response.cancel(true);
+            throw new EngineTimeoutException("Engine worker " + endpoint + " missed the deadline of " + job, e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (isRetryable(cause)) {
+                throw (IOException) cause;
+            }
+            if (cause instanceof HttpTimeoutException) {
+                throw new EngineTimeoutException("Engine worker " + endpoint + " missed the deadline of " + job, cause);
+            }
+            throw new StockfishException("Could not read the answer to " + job, cause);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new StockfishException("Interrupted while waiting for " + job, e);
+        }
+    }
+
+    /**
+     * Tells whether a failed exchange with a worker may be sent again: it could not be reached or dropped the job,
+     * rather than missing the deadline.
+     */
+    private static boolean isRetryable(Throwable cause) {
+        return cause instanceof IOException && !(cause instanceof HttpTimeoutException);
+    }
+
+    /**
+     * Gives a job, from now, the time the worker's engine may take for it and the same again for the network and the
+     * queue. Every attempt at the job shares this deadline.
+     */
+    private static long deadlineNanos(SearchJob job) {
+        long engineMillis = job.getKind() == SearchJob.Kind.BEST_MOVE ?
+                job.getMoveTimeMillis() + Stockfish.SEARCH_GRACE_MILLIS : UciSession.DEFAULT_COMMAND_TIMEOUT_MILLIS;
+        return System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(engineMillis + Stockfish.SEARCH_GRACE_MILLIS);
+    }
+
+    private void backOff(int attempt, long deadlineNanos) {
+        long remainingMillis = TimeUnit.NANOSECONDS.toMillis(deadlineNanos - System.nanoTime());
+        try {
+            Thread.sleep(Math.max(0, Math.min(retryBackoffMillis << (attempt - 1), remainingMillis)));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new StockfishException("Interrupted while retrying an engine job", e);
+        }
+    }
+
+    /**
+     * Reads a job's event stream: info is parsed into one reused {@link SearchInfo} and handed to the listener as it
+     * arrives, and the result or error is kept for when the stream ends.
+     */
+    private static final class EventReader implements Flow.Subscriber<String> {
+        private final SearchInfoListener listener;
+        private final SearchInfo info = new SearchInfo();
+        private volatile JsonNode result;
+        private volatile JsonNode error;
+
+        private EventReader(SearchInfoListener listener) {
+            this.listener = listener;
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            subscription.request(Long.MAX_VALUE);
+        }
+
+        @Override
+        public void onNext(String line) {
+            try {
+                JsonNode event = WorkerProtocol.MAPPER.readTree(line);
+                String type = event.path(WorkerProtocol.EVENT).asText();
+                if (WorkerProtocol.INFO.equals(type)) {
+                    if (listener != null && UciInfoParser.parse(event.path(WorkerProtocol.LINE).asText(), info)) {
+                        listener.onInfo(info);
+                    }
+                } else if (WorkerProtocol.RESULT.equals(type)) {
+                    result = event;
+                } else if (WorkerProtocol.ERROR.equals(type)) {
+                    error = event;
+                }
+            } catch (IOException e) {
+                log.warn("Skipping an unreadable engine worker event: {}", line, e);
+            }
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            // The response future fails with the same error
+        }
+
+        @Override
+        public void onComplete() {
+            // The response future completes once the stream has
+        }
+
+        private JsonNode result(URI endpoint) throws IOException {
+            if (error != null) {
+                String message = "Engine worker " + endpoint + " failed: " +
+                        error.path(WorkerProtocol.MESSAGE).asText();
+                if (error.path(WorkerProtocol.TIMEOUT).asBoolean()) {
+                    throw new EngineTimeoutException(message);
+                }
+                throw new StockfishException(message);
+            }
+            if (result == null) {
+                throw new IOException("Engine worker " + endpoint + " closed the stream without a result");
+            }
+            return result;
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package com.nashss.se.chessplayerservice.engine;
+
+/**
+ * Decides how long the engine may search so that a move request finishes within its latency target and never runs
+ * into the Lambda timeout.
+ * <p>
+ * The budget for a search is whatever is left of the request's deadline once the time already spent and the time
+ * still needed after the search are taken out. The deadline is the nearer of the latency target and the Lambda
+ * timeout, both counted from when the request was received. The time needed afterwards is the engine's overhead
+ * beyond the time it reports searching plus saving the game, both estimated at their 99th percentile from recent
+ * requests, so a slow DynamoDB call or a loaded host shrinks the next searches instead of making them late.
+ */
+public class SearchBudget {
+    public static final int MAX_MOVE_TIME_MILLIS = 500;
+    public static final int MIN_MOVE_TIME_MILLIS = 50;
+    public static final long DEFAULT_TARGET_LATENCY_MILLIS = 2_000;
+    public static final long TIMEOUT_MARGIN_MILLIS = 1_000;
+
+    /** Weight of the newest sample in the moving averages. */
+    private static final double SMOOTHING = 0.1;
+    /** Standard deviations above the mean of the 99th percentile of a normal distribution. */
+    private static final double P99_DEVIATIONS = 2.33;
+
+    private final long targetLatencyMillis;
+    private final LatencyEstimate engineOverhead = new LatencyEstimate();
+    private final LatencyEstimate saveLatency = new LatencyEstimate();
+
+    /**
+     * Instantiates a new SearchBudget.
+     *
+     * @param targetLatencyMillis the end-to-end latency a move request should stay within
+     */
+    public SearchBudget(long targetLatencyMillis) {
+        this.targetLatencyMillis = targetLatencyMillis;
+    }
+
+    /**
+     * Computes the movetime for the next search.
+     *
+     * @param elapsedMillis time already spent on the request, since the remaining time was read
+     * @param remainingMillis time that was left before the Lambda times out when the request was received, or null
+     *                        if there is no timeout
+     * @return the movetime in milliseconds, between {@link #MIN_MOVE_TIME_MILLIS} and {@link #MAX_MOVE_TIME_MILLIS}
+     */
+    public int moveTimeMillis(long elapsedMillis, Long remainingMillis) {
+        long available = targetLatencyMillis - elapsedMillis;
+        if (remainingMillis != null) {
+            available = Math.min(available, remainingMillis - elapsedMillis - TIMEOUT_MARGIN_MILLIS);
+        }
+        available -= engineOverhead.p99() + saveLatency.p99();
+        return (int) Math.max(MIN_MOVE_TIME_MILLIS, Math.min(MAX_MOVE_TIME_MILLIS, available));
+    }
+
+    /**
+     * Records how much longer a search took than the engine reports searching. Searches often end before their
+     * movetime, at a node or depth limit, so the movetime says nothing about the overhead, and a wait for a free engine
+     * belongs to that request alone.
+     *
+     * @param searchMillis wall-clock time of the search, including sending the position and waiting for an engine
+     * @param queueWaitMillis the part of it spent waiting for a free engine
+     * @param engineMillis the search time the engine reported
+     */
+    public void recordSearch(long searchMillis, long queueWaitMillis, long engineMillis) {
+        engineOverhead.record(Math.max(0, searchMillis - queueWaitMillis - engineMillis));
+    }
+
+    /**
+     * Records how long it took to save a game after its move was found.
+     *
+     * @param saveMillis wall-clock time of the save
+     */
+    public void recordSave(long saveMillis) {
+        saveLatency.record(saveMillis);
+    }
+
+    public long getTargetLatencyMillis() {
+        return targetLatencyMillis;
+    }
+
+    /**
+     * Estimated 99th percentile of the engine's overhead beyond the time it reports searching.
+     *
+     * @return the estimate in milliseconds
+     */
+    public long getEngineOverheadP99() {
+        return engineOverhead.p99();
+    }
+
+    /**
+     * Estimated 99th percentile of the time needed to save a game.
+     *
+     * @return the estimate in milliseconds
+     */
+    public long getSaveLatencyP99() {
+        return saveLatency.p99();
+    }
+
+    /**
+     * An exponentially weighted mean and variance, from which a 99th percentile is estimated.
+     */
+    private static final class LatencyEstimate {
+        private double mean;
+        private double variance;
+        private boolean seeded;
+
+        private synchronized void record(long millis) {
+            if (!seeded) {
+                mean = millis;
+                seeded = true;
+                return;
+            }
+            double delta = millis - mean;
+            mean += SMOOTHING * delta;
+            variance = (1 - SMOOTHING) * (variance + SMOOTHING * delta * delta);
+        }
+
+        private synchronized long p99() {
+            return (long) Math.ceil(mean + P99_DEVIATIONS * Math.sqrt(variance));
+        }
+    }
+}
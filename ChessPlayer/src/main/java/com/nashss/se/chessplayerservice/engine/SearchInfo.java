@@ -0,0 +1,348 @@
+package com.nashss.se.chessplayerservice.engine;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * One "info" line of a UCI search, such as
+ * {@code info depth 18 seldepth 24 multipv 1 score cp 31 nodes 412345 nps 950000 time 434 pv e2e4 e7e5 g1f3}.
+ * <p>
+ * Search info arrives many times a second, so it is held in a mutable object that {@link UciInfoParser} fills in
+ * place and that is reused for every line; the principal variation is kept as characters rather than strings.
+ * Listeners that keep an info past their callback must {@link #copyFrom copy} it. Scores are from the point of view
+ * of the side to move.
+ */
+public final class SearchInfo {
+    /** The most principal variation moves kept; engines rarely print more. */
+    public static final int MAX_PV_MOVES = 64;
+    /** Longest UCI move, a promotion such as "e7e8q". */
+    private static final int MAX_MOVE_CHARS = 5;
+
+    private int depth;
+    private int selDepth;
+    private int multiPv;
+    private boolean hasScore;
+    private boolean mate;
+    private int score;
+    private boolean lowerBound;
+    private boolean upperBound;
+    private long nodes;
+    private long nps;
+    private long timeMillis;
+    private int hashFull;
+    private long tbHits;
+    private final char[] pvChars = new char[MAX_PV_MOVES * MAX_MOVE_CHARS];
+    private final int[] pvEnds = new int[MAX_PV_MOVES];
+    private int pvLength;
+
+    /**
+     * Instantiates an empty SearchInfo.
+     */
+    public SearchInfo() {
+        reset();
+    }
+
+    /**
+     * Clears every field, ready for the next line.
+     */
+    public void reset() {
+        depth = 0;
+        selDepth = 0;
+        multiPv = 1;
+        hasScore = false;
+        mate = false;
+        score = 0;
+        lowerBound = false;
+        upperBound = false;
+        nodes = 0;
+        nps = 0;
+        timeMillis = 0;
+        hashFull = 0;
+        tbHits = 0;
+        pvLength = 0;
+    }
+
+    /**
+     * Copies every field of another info into this one, without allocating.
+     *
+     * @param other the info to copy
+     */
+    public void copyFrom(SearchInfo other) {
+        depth = other.depth;
+        selDepth = other.selDepth;
+        multiPv = other.multiPv;
+        hasScore = other.hasScore;
+        mate = other.mate;
+        score = other.score;
+        lowerBound = other.lowerBound;
+        upperBound = other.upperBound;
+        nodes = other.nodes;
+        nps = other.nps;
+        timeMillis = other.timeMillis;
+        hashFull = other.hashFull;
+        tbHits = other.tbHits;
+        pvLength = other.pvLength;
+        int chars = pvLength == 0 ? 0 : other.pvEnds[pvLength - 1];
+        System.arraycopy(other.pvChars, 0, pvChars, 0, chars);
+        System.arraycopy(other.pvEnds, 0, pvEnds, 0, pvLength);
+    }
+
+    /**
+     * Gets one move of the principal variation. This allocates the move's string.
+     *
+     * @param index the move's index, from 0 to {@link #getPvLength()} - 1
+     * @return the move in UCI notation
+     */
+    public String getPvMove(int index) {
+        if (index < 0 || index >= pvLength) {
+            throw new IndexOutOfBoundsException("No principal variation move " + index + " of " + pvLength);
+        }
+        int start = index == 0 ? 0 : pvEnds[index - 1];
+        return new String(pvChars, start, pvEnds[index] - start);
+    }
+
+    /**
+     * Appends the principal variation, moves separated by spaces, to a builder.
+     *
+     * @param builder the builder to append to
+     */
+    public void appendPv(StringBuilder builder) {
+        int start = 0;
+        for (int i = 0; i < pvLength; i++) {
+            if (i > 0) {
+                builder.append(' ');
+            }
+            builder.append(pvChars, start, pvEnds[i] - start);
+            start = pvEnds[i];
+        }
+    }
+
+    /**
+     * Appends the info as a UCI "info" line that {@link UciInfoParser} reads back into an equal info, for passing it
+     * on to another process.
+     *
+     * @param builder the builder to append to
+     */
+    public void appendUci(StringBuilder builder) {
+        builder.append("info depth ").append(depth)
+                .append(" seldepth ").append(selDepth)
+                .append(" multipv ").append(multiPv);
+        if (hasScore) {
+            builder.append(mate ? " score mate " : " score cp ").append(score);
+            if (lowerBound) {
+                builder.append(" lowerbound");
+            }
+            if (upperBound) {
+                builder.append(" upperbound");
+            }
+        }
+        builder.append(" nodes ").append(nodes)
+                .append(" nps ").append(nps)
+                .append(" hashfull ").append(hashFull)
+                .append(" tbhits ").append(tbHits)
+                .append(" time ").append(timeMillis);
+        if (pvLength > 0) {
+            builder.append(" pv ");
+            appendPv(builder);
+        }
+    }
+
+    /**
+     * Lists the principal variation. This allocates a string per move.
+     *
+     * @return the moves in UCI notation
+     */
+    public List<String> getPrincipalVariation() {
+        List<String> moves = new ArrayList<>(pvLength);
+        for (int i = 0; i < pvLength; i++) {
+            moves.add(getPvMove(i));
+        }
+        return moves;
+    }
+
+    public int getDepth() {
+        return depth;
+    }
+
+    public int getSelDepth() {
+        return selDepth;
+    }
+
+    public int getMultiPv() {
+        return multiPv;
+    }
+
+    /**
+     * Checks whether the line had a score; lines such as "info depth 5 currmove e2e4" do not.
+     *
+     * @return true if the line had a score
+     */
+    public boolean hasScore() {
+        return hasScore;
+    }
+
+    public boolean isMate() {
+        return mate;
+    }
+
+    /**
+     * Gets the score in centipawns.
+     *
+     * @return the score, or 0 when the score is a forced mate
+     */
+    public int getScoreCp() {
+        return mate ? 0 : score;
+    }
+
+    /**
+     * Gets the moves until mate.
+     *
+     * @return the moves, negative when the side to move is mated, or null if the score is not a forced mate
+     */
+    public Integer getMateIn() {
+        return mate ? score : null;
+    }
+
+    public boolean isLowerBound() {
+        return lowerBound;
+    }
+
+    public boolean isUpperBound() {
+        return upperBound;
+    }
+
+    public long getNodes() {
+        return nodes;
+    }
+
+    public long getNps() {
+        return nps;
+    }
+
+    public long getTimeMillis() {
+        return timeMillis;
+    }
+
+    public int getHashFull() {
+        return hashFull;
+    }
+
+    public long getTbHits() {
+        return tbHits;
+    }
+
+    public int getPvLength() {
+        return pvLength;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder("SearchInfo{depth=").append(depth)
+                .append(", multipv=").append(multiPv)
+                .append(", score=").append(mate ? "mate " + score : score + "cp")
+                .append(", nodes=").append(nodes)
+                .append(", pv=");
+        appendPv(builder);
+        return builder.append('}').toString();
+    }
+
+    void setDepth(int depth) {
+        this.depth = depth;
+    }
+
+    void setSelDepth(int selDepth) {
+        this.selDepth = selDepth;
+    }
+
+    void setMultiPv(int multiPv) {
+        this.multiPv = multiPv;
+    }
+
+    /**
+     * Sets the score.
+     *
+     * @param isMate whether the value counts moves until mate rather than centipawns
+     * @param value the score
+     */
+    void setScore(boolean isMate, int value) {
+        this.hasScore = true;
+        this.mate = isMate;
+        this.score = value;
+    }
+
+    void setLowerBound(boolean lowerBound) {
+        this.lowerBound = lowerBound;
+    }
+
+    void setUpperBound(boolean upperBound) {
+        this.upperBound = upperBound;
+    }
+
+    void setNodes(long nodes) {
+        this.nodes = nodes;
+    }
+
+    void setNps(long nps) {
+        this.nps = nps;
+    }
+
+    void setTimeMillis(long timeMillis) {
+        this.timeMillis = timeMillis;
+    }
+
+    void setHashFull(int hashFull) {
+        this.hashFull = hashFull;
+    }
+
+    void setTbHits(long tbHits) {
+        this.tbHits = tbHits;
+    }
+
+    /**
+     * Appends a move to the principal variation, dropping it once {@link #MAX_PV_MOVES} are held.
+     *
+     * @param line the characters the move is read from
+     * @param start the index of the move's first character
+     * @param end the index after the move's last character
+     */
+    void addPvMove(CharSequence line, int start, int end) {
+        if (pvLength == MAX_PV_MOVES || end - start > MAX_MOVE_CHARS) {
+            return;
+        }
+        int offset = pvLength == 0 ? 0 : pvEnds[pvLength - 1];
+        for (int i = start; i < end; i++) {
+            pvChars[offset++] = line.charAt(i);
+        }
+        pvEnds[pvLength++] = offset;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        SearchInfo that = (SearchInfo) o;
+        int chars = pvLength == 0 ? 0 : pvEnds[pvLength - 1];
+        return depth == that.depth && selDepth == that.selDepth && multiPv == that.multiPv &&
+                hasScore == that.hasScore && mate == that.mate && score == that.score &&
+                lowerBound == that.lowerBound && upperBound == that.upperBound && nodes == that.nodes &&
+                nps == that.nps && timeMillis == that.timeMillis && hashFull == that.hashFull &&
+                tbHits == that.tbHits && pvLength == that.pvLength &&
+                Arrays.equals(pvEnds, 0, pvLength, that.pvEnds, 0, pvLength) &&
+                Arrays.equals(pvChars, 0, chars, that.pvChars, 0, chars);
+    }
+
+    @Override
+    public int hashCode() {
+        int result = depth;
+        result = 31 * result + multiPv;
+        result = 31 * result + score;
+        result = 31 * result + Long.hashCode(nodes);
+        result = 31 * result + pvLength;
+        return result;
+    }
+}
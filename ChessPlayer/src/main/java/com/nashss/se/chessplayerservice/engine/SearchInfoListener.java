@@ -0,0 +1,16 @@
+package com.nashss.se.chessplayerservice.engine;
+
+/**
+ * Receives the progress of a UCI search, one scored "info" line at a time.
+ */
+@FunctionalInterface
+public interface SearchInfoListener {
+
+    /**
+     * Called on the engine's reader thread for every "info" line with a score. The info is reused for the next line,
+     * so a listener that keeps it must copy it with {@link SearchInfo#copyFrom}.
+     *
+     * @param info the line's search info
+     */
+    void onInfo(SearchInfo info);
+}
@@ -0,0 +1,168 @@
+package com.nashss.se.chessplayerservice.engine;
+
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonPOJOBuilder;
+
+/**
+ * One call to a {@link ChessEngine}, sent by a {@link RemoteEngine} to an {@link EngineWorker} as JSON.
+ * <p>
+ * The job names the call and carries its arguments, along with the game it is for, so the worker can keep the game on
+ * a warm engine, and the {@link EngineJob} it is part of, so the worker schedules it at the caller's priority.
+ */
+@JsonDeserialize(builder = SearchJob.Builder.class)
+public class SearchJob {
+
+    /**
+     * The {@link ChessEngine} method a job calls.
+     */
+    public enum Kind {
+        BEST_MOVE,
+        LEGAL_MOVES,
+        EVALUATE,
+        ANALYZE,
+        ANALYZE_LINES,
+        PROBE_TABLEBASE
+    }
+
+    private final Kind kind;
+    private final String fen;
+    private final String gameId;
+    private final Integer difficulty;
+    private final int moveTimeMillis;
+    private final int depth;
+    private final int lines;
+    private final String syzygyPath;
+    private final EnginePriority priority;
+    private final String owner;
+
+    private SearchJob(Builder builder) {
+        this.kind = builder.kind;
+        this.fen = builder.fen;
+        this.gameId = builder.gameId;
+        this.difficulty = builder.difficulty;
+        this.moveTimeMillis = builder.moveTimeMillis;
+        this.depth = builder.depth;
+        this.lines = builder.lines;
+        this.syzygyPath = builder.syzygyPath;
+        this.priority = builder.priority;
+        this.owner = builder.owner;
+    }
+
+    public Kind getKind() {
+        return kind;
+    }
+
+    public String getFen() {
+        return fen;
+    }
+
+    public String getGameId() {
+        return gameId;
+    }
+
+    public Integer getDifficulty() {
+        return difficulty;
+    }
+
+    public int getMoveTimeMillis() {
+        return moveTimeMillis;
+    }
+
+    public int getDepth() {
+        return depth;
+    }
+
+    public int getLines() {
+        return lines;
+    }
+
+    public String getSyzygyPath() {
+        return syzygyPath;
+    }
+
+    public EnginePriority getPriority() {
+        return priority;
+    }
+
+    public String getOwner() {
+        return owner;
+    }
+
+    @Override
+    public String toString() {
+        return "SearchJob{" + kind + ", game=" + gameId + ", fen='" + fen + "'}";
+    }
+
+    //CHECKSTYLE:OFF:Builder
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    @JsonPOJOBuilder
+    public static class Builder {
+        private Kind kind;
+        private String fen;
+        private String gameId;
+        private Integer difficulty;
+        private int moveTimeMillis;
+        private int depth;
+        private int lines;
+        private String syzygyPath;
+        private EnginePriority priority = EnginePriority.INTERACTIVE;
+        private String owner = EngineJob.NO_OWNER;
+
+        public Builder withKind(Kind kind) {
+            this.kind = kind;
+            return this;
+        }
+
+        public Builder withFen(String fen) {
+            this.fen = fen;
+            return this;
+        }
+
+        public Builder withGameId(String gameId) {
+            this.gameId = gameId;
+            return this;
+        }
+
+        public Builder withDifficulty(Integer difficulty) {
+            this.difficulty = difficulty;
+            return this;
+        }
+
+        public Builder withMoveTimeMillis(int moveTimeMillis) {
+            this.moveTimeMillis = moveTimeMillis;
+            return this;
+        }
+
+        public Builder withDepth(int depth) {
+            this.depth = depth;
+            return this;
+        }
+
+        public Builder withLines(int lines) {
+            this.lines = lines;
+            return this;
+        }
+
+        public Builder withSyzygyPath(String syzygyPath) {
+            this.syzygyPath = syzygyPath;
+            return this;
+        }
+
+        public Builder withPriority(EnginePriority priority) {
+            this.priority = priority;
+            return this;
+        }
+
+        public Builder withOwner(String owner) {
+            this.owner = owner;
+            return this;
+        }
+
+        public SearchJob build() {
+            return new SearchJob(this);
+        }
+    }
+}
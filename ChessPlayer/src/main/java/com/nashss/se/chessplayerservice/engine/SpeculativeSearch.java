@@ -0,0 +1,236 @@
+package com.nashss.se.chessplayerservice.engine;
+
+import com.nashss.se.chessplayerservice.chess.Position;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Precomputes the engine's answers to the player's most likely replies while the player thinks.
+ * <p>
+ * After the engine moves, the replies the player is most likely to choose are ranked: book moves first, by how often
+ * they are played, then the engine's best lines from a shallow "MultiPV" analysis. In the background, the engine
+ * answers each one with the same profile and full-length limit a normal search would use, and stores the answer by
+ * the position it answers. When the player's move arrives, a stored answer is played without waiting on a search.
+ * <p>
+ * Background work for a game is abandoned as soon as its player moves, since the positions it would answer are no
+ * longer reachable. Answers are stored in their own {@link BestMoveCache}, so its hits and misses are the hit rate of
+ * the speculation alone. The work runs as a background {@link EngineJob}, so it only uses engines no player needs.
+ * <p>
+ * Speculation only pays off on hosts that keep running between requests. Lambda freezes a container once its response
+ * is sent, so the work would only resume on the next request and then compete with it for the engine. It is
+ * therefore off unless the "SPECULATIVE_SEARCH" environment variable is "true", and a {@link #disabled()} instance
+ * does nothing otherwise.
+ */
+public class SpeculativeSearch {
+    public static final String ENVIRONMENT_VARIABLE = "SPECULATIVE_SEARCH";
+    public static final int DEFAULT_REPLIES = 3;
+    public static final int DEFAULT_CAPACITY = 1_000;
+    /** Depth of the analysis that ranks the player's replies, shallow because it only has to find sensible moves. */
+    public static final int RANKING_DEPTH = 8;
+    /** Games whose speculation may wait for the background thread; the oldest is dropped beyond this. */
+    private static final int MAX_QUEUED_GAMES = 4;
+
+    private static final Logger log = LogManager.getLogger();
+
+    private final boolean enabled;
+    private final ChessEngine engine;
+    private final OpeningBook openingBook;
+    private final Executor executor;
+    private final int replies;
+    private final BestMoveCache answers;
+    private final Map<String, Long> generations = new ConcurrentHashMap<>();
+    private final AtomicLong nextGeneration = new AtomicLong();
+    private final AtomicLong precomputed = new AtomicLong();
+
+    /**
+     * Instantiates a new SpeculativeSearch.
+     *
+     * @param engine the engine that ranks the replies and answers them
+     * @param openingBook the book whose move weights say how likely a reply is
+     * @param executor runs the background work
+     * @param replies how many of the player's replies to answer after each engine move
+     * @param capacity the most answers kept
+     */
+    public SpeculativeSearch(ChessEngine engine, OpeningBook openingBook, Executor executor, int replies,
+                             int capacity) {
+        this(true, engine, openingBook, executor, replies, capacity);
+    }
+
+    private SpeculativeSearch(boolean enabled, ChessEngine engine, OpeningBook openingBook, Executor executor,
+                              int replies, int capacity) {
+        this.enabled = enabled;
+        this.engine = engine;
+        this.openingBook = openingBook;
+        this.executor = executor;
+        this.replies = replies;
+        this.answers = new BestMoveCache(capacity);
+    }
+
+    /**
+     * Creates a speculative search that never precomputes anything and never finds an answer.
+     *
+     * @return the disabled search
+     */
+    public static SpeculativeSearch disabled() {
+        return new SpeculativeSearch(false, null, OpeningBook.empty(), runnable -> { }, 0, 1);
+    }
+
+    /**
+     * Checks whether the "SPECULATIVE_SEARCH" setting turns speculation on.
+     *
+     * @param setting the setting's value, or null if it is not set
+     * @return true only if the setting is "true", ignoring case
+     */
+    public static boolean enabledBy(String setting) {
+        return setting != null && "true".equalsIgnoreCase(setting.trim());
+    }
+
+    /**
+     * Creates the executor for the background work: one daemon thread, so speculation never holds more than one
+     * engine, and a short queue that drops the oldest game's work when it is full.
+     *
+     * @return the executor
+     */
+    public static Executor newBackgroundExecutor() {
+        return new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(MAX_QUEUED_GAMES),
+            runnable -> {
+                Thread thread = new Thread(runnable, "speculative-search");
+                thread.setDaemon(true);
+                return thread;
+            }, new ThreadPoolExecutor.DiscardOldestPolicy());
+    }
+
+    /**
+     * Starts precomputing the answers to the player's likely replies, replacing any work still pending for the game.
+     *
+     * @param gameId the game
+     * @param position the position after the engine's move, with the player to move
+     * @param botDifficulty the bot difficulty the answers are for
+     */
+    public void speculate(String gameId, Position position, Integer botDifficulty) {
+        if (!enabled) {
+            return;
+        }
+        long generation = nextGeneration.incrementAndGet();
+        generations.put(gameId, generation);
+        executor.execute(() -> precompute(gameId, generation, position, botDifficulty));
+    }
+
+    /**
+     * Looks up the stored answer to a position the player has just reached, and abandons the game's pending work.
+     *
+     * @param gameId the game
+     * @param position the position after the player's move
+     * @param botDifficulty the bot difficulty
+     * @return the engine's move in UCI notation, or null if it was not precomputed
+     */
+    public String lookup(String gameId, Position position, Integer botDifficulty) {
+        if (!enabled) {
+            return null;
+        }
+        generations.remove(gameId);
+        return answers.get(position.toFen(), botDifficulty, fullSearchLimit(botDifficulty));
+    }
+
+    /**
+     * Calculates the share of lookups that found a precomputed answer.
+     *
+     * @return the hit rate from 0 to 1, or 0 before the first lookup
+     */
+    public double getHitRate() {
+        long lookups = answers.getHits() + answers.getMisses();
+        return lookups == 0 ? 0 : (double) answers.getHits() / lookups;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public long getHits() {
+        return answers.getHits();
+    }
+
+    public long getMisses() {
+        return answers.getMisses();
+    }
+
+    public long getPrecomputed() {
+        return precomputed.get();
+    }
+
+    /**
+     * Ranks the replies the player is most likely to choose.
+     *
+     * @param position the position with the player to move
+     * @return up to the configured number of replies, most likely first
+     */
+    List<String> likelyReplies(Position position) {
+        List<String> likely = new ArrayList<>(openingBook.likelyMoves(position, replies));
+        if (likely.size() < replies) {
+            for (Analysis line : engine.analyzeLines(position, RANKING_DEPTH, replies)) {
+                if (likely.size() < replies && !likely.contains(line.getBestMove())) {
+                    likely.add(line.getBestMove());
+                }
+            }
+        }
+        return likely;
+    }
+
+    private void precompute(String gameId, long generation, Position position, Integer botDifficulty) {
+        try {
+            EngineJob.run(EnginePriority.BACKGROUND, gameId, () -> {
+                if (isCurrent(gameId, generation) && !position.legalMoves().isEmpty()) {
+                    answerReplies(gameId, generation, position, botDifficulty);
+                }
+            });
+        } catch (RuntimeException e) {
+            // Speculation is only ever an optimization, the player's request searches as usual
+            log.warn("Speculative search failed for game {}", gameId, e);
+        } finally {
+            generations.remove(gameId, generation);
+        }
+    }
+
+    private void answerReplies(String gameId, long generation, Position position, Integer botDifficulty) {
+        EngineProfile profile = EngineProfile.forDifficulty(botDifficulty);
+        for (String reply : likelyReplies(position)) {
+            // Each answer takes a full search, so check between them whether the player has already moved
+            if (!isCurrent(gameId, generation)) {
+                break;
+            }
+            Position next = position.play(reply);
+            // Positions the book or the rules answer do not need a search
+            if (next.legalMoves().isEmpty() || !openingBook.likelyMoves(next, 1).isEmpty()) {
+                continue;
+            }
+            String answer = engine.bestMove(next, profile, SearchBudget.MAX_MOVE_TIME_MILLIS);
+            // A search stopped for a player's request is weaker than a stored answer claims to be, and a player
+            // waiting means the engines are needed elsewhere
+            if (EngineJob.current().isPreempted()) {
+                break;
+            }
+            answers.put(next.toFen(), botDifficulty, fullSearchLimit(botDifficulty), answer);
+            precomputed.incrementAndGet();
+        }
+    }
+
+    private boolean isCurrent(String gameId, long generation) {
+        Long current = generations.get(gameId);
+        return current != null && current == generation;
+    }
+
+    private static String fullSearchLimit(Integer botDifficulty) {
+        return EngineProfile.forDifficulty(botDifficulty).searchLimit(SearchBudget.MAX_MOVE_TIME_MILLIS);
+    }
+}
@@ -1,29 +1,54 @@
 package com.nashss.se.chessplayerservice.engine;
 
-import java.io.BufferedReader;
-import java.io.File;
+import com.nashss.se.chessplayerservice.chess.Piece;
+import com.nashss.se.chessplayerservice.chess.Position;
+import com.nashss.se.chessplayerservice.exceptions.StockfishException;
+
 import java.io.IOException;
-import java.io.InputStreamReader;
-import java.io.OutputStreamWriter;
-import java.nio.file.Files;
 import java.nio.file.Path;
-import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
-import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
-
 /**
  * A simple and efficient client to run Stockfish from Java.
  *
  * @author Rahul A R and modified by Josh Taylor
  *
  */
-public class Stockfish {
-    private BufferedReader processReader;
-    private OutputStreamWriter processWriter;
+public class Stockfish implements ChessEngine {
+    /** Deadline of the "isready" probe, which a healthy engine answers in milliseconds. */
+    public static final long READY_TIMEOUT_MILLIS = 5_000;
+    /** Time a timed search may overrun its move time before the engine is treated as hung. */
+    public static final long SEARCH_GRACE_MILLIS = 2_000;
+    private static final int TABLEBASE_DEPTH = 1;
+    private static final long QUIT_TIMEOUT_MILLIS = 500;
+
+    private Process engineProcess;
+    private UciSession session;
+    private String loadedSyzygyPath;
+    private CompletableFuture<List<String>> ponderSearch;
+    private int ponderMoveTimeMillis;
+    /** The last scored info of the running or last search, written on the session's reader thread. */
+    private final SearchInfo lastSearchInfo = new SearchInfo();
+    private final SearchInfoListener searchInfoRecorder = this::recordSearchInfo;
+    private volatile SearchInfoListener searchInfoListener;
+    private volatile boolean searching;
 
-    private final String path = getEngineLocation();
+    private final Path enginePath;
+    private final EngineConfiguration configuration;
+
+    /**
+     * Instantiates a new, unstarted Stockfish client.
+     *
+     * @param enginePath the executable engine, as provided by {@link EngineBinary}
+     * @param configuration the resource options set when the engine is initialized
+     */
+    public Stockfish(Path enginePath, EngineConfiguration configuration) {
+        this.enginePath = enginePath;
+        this.configuration = configuration;
+    }
 
     /**
      * Starts Stockfish engine as a process and initializes it.
@@ -33,11 +58,8 @@ public class Stockfish {
      */
     public boolean startEngine() {
         try {
-            Process engineProcess = Runtime.getRuntime().exec(path);
-            processReader = new BufferedReader(new InputStreamReader(
-                    engineProcess.getInputStream()));
-            processWriter = new OutputStreamWriter(
-                    engineProcess.getOutputStream());
+            engineProcess = new ProcessBuilder(enginePath.toString()).start();
+            session = new UciSession(engineProcess.getInputStream(), engineProcess.getOutputStream());
         } catch (IOException e) {
             e.printStackTrace();
             return false;
@@ -45,61 +67,100 @@ public class Stockfish {
         return true;
     }
 
+    /**
+     * Puts a freshly started engine into UCI mode, sets its resource options and waits until it is ready for
+     * commands.
+     */
+    public void initialize() {
+        session.execute("uci", "uciok");
+        configure(configuration);
+        session.isReady();
+    }
+
+    /**
+     * Sets the engine's resource options. A new hash size takes effect once the engine is ready again.
+     *
+     * @param resources the threads, hash size and move overhead
+     */
+    public void configure(EngineConfiguration resources) {
+        setOption("Threads", resources.getThreads());
+        setOption("Hash", resources.getHashMb());
+        setOption("Move Overhead", resources.getMoveOverheadMillis());
+    }
+
+    /**
+     * Tells the engine that the next search is from a different game, clearing its hash table and search history.
+     * Waiting for the engine to be ready also probes that it still answers; one that does not is treated as hung.
+     */
+    public void newGame() {
+        session.send("ucinewgame");
+        session.isReady(READY_TIMEOUT_MILLIS);
+    }
+
+    /**
+     * Checks whether the engine process is still running.
+     *
+     * @return True if the engine has been started, has not exited and has not missed a deadline. False otherwise
+     */
+    public boolean isAlive() {
+        return engineProcess != null && engineProcess.isAlive() && session.isOpen();
+    }
+
     /**
      * Stops Stockfish and cleans up before closing it.
      */
     public void stopEngine() {
+        if (session == null) {
+            return;
+        }
         try {
-            sendCommand("quit");
-            processReader.close();
-            processWriter.close();
+            session.send("quit");
+        } catch (StockfishException e) {
+            // The engine has already gone away, there is nothing left to tell it
+            e.printStackTrace();
+        }
+        session.close();
+        try {
+            // A hung engine never reads the "quit", so it is killed once it has had a moment to exit
+            if (!engineProcess.waitFor(QUIT_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS)) {
+                engineProcess.destroyForcibly();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            engineProcess.destroyForcibly();
+        }
+        // The session's reader closes standard output at the end of the stream, but nothing reads standard error
+        try {
+            engineProcess.getErrorStream().close();
         } catch (IOException e) {
             e.printStackTrace();
         }
     }
 
     /**
-     * Takes in any valid UCI command and executes it.
-     * If getOutput() is not used to flush the output reader, you may experience unintended behavior.
+     * Takes in any valid UCI command that produces no output and executes it.
      *
      * @param command UCI command to relay to the engine
      */
     public void sendCommand(String command) {
-        try {
-            processWriter.write(command + "\n");
-            processWriter.flush();
-        } catch (IOException e) {
-            e.printStackTrace();
-            throw new RuntimeException(e);
-        }
+        session.send(command);
     }
 
     /**
-     * This is generally called right after 'sendCommand' for getting the raw output from Stockfish.
+     * Sets a UCI option on the engine. Options take effect before any command sent afterwards.
      *
-     * @param waitTime
-     *            Time in milliseconds for which the function waits before
-     *            reading the output. Useful when a long-running command is
-     *            executed.
-     * @return Raw output from Stockfish as a String.
+     * @param name name of the option, for example "Skill Level"
+     * @param value value of the option
      */
-    public String getOutput(int waitTime) {
-        StringBuilder output = new StringBuilder();
-        try {
-            Thread.sleep(waitTime);
-            sendCommand("isready");
-            while (true) {
-                String text = processReader.readLine();
-                if (text.equals("readyok")) {
-                    break;
-                } else {
-                    output.append(text).append("\n");
-                }
-            }
-        } catch (IOException | InterruptedException e) {
-            e.printStackTrace();
-        }
-        return output.toString();
+    public void setOption(String name, Object value) {
+        session.send("setoption name " + name + " value " + value);
+    }
+
+    /**
+     * Blocks until the engine has processed every command sent so far.
+     */
+    public void waitUntilReady() {
+        session.isReady();
     }
 
     /**
@@ -114,10 +175,216 @@ public class Stockfish {
      * @return Best Move in pure algebraic format. For example: "d2d4"
      */
     public String getBestMove(String position, int waitTime) {
-        sendCommand("position " + position);
-        sendCommand("go movetime " + waitTime);
-        String output = getOutput(waitTime + 20);
-        return output.split("bestmove ")[1].split(" ponder")[0];
+        return getBestMove(position, "movetime " + waitTime);
+    }
+
+    /**
+     * This function returns the best move for a given position, searching until the first of the given limits is
+     * reached.
+     *
+     * @param position Position string, "startpos moves ..." or "fen " followed by a position in FEN notation
+     * @param searchLimit arguments of the "go" command, for example "nodes 20000 movetime 500"
+     * @return Best Move in pure algebraic format. For example: "d2d4"
+     */
+    public String getBestMove(String position, String searchLimit) {
+        session.send("position " + position);
+        return Analysis.bestMoveOf(runSearch("go " + searchLimit));
+    }
+
+    @Override
+    public String bestMove(Position position, EngineProfile profile, int moveTimeMillis) {
+        return Analysis.bestMoveOf(search(position, profile, moveTimeMillis));
+    }
+
+    @Override
+    public String bestMove(String gameId, Position position, EngineProfile profile, int moveTimeMillis,
+                           SearchInfoListener listener) {
+        setSearchInfoListener(listener);
+        try {
+            return bestMove(position, profile, moveTimeMillis);
+        } finally {
+            setSearchInfoListener(null);
+        }
+    }
+
+    /**
+     * Sets the listener given every scored "info" line of the searches that follow, including a ponder search
+     * already running. The listener is called on the engine's reader thread.
+     *
+     * @param listener the listener, or null for none
+     */
+    public void setSearchInfoListener(SearchInfoListener listener) {
+        this.searchInfoListener = listener;
+    }
+
+    /**
+     * Gets the last scored search info of the last search, which holds its score, depth, node count and principal
+     * variation. The info is reused by the next search, so copy it to keep it.
+     *
+     * @return the info, without a score if the engine printed none
+     */
+    public SearchInfo getLastSearchInfo() {
+        return lastSearchInfo;
+    }
+
+    @Override
+    public List<Analysis> analyzeLines(Position position, int depth, int lines) {
+        applyProfile(EngineProfile.forDifficulty(EngineProfile.MAX_DIFFICULTY));
+        setOption("MultiPV", lines);
+        try {
+            session.send("position fen " + position.toFen());
+            MultiPvCollector collector = new MultiPvCollector(lines, searchInfoRecorder);
+            lastSearchInfo.reset();
+            List<String> output = session.execute("go depth " + depth, "bestmove", collector);
+            List<Analysis> analyses = collector.toAnalyses();
+            return analyses.isEmpty() ? List.of(Analysis.fromSearchInfo(lastSearchInfo, Analysis.bestMoveOf(output))) :
+                    analyses;
+        } finally {
+            // Every other search wants just the best move
+            setOption("MultiPV", 1);
+        }
+    }
+
+    /**
+     * Searches a position with a bot difficulty's profile and returns all of the engine's output. The last line also
+     * names the reply the engine expects, as in "bestmove e2e4 ponder e7e5".
+     *
+     * @param position the position, with at least one legal move
+     * @param profile the difficulty's engine profile
+     * @param moveTimeMillis the most time the search may take
+     * @return every line the engine printed for the search, ending with the "bestmove" line
+     */
+    public List<String> search(Position position, EngineProfile profile, int moveTimeMillis) {
+        applyProfile(profile);
+        session.send("position fen " + position.toFen());
+        return runSearch("go " + profile.searchLimit(moveTimeMillis), moveTimeMillis + SEARCH_GRACE_MILLIS);
+    }
+
+    /**
+     * Starts searching the position after the opponent's expected reply and returns at once, so the engine thinks
+     * while the opponent does. The search keeps going until {@link #ponderHit()} or {@link #stopPonder()}, and its
+     * limits only start to count after a ponder hit. The strength options of the last search still apply.
+     *
+     * @param position the position before the expected reply
+     * @param expectedReply the reply in UCI notation
+     * @param profile the difficulty's engine profile
+     * @param moveTimeMillis the most time the search may take after a ponder hit
+     */
+    public void startPonder(Position position, String expectedReply, EngineProfile profile, int moveTimeMillis) {
+        if (ponderSearch != null) {
+            throw new StockfishException("The engine is already pondering");
+        }
+        session.send("position fen " + position.toFen() + " moves " + expectedReply);
+        lastSearchInfo.reset();
+        ponderMoveTimeMillis = moveTimeMillis;
+        ponderSearch = session.submit("go ponder " + profile.searchLimit(moveTimeMillis), "bestmove",
+                searchInfoRecorder);
+    }
+
+    /**
+     * Tells the engine that the opponent played the expected reply. Any limit the ponder search has already used up
+     * ends it at once, so a long ponder answers almost immediately with a deeper search.
+     *
+     * @return every line the engine printed for the ponder search, ending with the "bestmove" line
+     */
+    public List<String> ponderHit() {
+        CompletableFuture<List<String>> search = takePonderSearch();
+        session.send("ponderhit");
+        return session.await(search, ponderMoveTimeMillis + SEARCH_GRACE_MILLIS);
+    }
+
+    /**
+     * Abandons the ponder search, after the opponent played something else or the game ended.
+     */
+    public void stopPonder() {
+        CompletableFuture<List<String>> search = takePonderSearch();
+        session.send("stop");
+        session.await(search, READY_TIMEOUT_MILLIS);
+    }
+
+    /**
+     * Tells a running search, from any thread, to stop and answer with the best move it has found so far. Does
+     * nothing if no search is running.
+     */
+    public void stopSearch() {
+        if (searching) {
+            session.send("stop");
+        }
+    }
+
+    /**
+     * Checks whether a ponder search is running.
+     *
+     * @return True between {@link #startPonder} and the ponder hit or stop. False otherwise
+     */
+    public boolean isPondering() {
+        return ponderSearch != null;
+    }
+
+    @Override
+    public List<String> legalMoves(Position position) {
+        return getLegalMoves("fen " + position.toFen());
+    }
+
+    @Override
+    public int evaluate(Position position) {
+        // For example "Final evaluation       +0.25 (white side)", or "none (in check)" when there is no static eval
+        for (String token : getEvalScore("fen " + position.toFen()).split("\\s+")) {
+            if (token.length() > 1 && (token.charAt(0) == '+' || token.charAt(0) == '-')) {
+                int whiteCp = (int) Math.round(Double.parseDouble(token) * 100);
+                return position.getSideToMove() == Piece.WHITE ? whiteCp : -whiteCp;
+            }
+        }
+        return analyze(position, 1).getScoreCp();
+    }
+
+    @Override
+    public Analysis analyze(Position position, int depth) {
+        // Analysis is always at full strength, whatever the last game on this engine was set to
+        applyProfile(EngineProfile.forDifficulty(EngineProfile.MAX_DIFFICULTY));
+        session.send("position fen " + position.toFen());
+        List<String> output = runSearch("go depth " + depth);
+        return Analysis.fromSearchInfo(lastSearchInfo, Analysis.bestMoveOf(output));
+    }
+
+    /**
+     * Sets the strength options of a bot difficulty. Either "UCI_LimitStrength" with "UCI_Elo" or "Skill Level"
+     * decides how well the engine plays, so both are always set to leave nothing over from the previous game.
+     *
+     * @param profile the difficulty's engine profile
+     */
+    public void applyProfile(EngineProfile profile) {
+        setOption("UCI_LimitStrength", profile.isLimitStrength());
+        if (profile.isLimitStrength()) {
+            setOption("UCI_Elo", profile.getUciElo());
+        }
+        setOption("Skill Level", profile.getSkillLevel());
+    }
+
+    /**
+     * Finds the best move in a position covered by the endgame tablebases. The engine ranks the root moves from the
+     * tables, so a shallow search at full strength is enough to keep the tablebase result.
+     *
+     * @param position Position string, "fen " followed by a position in FEN notation
+     * @param syzygyPath directory holding the tablebase files
+     * @return the move and the outcome with perfect play for the side to move
+     */
+    public TablebaseResult probeTablebase(String position, String syzygyPath) {
+        if (!syzygyPath.equals(loadedSyzygyPath)) {
+            // Loading the tables scans the directory, so only do it when the path changes
+            setOption("SyzygyPath", syzygyPath);
+            loadedSyzygyPath = syzygyPath;
+        }
+        // A weakened engine picks worse moves than the tables' best even at depth 1
+        applyProfile(EngineProfile.forDifficulty(EngineProfile.MAX_DIFFICULTY));
+        session.send("position " + position);
+        List<String> output = runSearch("go depth " + TABLEBASE_DEPTH);
+        return TablebaseResult.fromSearchInfo(lastSearchInfo, Analysis.bestMoveOf(output));
+    }
+
+    @Override
+    public TablebaseResult probeTablebase(Position position, String syzygyPath) {
+        return probeTablebase("fen " + position.toFen(), syzygyPath);
     }
 
     /**
@@ -126,35 +393,42 @@ public class Stockfish {
      * @param position Position string. Valid input is either
      *                 "startpos moves " followed by moves in pure algebraic notation
      *                 without from-to delimiters (example: d2d4)
-     *                 or "fem " followed by a position in FEM notation
+     *                 or "fen " followed by a position in FEN notation
      * @return String of moves
      */
     public List<String> getLegalMoves(String position) {
-        sendCommand("position " + position);
-        sendCommand("go perft 1");
-        String output = getOutput(20);
-        return Arrays.stream(output.split("\n"))
+        session.send("position " + position);
+        return session.execute("go perft 1", "Nodes searched").stream()
+                .filter(s -> s.contains(":") && !s.startsWith("Nodes") && !s.startsWith("info"))
                 .map(s -> s.split(":")[0].trim())
-                .filter(s -> !s.isBlank() && !s.contains("Nodes"))
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Get the engine's text dump of a board position, ending with the "Checkers:" line.
+     *
+     * @param position Position string. Valid input is either
+     *                 "startpos moves " followed by moves in pure algebraic notation
+     *                 without from-to delimiters (example: d2d4)
+     *                 or "fen " followed by a position in FEN notation
+     * @return the lines printed by the engine's "d" command
+     */
+    public List<String> getBoardDump(String position) {
+        session.send("position " + position);
+        return session.execute("d", "Checkers:");
+    }
+
     /**
      * Draws the current state of the chessboard.
      *
      * @param position Position string. Valid input is either
      *                 "startpos moves " followed by moves in pure algebraic notation
      *                 without from-to delimiters (example: d2d4)
-     *                 or "fem " followed by a position in FEM notation
+     *                 or "fen " followed by a position in FEN notation
      */
     public void drawBoard(String position) {
-        sendCommand("position " + position);
-        sendCommand("d");
-
-        String[] rows = getOutput(0).split("\n");
-
-        for (int i = 1; i < 20; i++) {
-            System.out.println(rows[i]);
+        for (String row : getBoardDump(position)) {
+            System.out.println(row);
         }
     }
 
@@ -168,50 +442,47 @@ public class Stockfish {
      * @return evalScore
      */
     public String getEvalScore(String position) {
-        sendCommand("position " + position);
-        sendCommand("eval");
+        session.send("position " + position);
+        List<String> dump = session.execute("eval", "Final evaluation");
+        return dump.get(dump.size() - 1);
+    }
 
-        String[] dump = getOutput(20).split("\n");
-        for (int i = dump.length - 1; i >= 0; i--) {
-            if (dump[i].startsWith("Final evaluation")) {
-                return dump[i];
-            }
-        }
-        return "";
+    /**
+     * Runs a search, recording its scored "info" lines as they arrive instead of keeping them.
+     *
+     * @return the lines the engine printed other than scored "info" lines, ending with the "bestmove" line
+     */
+    private List<String> runSearch(String goCommand) {
+        return runSearch(goCommand, UciSession.DEFAULT_COMMAND_TIMEOUT_MILLIS);
     }
 
-    private String getEngineLocation() {
-        // If running locally
-        String pathToEngine = "engine/stockfish";
-        if (new File(pathToEngine).canExecute()) {
-            System.out.println("local");
-            return pathToEngine;
+    private List<String> runSearch(String goCommand, long timeoutMillis) {
+        lastSearchInfo.reset();
+        searching = true;
+        try {
+            return session.execute(goCommand, "bestmove", searchInfoRecorder, timeoutMillis);
+        } finally {
+            searching = false;
         }
+    }
 
-        // If running in Lambda
-        pathToEngine = "/var/task/./lib/stockfish";
-        if (new File(pathToEngine).canExecute()) {
-            System.out.println("lambda");
-            return pathToEngine;
+    private void recordSearchInfo(SearchInfo info) {
+        // Bound scores come from aspiration windows that failed, the exact ones that follow are the result
+        if (!info.isLowerBound() && !info.isUpperBound()) {
+            lastSearchInfo.copyFrom(info);
         }
-
-        // If running in docker
-        String origPath = "/var/task/./lib/stockfish";
-        String newPath = "/tmp/stockfish";
-
-        Runtime runtime = Runtime.getRuntime();
-        try {
-            Files.copy(
-                    Path.of(origPath),
-                    Path.of(newPath),
-                    REPLACE_EXISTING);
-            System.out.println("chmod in docker");
-            runtime.exec("chmod 755 " + newPath);
-        } catch (IOException e) {
-            System.out.println("Engine could not be moved");
-            throw new RuntimeException(e);
+        SearchInfoListener listener = searchInfoListener;
+        if (listener != null) {
+            listener.onInfo(info);
         }
+    }
 
-        return newPath;
+    private CompletableFuture<List<String>> takePonderSearch() {
+        CompletableFuture<List<String>> search = ponderSearch;
+        if (search == null) {
+            throw new StockfishException("The engine is not pondering");
+        }
+        ponderSearch = null;
+        return search;
     }
 }
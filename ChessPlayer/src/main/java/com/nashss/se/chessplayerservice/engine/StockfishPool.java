@@ -0,0 +1,429 @@
+package com.nashss.se.chessplayerservice.engine;
+
+import com.nashss.se.chessplayerservice.exceptions.StockfishException;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BooleanSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Keeps a fixed number of initialized Stockfish processes alive so that warm invocations can reuse them.
+ * <p>
+ * Engines are started lazily, up to the pool size, the first time they are needed. A leased engine is reset with
+ * "ucinewgame" before it is handed out and must be given back with {@link #release(Stockfish)} when the caller is
+ * done with it. When every engine is leased, callers wait for the {@link EngineScheduler} to hand them one by the
+ * priority of their {@link EngineJob}, so a bounded number of processes can be multiplexed across any number of
+ * concurrent games without players waiting behind bulk work or any of them starving.
+ * <p>
+ * Leases for a game have an affinity to one engine: each engine has a slot in the pool, and a game's ID is routed to
+ * its home slot by a {@link ConsistentHashRing}. When the home engine is free and searched the game's last move, it is
+ * handed out without "ucinewgame", so its hash table still holds the tree the next move is searched from. When it is
+ * busy, the lease falls back to another free engine and starts the game afresh there.
+ * <p>
+ * The pool also supervises its engines. Handing out an engine probes that it still answers, and an engine that has
+ * died, or missed a command's deadline and so is treated as hung, is killed and replaced by a fresh process on a later
+ * lease. Every such failure is reported to an {@link EngineCircuitBreaker}, and while it is open leases fail at once
+ * rather than each caller spending its time limit on engines that keep failing.
+ */
+public class StockfishPool {
+    public static final int DEFAULT_POOL_SIZE = 1;
+    public static final String POOL_SIZE_VARIABLE = "ENGINE_POOL_SIZE";
+
+    private static final Logger log = LogManager.getLogger();
+
+    /** Every slot and the leased map are guarded by the slots array. */
+    private final EngineSlot[] slots;
+    private final Map<Stockfish, EngineSlot> leased = new IdentityHashMap<>();
+    private final ConsistentHashRing<Integer> ring;
+    /** Decides which caller gets an engine when they are all leased, with one slot per engine the pool may run. */
+    private final EngineScheduler scheduler;
+    private final ThreadLocal<long[]> queueWaitNanos = ThreadLocal.withInitial(() -> new long[1]);
+    private final AtomicLong warmLeases = new AtomicLong();
+    private final Supplier<Stockfish> engineFactory;
+    private final int poolSize;
+    private final EngineCircuitBreaker circuitBreaker;
+    private volatile BooleanSupplier reclaimer = () -> false;
+
+    /**
+     * Instantiates a new StockfishPool that starts real Stockfish processes.
+     *
+     * @param poolSize the maximum number of engine processes kept alive
+     * @param engineBinary provides the executable engine, provisioned when the first engine starts
+     * @param configuration the resource options of every engine
+     */
+    public StockfishPool(int poolSize, EngineBinary engineBinary, EngineConfiguration configuration) {
+        this(poolSize, () -> new Stockfish(engineBinary.getPath(), configuration));
+    }
+
+    /**
+     * Instantiates a new StockfishPool with a custom engine factory.
+     *
+     * @param poolSize the maximum number of engine processes kept alive
+     * @param engineFactory creates a new, unstarted engine
+     */
+    public StockfishPool(int poolSize, Supplier<Stockfish> engineFactory) {
+        this(poolSize, engineFactory, new EngineCircuitBreaker(EngineCircuitBreaker.DEFAULT_FAILURE_THRESHOLD,
+                EngineCircuitBreaker.DEFAULT_OPEN_MILLIS));
+    }
+
+    /**
+     * Instantiates a new StockfishPool with a custom engine factory and circuit breaker.
+     *
+     * @param poolSize the maximum number of engine processes kept alive
+     * @param engineFactory creates a new, unstarted engine
+     * @param circuitBreaker is told about every engine failure, and refuses leases while the engines keep failing
+     */
+    public StockfishPool(int poolSize, Supplier<Stockfish> engineFactory, EngineCircuitBreaker circuitBreaker) {
+        if (poolSize < 1) {
+            throw new IllegalArgumentException("Pool size must be at least 1");
+        }
+        this.poolSize = poolSize;
+        this.slots = new EngineSlot[poolSize];
+        List<Integer> indexes = new ArrayList<>(poolSize);
+        for (int i = 0; i < poolSize; i++) {
+            slots[i] = new EngineSlot();
+            indexes.add(i);
+        }
+        this.ring = new ConsistentHashRing<>(indexes, ConsistentHashRing.DEFAULT_VIRTUAL_NODES);
+        this.scheduler = new EngineScheduler(poolSize);
+        this.engineFactory = engineFactory;
+        this.circuitBreaker = circuitBreaker;
+    }
+
+    /**
+     * Takes an engine out of the pool for work that belongs to no game, reset with "ucinewgame".
+     *
+     * @return a started engine that has been reset for a new game
+     */
+    public Stockfish lease() {
+        return lease(null);
+    }
+
+    /**
+     * Takes an engine out of the pool, starting a new one if the pool has not been filled yet. A game's home engine
+     * is preferred, and kept warm if it searched the game's last move; any other engine is reset with "ucinewgame".
+     * If every engine is leased, waits for the scheduler to hand one over by the current thread's {@link EngineJob}.
+     *
+     * Fails at once while the circuit breaker is open, or if an engine fails to start.
+     *
+     * @param gameId the game the engine searches for, or null for none
+     * @return a started engine, ready to search the game's next move
+     */
+    public Stockfish lease(String gameId) {
+        if (!circuitBreaker.allowRequest()) {
+            throw new StockfishException("The engines keep failing, so no engine is leased for now");
+        }
+        long startNanos = System.nanoTime();
+        EngineScheduler.Grant grant = acquireSlot(EngineJob.current());
+        queueWaitNanos.get()[0] += System.nanoTime() - startNanos;
+        try {
+            Stockfish engine = takeReadyEngine(gameId, grant);
+            grant.attach(engine);
+            return engine;
+        } catch (RuntimeException e) {
+            scheduler.release(grant);
+            throw e;
+        }
+    }
+
+    /**
+     * Gives a leased engine back to the pool. Engines whose process has died are dropped so a fresh one can take
+     * their place.
+     *
+     * @param engine the engine returned by {@link #lease()}
+     */
+    public void release(Stockfish engine) {
+        if (engine == null) {
+            return;
+        }
+        if (engine.isAlive() && engine.isPondering()) {
+            stopPonder(engine);
+        }
+        boolean alive = engine.isAlive();
+        if (!alive) {
+            // The engine died or missed a deadline while it was leased
+            circuitBreaker.recordFailure();
+        }
+        EngineScheduler.Grant grant = null;
+        synchronized (slots) {
+            EngineSlot slot = leased.remove(engine);
+            if (slot != null) {
+                grant = slot.grant;
+                slot.grant = null;
+                slot.leased = false;
+                if (!alive) {
+                    slot.engine = null;
+                    slot.gameId = null;
+                }
+            }
+        }
+        if (!alive) {
+            engine.stopEngine();
+        }
+        if (grant != null) {
+            grant.attach(null);
+            scheduler.release(grant);
+        }
+    }
+
+    /**
+     * Gets how long the calling thread has waited in line for engines since the last call, and starts counting
+     * again, so a request can tell the time it spent queueing from the time its searches took.
+     *
+     * @return the time spent waiting, in milliseconds
+     */
+    public long takeQueueWaitMillis() {
+        long[] waited = queueWaitNanos.get();
+        long millis = waited[0] / 1_000_000;
+        waited[0] = 0;
+        return millis;
+    }
+
+    /**
+     * Estimates how many callers are waiting in line for an engine.
+     *
+     * @return the number of waiting callers
+     */
+    public int getQueueLength() {
+        return scheduler.getQueueLength();
+    }
+
+    /**
+     * Measures the share of engine time that was leased since the last call, and starts measuring again.
+     *
+     * @return the utilization, from 0 for idle engines to 1 for engines that were never free
+     */
+    public double takeUtilization() {
+        return scheduler.takeUtilization();
+    }
+
+    public EngineScheduler getScheduler() {
+        return scheduler;
+    }
+
+    /**
+     * Counts the leases that got the engine which searched their game's last move, and skipped "ucinewgame".
+     *
+     * @return the number of warm leases
+     */
+    public long getWarmLeases() {
+        return warmLeases.get();
+    }
+
+    /**
+     * Sets what to do when every engine is leased: the reclaimer may release an engine that is only held on to
+     * speculatively, such as one pondering for a game, instead of letting the caller wait.
+     *
+     * @param reclaimer releases one engine back to the pool and returns true, or returns false if it has none
+     */
+    public void setReclaimer(BooleanSupplier reclaimer) {
+        this.reclaimer = reclaimer;
+    }
+
+    /**
+     * Stops every idle engine in the pool. Leased engines are stopped when they are released.
+     */
+    public void shutdown() {
+        List<Stockfish> idle = new ArrayList<>();
+        synchronized (slots) {
+            for (EngineSlot slot : slots) {
+                if (!slot.leased && slot.engine != null) {
+                    idle.add(slot.engine);
+                    slot.engine = null;
+                    slot.gameId = null;
+                }
+            }
+        }
+        idle.forEach(Stockfish::stopEngine);
+    }
+
+    public int getPoolSize() {
+        return poolSize;
+    }
+
+    /**
+     * Counts the engine processes the pool is running, idle or leased.
+     *
+     * @return the number of engines
+     */
+    public int getEngineCount() {
+        synchronized (slots) {
+            int count = 0;
+            for (EngineSlot slot : slots) {
+                if (slot.engine != null) {
+                    count++;
+                }
+            }
+            return count;
+        }
+    }
+
+    public EngineCircuitBreaker getCircuitBreaker() {
+        return circuitBreaker;
+    }
+
+    private EngineScheduler.Grant acquireSlot(EngineJob job) {
+        try {
+            // Engines only held on to speculatively are given back before a player has to wait, but not for bulk work
+            if (job.getPriority() == EnginePriority.INTERACTIVE && scheduler.isSaturated()) {
+                reclaimer.getAsBoolean();
+            }
+            return scheduler.acquire(job);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new StockfishException("Interrupted while waiting for an engine", e);
+        }
+    }
+
+    /**
+     * Claims a slot and makes sure its engine is running and answers, replacing engines that do not.
+     */
+    private Stockfish takeReadyEngine(String gameId, EngineScheduler.Grant grant) {
+        while (true) {
+            EngineSlot slot = claimSlot(gameId);
+            Stockfish engine;
+            boolean warm;
+            synchronized (slots) {
+                engine = slot.engine;
+                warm = engine != null && gameId != null && gameId.equals(slot.gameId);
+            }
+            if (engine == null) {
+                engine = startEngine(slot);
+            }
+            if (isReady(engine, warm)) {
+                circuitBreaker.recordSuccess();
+                if (warm) {
+                    warmLeases.incrementAndGet();
+                }
+                synchronized (slots) {
+                    slot.gameId = gameId;
+                    slot.grant = grant;
+                    leased.put(engine, slot);
+                }
+                return engine;
+            }
+            discard(slot);
+            if (circuitBreaker.getState() == EngineCircuitBreaker.State.OPEN) {
+                throw new StockfishException("The engines keep failing, so no engine is leased for now");
+            }
+        }
+    }
+
+    /**
+     * Claims the game's home slot if it is free. Otherwise claims a free slot with an engine, preferring engines
+     * that hold no other game's search, and only then an empty slot, since starting an engine costs more than a
+     * cold hash table. Holding a grant from the scheduler guarantees a free slot.
+     */
+    private EngineSlot claimSlot(String gameId) {
+        synchronized (slots) {
+            EngineSlot claimed = gameId == null ? null : slots[ring.nodeFor(gameId)];
+            if (claimed == null || claimed.leased) {
+                claimed = null;
+                for (EngineSlot slot : slots) {
+                    if (!slot.leased && (claimed == null || rank(slot) < rank(claimed))) {
+                        claimed = slot;
+                    }
+                }
+            }
+            if (claimed == null) {
+                throw new IllegalStateException("Every engine is leased, but the scheduler granted another lease");
+            }
+            claimed.leased = true;
+            return claimed;
+        }
+    }
+
+    /**
+     * Ranks a free slot for a lease that cannot have its home slot, lower being better.
+     */
+    private static int rank(EngineSlot slot) {
+        if (slot.engine == null) {
+            return 2;
+        }
+        return slot.gameId == null ? 0 : 1;
+    }
+
+    private boolean isReady(Stockfish engine, boolean warm) {
+        if (!engine.isAlive()) {
+            return false;
+        }
+        try {
+            // Both probe that the engine still answers; only a new game clears the hash table
+            if (warm) {
+                engine.waitUntilReady();
+            } else {
+                engine.newGame();
+            }
+            return true;
+        } catch (StockfishException e) {
+            log.warn("Engine did not answer its liveness probe, replacing it", e);
+            circuitBreaker.recordFailure();
+            return false;
+        }
+    }
+
+    private void stopPonder(Stockfish engine) {
+        try {
+            // The next lease may start a new game, which the engine would ignore in the middle of a search
+            engine.stopPonder();
+        } catch (StockfishException e) {
+            // A timeout has already closed the engine's session, so it is discarded below
+            log.warn("Engine did not stop pondering", e);
+        }
+    }
+
+    private Stockfish startEngine(EngineSlot slot) {
+        Stockfish engine = null;
+        try {
+            engine = engineFactory.get();
+            if (!engine.startEngine()) {
+                throw new StockfishException("Engine failed to start");
+            }
+            engine.initialize();
+            synchronized (slots) {
+                slot.engine = engine;
+            }
+            return engine;
+        } catch (StockfishException e) {
+            if (engine != null) {
+                engine.stopEngine();
+            }
+            synchronized (slots) {
+                slot.leased = false;
+            }
+            circuitBreaker.recordFailure();
+            throw e;
+        }
+    }
+
+    /**
+     * Stops a claimed slot's engine and frees the slot, to be started afresh by a later lease.
+     */
+    private void discard(EngineSlot slot) {
+        Stockfish engine;
+        synchronized (slots) {
+            engine = slot.engine;
+            slot.engine = null;
+            slot.gameId = null;
+            slot.leased = false;
+        }
+        engine.stopEngine();
+    }
+
+    /**
+     * One engine's place in the pool, and the game whose search tree the engine's hash table holds.
+     */
+    private static final class EngineSlot {
+        private Stockfish engine;
+        private boolean leased;
+        private String gameId;
+        private EngineScheduler.Grant grant;
+    }
+}
@@ -0,0 +1,176 @@
+package com.nashss.se.chessplayerservice.engine;
+
+import com.nashss.se.chessplayerservice.chess.Piece;
+import com.nashss.se.chessplayerservice.chess.Position;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The Syzygy endgame tablebases available on local disk.
+ * <p>
+ * The directory is scanned once for win/draw/loss (".rtbw") and distance-to-zero (".rtbz") tables, named after the
+ * material they cover, such as "KQvK.rtbw". A table is memory-mapped and its magic number checked the first time a
+ * position with that material comes up, and tables that fail the check are never offered again. Positions whose
+ * material has both a valid WDL and a valid DTZ table are probed by the engine, which is pointed at the same
+ * directory through its "SyzygyPath" option and ranks root moves from the tables before it searches.
+ */
+public class SyzygyTablebase {
+    public static final String DIRECTORY = "syzygy";
+    public static final String WDL_SUFFIX = ".rtbw";
+    public static final String DTZ_SUFFIX = ".rtbz";
+
+    private static final Logger log = LogManager.getLogger();
+
+    private static final byte[] WDL_MAGIC = {0x71, (byte) 0xE8, 0x23, 0x5D};
+    private static final byte[] DTZ_MAGIC = {(byte) 0xD7, 0x66, 0x0C, (byte) 0xA5};
+    private static final char[] MATERIAL_ORDER = {'K', 'Q', 'R', 'B', 'N', 'P'};
+    private static final int[] TYPE_ORDER = {Piece.KING, Piece.QUEEN, Piece.ROOK, Piece.BISHOP, Piece.KNIGHT,
+        Piece.PAWN};
+
+    private final Path directory;
+    private final Map<String, Path> files = new ConcurrentHashMap<>();
+    private final Map<String, Optional<MappedByteBuffer>> mapped = new ConcurrentHashMap<>();
+    private final int maxPieces;
+
+    /**
+     * Instantiates a new SyzygyTablebase over the tables in a directory.
+     *
+     * @param directory the directory holding ".rtbw" and ".rtbz" files, or null for no tables
+     */
+    public SyzygyTablebase(Path directory) {
+        this.directory = directory;
+        int largest = 0;
+        if (directory != null && Files.isDirectory(directory)) {
+            try (DirectoryStream<Path> tables = Files.newDirectoryStream(directory, "*.{rtbw,rtbz}")) {
+                for (Path table : tables) {
+                    String name = table.getFileName().toString();
+                    files.put(name, table);
+                    // Each letter before the extension, apart from the 'v', is a piece
+                    largest = Math.max(largest, name.length() - WDL_SUFFIX.length() - 1);
+                }
+            } catch (IOException e) {
+                log.warn("Could not list the tablebase directory " + directory, e);
+                files.clear();
+                largest = 0;
+            }
+        }
+        this.maxPieces = largest;
+    }
+
+    /**
+     * Finds the tables shipped next to the engine binary, in its "syzygy" directory.
+     *
+     * @return the tablebase, without any tables if the directory is missing
+     */
+    public static SyzygyTablebase load() {
+        return new SyzygyTablebase(EngineBinary.findEngineFile(DIRECTORY));
+    }
+
+    /**
+     * Checks whether the tables on disk decide a position.
+     *
+     * @param position the position
+     * @return true if both a WDL and a DTZ table cover the position's material
+     */
+    public boolean covers(Position position) {
+        if (files.isEmpty() || Long.bitCount(occupied(position)) > maxPieces) {
+            return false;
+        }
+        // Syzygy only ships one table per pair of mirrored materials, so try both colors on the left
+        return isUsable(materialName(position, Piece.WHITE)) || isUsable(materialName(position, Piece.BLACK));
+    }
+
+    /**
+     * Gets the directory to pass to the engine's "SyzygyPath" option.
+     *
+     * @return the absolute directory path, or null if there are no tables
+     */
+    public String getPath() {
+        return files.isEmpty() ? null : directory.toAbsolutePath().toString();
+    }
+
+    public int getMaxPieces() {
+        return maxPieces;
+    }
+
+    /**
+     * Names a position's material the way Syzygy names its files, for example "KRPvKR".
+     *
+     * @param position the position
+     * @param first the color whose pieces are written before the 'v'
+     * @return the material name
+     */
+    static String materialName(Position position, int first) {
+        StringBuilder name = new StringBuilder(8);
+        appendPieces(position, first, name);
+        name.append('v');
+        appendPieces(position, first ^ 1, name);
+        return name.toString();
+    }
+
+    private static void appendPieces(Position position, int color, StringBuilder name) {
+        for (int i = 0; i < TYPE_ORDER.length; i++) {
+            int count = Long.bitCount(position.pieces(Piece.of(color, TYPE_ORDER[i])));
+            for (int j = 0; j < count; j++) {
+                name.append(MATERIAL_ORDER[i]);
+            }
+        }
+    }
+
+    private static long occupied(Position position) {
+        long occupied = 0;
+        for (int piece = 0; piece < Piece.COUNT; piece++) {
+            occupied |= position.pieces(piece);
+        }
+        return occupied;
+    }
+
+    private boolean isUsable(String material) {
+        return map(material + WDL_SUFFIX, WDL_MAGIC).isPresent() && map(material + DTZ_SUFFIX, DTZ_MAGIC).isPresent();
+    }
+
+    private Optional<MappedByteBuffer> map(String fileName, byte[] magic) {
+        Path file = files.get(fileName);
+        if (file == null) {
+            return Optional.empty();
+        }
+        return mapped.computeIfAbsent(fileName, name -> {
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                MappedByteBuffer table = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+                if (!hasMagic(table, magic)) {
+                    log.warn("Ignoring " + file + ", it is not a Syzygy table");
+                    return Optional.empty();
+                }
+                return Optional.of(table);
+            } catch (IOException e) {
+                log.warn("Ignoring " + file + ", it could not be mapped", e);
+                return Optional.empty();
+            }
+        });
+    }
+
+    private static boolean hasMagic(ByteBuffer table, byte[] magic) {
+        if (table.capacity() < magic.length) {
+            return false;
+        }
+        for (int i = 0; i < magic.length; i++) {
+            if (table.get(i) != magic[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
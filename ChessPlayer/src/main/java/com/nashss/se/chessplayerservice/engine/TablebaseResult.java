@@ -0,0 +1,79 @@
+package com.nashss.se.chessplayerservice.engine;
+
+import java.util.List;
+
+/**
+ * The engine's answer for a position decided by the endgame tablebases: the move to play and the outcome with
+ * perfect play, from the point of view of the side to move.
+ */
+public final class TablebaseResult {
+    /**
+     * Stockfish reports tablebase wins as scores far beyond any evaluation of real material, about 15000 centipawns
+     * in Stockfish 15 and 20000 in later versions, so a score of at least 10000 centipawns is a decided win or loss.
+     */
+    static final int DECIDED_SCORE_CP = 10_000;
+
+    private final String move;
+    private final Outcome outcome;
+
+    /**
+     * Instantiates a new TablebaseResult.
+     *
+     * @param move the move in UCI notation
+     * @param outcome the outcome for the side to move
+     */
+    public TablebaseResult(String move, Outcome outcome) {
+        this.move = move;
+        this.outcome = outcome;
+    }
+
+    /**
+     * Reads the result of a search made with tablebases loaded. The score of the last "info" line decides the
+     * outcome; since the tables know the exact result, any score that is not a decided win or loss is a draw.
+     *
+     * @param output the engine's output for the search, ending with the "bestmove" line
+     * @return the result
+     */
+    public static TablebaseResult fromSearchOutput(List<String> output) {
+        SearchInfo info = new SearchInfo();
+        for (int i = output.size() - 1; i >= 0; i--) {
+            if (UciInfoParser.parse(output.get(i), info) && info.hasScore()) {
+                break;
+            }
+        }
+        return fromSearchInfo(info, Analysis.bestMoveOf(output));
+    }
+
+    /**
+     * Creates the result of a search made with tablebases loaded from its last search info.
+     *
+     * @param info the last scored info of the search; an info without a score counts as a draw
+     * @param move the engine's best move in UCI notation
+     * @return the result
+     */
+    public static TablebaseResult fromSearchInfo(SearchInfo info, String move) {
+        Outcome outcome = Outcome.DRAW;
+        if (info.hasScore() && (info.isMate() || Math.abs(info.getScoreCp()) >= DECIDED_SCORE_CP)) {
+            int value = info.isMate() ? info.getMateIn() : info.getScoreCp();
+            outcome = value > 0 ? Outcome.WIN : Outcome.LOSS;
+        }
+        return new TablebaseResult(move, outcome);
+    }
+
+    public String getMove() {
+        return move;
+    }
+
+    public Outcome getOutcome() {
+        return outcome;
+    }
+
+    /**
+     * The result of the game with perfect play.
+     */
+    public enum Outcome {
+        WIN,
+        DRAW,
+        LOSS
+    }
+}
@@ -0,0 +1,191 @@
+package com.nashss.se.chessplayerservice.engine;
+
+/**
+ * Parses UCI "info" lines into a {@link SearchInfo} without allocating.
+ * <p>
+ * The line is scanned once, token by token, and numbers are read straight from its characters, so no substrings,
+ * token arrays or boxed numbers are created. Tokens the parser does not know, such as "currmove" or "wdl", are
+ * skipped along with their numeric arguments, and "string" ends the line.
+ */
+public final class UciInfoParser {
+
+    private UciInfoParser() {
+    }
+
+    /**
+     * Parses an "info" line into an info object, which is reset first.
+     *
+     * @param line the line printed by the engine
+     * @param info the info to fill in
+     * @return true if the line was an "info" line. False otherwise, leaving the info reset
+     */
+    public static boolean parse(CharSequence line, SearchInfo info) {
+        info.reset();
+        int length = line.length();
+        int start = skipSpaces(line, 0);
+        int end = tokenEnd(line, start);
+        if (!matches(line, start, end, "info")) {
+            return false;
+        }
+        int position = end;
+        while (position < length) {
+            start = skipSpaces(line, position);
+            end = tokenEnd(line, start);
+            if (start == end) {
+                break;
+            }
+            position = parseToken(line, start, end, info);
+        }
+        return true;
+    }
+
+    /**
+     * Checks whether a line starts with a prefix, without creating a string for the line.
+     *
+     * @param line the line
+     * @param prefix the prefix
+     * @return true if the line starts with the prefix
+     */
+    public static boolean startsWith(CharSequence line, String prefix) {
+        if (line.length() < prefix.length()) {
+            return false;
+        }
+        for (int i = 0; i < prefix.length(); i++) {
+            if (line.charAt(i) != prefix.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Reads the value of the token between start and end.
+     *
+     * @return the index after the last character the token used
+     */
+    private static int parseToken(CharSequence line, int start, int end, SearchInfo info) {
+        if (matches(line, start, end, "pv")) {
+            return parsePv(line, end, info);
+        }
+        if (matches(line, start, end, "string")) {
+            return line.length();
+        }
+        if (matches(line, start, end, "score")) {
+            return parseScore(line, end, info);
+        }
+        return parseNumber(line, start, end, info);
+    }
+
+    private static int parseNumber(CharSequence line, int start, int end, SearchInfo info) {
+        int valueStart = skipSpaces(line, end);
+        int valueEnd = tokenEnd(line, valueStart);
+        if (!isNumber(line, valueStart, valueEnd)) {
+            // An unknown token, or one whose value is not a number such as "currmove e2e4", is skipped on its own
+            return end;
+        }
+        long value = parseLong(line, valueStart, valueEnd);
+        if (matches(line, start, end, "depth")) {
+            info.setDepth((int) value);
+        } else if (matches(line, start, end, "seldepth")) {
+            info.setSelDepth((int) value);
+        } else if (matches(line, start, end, "multipv")) {
+            info.setMultiPv((int) value);
+        } else if (matches(line, start, end, "nodes")) {
+            info.setNodes(value);
+        } else if (matches(line, start, end, "nps")) {
+            info.setNps(value);
+        } else if (matches(line, start, end, "time")) {
+            info.setTimeMillis(value);
+        } else if (matches(line, start, end, "hashfull")) {
+            info.setHashFull((int) value);
+        } else if (matches(line, start, end, "tbhits")) {
+            info.setTbHits(value);
+        }
+        return valueEnd;
+    }
+
+    private static int parseScore(CharSequence line, int position, SearchInfo info) {
+        int unitStart = skipSpaces(line, position);
+        int unitEnd = tokenEnd(line, unitStart);
+        int valueStart = skipSpaces(line, unitEnd);
+        int valueEnd = tokenEnd(line, valueStart);
+        boolean mate = matches(line, unitStart, unitEnd, "mate");
+        if ((!mate && !matches(line, unitStart, unitEnd, "cp")) || !isNumber(line, valueStart, valueEnd)) {
+            return unitEnd;
+        }
+        info.setScore(mate, (int) parseLong(line, valueStart, valueEnd));
+        int boundStart = skipSpaces(line, valueEnd);
+        int boundEnd = tokenEnd(line, boundStart);
+        if (matches(line, boundStart, boundEnd, "lowerbound")) {
+            info.setLowerBound(true);
+            return boundEnd;
+        }
+        if (matches(line, boundStart, boundEnd, "upperbound")) {
+            info.setUpperBound(true);
+            return boundEnd;
+        }
+        return valueEnd;
+    }
+
+    private static int parsePv(CharSequence line, int position, SearchInfo info) {
+        // The principal variation runs to the end of the line
+        int start = skipSpaces(line, position);
+        while (start < line.length()) {
+            int end = tokenEnd(line, start);
+            info.addPvMove(line, start, end);
+            start = skipSpaces(line, end);
+        }
+        return line.length();
+    }
+
+    private static boolean matches(CharSequence line, int start, int end, String token) {
+        if (end - start != token.length()) {
+            return false;
+        }
+        for (int i = 0; i < token.length(); i++) {
+            if (line.charAt(start + i) != token.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isNumber(CharSequence line, int start, int end) {
+        int digits = start < end && line.charAt(start) == '-' ? start + 1 : start;
+        if (digits == end) {
+            return false;
+        }
+        for (int i = digits; i < end; i++) {
+            char c = line.charAt(i);
+            if (c < '0' || c > '9') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static long parseLong(CharSequence line, int start, int end) {
+        boolean negative = line.charAt(start) == '-';
+        long value = 0;
+        for (int i = negative ? start + 1 : start; i < end; i++) {
+            value = value * 10 + (line.charAt(i) - '0');
+        }
+        return negative ? -value : value;
+    }
+
+    private static int skipSpaces(CharSequence line, int position) {
+        int i = position;
+        while (i < line.length() && Character.isWhitespace(line.charAt(i))) {
+            i++;
+        }
+        return i;
+    }
+
+    private static int tokenEnd(CharSequence line, int start) {
+        int i = start;
+        while (i < line.length() && !Character.isWhitespace(line.charAt(i))) {
+            i++;
+        }
+        return i;
+    }
+}
@@ -0,0 +1,361 @@
+package com.nashss.se.chessplayerservice.engine;
+
+import com.nashss.se.chessplayerservice.exceptions.EngineTimeoutException;
+import com.nashss.se.chessplayerservice.exceptions.StockfishException;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * A UCI conversation with a single engine process.
+ * <p>
+ * The engine's output is read on a dedicated reader thread, virtual where the runtime has them. Each command that
+ * expects an answer registers the token that ends its output ("bestmove", "readyok", "uciok", ...), and completes as
+ * soon as a line starting with that token arrives, so callers never have to guess how long to wait. Lines that
+ * arrive while no command is waiting, such as the engine's banner, are discarded.
+ * <p>
+ * A command may also register a {@link SearchInfoListener}. Its "info" lines are then parsed as they arrive into one
+ * {@link SearchInfo} the session reuses, and handed to the listener instead of being kept, so following a long search
+ * costs no allocation per line.
+ * <p>
+ * Every blocking wait has a deadline. An engine that misses one is treated as hung: the session closes itself, since
+ * any output that arrives late would be mistaken for the next command's, and the caller gets an
+ * {@link EngineTimeoutException}.
+ */
+public class UciSession implements Closeable {
+    /** Deadline of commands that do not set their own, long enough for any search the service runs. */
+    public static final long DEFAULT_COMMAND_TIMEOUT_MILLIS = 20_000;
+    private static final Logger log = LogManager.getLogger();
+    private static final int READ_BUFFER_CHARS = 8192;
+
+    private final BufferedReader reader;
+    private final Writer writer;
+    private final Thread readerThread;
+    private final Object lock = new Object();
+    private final long commandTimeoutMillis;
+    /** Only used by the reader thread. */
+    private final SearchInfo searchInfo = new SearchInfo();
+
+    private PendingCommand pending;
+    private boolean closed;
+
+    /**
+     * Starts a session over the given engine streams.
+     *
+     * @param engineOutput the engine's standard output
+     * @param engineInput the engine's standard input
+     */
+    public UciSession(InputStream engineOutput, OutputStream engineInput) {
+        this(engineOutput, engineInput, DEFAULT_COMMAND_TIMEOUT_MILLIS);
+    }
+
+    /**
+     * Starts a session over the given engine streams.
+     *
+     * @param engineOutput the engine's standard output
+     * @param engineInput the engine's standard input
+     * @param commandTimeoutMillis the deadline of commands that do not set their own
+     */
+    public UciSession(InputStream engineOutput, OutputStream engineInput, long commandTimeoutMillis) {
+        this.commandTimeoutMillis = commandTimeoutMillis;
+        this.reader = new BufferedReader(new InputStreamReader(engineOutput, StandardCharsets.UTF_8));
+        this.writer = new OutputStreamWriter(engineInput, StandardCharsets.UTF_8);
+        this.readerThread = ReaderThreads.newThread(this::readLoop, "uci-reader");
+        this.readerThread.start();
+    }
+
+    /**
+     * Sends a command that produces no output the caller needs, such as "position" or "setoption".
+     *
+     * @param command UCI command to relay to the engine
+     */
+    public void send(String command) {
+        try {
+            synchronized (writer) {
+                writer.write(command);
+                writer.write('\n');
+                writer.flush();
+            }
+        } catch (IOException e) {
+            throw new StockfishException("Could not write to the engine: " + command, e);
+        }
+    }
+
+    /**
+     * Sends a command and returns a future that completes once the engine prints a line starting with
+     * the terminator. Only one command may be waiting for output at a time.
+     *
+     * @param command UCI command to relay to the engine
+     * @param terminator prefix of the line that ends the command's output
+     * @return every line the engine printed for the command, ending with the terminating line
+     */
+    public CompletableFuture<List<String>> submit(String command, String terminator) {
+        return submit(command, terminator, null);
+    }
+
+    /**
+     * Sends a command and returns a future that completes once the engine prints a line starting with
+     * the terminator. Every "info" line with a score is parsed and given to the listener on the reader thread, and
+     * is not part of the result. Only one command may be waiting for output at a time.
+     *
+     * @param command UCI command to relay to the engine
+     * @param terminator prefix of the line that ends the command's output
+     * @param listener receives the command's search info, or null to keep every line in the result
+     * @return the lines the engine printed for the command, ending with the terminating line
+     */
+    public CompletableFuture<List<String>> submit(String command, String terminator, SearchInfoListener listener) {
+        PendingCommand next = new PendingCommand(terminator, listener);
+        synchronized (lock) {
+            if (closed) {
+                throw new StockfishException("The engine session is closed");
+            }
+            if (pending != null) {
+                throw new StockfishException("A command is already waiting for output: " + pending.terminator);
+            }
+            pending = next;
+        }
+        try {
+            send(command);
+        } catch (StockfishException e) {
+            fail(next, e);
+        }
+        return next.result;
+    }
+
+    /**
+     * Sends a command and blocks until the engine prints a line starting with the terminator.
+     *
+     * @param command UCI command to relay to the engine
+     * @param terminator prefix of the line that ends the command's output
+     * @return every line the engine printed for the command, ending with the terminating line
+     */
+    public List<String> execute(String command, String terminator) {
+        return await(submit(command, terminator), commandTimeoutMillis);
+    }
+
+    /**
+     * Sends a command and blocks until the engine prints a line starting with the terminator, giving the listener
+     * every scored "info" line on the way.
+     *
+     * @param command UCI command to relay to the engine
+     * @param terminator prefix of the line that ends the command's output
+     * @param listener receives the command's search info
+     * @return the lines other than scored "info" lines, ending with the terminating line
+     */
+    public List<String> execute(String command, String terminator, SearchInfoListener listener) {
+        return execute(command, terminator, listener, commandTimeoutMillis);
+    }
+
+    /**
+     * Sends a command and blocks until the engine prints a line starting with the terminator or the deadline
+     * passes, giving the listener every scored "info" line on the way.
+     *
+     * @param command UCI command to relay to the engine
+     * @param terminator prefix of the line that ends the command's output
+     * @param listener receives the command's search info, or null to keep every line
+     * @param timeoutMillis the longest the engine may take to finish the command
+     * @return the lines other than scored "info" lines, ending with the terminating line
+     */
+    public List<String> execute(String command, String terminator, SearchInfoListener listener,
+                                long timeoutMillis) {
+        return await(submit(command, terminator, listener), timeoutMillis);
+    }
+
+    /**
+     * Waits for the engine to finish processing every command sent so far.
+     */
+    public void isReady() {
+        execute("isready", "readyok");
+    }
+
+    /**
+     * Probes that the engine still answers: waits for it to finish processing every command sent so far, or treats
+     * it as hung if that takes longer than the deadline.
+     *
+     * @param timeoutMillis the longest the engine may take
+     */
+    public void isReady(long timeoutMillis) {
+        execute("isready", "readyok", null, timeoutMillis);
+    }
+
+    /**
+     * Closes the engine's input. Any command still waiting for output fails, and the reader thread finishes once
+     * the engine exits and closes its output.
+     */
+    @Override
+    public void close() {
+        PendingCommand waiting;
+        synchronized (lock) {
+            closed = true;
+            waiting = pending;
+        }
+        if (waiting != null) {
+            fail(waiting, new StockfishException("The engine session was closed"));
+        }
+        try {
+            writer.close();
+        } catch (IOException e) {
+            // The engine may already have exited and closed its end of the pipe
+            log.debug("Engine input was already closed", e);
+        }
+    }
+
+    /**
+     * Checks whether the session can still take commands.
+     *
+     * @return True until the session is closed, the engine closes its output or misses a deadline. False otherwise
+     */
+    public boolean isOpen() {
+        synchronized (lock) {
+            return !closed;
+        }
+    }
+
+    /**
+     * Blocks until a command sent with {@link #submit(String, String)} has finished, or the default deadline passes.
+     *
+     * @param future the future returned by submit
+     * @return every line the engine printed for the command, ending with the terminating line
+     */
+    public List<String> await(CompletableFuture<List<String>> future) {
+        return await(future, commandTimeoutMillis);
+    }
+
+    /**
+     * Blocks until a command sent with {@link #submit(String, String)} has finished. If the deadline passes first,
+     * the engine is treated as hung and the session is closed.
+     *
+     * @param future the future returned by submit
+     * @param timeoutMillis the longest to wait
+     * @return every line the engine printed for the command, ending with the terminating line
+     */
+    public List<String> await(CompletableFuture<List<String>> future, long timeoutMillis) {
+        try {
+            return future.get(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            close();
+            throw new EngineTimeoutException("The engine did not answer within " + timeoutMillis + " ms", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new StockfishException("Interrupted while waiting for the engine", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof StockfishException) {
+                throw (StockfishException) e.getCause();
+            }
+            throw new StockfishException(e.getCause());
+        }
+    }
+
+    private void readLoop() {
+        // Lines are gathered in one reused builder, and only become strings when a command keeps them
+        char[] buffer = new char[READ_BUFFER_CHARS];
+        StringBuilder line = new StringBuilder(256);
+        try {
+            int read = reader.read(buffer);
+            while (read >= 0) {
+                for (int i = 0; i < read; i++) {
+                    char c = buffer[i];
+                    if (c == '\n') {
+                        onLine(line);
+                        line.setLength(0);
+                    } else if (c != '\r') {
+                        line.append(c);
+                    }
+                }
+                read = reader.read(buffer);
+            }
+            if (line.length() > 0) {
+                onLine(line);
+            }
+        } catch (IOException e) {
+            // The stream broke, handled below the same way as the engine exiting
+            log.debug("Engine output could not be read", e);
+        }
+        try {
+            reader.close();
+        } catch (IOException e) {
+            // Nothing more can be read either way
+            log.debug("Engine output could not be closed", e);
+        }
+        PendingCommand waiting;
+        synchronized (lock) {
+            closed = true;
+            waiting = pending;
+        }
+        if (waiting != null) {
+            fail(waiting, new StockfishException("The engine closed its output"));
+        }
+    }
+
+    private void onLine(CharSequence line) {
+        PendingCommand current;
+        synchronized (lock) {
+            current = pending;
+        }
+        if (current == null || isStreamedInfo(current, line)) {
+            return;
+        }
+        current.lines.add(line.toString());
+        if (UciInfoParser.startsWith(line, current.terminator)) {
+            synchronized (lock) {
+                pending = null;
+            }
+            current.result.complete(current.lines);
+        }
+    }
+
+    /**
+     * Hands a scored "info" line to the command's listener.
+     *
+     * @return true if the listener took the line. False if the line should be kept
+     */
+    private boolean isStreamedInfo(PendingCommand current, CharSequence line) {
+        if (current.listener == null || !UciInfoParser.parse(line, searchInfo) || !searchInfo.hasScore()) {
+            return false;
+        }
+        try {
+            current.listener.onInfo(searchInfo);
+        } catch (RuntimeException e) {
+            // A broken listener must not stop the reader thread, or the command would never complete
+            log.warn("Search info listener failed", e);
+        }
+        return true;
+    }
+
+    private void fail(PendingCommand command, StockfishException e) {
+        synchronized (lock) {
+            if (pending == command) {
+                pending = null;
+            }
+        }
+        command.result.completeExceptionally(e);
+    }
+
+    private static final class PendingCommand {
+        private final String terminator;
+        private final List<String> lines = new ArrayList<>();
+        private final SearchInfoListener listener;
+        private final CompletableFuture<List<String>> result = new CompletableFuture<>();
+
+        private PendingCommand(String terminator, SearchInfoListener listener) {
+            this.terminator = terminator;
+            this.listener = listener;
+        }
+    }
+}
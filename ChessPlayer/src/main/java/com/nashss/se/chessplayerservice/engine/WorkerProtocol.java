@@ -0,0 +1,99 @@
+package com.nashss.se.chessplayerservice.engine;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The wire format between a {@link RemoteEngine} and an {@link EngineWorker}.
+ * <p>
+ * The client posts a {@link SearchJob} as JSON to {@link #JOBS_PATH}. The worker answers with newline-delimited JSON
+ * events, streamed as they happen: any number of "info" events while the engine searches, each holding a UCI info
+ * line, then exactly one "result" or "error" event. A result also says how long the job waited for an engine on the
+ * worker, when the worker's engines queue their callers.
+ */
+final class WorkerProtocol {
+    static final String JOBS_PATH = "/jobs";
+    static final String HEALTH_PATH = "/health";
+    static final String CONTENT_TYPE = "application/x-ndjson";
+
+    static final String EVENT = "event";
+    static final String INFO = "info";
+    static final String RESULT = "result";
+    static final String ERROR = "error";
+    static final String LINE = "line";
+    static final String MESSAGE = "message";
+    static final String TIMEOUT = "timeout";
+
+    static final String BEST_MOVE = "bestMove";
+    static final String LEGAL_MOVES = "legalMoves";
+    static final String EVALUATION = "evaluation";
+    static final String ANALYSIS = "analysis";
+    static final String LINES = "lines";
+    static final String OUTCOME = "outcome";
+    static final String QUEUE_WAIT = "queueWaitMillis";
+
+    static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private WorkerProtocol() {
+    }
+
+    /**
+     * Creates an event of the given type.
+     *
+     * @param type the event's type, such as {@link #RESULT}
+     * @return the event, for the caller to add its fields to
+     */
+    static ObjectNode event(String type) {
+        ObjectNode event = MAPPER.createObjectNode();
+        event.put(EVENT, type);
+        return event;
+    }
+
+    /**
+     * Writes an analysis as JSON.
+     *
+     * @param analysis the analysis
+     * @return the JSON object
+     */
+    static ObjectNode toJson(Analysis analysis) {
+        ObjectNode node = MAPPER.createObjectNode();
+        node.put(BEST_MOVE, analysis.getBestMove());
+        node.put("scoreCp", analysis.getScoreCp());
+        if (analysis.getMateIn() != null) {
+            node.put("mateIn", analysis.getMateIn());
+        }
+        node.put("depth", analysis.getDepth());
+        ArrayNode pv = node.putArray("pv");
+        analysis.getPrincipalVariation().forEach(pv::add);
+        return node;
+    }
+
+    /**
+     * Reads an analysis written by {@link #toJson(Analysis)}.
+     *
+     * @param node the JSON object
+     * @return the analysis
+     */
+    static Analysis analysisFromJson(JsonNode node) {
+        JsonNode mateIn = node.get("mateIn");
+        return new Analysis(node.get(BEST_MOVE).asText(), node.get("scoreCp").asInt(),
+                mateIn == null ? null : mateIn.asInt(), node.get("depth").asInt(), strings(node.get("pv")));
+    }
+
+    /**
+     * Reads a JSON array of strings.
+     *
+     * @param array the array
+     * @return the strings, in order
+     */
+    static List<String> strings(JsonNode array) {
+        List<String> values = new ArrayList<>(array.size());
+        array.forEach(value -> values.add(value.asText()));
+        return values;
+    }
+}
@@ -0,0 +1,23 @@
+package com.nashss.se.chessplayerservice.exceptions;
+
+/**
+ * Thrown when the engine does not answer a command before its deadline, so it is treated as hung.
+ */
+public class EngineTimeoutException extends StockfishException {
+    /**
+     * Exception with a message, but no cause.
+     * @param message A descriptive message for this exception.
+     */
+    public EngineTimeoutException(String message) {
+        super(message);
+    }
+
+    /**
+     * Exception with message and cause.
+     * @param message A descriptive message for this exception.
+     * @param cause The original throwable resulting in this exception.
+     */
+    public EngineTimeoutException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
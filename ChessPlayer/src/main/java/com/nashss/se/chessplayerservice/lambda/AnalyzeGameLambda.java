@@ -0,0 +1,23 @@
+package com.nashss.se.chessplayerservice.lambda;
+
+import com.nashss.se.chessplayerservice.activity.request.AnalyzeGameRequest;
+import com.nashss.se.chessplayerservice.activity.response.AnalyzeGameResponse;
+
+import com.amazonaws.services.lambda.runtime.Context;
+import com.amazonaws.services.lambda.runtime.RequestHandler;
+
+public class AnalyzeGameLambda extends LambdaActivityRunner<AnalyzeGameRequest, AnalyzeGameResponse>
+        implements RequestHandler<LambdaRequest<AnalyzeGameRequest>, LambdaResponse> {
+
+
+    @Override
+    public LambdaResponse handleRequest(LambdaRequest<AnalyzeGameRequest> input, Context context) {
+        return super.runActivity(
+            () -> input.fromPath(path -> AnalyzeGameRequest.builder()
+                    .withGameId(path.get("gameId"))
+                    .withRemainingTimeMillis(context == null ? null : (long) context.getRemainingTimeInMillis())
+                    .build()),
+            (request, serviceComponent) -> serviceComponent.provideAnalyzeGameActivity().handleRequest(request)
+        );
+    }
+}
@@ -16,6 +16,9 @@ public class GetNextMoveLambda extends LambdaActivityRunner<GetNextMoveRequest,
             () -> input.fromPathAndQuery((path, query) -> GetNextMoveRequest.builder()
                     .withMove(path.get("move"))
                     .withGameId(query.get("gameId"))
+                    // Read both clocks together, before the service is built, so cold starts count as time spent
+                    .withReceivedNanos(System.nanoTime())
+                    .withRemainingTimeMillis(context == null ? null : (long) context.getRemainingTimeInMillis())
                     .build()),
             (request, serviceComponent) -> serviceComponent.provideGetNextMoveActivity().handleRequest(request)
         );
@@ -0,0 +1,25 @@
+package com.nashss.se.chessplayerservice.metrics;
+
+/**
+ * Constant values for use with metrics.
+ */
+public class MetricsConstants {
+    public static final String SERVICE = "Service";
+    public static final String SERVICE_NAME = "ChessPlayerService";
+    public static final String NAMESPACE_NAME = "U3/ChessPlayerService";
+
+    /** 1 when a speculatively precomputed reply answered the player's move, 0 when a search was needed. */
+    public static final String SPECULATION_HIT_COUNT = "GetNextMove.SpeculationHitCount";
+    /** Depth the engine's search of a move completed. */
+    public static final String SEARCH_DEPTH = "GetNextMove.SearchDepth";
+    /** Nodes the engine searched for a move. */
+    public static final String SEARCH_NODES = "GetNextMove.SearchNodes";
+    /** Time a move waited in line for a free engine process. */
+    public static final String ENGINE_QUEUE_WAIT_TIME = "GetNextMove.EngineQueueWaitTime";
+    /** Time a move's search took once it had an engine. */
+    public static final String ENGINE_SEARCH_TIME = "GetNextMove.EngineSearchTime";
+    /** Share of engine time leased since the last sample, in percent. */
+    public static final String ENGINE_UTILIZATION = "Engine.Utilization";
+    /** Time a cold start spent finding or extracting the engine binary. */
+    public static final String ENGINE_PROVISIONING_TIME = "Startup.EngineProvisioningTime";
+}
@@ -0,0 +1,66 @@
+package com.nashss.se.chessplayerservice.metrics;
+
+import com.amazonaws.services.cloudwatch.AmazonCloudWatch;
+import com.amazonaws.services.cloudwatch.model.Dimension;
+import com.amazonaws.services.cloudwatch.model.MetricDatum;
+import com.amazonaws.services.cloudwatch.model.PutMetricDataRequest;
+import com.amazonaws.services.cloudwatch.model.StandardUnit;
+
+import javax.inject.Inject;
+
+/**
+ * Wrapper around the CloudWatch client that publishes the service's metrics.
+ */
+public class MetricsPublisher {
+    private final AmazonCloudWatch cloudWatch;
+
+    /**
+     * Instantiates a new MetricsPublisher.
+     *
+     * @param cloudWatch the CloudWatch client to publish with
+     */
+    @Inject
+    public MetricsPublisher(AmazonCloudWatch cloudWatch) {
+        this.cloudWatch = cloudWatch;
+    }
+
+    /**
+     * Publishes a count.
+     *
+     * @param metricName the metric's name
+     * @param count the count
+     */
+    public void addCount(String metricName, double count) {
+        addMetric(metricName, count, StandardUnit.Count);
+    }
+
+    /**
+     * Publishes a duration.
+     *
+     * @param metricName the metric's name
+     * @param milliseconds the duration in milliseconds
+     */
+    public void addTime(String metricName, double milliseconds) {
+        addMetric(metricName, milliseconds, StandardUnit.Milliseconds);
+    }
+
+    /**
+     * Publishes a value with the service's dimension.
+     *
+     * @param metricName the metric's name
+     * @param value the value
+     * @param unit the value's unit
+     */
+    public void addMetric(String metricName, double value, StandardUnit unit) {
+        MetricDatum datum = new MetricDatum()
+                .withMetricName(metricName)
+                .withUnit(unit)
+                .withValue(value)
+                .withDimensions(new Dimension()
+                        .withName(MetricsConstants.SERVICE)
+                        .withValue(MetricsConstants.SERVICE_NAME));
+        cloudWatch.putMetricData(new PutMetricDataRequest()
+                .withNamespace(MetricsConstants.NAMESPACE_NAME)
+                .withMetricData(datum));
+    }
+}
@@ -1,5 +1,7 @@
 package com.nashss.se.chessplayerservice.utils;
 
+import com.nashss.se.chessplayerservice.dynamodb.models.Game;
+
 import org.apache.commons.lang3.RandomStringUtils;
 import org.apache.commons.lang3.StringUtils;
 
@@ -58,6 +60,15 @@ public class ChessUtils {
         return RandomStringUtils.random(10, true, true);
     }
 
+    /**
+     * Static utility method to find the user a game is played for, whose engine work is scheduled as theirs.
+     * @param game the game
+     * @return white's username, or black's when the user plays black against a bot
+     */
+    public static String playerOf(Game game) {
+        return game.getWhitePlayerUsername() != null ? game.getWhitePlayerUsername() : game.getBlackPlayerUsername();
+    }
+
     /**
      * Static utility method to convert a bot difficulty to a relative elo rating.
      * @param botDifficulty the botDifficulty
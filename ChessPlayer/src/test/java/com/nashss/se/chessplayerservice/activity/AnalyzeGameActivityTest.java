@@ -0,0 +1,117 @@
+package com.nashss.se.chessplayerservice.activity;
+
+import com.nashss.se.chessplayerservice.activity.request.AnalyzeGameRequest;
+import com.nashss.se.chessplayerservice.activity.response.AnalyzeGameResponse;
+import com.nashss.se.chessplayerservice.chess.Position;
+import com.nashss.se.chessplayerservice.dynamodb.dao.GameDao;
+import com.nashss.se.chessplayerservice.dynamodb.models.Game;
+import com.nashss.se.chessplayerservice.dynamodb.models.PlyAnalysis;
+import com.nashss.se.chessplayerservice.engine.Analysis;
+import com.nashss.se.chessplayerservice.engine.ChessEngine;
+import com.nashss.se.chessplayerservice.engine.EngineJob;
+import com.nashss.se.chessplayerservice.engine.GameAnalyzer;
+import com.nashss.se.chessplayerservice.exceptions.InvalidRequestException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.mockito.MockitoAnnotations.openMocks;
+
+class AnalyzeGameActivityTest {
+
+    @Mock
+    private GameDao gameDao;
+
+    @Mock
+    private ChessEngine engine;
+
+    private AnalyzeGameActivity analyzeGameActivity;
+
+    private Game game;
+
+    @BeforeEach
+    void setup() {
+        openMocks(this);
+        analyzeGameActivity = new AnalyzeGameActivity(gameDao, new GameAnalyzer(engine, 2, 10));
+        game = new Game();
+        game.setGameId("gameId");
+        game.setActive("false");
+        game.setMoves("e2e4 e7e5 g1f3");
+        when(gameDao.load("gameId")).thenReturn(game);
+        when(engine.analyze(any(), any(), anyInt())).thenReturn(new Analysis("d2d4", 30, null, 10, List.of("d2d4")));
+    }
+
+    @Test
+    void handleRequest_finishedGame_analysesEveryPlyFromWhitesView() {
+        AnalyzeGameResponse response = analyzeGameActivity.handleRequest(request(20_000L));
+
+        assertTrue(response.isComplete());
+        List<PlyAnalysis> analysis = response.getGame().getAnalysis();
+        assertEquals(3, analysis.size());
+        assertEquals("e7e5", analysis.get(1).getMove());
+        assertEquals(30, analysis.get(0).getScoreCp());
+        assertEquals(-30, analysis.get(1).getScoreCp());
+        verify(gameDao).save(game);
+    }
+
+    @Test
+    void handleRequest_partlyAnalysed_onlyAnalysesMissingPlies() {
+        analyzeGameActivity.handleRequest(request(20_000L));
+
+        AnalyzeGameResponse response = analyzeGameActivity.handleRequest(request(20_000L));
+
+        assertTrue(response.isComplete());
+        verify(engine, times(3)).analyze(any(), any(), anyInt());
+        verify(engine).analyze(any(), eq(Position.STARTING.play("e2e4")), eq(10));
+    }
+
+    @Test
+    void handleRequest_playerHadBlack_analysesAsThatPlayersJob() {
+        game.setBlackPlayerUsername("bob");
+        game.setBotDifficulty(10);
+        List<String> owners = new CopyOnWriteArrayList<>();
+        when(engine.analyze(any(), any(), anyInt())).thenAnswer(invocation -> {
+            owners.add(EngineJob.current().getOwner());
+            return new Analysis("d2d4", 30, null, 10, List.of("d2d4"));
+        });
+
+        analyzeGameActivity.handleRequest(request(20_000L));
+
+        assertEquals(List.of("bob", "bob", "bob"), owners);
+    }
+
+    @Test
+    void handleRequest_deadlineAlreadyPassed_savesNothingAndIsIncomplete() {
+        AnalyzeGameResponse response = analyzeGameActivity.handleRequest(
+                request(AnalyzeGameActivity.DEADLINE_MARGIN_MILLIS - 1));
+
+        assertFalse(response.isComplete());
+        verify(engine, never()).analyze(any(), any(), anyInt());
+        verify(gameDao, never()).save(any());
+    }
+
+    @Test
+    void handleRequest_activeGame_throwsException() {
+        game.setActive("true");
+
+        assertThrows(InvalidRequestException.class, () -> analyzeGameActivity.handleRequest(request(20_000L)));
+    }
+
+    private static AnalyzeGameRequest request(Long remainingTimeMillis) {
+        return AnalyzeGameRequest.builder()
+                .withGameId("gameId")
+                .withRemainingTimeMillis(remainingTimeMillis)
+                .build();
+    }
+}
@@ -2,19 +2,44 @@ package com.nashss.se.chessplayerservice.activity;
 
 import com.nashss.se.chessplayerservice.activity.request.GetNextMoveRequest;
 import com.nashss.se.chessplayerservice.activity.response.GetNextMoveResponse;
+import com.nashss.se.chessplayerservice.chess.Position;
 import com.nashss.se.chessplayerservice.dynamodb.dao.GameDao;
 import com.nashss.se.chessplayerservice.dynamodb.dao.UserDao;
 import com.nashss.se.chessplayerservice.dynamodb.models.Game;
-import com.nashss.se.chessplayerservice.engine.Stockfish;
+import com.nashss.se.chessplayerservice.engine.BestMoveCache;
+import com.nashss.se.chessplayerservice.engine.ChessEngine;
+import com.nashss.se.chessplayerservice.engine.EngineProfile;
+import com.nashss.se.chessplayerservice.engine.JavaEngine;
+import com.nashss.se.chessplayerservice.engine.OpeningBook;
+import com.nashss.se.chessplayerservice.engine.SearchBudget;
+import com.nashss.se.chessplayerservice.engine.SearchInfo;
+import com.nashss.se.chessplayerservice.engine.SearchInfoListener;
+import com.nashss.se.chessplayerservice.engine.SpeculativeSearch;
+import com.nashss.se.chessplayerservice.engine.SyzygyTablebase;
+import com.nashss.se.chessplayerservice.engine.TablebaseResult;
+import com.nashss.se.chessplayerservice.engine.UciInfoParser;
 import com.nashss.se.chessplayerservice.exceptions.InvalidRequestException;
 import com.nashss.se.chessplayerservice.exceptions.StockfishException;
+import com.nashss.se.chessplayerservice.metrics.MetricsConstants;
+import com.nashss.se.chessplayerservice.metrics.MetricsPublisher;
+import com.nashss.se.chessplayerservice.utils.ChessUtils;
+import com.amazonaws.services.cloudwatch.model.StandardUnit;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 
 import java.util.List;
+import java.util.OptionalDouble;
+import java.util.OptionalLong;
+import java.util.Random;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.mockito.MockitoAnnotations.openMocks;
@@ -28,14 +53,28 @@ class GetNextMoveActivityTest {
     private GameDao gameDao;
 
     @Mock
-    private Stockfish stockfish;
+    private SyzygyTablebase tablebase;
+
+    @Mock
+    private ChessEngine engine;
+
+    @Mock
+    private SpeculativeSearch speculativeSearch;
+
+    @Mock
+    private MetricsPublisher metricsPublisher;
+
+    private BestMoveCache bestMoveCache;
 
     private GetNextMoveActivity getNextMoveActivity;
 
     @BeforeEach
     void setup() {
         openMocks(this);
-        getNextMoveActivity = new GetNextMoveActivity(gameDao, userDao, stockfish);
+        bestMoveCache = new BestMoveCache(16);
+        getNextMoveActivity = new GetNextMoveActivity(gameDao, userDao, bestMoveCache,
+                OpeningBook.empty(), tablebase, new SearchBudget(SearchBudget.DEFAULT_TARGET_LATENCY_MILLIS),
+                new JavaEngine(new Random(7)), engine, speculativeSearch, metricsPublisher);
     }
 
     @Test
@@ -85,12 +124,15 @@ class GetNextMoveActivityTest {
     void handleRequest_stockfishFailsToStart_throwsException() {
         GetNextMoveRequest request = GetNextMoveRequest.builder()
                 .withGameId("gameId")
-                .withMove("move")
+                .withMove("e2e4")
                 .build();
         Game game = new Game();
         game.setActive("true");
+        game.setNotation(ChessUtils.STARTING_NOTATION);
+        game.setValidMoves(ChessUtils.STARTING_VALID_MOVES);
+        game.setBotDifficulty(10);
         when(gameDao.load("gameId")).thenReturn(game);
-        when(stockfish.startEngine()).thenReturn(false);
+        when(engine.bestMove(any(), any(), any(), anyInt(), any())).thenThrow(new StockfishException("Engine failed to start"));
 
         assertThrows(StockfishException.class, () -> getNextMoveActivity.handleRequest(request));
     }
@@ -106,8 +148,268 @@ class GetNextMoveActivityTest {
         game.setNotation("notation");
         game.setValidMoves("move1,move2");
         when(gameDao.load("gameId")).thenReturn(game);
-        when(stockfish.startEngine()).thenReturn(true);
 
         assertThrows(InvalidRequestException.class, () -> getNextMoveActivity.handleRequest(request));
+        verify(engine, never()).bestMove(any(), any(), any(), anyInt(), any());
+    }
+
+    @Test
+    void handleRequest_positionAlreadySearched_returnsCachedMoveWithoutSearching() {
+        GetNextMoveRequest request = GetNextMoveRequest.builder()
+                .withGameId("gameId")
+                .withMove("e2e4")
+                .build();
+        Game game = new Game();
+        game.setActive("true");
+        game.setNotation(ChessUtils.STARTING_NOTATION);
+        game.setValidMoves(ChessUtils.STARTING_VALID_MOVES);
+        game.setBotDifficulty(6);
+        when(gameDao.load("gameId")).thenReturn(game);
+        bestMoveCache.put("rnbqkbnr/pppppppp/8/8/4P3/8/PPPP1PPP/RNBQKBNR b KQkq - 0 1", 6,
+                EngineProfile.forDifficulty(6).searchLimit(SearchBudget.MAX_MOVE_TIME_MILLIS), "e7e5");
+
+        GetNextMoveResponse response = getNextMoveActivity.handleRequest(request);
+
+        assertEquals("e7e5", response.getMove());
+        assertEquals("e2e4 e7e5", game.getMoves());
+        assertEquals("rnbqkbnr/pppp1ppp/8/4p3/4P3/8/PPPP1PPP/RNBQKBNR w KQkq - 0 2", game.getNotation());
+        verify(engine, never()).bestMove(any(), any(), anyInt());
+        assertEquals(1, bestMoveCache.getHits());
+    }
+
+    @Test
+    void handleRequest_tablebasePosition_playsTablebaseMove() {
+        GetNextMoveRequest request = GetNextMoveRequest.builder()
+                .withGameId("gameId")
+                .withMove("a1a2")
+                .build();
+        Game game = new Game();
+        game.setActive("true");
+        game.setNotation("4k3/8/4K3/8/8/8/8/R7 w - - 0 1");
+        game.setValidMoves("a1a2");
+        game.setBotDifficulty(12);
+        when(gameDao.load("gameId")).thenReturn(game);
+        when(tablebase.covers(any())).thenReturn(true);
+        when(tablebase.getPath()).thenReturn("/tables");
+        when(engine.probeTablebase(Position.fromFen("4k3/8/4K3/8/8/8/R7/8 b - - 1 1"), "/tables"))
+                .thenReturn(new TablebaseResult("e8f8", TablebaseResult.Outcome.LOSS));
+
+        GetNextMoveResponse response = getNextMoveActivity.handleRequest(request);
+
+        assertEquals("e8f8", response.getMove());
+        assertEquals("white", game.getTablebaseWinner());
+        verify(engine, never()).bestMove(any(), any(), any(), anyInt(), any());
+    }
+
+    @Test
+    void handleRequest_tablebasePositionOnBackendWithoutTables_searchesInstead() {
+        GetNextMoveRequest request = GetNextMoveRequest.builder()
+                .withGameId("gameId")
+                .withMove("a1a2")
+                .build();
+        Game game = new Game();
+        game.setActive("true");
+        game.setNotation("4k3/8/4K3/8/8/8/8/R7 w - - 0 1");
+        game.setValidMoves("a1a2");
+        game.setBotDifficulty(12);
+        when(gameDao.load("gameId")).thenReturn(game);
+        when(tablebase.covers(any())).thenReturn(true);
+        when(tablebase.getPath()).thenReturn("/tables");
+        when(engine.bestMove(any(), any(), any(), anyInt(), any())).thenReturn("e8d8");
+
+        GetNextMoveResponse response = getNextMoveActivity.handleRequest(request);
+
+        assertEquals("e8d8", response.getMove());
+        assertNull(game.getTablebaseWinner());
+    }
+
+    @Test
+    void handleRequest_littleTimeRemaining_searchesWithShorterMovetime() {
+        GetNextMoveRequest request = GetNextMoveRequest.builder()
+                .withGameId("gameId")
+                .withMove("e2e4")
+                .withRemainingTimeMillis(1_200L)
+                .build();
+        Game game = new Game();
+        game.setActive("true");
+        game.setNotation(ChessUtils.STARTING_NOTATION);
+        game.setValidMoves(ChessUtils.STARTING_VALID_MOVES);
+        game.setBotDifficulty(6);
+        when(gameDao.load("gameId")).thenReturn(game);
+        when(engine.bestMove(any(), any(), any(), anyInt(), any())).thenReturn("e7e5");
+
+        getNextMoveActivity.handleRequest(request);
+
+        ArgumentCaptor<Integer> moveTime = ArgumentCaptor.forClass(Integer.class);
+        verify(engine).bestMove(any(), any(), eq(EngineProfile.forDifficulty(6)), moveTime.capture(), any());
+        assertTrue(moveTime.getValue() < SearchBudget.MAX_MOVE_TIME_MILLIS, "movetime " + moveTime.getValue());
+        assertEquals(0, bestMoveCache.size());
+    }
+
+    @Test
+    void handleRequest_receivedBeforeColdStart_countsInitTimeAgainstTimeout() {
+        GetNextMoveRequest request = GetNextMoveRequest.builder()
+                .withGameId("gameId")
+                .withMove("e2e4")
+                .withReceivedNanos(System.nanoTime() - 1_000_000_000L)
+                .withRemainingTimeMillis(1_700L)
+                .build();
+        Game game = new Game();
+        game.setActive("true");
+        game.setNotation(ChessUtils.STARTING_NOTATION);
+        game.setValidMoves(ChessUtils.STARTING_VALID_MOVES);
+        game.setBotDifficulty(6);
+        when(gameDao.load("gameId")).thenReturn(game);
+        when(engine.bestMove(any(), any(), any(), anyInt(), any())).thenReturn("e7e5");
+
+        getNextMoveActivity.handleRequest(request);
+
+        verify(engine).bestMove(any(), any(), eq(EngineProfile.forDifficulty(6)),
+                eq(SearchBudget.MIN_MOVE_TIME_MILLIS), any());
+    }
+
+    @Test
+    void handleRequest_strongerBot_searchesWithConfiguredEngine() {
+        GetNextMoveRequest request = GetNextMoveRequest.builder()
+                .withGameId("gameId")
+                .withMove("e2e4")
+                .build();
+        Game game = new Game();
+        game.setGameId("gameId");
+        game.setActive("true");
+        game.setNotation(ChessUtils.STARTING_NOTATION);
+        game.setValidMoves(ChessUtils.STARTING_VALID_MOVES);
+        game.setBotDifficulty(6);
+        when(gameDao.load("gameId")).thenReturn(game);
+        when(engine.bestMove(any(), any(), any(), anyInt(), any())).thenReturn("e7e5");
+
+        getNextMoveActivity.handleRequest(request);
+
+        verify(engine).bestMove(eq("gameId"),
+                eq(Position.fromFen("rnbqkbnr/pppppppp/8/8/4P3/8/PPPP1PPP/RNBQKBNR b KQkq - 0 1")),
+                eq(EngineProfile.forDifficulty(6)), eq(SearchBudget.MAX_MOVE_TIME_MILLIS), any());
+        assertEquals("e7e5", bestMoveCache.get("rnbqkbnr/pppppppp/8/8/4P3/8/PPPP1PPP/RNBQKBNR b KQkq - 0 1", 6,
+                EngineProfile.forDifficulty(6).searchLimit(SearchBudget.MAX_MOVE_TIME_MILLIS)));
+    }
+
+    @Test
+    void handleRequest_easyBot_playsInProcessWithoutLeasingStockfish() {
+        GetNextMoveRequest request = GetNextMoveRequest.builder()
+                .withGameId("gameId")
+                .withMove("e2e4")
+                .build();
+        Game game = new Game();
+        game.setActive("true");
+        game.setNotation(ChessUtils.STARTING_NOTATION);
+        game.setValidMoves(ChessUtils.STARTING_VALID_MOVES);
+        game.setBotDifficulty(0);
+        when(gameDao.load("gameId")).thenReturn(game);
+
+        GetNextMoveResponse response = getNextMoveActivity.handleRequest(request);
+
+        assertTrue(game.getMoves().startsWith("e2e4 "));
+        assertEquals("e2e4 " + response.getMove(), game.getMoves());
+        verify(engine, never()).bestMove(any(), any(), anyInt());
+        verify(engine, never()).bestMove(any(), any(), any(), anyInt(), any());
+    }
+
+    @Test
+    void handleRequest_replyWasSpeculated_playsStoredAnswerWithoutSearching() {
+        GetNextMoveRequest request = GetNextMoveRequest.builder()
+                .withGameId("gameId")
+                .withMove("e2e4")
+                .build();
+        Game game = new Game();
+        game.setGameId("gameId");
+        game.setActive("true");
+        game.setNotation(ChessUtils.STARTING_NOTATION);
+        game.setValidMoves(ChessUtils.STARTING_VALID_MOVES);
+        game.setBotDifficulty(10);
+        when(gameDao.load("gameId")).thenReturn(game);
+        Position afterE4 = Position.STARTING.play("e2e4");
+        when(speculativeSearch.isEnabled()).thenReturn(true);
+        when(speculativeSearch.lookup("gameId", afterE4, 10)).thenReturn("c7c5");
+
+        GetNextMoveResponse response = getNextMoveActivity.handleRequest(request);
+
+        assertEquals("c7c5", response.getMove());
+        verify(engine, never()).bestMove(any(), any(), any(), anyInt(), any());
+        verify(metricsPublisher).addCount(MetricsConstants.SPECULATION_HIT_COUNT, 1);
+        verify(speculativeSearch).speculate("gameId", afterE4.play("c7c5"), 10);
+    }
+
+    @Test
+    void handleRequest_engineReportsSearchInfo_publishesDepthAndNodes() {
+        GetNextMoveRequest request = GetNextMoveRequest.builder()
+                .withGameId("gameId")
+                .withMove("e2e4")
+                .build();
+        Game game = new Game();
+        game.setGameId("gameId");
+        game.setActive("true");
+        game.setNotation(ChessUtils.STARTING_NOTATION);
+        game.setValidMoves(ChessUtils.STARTING_VALID_MOVES);
+        game.setBotDifficulty(10);
+        when(gameDao.load("gameId")).thenReturn(game);
+        when(engine.bestMove(any(), any(), any(), anyInt(), any())).thenAnswer(invocation -> {
+            SearchInfo info = new SearchInfo();
+            UciInfoParser.parse("info depth 14 score cp -25 nodes 81234 pv e7e5 g1f3", info);
+            invocation.getArgument(4, SearchInfoListener.class).onInfo(info);
+            // The engine reuses its info for the next line
+            info.reset();
+            return "e7e5";
+        });
+
+        getNextMoveActivity.handleRequest(request);
+
+        verify(metricsPublisher).addCount(MetricsConstants.SEARCH_DEPTH, 14);
+        verify(metricsPublisher).addCount(MetricsConstants.SEARCH_NODES, 81234);
+    }
+
+    @Test
+    void handleRequest_engineSearches_publishesQueueWaitApartFromSearchTime() {
+        GetNextMoveRequest request = GetNextMoveRequest.builder()
+                .withGameId("gameId")
+                .withMove("e2e4")
+                .build();
+        Game game = new Game();
+        game.setGameId("gameId");
+        game.setActive("true");
+        game.setNotation(ChessUtils.STARTING_NOTATION);
+        game.setValidMoves(ChessUtils.STARTING_VALID_MOVES);
+        game.setBotDifficulty(10);
+        when(gameDao.load("gameId")).thenReturn(game);
+        when(engine.bestMove(any(), any(), any(), anyInt(), any())).thenReturn("e7e5");
+        // The first call forgets waits from before the search
+        when(engine.takeQueueWaitMillis()).thenReturn(OptionalLong.of(500), OptionalLong.of(0));
+        when(engine.takeUtilization()).thenReturn(OptionalDouble.of(0));
+
+        getNextMoveActivity.handleRequest(request);
+
+        verify(metricsPublisher).addTime(MetricsConstants.ENGINE_QUEUE_WAIT_TIME, 0);
+        verify(metricsPublisher).addTime(eq(MetricsConstants.ENGINE_SEARCH_TIME), anyDouble());
+        verify(metricsPublisher).addMetric(MetricsConstants.ENGINE_UTILIZATION, 0, StandardUnit.Percent);
+    }
+
+    @Test
+    void handleRequest_backendWithoutEngineQueue_publishesNoQueueMetrics() {
+        GetNextMoveRequest request = GetNextMoveRequest.builder()
+                .withGameId("gameId")
+                .withMove("e2e4")
+                .build();
+        Game game = new Game();
+        game.setGameId("gameId");
+        game.setActive("true");
+        game.setNotation(ChessUtils.STARTING_NOTATION);
+        game.setValidMoves(ChessUtils.STARTING_VALID_MOVES);
+        game.setBotDifficulty(10);
+        when(gameDao.load("gameId")).thenReturn(game);
+        when(engine.bestMove(any(), any(), any(), anyInt(), any())).thenReturn("e7e5");
+
+        getNextMoveActivity.handleRequest(request);
+
+        verify(metricsPublisher, never()).addTime(eq(MetricsConstants.ENGINE_QUEUE_WAIT_TIME), anyDouble());
+        verify(metricsPublisher, never()).addMetric(eq(MetricsConstants.ENGINE_UTILIZATION), anyDouble(), any());
+        verify(metricsPublisher).addTime(eq(MetricsConstants.ENGINE_SEARCH_TIME), anyDouble());
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,106 @@
+package com.nashss.se.chessplayerservice.chess;
+
+import com.nashss.se.chessplayerservice.utils.ChessUtils;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MoveGeneratorTest {
+
+    private static final String KIWIPETE = "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1";
+    private static final String ENDGAME = "8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1";
+    private static final String PROMOTIONS = "r3k2r/Pppp1ppp/1b3nbN/nP6/BBP1P3/q4N2/Pp1P2PP/R2Q1RK1 w kq - 0 1";
+    private static final String TALKCHESS = "rnbq1k1r/pp1Pbppp/2p5/8/2B5/8/PPP1NnPP/RNBQK2R w KQ - 1 8";
+    private static final String MIDDLEGAME =
+            "r4rk1/1pp1qppp/p1np1n2/2b1p1B1/2B1P1b1/P1NP1N2/1PP1QPPP/R4RK1 w - - 0 10";
+
+    @Test
+    void perft_startingPosition_matchesReferenceCounts() {
+        assertPerft(ChessUtils.STARTING_NOTATION, 20, 400, 8902, 197281);
+    }
+
+    @Test
+    void perft_kiwipete_matchesReferenceCounts() {
+        assertPerft(KIWIPETE, 48, 2039, 97862);
+    }
+
+    @Test
+    void perft_endgame_matchesReferenceCounts() {
+        assertPerft(ENDGAME, 14, 191, 2812, 43238);
+    }
+
+    @Test
+    void perft_promotions_matchesReferenceCounts() {
+        assertPerft(PROMOTIONS, 6, 264, 9467);
+    }
+
+    @Test
+    void perft_talkchess_matchesReferenceCounts() {
+        assertPerft(TALKCHESS, 44, 1486, 62379);
+    }
+
+    @Test
+    void perft_middlegame_matchesReferenceCounts() {
+        assertPerft(MIDDLEGAME, 46, 2079, 89890);
+    }
+
+    @Test
+    void legalMoves_startingPosition_matchesStartingValidMoves() {
+        Set<String> expected = new HashSet<>(Arrays.asList(ChessUtils.STARTING_VALID_MOVES.split(",")));
+
+        Set<String> result = new HashSet<>(MoveGenerator.legalMoves(Board.fromFen(ChessUtils.STARTING_NOTATION)));
+
+        assertEquals(expected, result);
+    }
+
+    @Test
+    void legalMoves_castlingAndPromotion_usesUciNotation() {
+        List<String> result = MoveGenerator.legalMoves(Board.fromFen("r3k2r/1P6/8/8/8/8/8/R3K2R w KQkq - 0 1"));
+
+        assertTrue(result.contains("e1g1"));
+        assertTrue(result.contains("e1c1"));
+        assertTrue(result.contains("b7a8q"));
+        assertTrue(result.contains("b7b8n"));
+    }
+
+    @Test
+    void legalMoves_checkmate_isEmpty() {
+        Board board = Board.fromFen("rnb1kbnr/pppp1ppp/8/4p3/6Pq/5P2/PPPPP2P/RNBQKBNR w KQkq - 1 3");
+
+        assertTrue(MoveGenerator.legalMoves(board).isEmpty());
+        assertTrue(board.isInCheck());
+    }
+
+    @Test
+    void play_enPassant_removesCapturedPawn() {
+        Board board = Board.fromFen(ChessUtils.STARTING_NOTATION);
+        for (String move : new String[]{"e2e4", "a7a6", "e4e5", "d7d5"}) {
+            board.play(move);
+        }
+        assertEquals("rnbqkbnr/1pp1pppp/p7/3pP3/8/8/PPPP1PPP/RNBQKBNR w KQkq d6 0 3", board.toFen());
+
+        board.play("e5d6");
+
+        assertEquals("rnbqkbnr/1pp1pppp/p2P4/8/8/8/PPPP1PPP/RNBQKBNR b KQkq - 0 3", board.toFen());
+    }
+
+    @Test
+    void play_illegalMove_throwsException() {
+        Board board = Board.fromFen(ChessUtils.STARTING_NOTATION);
+
+        assertThrows(IllegalArgumentException.class, () -> board.play("e2e5"));
+    }
+
+    private void assertPerft(String fen, long... expected) {
+        Board board = Board.fromFen(fen);
+        for (int depth = 1; depth <= expected.length; depth++) {
+            assertEquals(expected[depth - 1], Perft.perft(board, depth), "depth " + depth + " of " + fen);
+        }
+        assertEquals(fen, board.toFen());
+    }
+}
@@ -0,0 +1,104 @@
+package com.nashss.se.chessplayerservice.chess;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PolyglotKeysTest {
+    private static final int WHITE_PAWN = 1;
+    private static final int BLACK_PAWN = 0;
+    private static final int WHITE_ROOK = 7;
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void hash_standardEntriesForMovedPieces_reproducesPublishedKeyChanges() {
+        // Moves change a key by the entries of the squares, rights and files they touch, so the published keys pin
+        // down those entries of the standard table whatever the rest of it holds
+        long[] random64 = new long[PolyglotKeys.TABLE_SIZE];
+        Random random = new Random(42);
+        for (int i = 0; i < random64.length; i++) {
+            random64[i] = random.nextLong();
+        }
+        put(random64, BLACK_PAWN, "d7", 0x7EF48F2B83024E20L);
+        put(random64, BLACK_PAWN, "d5", 0x03488B95B0F1850FL);
+        put(random64, BLACK_PAWN, "f7", 0x6568FCA92C76A243L);
+        put(random64, BLACK_PAWN, "f5", 0x09D1BC9A3DD90A94L);
+        put(random64, BLACK_PAWN, "b7", 0x8C74C368081B3075L);
+        put(random64, BLACK_PAWN, "b5", 0x14A68FD73C910841L);
+        put(random64, BLACK_PAWN, "b4", 0x8DBD98A352AFD40BL);
+        put(random64, BLACK_PAWN, "c3", 0x7449BBFF801FED0BL);
+        put(random64, WHITE_PAWN, "e2", 0xBB6E2924F03912EAL);
+        put(random64, WHITE_PAWN, "e4", 0x87BF02C6B49E2AE9L);
+        put(random64, WHITE_PAWN, "e5", 0x1E1032911FA78984L);
+        put(random64, WHITE_PAWN, "a2", 0x14ACBAF4777D5776L);
+        put(random64, WHITE_PAWN, "a4", 0x87B3E2B2B5C907B1L);
+        put(random64, WHITE_PAWN, "h2", 0xE99D662AF4243939L);
+        put(random64, WHITE_PAWN, "h4", 0x8DE8DCA9F03CC54EL);
+        put(random64, WHITE_PAWN, "c2", 0xDABF2AC8201752FCL);
+        put(random64, WHITE_PAWN, "c4", 0xAE4A9346CC3F7CF2L);
+        put(random64, WHITE_ROOK, "a1", 0xA09E8C8C35AB96DEL);
+        put(random64, WHITE_ROOK, "a3", 0x66C1A2A1A60CD889L);
+        // White long castling, en passant on the c and f files, and white to move
+        random64[769] = 0xF165B587DF898190L;
+        random64[774] = 0x003A93D8B2806962L;
+        random64[777] = 0xD0E4427A5514FB72L;
+        random64[780] = 0xF8D626AAAF278509L;
+        PolyglotKeys keys = new PolyglotKeys(random64);
+
+        assertKeyChanges(keys, "e2e4", 0x823C9B50FD114196L, "d7d5", 0x0756B94461C50FB0L, "e4e5", 0x662FAFB965DB29D4L,
+                "f7f5", 0x22A48B5A8E47FF78L);
+        assertKeyChanges(keys, "a2a4 b7b5 h2h4 b5b4 c2c4", 0x3C8123EA7B067637L, "b4c3 a1a3", 0x5C3F9B829B279560L);
+    }
+
+    @Test
+    void load_tableOtherThanPolyglots_throwsIOException() throws IOException {
+        ByteBuffer bytes = ByteBuffer.allocate(PolyglotKeys.TABLE_SIZE * Long.BYTES);
+        Random random = new Random(42);
+        while (bytes.hasRemaining()) {
+            bytes.putLong(random.nextLong());
+        }
+        Path file = tempDir.resolve("keys.bin");
+        Files.write(file, bytes.array());
+
+        assertThrows(IOException.class, () -> PolyglotKeys.load(file));
+    }
+
+    @Test
+    void load_wrongSize_throwsIOException() throws IOException {
+        Path file = tempDir.resolve("keys.bin");
+        Files.write(file, new byte[Long.BYTES]);
+
+        assertThrows(IOException.class, () -> PolyglotKeys.load(file));
+    }
+
+    private static void put(long[] random64, int kind, String square, long value) {
+        random64[kind * 64 + square.charAt(0) - 'a' + 8 * (square.charAt(1) - '1')] = value;
+    }
+
+    /**
+     * Plays groups of moves from the starting position, checking that each group changes the key the way it changes
+     * the published one.
+     */
+    private static void assertKeyChanges(PolyglotKeys keys, Object... movesAndKeys) {
+        Position position = Position.STARTING;
+        long published = PolyglotKeys.STARTING_KEY;
+        for (int i = 0; i < movesAndKeys.length; i += 2) {
+            long before = keys.hash(position);
+            for (String move : ((String) movesAndKeys[i]).split(" ")) {
+                position = position.play(move);
+            }
+            long next = (Long) movesAndKeys[i + 1];
+            assertEquals(published ^ next, before ^ keys.hash(position), "after " + movesAndKeys[i]);
+            published = next;
+        }
+    }
+}
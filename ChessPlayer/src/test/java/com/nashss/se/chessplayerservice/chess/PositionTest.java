@@ -0,0 +1,68 @@
+package com.nashss.se.chessplayerservice.chess;
+
+import com.nashss.se.chessplayerservice.utils.ChessUtils;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PositionTest {
+
+    @Test
+    void fromFen_toFen_roundTrips() {
+        String[] fens = {
+            ChessUtils.STARTING_NOTATION,
+            "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1",
+            "rnbqkbnr/ppp1p1pp/8/3pPp2/8/8/PPPP1PPP/RNBQKBNR w KQkq f6 0 3",
+            "8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 b - - 12 47"
+        };
+        for (String fen : fens) {
+            assertEquals(fen, Position.fromFen(fen).toFen());
+        }
+    }
+
+    @Test
+    void fromFen_missingMoveCounters_defaultsThem() {
+        Position position = Position.fromFen("4k3/8/8/8/8/8/8/4K3 b - -");
+
+        assertEquals(0, position.getHalfmoveClock());
+        assertEquals(1, position.getFullmoveNumber());
+        assertEquals(Piece.BLACK, position.getSideToMove());
+    }
+
+    @Test
+    void fromFen_missingKing_throwsIllegalArgumentException() {
+        assertThrows(IllegalArgumentException.class, () -> Position.fromFen("8/8/8/8/8/8/8/4K3 w - - 0 1"));
+    }
+
+    @Test
+    void fromFen_badMoveCounter_throwsIllegalArgumentException() {
+        assertThrows(IllegalArgumentException.class, () -> Position.fromFen("4k3/8/8/8/8/8/8/4K3 w - - x 1"));
+    }
+
+    @Test
+    void play_legalMove_returnsNextPositionAndLeavesOriginalUnchanged() {
+        Position start = Position.STARTING;
+
+        Position next = start.play("e2e4");
+
+        assertEquals("rnbqkbnr/pppppppp/8/8/4P3/8/PPPP1PPP/RNBQKBNR b KQkq - 0 1", next.toFen());
+        assertEquals(ChessUtils.STARTING_NOTATION, start.toFen());
+        assertEquals(Piece.of(Piece.WHITE, Piece.PAWN), next.pieceAt(Bitboards.parseSquare("e4", 0)));
+        assertEquals(Piece.NONE, next.pieceAt(Bitboards.parseSquare("e2", 0)));
+    }
+
+    @Test
+    void play_illegalMove_throwsIllegalArgumentException() {
+        assertThrows(IllegalArgumentException.class, () -> Position.STARTING.play("e2e5"));
+    }
+
+    @Test
+    void equals_samePositionReachedTwoWays_isEqual() {
+        Position viaKnight = Position.STARTING.play("g1f3").play("g8f6").play("b1c3");
+        Position viaOtherOrder = Position.STARTING.play("b1c3").play("g8f6").play("g1f3");
+
+        assertEquals(viaKnight, viaOtherOrder);
+        assertEquals(viaKnight.hashCode(), viaOtherOrder.hashCode());
+        assertNotEquals(Position.STARTING, viaKnight);
+    }
+}
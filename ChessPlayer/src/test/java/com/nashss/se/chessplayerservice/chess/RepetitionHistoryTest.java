@@ -0,0 +1,89 @@
+package com.nashss.se.chessplayerservice.chess;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RepetitionHistoryTest {
+    private static final String KNIGHT_SHUFFLE = "g1f3 g8f6 f3g1 f6g8";
+
+    @Test
+    void getKey_afterMoves_matchesKeyComputedFromScratch() {
+        Board board = Board.fromFen("r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1");
+        String[] moves = {"e1g1", "h3g2", "a2a4", "b4a3", "g1g2", "e8c8"};
+
+        for (String move : moves) {
+            board.play(move);
+            assertEquals(Zobrist.hash(board.toPosition()), board.getKey(), "after " + move);
+        }
+    }
+
+    @Test
+    void getKey_afterUnmake_restoresPreviousKey() {
+        Board board = Board.fromFen("rnbqkbnr/ppp1p1pp/8/3pPp2/8/8/PPPP1PPP/RNBQKBNR w KQkq f6 0 3");
+        long before = board.getKey();
+
+        int move = board.play("e5f6");
+        board.unmakeMove(move);
+
+        assertEquals(before, board.getKey());
+    }
+
+    @Test
+    void getKey_samePositionWithDifferentCastlingRights_differs() {
+        Position withRights = Position.fromFen("r3k2r/8/8/8/8/8/8/R3K2R w KQkq - 0 1");
+        Position withoutRights = Position.fromFen("r3k2r/8/8/8/8/8/8/R3K2R w - - 0 1");
+
+        assertNotEquals(withRights.getKey(), withoutRights.getKey());
+    }
+
+    @Test
+    void occurrences_knightShuffledTwice_returnsThree() {
+        RepetitionHistory history = RepetitionHistory.fromMoves(KNIGHT_SHUFFLE + " " + KNIGHT_SHUFFLE);
+
+        assertEquals(9, history.size());
+        assertEquals(3, history.occurrences(8));
+    }
+
+    @Test
+    void occurrences_irreversibleMoveInBetween_onlyCountsSinceThatMove() {
+        RepetitionHistory history = RepetitionHistory.fromMoves(KNIGHT_SHUFFLE + " e2e4 e7e5 " + KNIGHT_SHUFFLE);
+
+        // The halfmove clock bounds the search, so positions before the pawn moves are never compared
+        assertEquals(2, history.occurrences(4));
+    }
+
+    @Test
+    void fromMoves_noMoves_holdsStartingPosition() {
+        RepetitionHistory history = RepetitionHistory.fromMoves(null);
+
+        assertEquals(1, history.size());
+        assertEquals(1, history.occurrences(0));
+    }
+
+    @Test
+    void detect_thirdOccurrence_returnsThreefoldRepetition() {
+        String moves = KNIGHT_SHUFFLE + " " + KNIGHT_SHUFFLE;
+        Position position = Position.STARTING;
+        for (String move : moves.split(" ")) {
+            position = position.play(move);
+        }
+
+        Termination termination = TerminationDetector.detect(position, RepetitionHistory.fromMoves(moves));
+
+        assertEquals(Termination.THREEFOLD_REPETITION, termination);
+        assertTrue(termination.isDraw());
+    }
+
+    @Test
+    void detect_fifthOccurrence_returnsFivefoldRepetition() {
+        String moves = String.join(" ", KNIGHT_SHUFFLE, KNIGHT_SHUFFLE, KNIGHT_SHUFFLE, KNIGHT_SHUFFLE);
+        Position position = Position.STARTING;
+        for (String move : moves.split(" ")) {
+            position = position.play(move);
+        }
+
+        assertEquals(Termination.FIVEFOLD_REPETITION,
+                TerminationDetector.detect(position, RepetitionHistory.fromMoves(moves)));
+    }
+}
@@ -0,0 +1,57 @@
+package com.nashss.se.chessplayerservice.chess;
+
+import com.nashss.se.chessplayerservice.utils.ChessUtils;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TerminationDetectorTest {
+
+    @Test
+    void detect_startingPosition_returnsNone() {
+        assertEquals(Termination.NONE, TerminationDetector.detect(ChessUtils.STARTING_NOTATION));
+    }
+
+    @Test
+    void detect_foolsMate_returnsCheckmate() {
+        String fen = "rnb1kbnr/pppp1ppp/8/4p3/6Pq/5P2/PPPPP2P/RNBQKBNR w KQkq - 1 3";
+
+        assertEquals(Termination.CHECKMATE, TerminationDetector.detect(fen));
+    }
+
+    @Test
+    void detect_noMovesAndNotInCheck_returnsStalemate() {
+        assertEquals(Termination.STALEMATE, TerminationDetector.detect("7k/5Q2/6K1/8/8/8/8/8 b - - 0 1"));
+    }
+
+    @Test
+    void detect_hundredQuietPlies_returnsFiftyMoveRule() {
+        assertEquals(Termination.FIFTY_MOVE_RULE, TerminationDetector.detect("8/8/4k3/8/8/3RK3/8/8 w - - 100 90"));
+    }
+
+    @Test
+    void detect_mateOnHundredthPly_returnsCheckmate() {
+        assertEquals(Termination.CHECKMATE, TerminationDetector.detect("3R2k1/5ppp/8/8/8/8/8/6K1 b - - 100 90"));
+    }
+
+    @Test
+    void detect_loneMinorPieces_returnsInsufficientMaterial() {
+        assertEquals(Termination.INSUFFICIENT_MATERIAL, TerminationDetector.detect("8/8/4k3/8/8/3NK3/8/8 w - - 0 1"));
+        assertEquals(Termination.INSUFFICIENT_MATERIAL, TerminationDetector.detect("8/8/4k3/8/8/4K3/8/8 w - - 0 1"));
+    }
+
+    @Test
+    void detect_sameColoredBishops_returnsInsufficientMaterial() {
+        assertEquals(Termination.INSUFFICIENT_MATERIAL, TerminationDetector.detect("8/8/4k1b1/8/8/3BK3/8/8 w - - 0 1"));
+    }
+
+    @Test
+    void detect_oppositeColoredBishops_returnsNone() {
+        assertEquals(Termination.NONE, TerminationDetector.detect("8/8/4kb2/8/8/3BK3/8/8 w - - 0 1"));
+    }
+
+    @Test
+    void detect_pawnOnBoard_returnsNone() {
+        assertEquals(Termination.NONE, TerminationDetector.detect("8/8/4k3/8/8/3PK3/8/8 w - - 0 1"));
+    }
+}
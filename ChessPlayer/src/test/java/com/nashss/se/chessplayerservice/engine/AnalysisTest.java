@@ -0,0 +1,58 @@
+package com.nashss.se.chessplayerservice.engine;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AnalysisTest {
+
+    @Test
+    void fromSearchOutput_centipawnScore_readsDeepestIteration() {
+        Analysis analysis = Analysis.fromSearchOutput(List.of(
+                "info depth 1 seldepth 1 multipv 1 score cp 20 nodes 20 nps 20000 time 1 pv e2e4",
+                "info depth 2 seldepth 3 multipv 1 score cp 35 nodes 80 nps 40000 time 2 pv d2d4 d7d5",
+                "bestmove d2d4 ponder d7d5"));
+
+        assertEquals("d2d4", analysis.getBestMove());
+        assertEquals(35, analysis.getScoreCp());
+        assertNull(analysis.getMateIn());
+        assertEquals(2, analysis.getDepth());
+        assertEquals(List.of("d2d4", "d7d5"), analysis.getPrincipalVariation());
+    }
+
+    @Test
+    void fromSearchOutput_mateScore_readsMate() {
+        Analysis analysis = Analysis.fromSearchOutput(List.of(
+                "info depth 3 seldepth 2 multipv 1 score mate -1 nodes 30 nps 30000 time 1 pv g8h8 a1a8",
+                "bestmove g8h8"));
+
+        assertEquals(-1, analysis.getMateIn());
+        assertEquals(3, analysis.getDepth());
+    }
+
+    @Test
+    void fromSearchOutput_noInfo_returnsBestMoveOnly() {
+        Analysis analysis = Analysis.fromSearchOutput(List.of("bestmove e2e4"));
+
+        assertEquals("e2e4", analysis.getBestMove());
+        assertEquals(List.of("e2e4"), analysis.getPrincipalVariation());
+    }
+
+    @Test
+    void linesFromSearchOutput_multiPv_readsEachLineBestFirst() {
+        List<Analysis> lines = Analysis.linesFromSearchOutput(List.of(
+                "info depth 7 seldepth 9 multipv 1 score cp 30 nodes 900 pv e2e4 e7e5",
+                "info depth 7 seldepth 8 multipv 2 score cp 25 nodes 900 pv d2d4 d7d5",
+                "info depth 8 seldepth 10 multipv 1 score cp 32 nodes 2000 pv e2e4 c7c5",
+                "info depth 8 seldepth 9 multipv 2 score cp 20 nodes 2000 pv g1f3 g8f6",
+                "bestmove e2e4 ponder c7c5"));
+
+        assertEquals(2, lines.size());
+        assertEquals("e2e4", lines.get(0).getBestMove());
+        assertEquals(32, lines.get(0).getScoreCp());
+        assertEquals("g1f3", lines.get(1).getBestMove());
+        assertEquals(8, lines.get(1).getDepth());
+    }
+}
@@ -0,0 +1,58 @@
+package com.nashss.se.chessplayerservice.engine;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BestMoveCacheTest {
+    private static final String FEN = "rnbqkbnr/pppppppp/8/8/4P3/8/PPPP1PPP/RNBQKBNR b KQkq - 0 1";
+    private static final String LIMIT = "movetime 500";
+
+    @Test
+    void get_afterPut_returnsMoveAndCountsHit() {
+        BestMoveCache cache = new BestMoveCache(4);
+        cache.put(FEN, 5, LIMIT, "e7e5");
+
+        assertEquals("e7e5", cache.get(FEN, 5, LIMIT));
+        assertEquals(1, cache.getHits());
+        assertEquals(0, cache.getMisses());
+    }
+
+    @Test
+    void get_differentSkillOrLimit_countsMiss() {
+        BestMoveCache cache = new BestMoveCache(4);
+        cache.put(FEN, 5, LIMIT, "e7e5");
+
+        assertNull(cache.get(FEN, 6, LIMIT));
+        assertNull(cache.get(FEN, 5, "movetime 1000"));
+        assertEquals(2, cache.getMisses());
+    }
+
+    @Test
+    void get_differentMoveCounters_sharesEntry() {
+        BestMoveCache cache = new BestMoveCache(4);
+        cache.put(FEN, 5, LIMIT, "e7e5");
+
+        assertEquals("e7e5", cache.get("rnbqkbnr/pppppppp/8/8/4P3/8/PPPP1PPP/RNBQKBNR b KQkq - 4 7", 5, LIMIT));
+    }
+
+    @Test
+    void put_overCapacity_evictsLeastRecentlyUsed() {
+        BestMoveCache cache = new BestMoveCache(2);
+        cache.put("fen1 w - -", 1, LIMIT, "a");
+        cache.put("fen2 w - -", 1, LIMIT, "b");
+        cache.get("fen1 w - -", 1, LIMIT);
+
+        cache.put("fen3 w - -", 1, LIMIT, "c");
+
+        assertEquals(2, cache.size());
+        assertEquals("a", cache.get("fen1 w - -", 1, LIMIT));
+        assertNull(cache.get("fen2 w - -", 1, LIMIT));
+        assertEquals("c", cache.get("fen3 w - -", 1, LIMIT));
+    }
+
+    @Test
+    void normalize_fullFen_dropsMoveCounters() {
+        assertEquals("rnbqkbnr/pppppppp/8/8/4P3/8/PPPP1PPP/RNBQKBNR b KQkq -", BestMoveCache.normalize(FEN));
+    }
+}
@@ -0,0 +1,62 @@
+package com.nashss.se.chessplayerservice.engine;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConsistentHashRingTest {
+    private static final int KEYS = 10_000;
+
+    @Test
+    void nodeFor_sameKey_returnsSameNode() {
+        ConsistentHashRing<String> ring = new ConsistentHashRing<>(List.of("a", "b", "c"), 64);
+        ConsistentHashRing<String> rebuilt = new ConsistentHashRing<>(List.of("c", "b", "a"), 64);
+
+        for (int i = 0; i < 100; i++) {
+            assertEquals(ring.nodeFor("game-" + i), rebuilt.nodeFor("game-" + i));
+        }
+    }
+
+    @Test
+    void nodeFor_manyKeys_spreadsThemEvenly() {
+        ConsistentHashRing<Integer> ring = new ConsistentHashRing<>(List.of(0, 1, 2, 3), 64);
+        Map<Integer, Integer> counts = new HashMap<>();
+
+        for (int i = 0; i < KEYS; i++) {
+            counts.merge(ring.nodeFor("game-" + i), 1, Integer::sum);
+        }
+
+        for (int node = 0; node < 4; node++) {
+            int count = counts.getOrDefault(node, 0);
+            assertTrue(count > KEYS / 4 * 0.6 && count < KEYS / 4 * 1.4, "Node " + node + " got " + count);
+        }
+    }
+
+    @Test
+    void nodeFor_nodeRemoved_onlyMovesThatNodesKeys() {
+        ConsistentHashRing<String> ring = new ConsistentHashRing<>(List.of("a", "b", "c", "d"), 64);
+        ConsistentHashRing<String> shrunk = new ConsistentHashRing<>(List.of("a", "b", "c"), 64);
+
+        for (int i = 0; i < KEYS; i++) {
+            String before = ring.nodeFor("game-" + i);
+            if (!"d".equals(before)) {
+                assertEquals(before, shrunk.nodeFor("game-" + i));
+            }
+        }
+    }
+
+    @Test
+    void preferenceList_startsWithKeysNodeAndHoldsEveryNodeOnce() {
+        ConsistentHashRing<String> ring = new ConsistentHashRing<>(List.of("a", "b", "c"), 64);
+
+        List<String> order = ring.preferenceList("game-7");
+
+        assertEquals(ring.nodeFor("game-7"), order.get(0));
+        assertEquals(3, order.size());
+        assertTrue(order.containsAll(List.of("a", "b", "c")));
+    }
+}
@@ -0,0 +1,53 @@
+package com.nashss.se.chessplayerservice.engine;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.mockito.MockitoAnnotations.openMocks;
+
+class EngineBenchmarkTest {
+
+    @Mock
+    private Stockfish stockfish;
+
+    @BeforeEach
+    void setup() {
+        openMocks(this);
+    }
+
+    @Test
+    void measure_twoSearches_dividesTheirNodesByTheirTime() {
+        SearchInfo lastInfo = new SearchInfo();
+        UciInfoParser.parse("info depth 20 score cp 12 nodes 500000 time 250 pv e2e4", lastInfo);
+        when(stockfish.getLastSearchInfo()).thenReturn(lastInfo);
+        EngineConfiguration configuration = new EngineConfiguration(2, 64, 30);
+
+        EngineBenchmark.Result result = EngineBenchmark.measure(stockfish, configuration,
+                EngineBenchmark.POSITIONS.subList(0, 2), 250);
+
+        assertEquals(2_000_000, result.getNodesPerSecond());
+        assertEquals(configuration, result.getConfiguration());
+        InOrder order = inOrder(stockfish);
+        order.verify(stockfish).configure(configuration);
+        order.verify(stockfish).newGame();
+        verify(stockfish).getBestMove("fen " + EngineBenchmark.POSITIONS.get(1).toFen(), "movetime 250");
+    }
+
+    @Test
+    void measure_noTimeReported_hasNoSpeed() {
+        when(stockfish.getLastSearchInfo()).thenReturn(new SearchInfo());
+
+        EngineBenchmark.Result result = EngineBenchmark.measure(stockfish, new EngineConfiguration(1, 16, 30),
+                List.of(EngineBenchmark.POSITIONS.get(0)), 100);
+
+        assertEquals(0, result.getNodesPerSecond());
+    }
+}
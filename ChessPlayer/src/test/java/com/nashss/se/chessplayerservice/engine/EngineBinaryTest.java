@@ -0,0 +1,89 @@
+package com.nashss.se.chessplayerservice.engine;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EngineBinaryTest {
+
+    @TempDir
+    Path directory;
+
+    private Path local;
+    private Path packaged;
+    private Path extracted;
+    private final List<Long> provisioningTimes = new ArrayList<>();
+
+    @BeforeEach
+    void setup() throws IOException {
+        local = directory.resolve("local-stockfish");
+        packaged = directory.resolve("packaged-stockfish");
+        extracted = directory.resolve("extracted-stockfish");
+        Files.write(packaged, new byte[] {1, 2, 3, 4});
+        Files.setPosixFilePermissions(packaged, PosixFilePermissions.fromString("rw-r--r--"));
+    }
+
+    @Test
+    void getPath_packagedBinaryNotExecutable_extractsExecutableCopyOnce() throws IOException {
+        EngineBinary binary = new EngineBinary(local, packaged, extracted, provisioningTimes::add);
+
+        Path first = binary.getPath();
+        Path second = binary.getPath();
+
+        assertEquals(extracted, first);
+        assertEquals(first, second);
+        assertTrue(Files.isExecutable(extracted));
+        assertArrayEquals(Files.readAllBytes(packaged), Files.readAllBytes(extracted));
+        assertEquals(1, provisioningTimes.size());
+    }
+
+    @Test
+    void getPath_matchingCopyAlreadyExtracted_reusesIt() throws IOException {
+        Files.write(extracted, new byte[] {1, 2, 3, 4});
+        FileTime modified = FileTime.fromMillis(1_000_000);
+        Files.setLastModifiedTime(extracted, modified);
+
+        Path path = new EngineBinary(local, packaged, extracted, provisioningTimes::add).getPath();
+
+        assertEquals(extracted, path);
+        assertEquals(modified, Files.getLastModifiedTime(extracted));
+        assertTrue(Files.isExecutable(extracted));
+    }
+
+    @Test
+    void getPath_staleCopyExtracted_replacesIt() throws IOException {
+        Files.write(extracted, new byte[] {1, 2, 3, 5});
+
+        new EngineBinary(local, packaged, extracted, provisioningTimes::add).getPath();
+
+        assertArrayEquals(new byte[] {1, 2, 3, 4}, Files.readAllBytes(extracted));
+    }
+
+    @Test
+    void getPath_packagedBinaryExecutable_runsItInPlace() throws IOException {
+        Files.setPosixFilePermissions(packaged, PosixFilePermissions.fromString("rwxr-xr-x"));
+
+        Path path = new EngineBinary(local, packaged, extracted, provisioningTimes::add).getPath();
+
+        assertEquals(packaged, path);
+        assertFalse(Files.exists(extracted));
+    }
+
+    @Test
+    void getPath_localBinaryExecutable_prefersIt() throws IOException {
+        Files.write(local, new byte[] {9});
+        Files.setPosixFilePermissions(local, PosixFilePermissions.fromString("rwx------"));
+
+        assertEquals(local, new EngineBinary(local, packaged, extracted, provisioningTimes::add).getPath());
+    }
+}
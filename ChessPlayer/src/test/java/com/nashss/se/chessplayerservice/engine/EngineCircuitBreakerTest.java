@@ -0,0 +1,76 @@
+package com.nashss.se.chessplayerservice.engine;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EngineCircuitBreakerTest {
+    private static final long SECOND = 1_000_000_000L;
+
+    private long now;
+    private final EngineCircuitBreaker breaker = new EngineCircuitBreaker(2, 1_000, () -> now);
+
+    @Test
+    void recordFailure_belowThreshold_staysClosed() {
+        breaker.recordFailure();
+
+        assertTrue(breaker.allowRequest());
+        assertEquals(EngineCircuitBreaker.State.CLOSED, breaker.getState());
+    }
+
+    @Test
+    void recordFailure_thresholdReached_refusesRequests() {
+        breaker.recordFailure();
+        breaker.recordFailure();
+
+        assertFalse(breaker.allowRequest());
+        assertEquals(EngineCircuitBreaker.State.OPEN, breaker.getState());
+    }
+
+    @Test
+    void recordSuccess_betweenFailures_resetsTheCount() {
+        breaker.recordFailure();
+        breaker.recordSuccess();
+        breaker.recordFailure();
+
+        assertTrue(breaker.allowRequest());
+    }
+
+    @Test
+    void allowRequest_openPeriodOver_letsOneTrialThrough() {
+        breaker.recordFailure();
+        breaker.recordFailure();
+        now += SECOND;
+
+        assertTrue(breaker.allowRequest());
+        assertFalse(breaker.allowRequest());
+        assertEquals(EngineCircuitBreaker.State.HALF_OPEN, breaker.getState());
+    }
+
+    @Test
+    void recordSuccess_trialSucceeded_closes() {
+        breaker.recordFailure();
+        breaker.recordFailure();
+        now += SECOND;
+        breaker.allowRequest();
+
+        breaker.recordSuccess();
+
+        assertTrue(breaker.allowRequest());
+        assertEquals(EngineCircuitBreaker.State.CLOSED, breaker.getState());
+    }
+
+    @Test
+    void recordFailure_trialFailed_opensForAnotherPeriod() {
+        breaker.recordFailure();
+        breaker.recordFailure();
+        now += SECOND;
+        breaker.allowRequest();
+
+        breaker.recordFailure();
+
+        assertFalse(breaker.allowRequest());
+        now += SECOND;
+        assertTrue(breaker.allowRequest());
+    }
+}
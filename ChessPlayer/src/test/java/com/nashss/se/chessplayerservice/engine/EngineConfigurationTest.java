@@ -0,0 +1,44 @@
+package com.nashss.se.chessplayerservice.engine;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EngineConfigurationTest {
+
+    @Test
+    void forResources_smallFunction_keepsMinimumHashOnOneThread() {
+        EngineConfiguration configuration = EngineConfiguration.forResources(1, 256, 100, 1);
+
+        assertEquals(1, configuration.getThreads());
+        assertEquals(EngineConfiguration.MIN_HASH_MB, configuration.getHashMb());
+        assertEquals(EngineConfiguration.SHARED_CORE_MOVE_OVERHEAD_MILLIS, configuration.getMoveOverheadMillis());
+    }
+
+    @Test
+    void forResources_largerFunction_usesHalfTheSpareMemoryAsPowerOfTwo() {
+        // (3008 - 200) - 96 = 2712 spare, half of it is 1356, so 1024
+        EngineConfiguration configuration = EngineConfiguration.forResources(2, 3008, 200, 1);
+
+        assertEquals(2, configuration.getThreads());
+        assertEquals(1024, configuration.getHashMb());
+        assertEquals(EngineConfiguration.MOVE_OVERHEAD_MILLIS, configuration.getMoveOverheadMillis());
+    }
+
+    @Test
+    void forResources_severalEngines_splitProcessorsAndMemory() {
+        // (3008 - 200) / 2 - 96 = 1308 spare each, half of it is 654, so 512
+        EngineConfiguration configuration = EngineConfiguration.forResources(2, 3008, 200, 2);
+
+        assertEquals(1, configuration.getThreads());
+        assertEquals(512, configuration.getHashMb());
+    }
+
+    @Test
+    void forResources_hugeMachine_capsHash() {
+        EngineConfiguration configuration = EngineConfiguration.forResources(64, 1_000_000, 1_000, 1);
+
+        assertEquals(64, configuration.getThreads());
+        assertEquals(EngineConfiguration.MAX_HASH_MB, configuration.getHashMb());
+    }
+}
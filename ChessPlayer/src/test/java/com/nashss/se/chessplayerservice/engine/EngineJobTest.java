@@ -0,0 +1,46 @@
+package com.nashss.se.chessplayerservice.engine;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EngineJobTest {
+
+    @Test
+    void current_noJobStarted_isInteractiveWithNoOwner() {
+        EngineJob job = EngineJob.current();
+
+        assertEquals(EnginePriority.INTERACTIVE, job.getPriority());
+        assertEquals(EngineJob.NO_OWNER, job.getOwner());
+    }
+
+    @Test
+    void close_nestedJob_restoresOuterJob() {
+        try (EngineJob outer = EngineJob.start(EnginePriority.BACKGROUND, "alice")) {
+            try (EngineJob inner = EngineJob.start(EnginePriority.INTERACTIVE, "bob")) {
+                assertSame(inner, EngineJob.current());
+            }
+            assertSame(outer, EngineJob.current());
+        }
+        assertEquals(EngineJob.NO_OWNER, EngineJob.current().getOwner());
+    }
+
+    @Test
+    void run_failingWork_restoresOuterJob() {
+        try (EngineJob outer = EngineJob.start(EnginePriority.BACKGROUND, "alice")) {
+            assertThrows(IllegalStateException.class, () -> EngineJob.run(EnginePriority.INTERACTIVE, "bob", () -> {
+                assertEquals("bob", EngineJob.current().getOwner());
+                throw new IllegalStateException("engine crashed");
+            }));
+            assertSame(outer, EngineJob.current());
+        }
+    }
+
+    @Test
+    void run_work_returnsItsResult() {
+        String owner = EngineJob.run(EnginePriority.BACKGROUND, "alice", () -> EngineJob.current().getOwner());
+
+        assertEquals("alice", owner);
+        assertEquals(EngineJob.NO_OWNER, EngineJob.current().getOwner());
+    }
+}
@@ -0,0 +1,61 @@
+package com.nashss.se.chessplayerservice.engine;
+
+import com.nashss.se.chessplayerservice.utils.ChessUtils;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EngineProfileTest {
+
+    @Test
+    void forDifficulty_everyDifficulty_hasGrowingNodeBudget() {
+        long previous = 0;
+        for (int difficulty = 0; difficulty <= EngineProfile.MAX_DIFFICULTY; difficulty++) {
+            EngineProfile profile = EngineProfile.forDifficulty(difficulty);
+            assertTrue(profile.getNodes() > previous, "difficulty " + difficulty);
+            assertEquals(difficulty, profile.getSkillLevel());
+            previous = profile.getNodes();
+        }
+    }
+
+    @Test
+    void forDifficulty_limitedStrength_playsAtTheBotRating() {
+        for (int difficulty = 0; difficulty <= EngineProfile.MAX_DIFFICULTY; difficulty++) {
+            EngineProfile profile = EngineProfile.forDifficulty(difficulty);
+            if (profile.isLimitStrength()) {
+                assertEquals(ChessUtils.botDifficultyToRating(difficulty), profile.getUciElo());
+            }
+        }
+    }
+
+    @Test
+    void forDifficulty_ratingInUciEloRange_limitsStrengthOnlyThere() {
+        for (int difficulty = 0; difficulty <= EngineProfile.MAX_DIFFICULTY; difficulty++) {
+            int rating = ChessUtils.botDifficultyToRating(difficulty);
+            boolean inRange = rating >= EngineProfile.MIN_UCI_ELO && rating <= EngineProfile.MAX_UCI_ELO;
+
+            assertEquals(inRange, EngineProfile.forDifficulty(difficulty).isLimitStrength(), "difficulty " + difficulty);
+        }
+        assertTrue(EngineProfile.forDifficulty(15).isLimitStrength());
+        assertFalse(EngineProfile.forDifficulty(16).isLimitStrength());
+    }
+
+    @Test
+    void forDifficulty_outOfRangeOrNull_clamps() {
+        assertSame(EngineProfile.forDifficulty(0), EngineProfile.forDifficulty(-3));
+        assertSame(EngineProfile.forDifficulty(20), EngineProfile.forDifficulty(99));
+        assertSame(EngineProfile.forDifficulty(20), EngineProfile.forDifficulty(null));
+    }
+
+    @Test
+    void searchLimit_withDepth_includesEveryLimit() {
+        assertEquals("nodes 1000 depth 1 movetime 300", EngineProfile.forDifficulty(0).searchLimit(300));
+        assertEquals("nodes 100000 movetime 500", EngineProfile.forDifficulty(10).searchLimit(500));
+    }
+
+    @Test
+    void estimatedCpuMillis_easyBot_isFarBelowTheMovetime() {
+        assertEquals(1, EngineProfile.forDifficulty(0).estimatedCpuMillis());
+        assertEquals(1_000, EngineProfile.forDifficulty(20).estimatedCpuMillis());
+    }
+}
@@ -0,0 +1,148 @@
+package com.nashss.se.chessplayerservice.engine;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+class EngineSchedulerTest {
+    private final List<String> served = Collections.synchronizedList(new ArrayList<>());
+    private final List<Thread> waiters = new ArrayList<>();
+
+    @Test
+    void acquire_interactiveAndBackgroundWaiting_servesInteractiveFirst() throws Exception {
+        EngineScheduler scheduler = new EngineScheduler(1);
+        EngineScheduler.Grant held = scheduler.acquire(job(EnginePriority.INTERACTIVE, "alice"));
+
+        startWaiter(scheduler, EnginePriority.BACKGROUND, "bob", "analysis");
+        startWaiter(scheduler, EnginePriority.INTERACTIVE, "carol", "move");
+        scheduler.release(held);
+        joinWaiters();
+
+        assertEquals(List.of("move", "analysis"), served);
+    }
+
+    @Test
+    void acquire_oneUserQueuesMany_servesUsersRoundRobin() throws Exception {
+        EngineScheduler scheduler = new EngineScheduler(1);
+        EngineScheduler.Grant held = scheduler.acquire(job(EnginePriority.BACKGROUND, "alice"));
+
+        startWaiter(scheduler, EnginePriority.BACKGROUND, "alice", "alice-1");
+        startWaiter(scheduler, EnginePriority.BACKGROUND, "alice", "alice-2");
+        startWaiter(scheduler, EnginePriority.BACKGROUND, "alice", "alice-3");
+        startWaiter(scheduler, EnginePriority.BACKGROUND, "bob", "bob-1");
+        scheduler.release(held);
+        joinWaiters();
+
+        assertEquals(List.of("alice-1", "bob-1", "alice-2", "alice-3"), served);
+    }
+
+    @Test
+    void acquire_interactiveWaitsBehindBackground_stopsBackgroundSearch() throws Exception {
+        EngineScheduler scheduler = new EngineScheduler(1);
+        EngineJob analysis = job(EnginePriority.BACKGROUND, "bob");
+        EngineScheduler.Grant held = scheduler.acquire(analysis);
+        Stockfish engine = mock(Stockfish.class);
+        held.attach(engine);
+
+        startWaiter(scheduler, EnginePriority.INTERACTIVE, "alice", "move");
+        startWaiter(scheduler, EnginePriority.INTERACTIVE, "carol", "other move");
+        scheduler.release(held);
+        joinWaiters();
+
+        verify(engine).stopSearch();
+        assertTrue(analysis.isPreempted());
+        assertEquals(1, scheduler.getPreemptions());
+    }
+
+    @Test
+    void acquire_backgroundWaitsBehindBackground_preemptsNothing() throws Exception {
+        EngineScheduler scheduler = new EngineScheduler(1);
+        EngineScheduler.Grant held = scheduler.acquire(job(EnginePriority.BACKGROUND, "bob"));
+        Stockfish engine = mock(Stockfish.class);
+        held.attach(engine);
+
+        startWaiter(scheduler, EnginePriority.BACKGROUND, "alice", "analysis");
+        scheduler.release(held);
+        joinWaiters();
+
+        verify(engine, never()).stopSearch();
+        assertEquals(0, scheduler.getPreemptions());
+    }
+
+    @Test
+    void acquire_interruptedWhileWaiting_leavesQueue() throws Exception {
+        EngineScheduler scheduler = new EngineScheduler(1);
+        EngineScheduler.Grant held = scheduler.acquire(job(EnginePriority.INTERACTIVE, "alice"));
+        Thread waiter = startWaiter(scheduler, EnginePriority.INTERACTIVE, "bob", "move");
+
+        waiter.interrupt();
+        waiter.join(5_000);
+        scheduler.release(held);
+
+        assertTrue(served.isEmpty());
+        assertEquals(0, scheduler.getQueueLength());
+        assertEquals(0, scheduler.getRunningCount());
+    }
+
+    @Test
+    void takeUtilization_halfTheSlotsBusy_returnsHalf() throws Exception {
+        AtomicLong clock = new AtomicLong();
+        EngineScheduler scheduler = new EngineScheduler(2, clock::get);
+
+        EngineScheduler.Grant grant = scheduler.acquire(job(EnginePriority.INTERACTIVE, "alice"));
+        clock.addAndGet(1_000);
+        scheduler.release(grant);
+        clock.addAndGet(1_000);
+
+        assertEquals(0.25, scheduler.takeUtilization(), 1e-9);
+        scheduler.acquire(job(EnginePriority.INTERACTIVE, "alice"));
+        clock.addAndGet(1_000);
+        assertEquals(0.5, scheduler.takeUtilization(), 1e-9);
+    }
+
+    private static EngineJob job(EnginePriority priority, String owner) {
+        try (EngineJob job = EngineJob.start(priority, owner)) {
+            return job;
+        }
+    }
+
+    /**
+     * Starts a thread that takes a slot, records its name and gives the slot back, and waits until it is queued.
+     */
+    private Thread startWaiter(EngineScheduler scheduler, EnginePriority priority, String owner, String name)
+            throws InterruptedException {
+        int queued = scheduler.getQueueLength();
+        Thread waiter = new Thread(() -> {
+            try {
+                EngineScheduler.Grant grant = scheduler.acquire(job(priority, owner));
+                served.add(name);
+                scheduler.release(grant);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        waiters.add(waiter);
+        waiter.start();
+        long deadline = System.nanoTime() + 5_000_000_000L;
+        while (scheduler.getQueueLength() == queued && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        assertEquals(queued + 1, scheduler.getQueueLength());
+        return waiter;
+    }
+
+    private void joinWaiters() throws InterruptedException {
+        for (Thread waiter : waiters) {
+            waiter.join(5_000);
+            assertFalse(waiter.isAlive());
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package com.nashss.se.chessplayerservice.engine;
+
+import com.nashss.se.chessplayerservice.chess.Position;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.mockito.MockitoAnnotations.openMocks;
+
+class EngineSessionTest {
+    private static final EngineProfile PROFILE = EngineProfile.forDifficulty(10);
+
+    @Mock
+    private StockfishPool stockfishPool;
+
+    @Mock
+    private Stockfish stockfish;
+
+    @BeforeEach
+    void setup() {
+        openMocks(this);
+        when(stockfishPool.lease()).thenReturn(stockfish);
+    }
+
+    @Test
+    void close_calledTwice_releasesOnce() {
+        EngineSession session = EngineSession.open(stockfishPool);
+
+        session.close();
+        session.close();
+
+        verify(stockfishPool, times(1)).release(stockfish);
+    }
+
+    @Test
+    void bestMove_afterClose_throwsException() {
+        EngineSession session = EngineSession.open(stockfishPool);
+        session.close();
+
+        assertThrows(IllegalStateException.class, () -> session.bestMove(Position.STARTING, PROFILE, 100));
+        verify(stockfish, never()).bestMove(any(), any(), anyInt());
+    }
+
+    @Test
+    void bestMove_fromAnotherThread_isRefused() throws Exception {
+        try (EngineSession session = EngineSession.open(stockfishPool)) {
+            ExecutorService other = Executors.newSingleThreadExecutor();
+            try {
+                Future<?> result = other.submit(() -> session.bestMove(Position.STARTING, PROFILE, 100));
+
+                Exception e = assertThrows(Exception.class, result::get);
+                assertTrue(e.getCause() instanceof IllegalStateException);
+                assertThrows(Exception.class, () -> other.submit(session::close).get());
+            } finally {
+                other.shutdown();
+            }
+        }
+        verify(stockfish, never()).bestMove(any(), any(), anyInt());
+        verify(stockfishPool).release(stockfish);
+    }
+
+    @Test
+    void open_manyConcurrentSessions_neverShareAnEngine() throws Exception {
+        List<Stockfish> engines = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            AtomicInteger inUse = new AtomicInteger();
+            Stockfish engine = mock(Stockfish.class);
+            when(engine.startEngine()).thenReturn(true);
+            when(engine.isAlive()).thenReturn(true);
+            when(engine.bestMove(any(), any(), anyInt())).thenAnswer(invocation -> {
+                int concurrent = inUse.incrementAndGet();
+                Thread.yield();
+                inUse.decrementAndGet();
+                return concurrent == 1 ? "e2e4" : "shared";
+            });
+            engines.add(engine);
+        }
+        AtomicInteger created = new AtomicInteger();
+        StockfishPool pool = new StockfishPool(engines.size(), () -> engines.get(created.getAndIncrement()));
+        NativeEngine engine = new NativeEngine(pool);
+        ExecutorService threads = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<String>> moves = new ArrayList<>();
+            for (int i = 0; i < 200; i++) {
+                moves.add(threads.submit(() -> engine.bestMove(Position.STARTING, PROFILE, 10)));
+            }
+            for (Future<String> move : moves) {
+                assertEquals("e2e4", move.get());
+            }
+        } finally {
+            threads.shutdown();
+        }
+        assertTrue(pool.getEngineCount() <= engines.size());
+    }
+}
@@ -0,0 +1,190 @@
+package com.nashss.se.chessplayerservice.engine;
+
+import com.nashss.se.chessplayerservice.chess.Position;
+import com.nashss.se.chessplayerservice.exceptions.EngineTimeoutException;
+import com.nashss.se.chessplayerservice.exceptions.StockfishException;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.OptionalLong;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class EngineWorkerTest {
+    private static final Position AFTER_E4 = Position.STARTING.play("e2e4");
+
+    private final List<EngineWorker> workers = new ArrayList<>();
+
+    @AfterEach
+    void stopWorkers() {
+        workers.forEach(EngineWorker::stop);
+    }
+
+    @Test
+    void remoteEngine_localWorker_answersLikeTheWorkersEngine() {
+        FakeEngine fake = new FakeEngine();
+        RemoteEngine remote = new RemoteEngine(URI.create("http://localhost:" + start(fake)));
+
+        assertEquals(fake.bestMove(AFTER_E4, EngineProfile.forDifficulty(10), 100),
+                remote.bestMove(AFTER_E4, EngineProfile.forDifficulty(10), 100));
+        assertEquals(fake.legalMoves(AFTER_E4), remote.legalMoves(AFTER_E4));
+        assertEquals(fake.evaluate(AFTER_E4), remote.evaluate(AFTER_E4));
+        Analysis expected = fake.analyze(AFTER_E4, 6);
+        Analysis analysis = remote.analyze(AFTER_E4, 6);
+        assertEquals(expected.getBestMove(), analysis.getBestMove());
+        assertEquals(expected.getScoreCp(), analysis.getScoreCp());
+        assertEquals(expected.getDepth(), analysis.getDepth());
+        assertEquals(expected.getPrincipalVariation(), analysis.getPrincipalVariation());
+        assertEquals(1, remote.analyzeLines(AFTER_E4, 6, 2).size());
+        assertNull(remote.probeTablebase(AFTER_E4, "/tables"));
+    }
+
+    @Test
+    void probeTablebase_workerReadsTables_returnsResultAndQueueWait() {
+        Position endgame = Position.fromFen("4k3/8/4K3/8/8/8/R7/8 b - - 1 1");
+        ChessEngine engine = mock(ChessEngine.class);
+        when(engine.probeTablebase(endgame, "/tables"))
+                .thenReturn(new TablebaseResult("e8f8", TablebaseResult.Outcome.LOSS));
+        // The first wait is left over from the worker thread's earlier jobs
+        when(engine.takeQueueWaitMillis()).thenReturn(OptionalLong.of(900), OptionalLong.of(40));
+        RemoteEngine remote = new RemoteEngine(URI.create("http://localhost:" + start(engine)));
+
+        TablebaseResult result = remote.probeTablebase(endgame, "/tables");
+
+        assertEquals("e8f8", result.getMove());
+        assertEquals(TablebaseResult.Outcome.LOSS, result.getOutcome());
+        assertEquals(OptionalLong.of(40), remote.takeQueueWaitMillis());
+        assertEquals(OptionalLong.of(0), remote.takeQueueWaitMillis());
+    }
+
+    @Test
+    void bestMove_workerStreamsInfo_passesItToListener() {
+        ChessEngine engine = mock(ChessEngine.class);
+        when(engine.bestMove(eq("game"), eq(AFTER_E4), any(), eq(500), any())).thenAnswer(invocation -> {
+            SearchInfo info = new SearchInfo();
+            SearchInfoListener listener = invocation.getArgument(4, SearchInfoListener.class);
+            UciInfoParser.parse("info depth 1 score cp 20 nodes 30 pv e7e5", info);
+            listener.onInfo(info);
+            UciInfoParser.parse("info depth 2 score cp 15 nodes 90 pv c7c5 g1f3", info);
+            listener.onInfo(info);
+            assertEquals(EnginePriority.BACKGROUND, EngineJob.current().getPriority());
+            assertEquals("alice", EngineJob.current().getOwner());
+            return "c7c5";
+        });
+        RemoteEngine remote = new RemoteEngine(URI.create("http://localhost:" + start(engine)));
+        List<Integer> depths = new ArrayList<>();
+        SearchInfo last = new SearchInfo();
+
+        String move = EngineJob.run(EnginePriority.BACKGROUND, "alice",
+                () -> remote.bestMove("game", AFTER_E4, EngineProfile.forDifficulty(10), 500, info -> {
+                    depths.add(info.getDepth());
+                    last.copyFrom(info);
+                }));
+
+        assertEquals("c7c5", move);
+        assertEquals(List.of(1, 2), depths);
+        assertEquals(List.of("c7c5", "g1f3"), last.getPrincipalVariation());
+    }
+
+    @Test
+    void bestMove_workersEngineFails_throwsWithoutRetrying() {
+        ChessEngine engine = mock(ChessEngine.class);
+        when(engine.bestMove(any(), any(), any(), anyInt(), any()))
+                .thenThrow(new StockfishException("Engine failed to start"));
+        RemoteEngine remote = new RemoteEngine(URI.create("http://localhost:" + start(engine)));
+
+        StockfishException e = assertThrows(StockfishException.class,
+                () -> remote.bestMove(AFTER_E4, EngineProfile.forDifficulty(10), 100));
+
+        assertTrue(e.getMessage().contains("Engine failed to start"));
+    }
+
+    @Test
+    void bestMove_workersEngineTimesOut_throwsTimeout() {
+        ChessEngine engine = mock(ChessEngine.class);
+        when(engine.bestMove(any(), any(), any(), anyInt(), any()))
+                .thenThrow(new EngineTimeoutException("No bestmove"));
+        RemoteEngine remote = new RemoteEngine(URI.create("http://localhost:" + start(engine)));
+
+        assertThrows(EngineTimeoutException.class,
+                () -> remote.bestMove(AFTER_E4, EngineProfile.forDifficulty(10), 100));
+    }
+
+    @Test
+    void bestMove_firstWorkerUnreachable_retriesOnAnotherWorker() throws Exception {
+        URI unreachable;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            unreachable = URI.create("http://localhost:" + socket.getLocalPort());
+        }
+        URI reachable = URI.create("http://localhost:" + start(new FakeEngine()));
+        RemoteEngine remote = new RemoteEngine(List.of(unreachable, reachable), HttpClient.newHttpClient(), 2, 1);
+
+        // Whichever worker the positions hash to first, every call ends up on the reachable one
+        for (String move : List.of("e7e5", "c7c5", "d7d5", "g8f6")) {
+            Position position = AFTER_E4.play(move);
+            assertEquals(new FakeEngine().legalMoves(position), remote.legalMoves(position));
+        }
+    }
+
+    @Test
+    void bestMove_workersDropStreamLate_stopsRetryingAtTheJobsDeadline() throws Exception {
+        // Each answer comes after most of the job's deadline of 100 ms plus twice the grace, then ends without a result
+        long dropAfterMillis = 100 + 2 * Stockfish.SEARCH_GRACE_MILLIS * 3 / 4;
+        AtomicInteger attempts = new AtomicInteger();
+        HttpServer dropping = HttpServer.create(new InetSocketAddress(0), 0);
+        dropping.createContext(WorkerProtocol.JOBS_PATH, exchange -> {
+            attempts.incrementAndGet();
+            try {
+                Thread.sleep(dropAfterMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            exchange.sendResponseHeaders(200, -1);
+            exchange.close();
+        });
+        dropping.start();
+        try {
+            RemoteEngine remote = new RemoteEngine(
+                    List.of(URI.create("http://localhost:" + dropping.getAddress().getPort())),
+                    HttpClient.newHttpClient(), 3, 1);
+
+            long start = System.nanoTime();
+            assertThrows(EngineTimeoutException.class,
+                    () -> remote.bestMove(AFTER_E4, EngineProfile.forDifficulty(10), 100));
+            long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+            assertEquals(2, attempts.get());
+            assertTrue(elapsedMillis < 2 * dropAfterMillis, "took " + elapsedMillis + " ms");
+        } finally {
+            dropping.stop(0);
+        }
+    }
+
+    @Test
+    void fromEndpoints_commaSeparated_readsEveryEndpoint() {
+        RemoteEngine remote = RemoteEngine.fromEndpoints("http://a:8099, http://b:8099,");
+
+        assertEquals(List.of(URI.create("http://a:8099"), URI.create("http://b:8099")), remote.getEndpoints());
+        assertThrows(IllegalArgumentException.class, () -> RemoteEngine.fromEndpoints(" "));
+    }
+
+    private int start(ChessEngine engine) {
+        EngineWorker worker = new EngineWorker(engine, 0);
+        workers.add(worker);
+        worker.start();
+        return worker.getPort();
+    }
+}
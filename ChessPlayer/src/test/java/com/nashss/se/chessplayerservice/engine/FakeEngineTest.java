@@ -0,0 +1,39 @@
+package com.nashss.se.chessplayerservice.engine;
+
+import com.nashss.se.chessplayerservice.chess.Position;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FakeEngineTest {
+
+    private final FakeEngine engine = new FakeEngine();
+
+    @Test
+    void bestMove_anyProfile_playsFirstMoveAlphabetically() {
+        assertEquals("a2a3", engine.bestMove(Position.STARTING, EngineProfile.forDifficulty(0), 500));
+        assertEquals("a2a3", engine.bestMove(Position.STARTING, EngineProfile.forDifficulty(20), 1));
+    }
+
+    @Test
+    void analyze_returnsBestMoveAndStaticScore() {
+        Analysis analysis = engine.analyze(Position.STARTING, 12);
+
+        assertEquals("a2a3", analysis.getBestMove());
+        assertEquals(engine.evaluate(Position.STARTING), analysis.getScoreCp());
+        assertEquals(12, analysis.getDepth());
+    }
+
+    @Test
+    void evaluate_extraQueen_favoursSideWithQueen() {
+        assertTrue(engine.evaluate(Position.fromFen("4k3/8/8/8/8/8/8/3QK3 w - - 0 1")) > 800);
+        assertTrue(engine.evaluate(Position.fromFen("4k3/8/8/8/8/8/8/3QK3 b - - 0 1")) < -800);
+    }
+
+    @Test
+    void fromName_namesAndDefault() {
+        assertEquals(EngineBackend.FAKE, EngineBackend.fromName(" fake "));
+        assertEquals(EngineBackend.NATIVE, EngineBackend.fromName(null));
+        assertThrows(IllegalArgumentException.class, () -> EngineBackend.fromName("gpu"));
+    }
+}
@@ -0,0 +1,93 @@
+package com.nashss.se.chessplayerservice.engine;
+
+import com.nashss.se.chessplayerservice.chess.Piece;
+import com.nashss.se.chessplayerservice.chess.Position;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GameAnalyzerTest {
+
+    @Test
+    void analyze_longGame_analysesEveryPositionWithBoundedConcurrency() {
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger mostRunning = new AtomicInteger();
+        ChessEngine engine = new FakeEngine() {
+            @Override
+            public Analysis analyze(Position position, int depth) {
+                mostRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                try {
+                    Thread.sleep(1);
+                    return super.analyze(position, depth);
+                } catch (InterruptedException e) {
+                    throw new IllegalStateException(e);
+                } finally {
+                    running.decrementAndGet();
+                }
+            }
+        };
+        List<Position> positions = replay(60);
+        Analysis[] results = new Analysis[positions.size()];
+
+        int analysed = new GameAnalyzer(engine, 3, 4).analyze("game", positions, results, Long.MAX_VALUE);
+
+        assertEquals(60, analysed);
+        for (int ply = 0; ply < results.length; ply++) {
+            assertNotNull(results[ply], "ply " + ply);
+        }
+        assertTrue(mostRunning.get() <= 3, "at most 3 searches at once, saw " + mostRunning.get());
+    }
+
+    @Test
+    void analyze_runsOfPlies_shareAKeyPerTask() {
+        Map<Integer, String> runKeys = new ConcurrentHashMap<>();
+        ChessEngine engine = new FakeEngine() {
+            @Override
+            public Analysis analyze(String runKey, Position position, int depth) {
+                runKeys.put(position.getFullmoveNumber() * 2 + (position.getSideToMove() == Piece.WHITE ? 0 : 1),
+                        runKey);
+                return super.analyze(runKey, position, depth);
+            }
+        };
+        List<Position> positions = replay(2 * GameAnalyzer.PLIES_PER_TASK);
+
+        new GameAnalyzer(engine, 2, 4).analyze("game", positions, new Analysis[positions.size()], Long.MAX_VALUE);
+
+        // Each half of the game is one task, whose plies are analysed under one key so they can share an engine
+        assertEquals(positions.size(), runKeys.size());
+        assertEquals(2, Set.copyOf(runKeys.values()).size());
+        assertTrue(runKeys.values().stream().allMatch(key -> key.startsWith("game#")), runKeys.toString());
+    }
+
+    @Test
+    void analyze_existingResults_areKept() {
+        List<Position> positions = replay(4);
+        Analysis[] results = new Analysis[4];
+        Analysis saved = new Analysis("a2a3", 5, null, 20, List.of("a2a3"));
+        results[2] = saved;
+
+        int analysed = new GameAnalyzer(new FakeEngine(), 2, 4).analyze("game", positions, results, Long.MAX_VALUE);
+
+        assertEquals(3, analysed);
+        assertSame(saved, results[2]);
+    }
+
+    private static List<Position> replay(int plies) {
+        List<Position> positions = new ArrayList<>();
+        Position position = Position.STARTING;
+        for (int ply = 0; ply < plies; ply++) {
+            positions.add(position);
+            // Knights shuffling back and forth never run out of moves
+            String[] moves = {"g1f3", "g8f6", "f3g1", "f6g8"};
+            position = position.play(moves[ply % moves.length]);
+        }
+        return positions;
+    }
+}
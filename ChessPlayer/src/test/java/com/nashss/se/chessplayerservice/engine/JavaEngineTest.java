@@ -0,0 +1,115 @@
+package com.nashss.se.chessplayerservice.engine;
+
+import com.nashss.se.chessplayerservice.chess.Position;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JavaEngineTest {
+
+    @Test
+    void bestMove_mateInOne_findsMate() {
+        Position position = Position.fromFen("6k1/5ppp/8/8/8/8/8/R5K1 w - - 0 1");
+
+        String move = new JavaEngine(new Random(1)).bestMove(position, EngineProfile.forDifficulty(5), 500);
+
+        assertEquals("a1a8", move);
+    }
+
+    @Test
+    void bestMove_hangingQueen_captures() {
+        Position position = Position.fromFen("4k3/8/8/3q4/8/8/3R4/4K3 w - - 0 1");
+
+        String move = new JavaEngine(new Random(1)).bestMove(position, EngineProfile.forDifficulty(4), 500);
+
+        assertEquals("d2d5", move);
+    }
+
+    @Test
+    void bestMove_easiestBot_alwaysPlaysLegalMove() {
+        JavaEngine engine = new JavaEngine(new Random(3));
+        Position position = Position.STARTING;
+        for (int ply = 0; ply < 20; ply++) {
+            String move = engine.bestMove(position, EngineProfile.forDifficulty(0), 500);
+            assertTrue(position.legalMoves().contains(move), move);
+            position = position.play(move);
+            if (position.legalMoves().isEmpty()) {
+                break;
+            }
+        }
+    }
+
+    @Test
+    void bestMove_noLegalMoves_throwsException() {
+        Position mated = Position.fromFen("R5k1/5ppp/8/8/8/8/8/6K1 b - - 1 1");
+
+        assertThrows(IllegalArgumentException.class,
+                () -> new JavaEngine().bestMove(mated, EngineProfile.forDifficulty(0), 500));
+    }
+
+    @Test
+    void nodeLimit_easyDifficulty_usesTheProfilesNodeBudget() {
+        assertEquals(EngineProfile.forDifficulty(0).getNodes(), JavaEngine.nodeLimit(EngineProfile.forDifficulty(0)));
+        assertEquals(EngineProfile.forDifficulty(5).getNodes(), JavaEngine.nodeLimit(EngineProfile.forDifficulty(5)));
+    }
+
+    @Test
+    void bestMove_smallNodeBudgetInBusyPosition_stillCapturesHangingQueen() {
+        // Difficulty 4 may only search 12000 nodes in a position with many captures
+        Position position = Position.fromFen("r1b1kb1r/pppp1ppp/2n2n2/4p1q1/2B1P3/3P1N2/PPP2PPP/RNBQK2R w KQkq - 0 1");
+
+        String move = new JavaEngine(new Random(1)).bestMove(position, EngineProfile.forDifficulty(4), 500);
+
+        assertTrue(move.equals("f3g5") || move.equals("c1g5"), move);
+    }
+
+    @Test
+    void bestMove_noMovetimeLeft_stillCapturesHangingQueen() {
+        // Scoring every root move here takes more nodes than the search goes between looking at the clock
+        Position position = Position.fromFen("r3k2r/pbpp1ppp/1pn2n2/2b1p3/2BqP3/1PNP1N2/PBPQ1PPP/R3K2R w KQkq - 0 1");
+
+        for (int seed = 0; seed < 10; seed++) {
+            JavaEngine engine = new JavaEngine(new Random(seed));
+            assertEquals("f3d4", engine.bestMove(position, EngineProfile.forDifficulty(4), 0));
+            assertEquals("f3d4", engine.bestMove(position, EngineProfile.forDifficulty(4), 1));
+        }
+    }
+
+    @Test
+    void handles_onlyEasyDifficulties() {
+        assertTrue(JavaEngine.handles(0));
+        assertTrue(JavaEngine.handles(JavaEngine.MAX_DIFFICULTY));
+        assertFalse(JavaEngine.handles(JavaEngine.MAX_DIFFICULTY + 1));
+        assertFalse(JavaEngine.handles(null));
+    }
+
+    @Test
+    void analyze_mateInOne_reportsMate() {
+        Position position = Position.fromFen("6k1/5ppp/8/8/8/8/8/R5K1 w - - 0 1");
+
+        Analysis analysis = new JavaEngine().analyze(position, 2);
+
+        assertEquals("a1a8", analysis.getBestMove());
+        assertEquals(1, analysis.getMateIn());
+        assertEquals(2, analysis.getDepth());
+    }
+
+    @Test
+    void evaluate_startingPosition_isBalanced() {
+        assertEquals(0, new JavaEngine().evaluate(Position.STARTING));
+    }
+
+    @Test
+    void analyzeLines_hangingQueen_ranksCaptureFirst() {
+        Position position = Position.fromFen("4k3/8/8/3q4/8/8/3R4/4K3 w - - 0 1");
+
+        List<Analysis> lines = new JavaEngine().analyzeLines(position, 2, 3);
+
+        assertEquals(3, lines.size());
+        assertEquals("d2d5", lines.get(0).getBestMove());
+        assertTrue(lines.get(0).getScoreCp() > lines.get(1).getScoreCp());
+    }
+}
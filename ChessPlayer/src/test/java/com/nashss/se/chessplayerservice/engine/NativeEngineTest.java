@@ -0,0 +1,69 @@
+package com.nashss.se.chessplayerservice.engine;
+
+import com.nashss.se.chessplayerservice.chess.Position;
+import com.nashss.se.chessplayerservice.exceptions.StockfishException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.mockito.MockitoAnnotations.openMocks;
+
+class NativeEngineTest {
+
+    @Mock
+    private StockfishPool stockfishPool;
+
+    @Mock
+    private Stockfish stockfish;
+
+    private NativeEngine engine;
+
+    @BeforeEach
+    void setup() {
+        openMocks(this);
+        when(stockfishPool.lease()).thenReturn(stockfish);
+        engine = new NativeEngine(stockfishPool);
+    }
+
+    @Test
+    void bestMove_leasesSearchesAndReleases() {
+        EngineProfile profile = EngineProfile.forDifficulty(10);
+        when(stockfish.bestMove(Position.STARTING, profile, 300)).thenReturn("e2e4");
+
+        assertEquals("e2e4", engine.bestMove(Position.STARTING, profile, 300));
+        verify(stockfishPool).release(stockfish);
+    }
+
+    @Test
+    void analyze_runKey_leasesTheRunsEngine() {
+        Analysis analysis = new Analysis("e2e4", 30, null, 12, List.of("e2e4"));
+        when(stockfishPool.lease("game#8")).thenReturn(stockfish);
+        when(stockfish.analyze(Position.STARTING, 12)).thenReturn(analysis);
+
+        assertSame(analysis, engine.analyze("game#8", Position.STARTING, 12));
+        verify(stockfishPool).release(stockfish);
+    }
+
+    @Test
+    void probeTablebase_leasesProbesAndReleases() {
+        Position endgame = Position.fromFen("4k3/8/4K3/8/8/8/R7/8 b - - 1 1");
+        TablebaseResult result = new TablebaseResult("e8f8", TablebaseResult.Outcome.LOSS);
+        when(stockfish.probeTablebase(endgame, "/tables")).thenReturn(result);
+
+        assertSame(result, engine.probeTablebase(endgame, "/tables"));
+        verify(stockfishPool).release(stockfish);
+    }
+
+    @Test
+    void evaluate_engineFails_stillReleases() {
+        when(stockfish.evaluate(Position.STARTING)).thenThrow(new StockfishException("Engine died"));
+
+        assertThrows(StockfishException.class, () -> engine.evaluate(Position.STARTING));
+        verify(stockfishPool).release(stockfish);
+    }
+}
@@ -0,0 +1,112 @@
+package com.nashss.se.chessplayerservice.engine;
+
+import com.nashss.se.chessplayerservice.chess.PolyglotKeys;
+import com.nashss.se.chessplayerservice.chess.Position;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OpeningBookTest {
+    private static final Position CASTLING_POSITION = Position.fromFen("4k3/8/8/8/8/8/8/4K2R w K - 0 1");
+
+    @TempDir
+    Path tempDir;
+
+    private PolyglotKeys keys;
+    private OpeningBook book;
+
+    @BeforeEach
+    void setup() throws IOException {
+        long[] random64 = new long[PolyglotKeys.TABLE_SIZE];
+        Random random = new Random(42);
+        for (int i = 0; i < random64.length; i++) {
+            random64[i] = random.nextLong();
+        }
+        keys = new PolyglotKeys(random64);
+
+        long[][] entries = {
+            {keys.hash(Position.STARTING), move("e2e4"), 100},
+            {keys.hash(Position.STARTING), move("d2d4"), 50},
+            {keys.hash(Position.STARTING), move("g1f3"), 0},
+            {keys.hash(Position.STARTING), move("e2e5"), 1000},
+            // King takes own rook is Polyglot's castling notation
+            {keys.hash(CASTLING_POSITION), move("e1h1"), 10}
+        };
+        Arrays.sort(entries, (a, b) -> Long.compareUnsigned(a[0], b[0]));
+        ByteBuffer bytes = ByteBuffer.allocate(entries.length * OpeningBook.ENTRY_SIZE);
+        for (long[] entry : entries) {
+            bytes.putLong(entry[0]).putShort((short) entry[1]).putShort((short) entry[2]).putInt(0);
+        }
+        Path bookFile = tempDir.resolve("book.bin");
+        Files.write(bookFile, bytes.array());
+        book = OpeningBook.open(bookFile, keys);
+    }
+
+    @Test
+    void open_mappedFile_countsEntries() {
+        assertEquals(5, book.size());
+    }
+
+    @Test
+    void pickMove_positionInBook_onlyReturnsLegalWeightedMoves() {
+        Random random = new Random(7);
+        for (int i = 0; i < 200; i++) {
+            String move = book.pickMove(Position.STARTING, 20, random);
+            assertTrue(move.equals("e2e4") || move.equals("d2d4"), move);
+        }
+    }
+
+    @Test
+    void pickMove_castlingEntry_returnsUciCastlingMove() {
+        assertEquals("e1g1", book.pickMove(CASTLING_POSITION, 20, new Random(1)));
+    }
+
+    @Test
+    void pickMove_positionNotInBook_returnsNull() {
+        assertNull(book.pickMove(Position.STARTING.play("a2a3"), 20, new Random(1)));
+    }
+
+    @Test
+    void pickMove_lowSkill_variesMoreThanHighSkill() {
+        Random random = new Random(3);
+        int weakSideLines = 0;
+        int strongSideLines = 0;
+        for (int i = 0; i < 2000; i++) {
+            weakSideLines += "d2d4".equals(book.pickMove(Position.STARTING, 0, random)) ? 1 : 0;
+            strongSideLines += "d2d4".equals(book.pickMove(Position.STARTING, 20, random)) ? 1 : 0;
+        }
+
+        // Expected shares of d2d4 are about 46% at skill 0 and 20% at skill 20
+        assertTrue(weakSideLines > strongSideLines + 300, weakSideLines + " vs " + strongSideLines);
+    }
+
+    @Test
+    void pickMove_emptyBook_returnsNull() {
+        assertNull(OpeningBook.empty().pickMove(Position.STARTING, 5));
+    }
+
+    @Test
+    void likelyMoves_positionInBook_ordersByWeight() {
+        assertEquals(List.of("e2e4", "d2d4"), book.likelyMoves(Position.STARTING, 5));
+        assertEquals(List.of("e2e4"), book.likelyMoves(Position.STARTING, 1));
+        assertTrue(book.likelyMoves(Position.STARTING.play("a2a3"), 5).isEmpty());
+    }
+
+    private static long move(String uci) {
+        int fromFile = uci.charAt(0) - 'a';
+        int fromRank = uci.charAt(1) - '1';
+        int toFile = uci.charAt(2) - 'a';
+        int toRank = uci.charAt(3) - '1';
+        return toFile | toRank << 3 | fromFile << 6 | fromRank << 9;
+    }
+}
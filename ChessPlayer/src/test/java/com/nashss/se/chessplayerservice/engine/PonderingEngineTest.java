@@ -0,0 +1,91 @@
+package com.nashss.se.chessplayerservice.engine;
+
+import com.nashss.se.chessplayerservice.chess.Position;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.mockito.MockitoAnnotations.openMocks;
+
+class PonderingEngineTest {
+    private static final EngineProfile PROFILE = EngineProfile.forDifficulty(10);
+    private static final Position AFTER_E4 = Position.STARTING.play("e2e4");
+    private static final Position AFTER_E5 = AFTER_E4.play("e7e5");
+
+    @Mock
+    private Stockfish stockfish;
+
+    private StockfishPool stockfishPool;
+
+    private PonderingEngine engine;
+
+    @BeforeEach
+    void setup() {
+        openMocks(this);
+        when(stockfish.startEngine()).thenReturn(true);
+        when(stockfish.isAlive()).thenReturn(true);
+        stockfishPool = new StockfishPool(1, () -> stockfish);
+        engine = new PonderingEngine(stockfishPool);
+        when(stockfish.search(AFTER_E4, PROFILE, 500)).thenReturn(List.of("bestmove e7e5 ponder g1f3"));
+    }
+
+    @Test
+    void bestMove_engineExpectsReply_keepsEnginePondering() {
+        assertEquals("e7e5", engine.bestMove("game", AFTER_E4, PROFILE, 500));
+
+        verify(stockfish).startPonder(AFTER_E5, "g1f3", PROFILE, 500);
+        assertEquals(1, engine.size());
+    }
+
+    @Test
+    void bestMove_expectedReplyPlayed_answersFromPonderSearch() {
+        engine.bestMove("game", AFTER_E4, PROFILE, 500);
+        when(stockfish.ponderHit()).thenReturn(List.of("info depth 18 score cp 20", "bestmove b8c6 ponder f1b5"));
+
+        assertEquals("b8c6", engine.bestMove("game", AFTER_E5.play("g1f3"), PROFILE, 500));
+
+        assertEquals(1, engine.getPonderHits());
+        verify(stockfish, times(1)).search(AFTER_E4, PROFILE, 500);
+        verify(stockfish).startPonder(AFTER_E5.play("g1f3").play("b8c6"), "f1b5", PROFILE, 500);
+    }
+
+    @Test
+    void bestMove_otherReplyPlayed_stopsPonderAndSearches() {
+        engine.bestMove("game", AFTER_E4, PROFILE, 500);
+        Position afterNc3 = AFTER_E5.play("b1c3");
+        when(stockfish.search(afterNc3, PROFILE, 500)).thenReturn(List.of("bestmove g8f6"));
+
+        assertEquals("g8f6", engine.bestMove("game", afterNc3, PROFILE, 500));
+
+        assertEquals(1, engine.getPonderMisses());
+        verify(stockfish).stopPonder();
+        assertEquals(0, engine.size());
+    }
+
+    @Test
+    void endGame_pondering_releasesEngine() {
+        engine.bestMove("game", AFTER_E4, PROFILE, 500);
+        when(stockfish.isPondering()).thenReturn(true);
+
+        engine.endGame("game");
+
+        verify(stockfish).stopPonder();
+        assertEquals(0, engine.size());
+    }
+
+    @Test
+    void lease_everyEnginePondering_reclaimsOne() {
+        engine.bestMove("game", AFTER_E4, PROFILE, 500);
+
+        assertSame(stockfish, stockfishPool.lease());
+        assertEquals(0, engine.size());
+        verify(stockfish, never()).ponderHit();
+    }
+}
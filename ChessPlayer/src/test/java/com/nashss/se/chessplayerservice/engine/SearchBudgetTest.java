@@ -0,0 +1,102 @@
+package com.nashss.se.chessplayerservice.engine;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SearchBudgetTest {
+
+    @Test
+    void moveTimeMillis_plentyOfTime_returnsMaximum() {
+        SearchBudget budget = new SearchBudget(2_000);
+
+        assertEquals(SearchBudget.MAX_MOVE_TIME_MILLIS, budget.moveTimeMillis(100, 19_000L));
+        assertEquals(SearchBudget.MAX_MOVE_TIME_MILLIS, budget.moveTimeMillis(100, null));
+    }
+
+    @Test
+    void moveTimeMillis_nearLambdaTimeout_leavesMarginForTheResponse() {
+        SearchBudget budget = new SearchBudget(2_000);
+
+        assertEquals(300, budget.moveTimeMillis(0, 1_300L));
+    }
+
+    @Test
+    void moveTimeMillis_timeSpentNearLambdaTimeout_countsItAgainstTheTimeout() {
+        SearchBudget budget = new SearchBudget(2_000);
+
+        // 1700 remaining - 400 elapsed - 1000 margin, although 1600 of the latency target is left
+        assertEquals(300, budget.moveTimeMillis(400, 1_700L));
+    }
+
+    @Test
+    void moveTimeMillis_coldStartSpentMostOfTheTimeout_returnsMinimum() {
+        SearchBudget budget = new SearchBudget(5_000);
+
+        assertEquals(SearchBudget.MIN_MOVE_TIME_MILLIS, budget.moveTimeMillis(1_200, 2_100L));
+    }
+
+    @Test
+    void moveTimeMillis_slowSavesNearLambdaTimeout_leavesRoomForTheSave() {
+        SearchBudget budget = new SearchBudget(5_000);
+        for (int i = 0; i < 20; i++) {
+            budget.recordSave(200);
+            budget.recordSearch(500, 0, 500);
+        }
+
+        // 2000 remaining - 500 elapsed - 1000 margin - 200 save
+        assertEquals(300, budget.moveTimeMillis(500, 2_000L));
+    }
+
+    @Test
+    void moveTimeMillis_latencyTargetAlmostSpent_returnsMinimum() {
+        SearchBudget budget = new SearchBudget(2_000);
+
+        assertEquals(SearchBudget.MIN_MOVE_TIME_MILLIS, budget.moveTimeMillis(1_990, 19_000L));
+    }
+
+    @Test
+    void moveTimeMillis_slowSaves_shrinksTheSearch() {
+        SearchBudget budget = new SearchBudget(1_000);
+        for (int i = 0; i < 20; i++) {
+            budget.recordSave(300);
+            budget.recordSearch(550, 0, 500);
+        }
+
+        // 1000 target - 200 elapsed - 300 save - 50 engine overhead
+        assertEquals(450, budget.moveTimeMillis(200, null));
+        assertEquals(300, budget.getSaveLatencyP99());
+        assertEquals(50, budget.getEngineOverheadP99());
+    }
+
+    @Test
+    void recordSearch_searchEndsBeforeMovetime_measuresOverheadBeyondTheEnginesTime() {
+        SearchBudget budget = new SearchBudget(2_000);
+        for (int i = 0; i < 20; i++) {
+            // A depth-capped search of a 500 ms movetime that the engine finished in 40 ms
+            budget.recordSearch(120, 0, 40);
+        }
+
+        assertEquals(80, budget.getEngineOverheadP99());
+    }
+
+    @Test
+    void recordSearch_waitedForAnEngine_leavesTheWaitOutOfTheOverhead() {
+        SearchBudget budget = new SearchBudget(2_000);
+        for (int i = 0; i < 20; i++) {
+            budget.recordSearch(1_350, 800, 500);
+        }
+
+        assertEquals(50, budget.getEngineOverheadP99());
+    }
+
+    @Test
+    void recordSave_varyingLatency_estimatesAboveTheMean() {
+        SearchBudget budget = new SearchBudget(2_000);
+        for (int i = 0; i < 50; i++) {
+            budget.recordSave(i % 2 == 0 ? 100 : 300);
+        }
+
+        assertTrue(budget.getSaveLatencyP99() > 300, "p99 " + budget.getSaveLatencyP99());
+    }
+}
@@ -0,0 +1,124 @@
+package com.nashss.se.chessplayerservice.engine;
+
+import com.nashss.se.chessplayerservice.chess.Position;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.mockito.MockitoAnnotations.openMocks;
+
+class SpeculativeSearchTest {
+    private static final Position AFTER_E4 = Position.STARTING.play("e2e4");
+    private static final EngineProfile PROFILE = EngineProfile.forDifficulty(10);
+
+    @Mock
+    private ChessEngine engine;
+
+    private final List<Runnable> background = new ArrayList<>();
+
+    private SpeculativeSearch speculativeSearch;
+
+    @BeforeEach
+    void setup() {
+        openMocks(this);
+        speculativeSearch = new SpeculativeSearch(engine, OpeningBook.empty(), background::add, 2, 16);
+        when(engine.analyzeLines(AFTER_E4, SpeculativeSearch.RANKING_DEPTH, 2)).thenReturn(List.of(
+                new Analysis("e7e5", 20, null, 8, List.of("e7e5")),
+                new Analysis("c7c5", 15, null, 8, List.of("c7c5"))));
+        when(engine.bestMove(AFTER_E4.play("e7e5"), PROFILE, SearchBudget.MAX_MOVE_TIME_MILLIS)).thenReturn("g1f3");
+        when(engine.bestMove(AFTER_E4.play("c7c5"), PROFILE, SearchBudget.MAX_MOVE_TIME_MILLIS)).thenReturn("b1c3");
+    }
+
+    @Test
+    void lookup_likelyReplyPlayed_returnsPrecomputedAnswer() {
+        speculativeSearch.speculate("game", AFTER_E4, 10);
+        background.forEach(Runnable::run);
+
+        assertEquals("b1c3", speculativeSearch.lookup("game", AFTER_E4.play("c7c5"), 10));
+        assertEquals(2, speculativeSearch.getPrecomputed());
+        assertEquals(1.0, speculativeSearch.getHitRate());
+    }
+
+    @Test
+    void lookup_unexpectedReply_misses() {
+        speculativeSearch.speculate("game", AFTER_E4, 10);
+        background.forEach(Runnable::run);
+
+        assertNull(speculativeSearch.lookup("game", AFTER_E4.play("a7a6"), 10));
+        assertEquals(0.0, speculativeSearch.getHitRate());
+    }
+
+    @Test
+    void lookup_otherDifficulty_misses() {
+        speculativeSearch.speculate("game", AFTER_E4, 10);
+        background.forEach(Runnable::run);
+
+        assertNull(speculativeSearch.lookup("game", AFTER_E4.play("e7e5"), 11));
+    }
+
+    @Test
+    void speculate_playerMovedBeforeWorkStarted_abandonsWork() {
+        speculativeSearch.speculate("game", AFTER_E4, 10);
+        speculativeSearch.lookup("game", AFTER_E4.play("e7e5"), 10);
+        background.forEach(Runnable::run);
+
+        verify(engine, never()).bestMove(any(), any(), anyInt());
+        assertEquals(0, speculativeSearch.getPrecomputed());
+    }
+
+    @Test
+    void speculate_engineFails_keepsServing() {
+        when(engine.analyzeLines(AFTER_E4, SpeculativeSearch.RANKING_DEPTH, 2))
+                .thenThrow(new IllegalStateException("engine died"));
+        speculativeSearch.speculate("game", AFTER_E4, 10);
+        background.forEach(Runnable::run);
+
+        assertNull(speculativeSearch.lookup("game", AFTER_E4.play("e7e5"), 10));
+    }
+
+    @Test
+    void speculate_searchPreemptedForPlayer_discardsWeakAnswerAndStops() {
+        when(engine.bestMove(AFTER_E4.play("e7e5"), PROFILE, SearchBudget.MAX_MOVE_TIME_MILLIS)).thenAnswer(
+                invocation -> {
+                    assertEquals(EnginePriority.BACKGROUND, EngineJob.current().getPriority());
+                    EngineJob.current().preempt();
+                    return "g1f3";
+                });
+
+        speculativeSearch.speculate("game", AFTER_E4, 10);
+        background.forEach(Runnable::run);
+
+        assertNull(speculativeSearch.lookup("game", AFTER_E4.play("e7e5"), 10));
+        verify(engine, never()).bestMove(AFTER_E4.play("c7c5"), PROFILE, SearchBudget.MAX_MOVE_TIME_MILLIS);
+        assertEquals(EnginePriority.INTERACTIVE, EngineJob.current().getPriority());
+    }
+
+    @Test
+    void disabled_speculateThenLookup_neverSearches() {
+        SpeculativeSearch disabled = SpeculativeSearch.disabled();
+
+        disabled.speculate("game", AFTER_E4, 10);
+
+        assertFalse(disabled.isEnabled());
+        assertNull(disabled.lookup("game", AFTER_E4.play("e7e5"), 10));
+        assertEquals(0, disabled.getMisses());
+    }
+
+    @Test
+    void enabledBy_onlyTrueTurnsSpeculationOn() {
+        assertTrue(SpeculativeSearch.enabledBy("true"));
+        assertTrue(SpeculativeSearch.enabledBy(" TRUE "));
+        assertFalse(SpeculativeSearch.enabledBy(null));
+        assertFalse(SpeculativeSearch.enabledBy(""));
+        assertFalse(SpeculativeSearch.enabledBy("yes"));
+    }
+}
@@ -0,0 +1,244 @@
+package com.nashss.se.chessplayerservice.engine;
+
+import com.nashss.se.chessplayerservice.exceptions.EngineTimeoutException;
+import com.nashss.se.chessplayerservice.exceptions.StockfishException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.mockito.MockitoAnnotations.openMocks;
+
+class StockfishPoolTest {
+
+    @Mock
+    private Stockfish engine;
+
+    @Mock
+    private Stockfish otherEngine;
+
+    @BeforeEach
+    void setup() {
+        openMocks(this);
+    }
+
+    @Test
+    void lease_poolIsEmpty_startsAndInitializesEngine() {
+        when(engine.startEngine()).thenReturn(true);
+        when(engine.isAlive()).thenReturn(true);
+        StockfishPool pool = new StockfishPool(1, () -> engine);
+
+        Stockfish result = pool.lease();
+
+        assertEquals(engine, result);
+        verify(engine).initialize();
+        verify(engine).newGame();
+        assertEquals(1, pool.getEngineCount());
+    }
+
+    @Test
+    void lease_engineWasReleased_reusesEngineWithoutRestarting() {
+        when(engine.startEngine()).thenReturn(true);
+        when(engine.isAlive()).thenReturn(true);
+        StockfishPool pool = new StockfishPool(1, () -> engine);
+
+        pool.release(pool.lease());
+        Stockfish result = pool.lease();
+
+        assertEquals(engine, result);
+        verify(engine, times(1)).startEngine();
+        verify(engine, times(2)).newGame();
+    }
+
+    @Test
+    void lease_releasedEngineDied_startsReplacement() {
+        when(engine.startEngine()).thenReturn(true);
+        when(engine.isAlive()).thenReturn(true, false);
+        when(otherEngine.startEngine()).thenReturn(true);
+        when(otherEngine.isAlive()).thenReturn(true);
+        Stockfish[] engines = {engine, otherEngine};
+        int[] created = {0};
+        StockfishPool pool = new StockfishPool(1, () -> engines[created[0]++]);
+
+        pool.release(pool.lease());
+        Stockfish result = pool.lease();
+
+        assertEquals(otherEngine, result);
+        verify(engine).stopEngine();
+        assertEquals(1, pool.getEngineCount());
+    }
+
+    @Test
+    void lease_engineFailsToStart_throwsException() {
+        when(engine.startEngine()).thenReturn(false);
+        StockfishPool pool = new StockfishPool(1, () -> engine);
+
+        assertThrows(StockfishException.class, pool::lease);
+        assertEquals(0, pool.getEngineCount());
+    }
+
+    @Test
+    void lease_engineFailsLivenessProbe_replacesIt() {
+        when(engine.startEngine()).thenReturn(true);
+        when(engine.isAlive()).thenReturn(true);
+        doThrow(new EngineTimeoutException("hung")).when(engine).newGame();
+        when(otherEngine.startEngine()).thenReturn(true);
+        when(otherEngine.isAlive()).thenReturn(true);
+        Stockfish[] engines = {engine, otherEngine};
+        int[] created = {0};
+        StockfishPool pool = new StockfishPool(1, () -> engines[created[0]++]);
+
+        Stockfish result = pool.lease();
+
+        assertEquals(otherEngine, result);
+        verify(engine).stopEngine();
+        assertEquals(1, pool.getEngineCount());
+        assertEquals(EngineCircuitBreaker.State.CLOSED, pool.getCircuitBreaker().getState());
+    }
+
+    @Test
+    void lease_enginesKeepFailing_opensCircuitAndFailsFast() {
+        when(engine.startEngine()).thenReturn(false);
+        EngineCircuitBreaker breaker = new EngineCircuitBreaker(2, 60_000);
+        StockfishPool pool = new StockfishPool(1, () -> engine, breaker);
+
+        assertThrows(StockfishException.class, pool::lease);
+        assertThrows(StockfishException.class, pool::lease);
+        assertThrows(StockfishException.class, pool::lease);
+
+        verify(engine, times(2)).startEngine();
+        assertEquals(EngineCircuitBreaker.State.OPEN, breaker.getState());
+    }
+
+    @Test
+    void release_engineHungWhileLeased_discardsAndRecordsFailure() {
+        when(engine.startEngine()).thenReturn(true);
+        when(engine.isAlive()).thenReturn(true, true, false);
+        EngineCircuitBreaker breaker = new EngineCircuitBreaker(1, 60_000);
+        StockfishPool pool = new StockfishPool(1, () -> engine, breaker);
+
+        pool.release(pool.lease());
+
+        verify(engine).stopEngine();
+        assertEquals(0, pool.getEngineCount());
+        assertEquals(EngineCircuitBreaker.State.OPEN, breaker.getState());
+    }
+
+    @Test
+    void lease_everyEngineLeased_waitsForReleaseAndRecordsQueueWait() throws Exception {
+        when(engine.startEngine()).thenReturn(true);
+        when(engine.isAlive()).thenReturn(true);
+        StockfishPool pool = new StockfishPool(1, () -> engine);
+        Stockfish leased = pool.lease();
+        assertEquals(0, pool.takeQueueWaitMillis());
+        long[] waited = new long[1];
+        Thread waiter = new Thread(() -> {
+            pool.release(pool.lease());
+            waited[0] = pool.takeQueueWaitMillis();
+        });
+
+        waiter.start();
+        awaitQueueLength(pool, 1);
+        Thread.sleep(100);
+        pool.release(leased);
+        waiter.join(5_000);
+
+        assertFalse(waiter.isAlive());
+        assertTrue(waited[0] >= 100, "Waited " + waited[0] + "ms");
+        verify(engine, times(1)).startEngine();
+    }
+
+    @Test
+    void lease_callersWaiting_servesThemInArrivalOrder() throws Exception {
+        when(engine.startEngine()).thenReturn(true);
+        when(engine.isAlive()).thenReturn(true);
+        StockfishPool pool = new StockfishPool(1, () -> engine);
+        Stockfish leased = pool.lease();
+        List<String> served = Collections.synchronizedList(new ArrayList<>());
+        List<Thread> waiters = new ArrayList<>();
+
+        for (int i = 0; i < 3; i++) {
+            String name = "game-" + i;
+            Thread waiter = new Thread(() -> {
+                Stockfish stockfish = pool.lease();
+                served.add(name);
+                pool.release(stockfish);
+            });
+            waiters.add(waiter);
+            waiter.start();
+            awaitQueueLength(pool, i + 1);
+        }
+        pool.release(leased);
+        for (Thread waiter : waiters) {
+            waiter.join(5_000);
+        }
+
+        assertEquals(List.of("game-0", "game-1", "game-2"), served);
+    }
+
+    @Test
+    void lease_sameGameAgain_keepsEngineWarmWithoutNewGame() {
+        when(engine.startEngine()).thenReturn(true);
+        when(engine.isAlive()).thenReturn(true);
+        StockfishPool pool = new StockfishPool(1, () -> engine);
+
+        pool.release(pool.lease("game"));
+        Stockfish result = pool.lease("game");
+
+        assertEquals(engine, result);
+        verify(engine, times(1)).newGame();
+        verify(engine).waitUntilReady();
+        assertEquals(1, pool.getWarmLeases());
+    }
+
+    @Test
+    void lease_engineUsedByOtherWorkSinceGame_startsNewGame() {
+        when(engine.startEngine()).thenReturn(true);
+        when(engine.isAlive()).thenReturn(true);
+        StockfishPool pool = new StockfishPool(1, () -> engine);
+
+        pool.release(pool.lease("game"));
+        pool.release(pool.lease());
+        pool.lease("game");
+
+        verify(engine, times(3)).newGame();
+        verify(engine, never()).waitUntilReady();
+        assertEquals(0, pool.getWarmLeases());
+    }
+
+    @Test
+    void lease_homeEngineBusy_fallsBackToAnotherEngine() {
+        when(engine.startEngine()).thenReturn(true);
+        when(engine.isAlive()).thenReturn(true);
+        when(otherEngine.startEngine()).thenReturn(true);
+        when(otherEngine.isAlive()).thenReturn(true);
+        Stockfish[] engines = {engine, otherEngine};
+        int[] created = {0};
+        StockfishPool pool = new StockfishPool(2, () -> engines[created[0]++]);
+
+        Stockfish home = pool.lease("game");
+        Stockfish fallback = pool.lease("game");
+
+        assertNotSame(home, fallback);
+        verify(home).newGame();
+        verify(fallback).newGame();
+        assertEquals(2, pool.getEngineCount());
+    }
+
+    private static void awaitQueueLength(StockfishPool pool, int length) throws InterruptedException {
+        long deadline = System.nanoTime() + 5_000_000_000L;
+        while (pool.getQueueLength() < length && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        assertEquals(length, pool.getQueueLength());
+    }
+}
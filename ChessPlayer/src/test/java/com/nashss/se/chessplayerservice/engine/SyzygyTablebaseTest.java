@@ -0,0 +1,121 @@
+package com.nashss.se.chessplayerservice.engine;
+
+import com.nashss.se.chessplayerservice.chess.Piece;
+import com.nashss.se.chessplayerservice.chess.Position;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SyzygyTablebaseTest {
+    private static final byte[] WDL_MAGIC = {0x71, (byte) 0xE8, 0x23, 0x5D, 0};
+    private static final byte[] DTZ_MAGIC = {(byte) 0xD7, 0x66, 0x0C, (byte) 0xA5, 0};
+
+    private static final Position KRK = Position.fromFen("4k3/8/4K3/8/8/8/8/R7 w - - 0 1");
+    private static final Position KKR = Position.fromFen("4K3/8/4k3/8/8/8/8/r7 w - - 0 1");
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void covers_wdlAndDtzTables_returnsTrueForBothColors() throws IOException {
+        Files.write(tempDir.resolve("KRvK.rtbw"), WDL_MAGIC);
+        Files.write(tempDir.resolve("KRvK.rtbz"), DTZ_MAGIC);
+
+        SyzygyTablebase tablebase = new SyzygyTablebase(tempDir);
+
+        assertTrue(tablebase.covers(KRK));
+        assertTrue(tablebase.covers(KKR));
+        assertEquals(3, tablebase.getMaxPieces());
+        assertEquals(tempDir.toAbsolutePath().toString(), tablebase.getPath());
+    }
+
+    @Test
+    void covers_missingDtzTable_returnsFalse() throws IOException {
+        Files.write(tempDir.resolve("KRvK.rtbw"), WDL_MAGIC);
+
+        assertFalse(new SyzygyTablebase(tempDir).covers(KRK));
+    }
+
+    @Test
+    void covers_wrongMagic_returnsFalse() throws IOException {
+        Files.write(tempDir.resolve("KRvK.rtbw"), DTZ_MAGIC);
+        Files.write(tempDir.resolve("KRvK.rtbz"), DTZ_MAGIC);
+
+        assertFalse(new SyzygyTablebase(tempDir).covers(KRK));
+    }
+
+    @Test
+    void covers_morePiecesThanAnyTable_returnsFalse() throws IOException {
+        Files.write(tempDir.resolve("KRvK.rtbw"), WDL_MAGIC);
+        Files.write(tempDir.resolve("KRvK.rtbz"), DTZ_MAGIC);
+
+        assertFalse(new SyzygyTablebase(tempDir).covers(Position.STARTING));
+    }
+
+    @Test
+    void covers_noDirectory_returnsFalse() {
+        SyzygyTablebase tablebase = new SyzygyTablebase(null);
+
+        assertFalse(tablebase.covers(KRK));
+        assertNull(tablebase.getPath());
+    }
+
+    @Test
+    void materialName_ordersPiecesLikeSyzygy() {
+        Position position = Position.fromFen("4k3/4p3/8/8/8/8/3PN3/R3K3 w - - 0 1");
+
+        assertEquals("KRNPvKP", SyzygyTablebase.materialName(position, Piece.WHITE));
+        assertEquals("KPvKRNP", SyzygyTablebase.materialName(position, Piece.BLACK));
+    }
+
+    @Test
+    void fromSearchOutput_tablebaseWinScore_returnsWin() {
+        TablebaseResult result = TablebaseResult.fromSearchOutput(List.of(
+                "info depth 1 seldepth 1 multipv 1 score cp 19980 nodes 20 nps 20000 tbhits 14 time 1 pv a1a7",
+                "bestmove a1a7"));
+
+        assertEquals("a1a7", result.getMove());
+        assertEquals(TablebaseResult.Outcome.WIN, result.getOutcome());
+    }
+
+    @Test
+    void fromSearchInfo_decidedScoreBoundary_onlyCountsScoresFromThreshold() {
+        SearchInfo atThreshold = new SearchInfo();
+        UciInfoParser.parse("info depth 1 score cp " + TablebaseResult.DECIDED_SCORE_CP + " pv a1a7", atThreshold);
+        SearchInfo belowThreshold = new SearchInfo();
+        UciInfoParser.parse("info depth 1 score cp " + (TablebaseResult.DECIDED_SCORE_CP - 1) + " pv a1a7",
+                belowThreshold);
+        SearchInfo lossAtThreshold = new SearchInfo();
+        UciInfoParser.parse("info depth 1 score cp -" + TablebaseResult.DECIDED_SCORE_CP + " pv e8f8",
+                lossAtThreshold);
+
+        assertEquals(TablebaseResult.Outcome.WIN, TablebaseResult.fromSearchInfo(atThreshold, "a1a7").getOutcome());
+        assertEquals(TablebaseResult.Outcome.DRAW,
+                TablebaseResult.fromSearchInfo(belowThreshold, "a1a7").getOutcome());
+        assertEquals(TablebaseResult.Outcome.LOSS,
+                TablebaseResult.fromSearchInfo(lossAtThreshold, "e8f8").getOutcome());
+    }
+
+    @Test
+    void fromSearchOutput_negativeMateScore_returnsLoss() {
+        TablebaseResult result = TablebaseResult.fromSearchOutput(List.of(
+                "info depth 1 score mate -5 nodes 3 tbhits 3 pv e8f8", "bestmove e8f8"));
+
+        assertEquals(TablebaseResult.Outcome.LOSS, result.getOutcome());
+    }
+
+    @Test
+    void fromSearchOutput_smallScore_returnsDraw() {
+        TablebaseResult result = TablebaseResult.fromSearchOutput(List.of(
+                "info depth 1 score cp 0 nodes 3 tbhits 3 pv e8f8", "bestmove e8f8 ponder e6f6"));
+
+        assertEquals("e8f8", result.getMove());
+        assertEquals(TablebaseResult.Outcome.DRAW, result.getOutcome());
+    }
+}
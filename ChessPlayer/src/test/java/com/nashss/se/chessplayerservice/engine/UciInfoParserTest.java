@@ -0,0 +1,121 @@
+package com.nashss.se.chessplayerservice.engine;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UciInfoParserTest {
+
+    @Test
+    void parse_fullInfoLine_readsEveryField() {
+        SearchInfo info = new SearchInfo();
+
+        boolean parsed = UciInfoParser.parse("info depth 18 seldepth 24 multipv 2 score cp -31 nodes 412345 " +
+                "nps 950000 hashfull 120 tbhits 3 time 434 pv e2e4 e7e5 g1f3", info);
+
+        assertTrue(parsed);
+        assertEquals(18, info.getDepth());
+        assertEquals(24, info.getSelDepth());
+        assertEquals(2, info.getMultiPv());
+        assertTrue(info.hasScore());
+        assertEquals(-31, info.getScoreCp());
+        assertNull(info.getMateIn());
+        assertEquals(412345, info.getNodes());
+        assertEquals(950000, info.getNps());
+        assertEquals(120, info.getHashFull());
+        assertEquals(3, info.getTbHits());
+        assertEquals(434, info.getTimeMillis());
+        assertEquals(List.of("e2e4", "e7e5", "g1f3"), info.getPrincipalVariation());
+    }
+
+    @Test
+    void parse_mateScoreWithBound_readsMateAndBound() {
+        SearchInfo info = new SearchInfo();
+
+        UciInfoParser.parse("info depth 30 score mate -3 upperbound nodes 10 pv e8d8 d1d7", info);
+
+        assertTrue(info.isMate());
+        assertEquals(-3, info.getMateIn());
+        assertEquals(0, info.getScoreCp());
+        assertTrue(info.isUpperBound());
+        assertFalse(info.isLowerBound());
+        assertEquals(10, info.getNodes());
+    }
+
+    @Test
+    void parse_unknownTokens_skipsThem() {
+        SearchInfo info = new SearchInfo();
+
+        UciInfoParser.parse("info depth 5 currmove e2e4 currmovenumber 1 wdl 500 400 100 score cp 7 pv e2e4", info);
+
+        assertEquals(5, info.getDepth());
+        assertEquals(7, info.getScoreCp());
+        assertEquals("e2e4", info.getPvMove(0));
+    }
+
+    @Test
+    void parse_infoStringOrOtherLine_hasNoScore() {
+        SearchInfo info = new SearchInfo();
+
+        assertTrue(UciInfoParser.parse("info string score cp 500", info));
+        assertFalse(info.hasScore());
+        assertFalse(UciInfoParser.parse("bestmove e2e4 ponder e7e5", info));
+    }
+
+    @Test
+    void parse_reusedInfo_clearsThePreviousLine() {
+        SearchInfo info = new SearchInfo();
+        UciInfoParser.parse("info depth 9 multipv 3 score cp 40 nodes 900 pv e2e4 e7e5 g1f3 b8c6", info);
+
+        UciInfoParser.parse("info depth 10 score mate 2 pv a7a8q", info);
+
+        assertEquals(1, info.getMultiPv());
+        assertEquals(0, info.getNodes());
+        assertEquals(2, info.getMateIn());
+        assertEquals(List.of("a7a8q"), info.getPrincipalVariation());
+    }
+
+    @Test
+    void parse_charSequence_matchesStringParse() {
+        String line = "info depth 12 score cp 15 lowerbound nodes 5000 pv d2d4 g8f6";
+        SearchInfo fromString = new SearchInfo();
+        SearchInfo fromBuilder = new SearchInfo();
+
+        UciInfoParser.parse(line, fromString);
+        UciInfoParser.parse(new StringBuilder(line), fromBuilder);
+
+        assertEquals(fromString, fromBuilder);
+        assertTrue(fromBuilder.isLowerBound());
+    }
+
+    @Test
+    void copyFrom_anotherInfo_copiesPrincipalVariation() {
+        SearchInfo source = new SearchInfo();
+        UciInfoParser.parse("info depth 7 score cp 3 nodes 77 pv g1f3 d7d5 d2d4", source);
+        SearchInfo copy = new SearchInfo();
+
+        copy.copyFrom(source);
+        source.reset();
+
+        StringBuilder pv = new StringBuilder();
+        copy.appendPv(pv);
+        assertEquals("g1f3 d7d5 d2d4", pv.toString());
+        assertEquals(77, copy.getNodes());
+    }
+
+    @Test
+    void appendUci_parsedBack_givesEqualInfo() {
+        SearchInfo info = new SearchInfo();
+        UciInfoParser.parse("info depth 18 seldepth 24 multipv 2 score mate -3 upperbound nodes 412345 " +
+                "nps 950000 hashfull 120 tbhits 3 time 434 pv e2e4 e7e5 g1f3", info);
+        StringBuilder line = new StringBuilder();
+
+        info.appendUci(line);
+        SearchInfo parsed = new SearchInfo();
+        UciInfoParser.parse(line, parsed);
+
+        assertEquals(info, parsed);
+    }
+}
@@ -0,0 +1,114 @@
+package com.nashss.se.chessplayerservice.engine;
+
+import com.nashss.se.chessplayerservice.exceptions.EngineTimeoutException;
+import com.nashss.se.chessplayerservice.exceptions.StockfishException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PipedInputStream;
+import java.io.PipedOutputStream;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UciSessionTest {
+
+    private Writer engineStdout;
+    private BufferedReader engineStdin;
+    private UciSession session;
+
+    @BeforeEach
+    void setup() throws IOException {
+        PipedInputStream sessionInput = new PipedInputStream();
+        engineStdout = new OutputStreamWriter(new PipedOutputStream(sessionInput), StandardCharsets.UTF_8);
+        PipedInputStream engineInput = new PipedInputStream();
+        engineStdin = new BufferedReader(new InputStreamReader(engineInput, StandardCharsets.UTF_8));
+        session = new UciSession(sessionInput, new PipedOutputStream(engineInput));
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        session.close();
+        engineStdout.close();
+    }
+
+    @Test
+    void submit_terminatorArrives_completesWithEveryLine() throws Exception {
+        CompletableFuture<List<String>> result = session.submit("go movetime 100", "bestmove");
+        assertEquals("go movetime 100", engineStdin.readLine());
+
+        engineLines("info depth 1 score cp 20", "bestmove e2e4 ponder e7e5");
+
+        assertEquals(List.of("info depth 1 score cp 20", "bestmove e2e4 ponder e7e5"),
+                result.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void submit_terminatorNotYetPrinted_staysIncomplete() throws Exception {
+        CompletableFuture<List<String>> result = session.submit("go perft 1", "Nodes searched");
+        engineLines("e2e4: 1", "");
+        session.send("noop");
+        assertEquals("go perft 1", engineStdin.readLine());
+        assertEquals("noop", engineStdin.readLine());
+
+        assertFalse(result.isDone());
+        engineLines("Nodes searched: 1");
+        assertEquals(3, result.get(5, TimeUnit.SECONDS).size());
+    }
+
+    @Test
+    void submit_commandAlreadyWaiting_throwsException() {
+        session.submit("isready", "readyok");
+
+        assertThrows(StockfishException.class, () -> session.submit("uci", "uciok"));
+    }
+
+    @Test
+    void submit_engineClosesOutput_failsPendingCommand() throws Exception {
+        CompletableFuture<List<String>> result = session.submit("isready", "readyok");
+        engineStdout.close();
+
+        ExecutionException e = assertThrows(ExecutionException.class, () -> result.get(5, TimeUnit.SECONDS));
+        assertTrue(e.getCause() instanceof StockfishException);
+    }
+
+    @Test
+    void submit_withListener_streamsScoredInfoInsteadOfKeepingIt() throws Exception {
+        List<String> depths = new ArrayList<>();
+        CompletableFuture<List<String>> result = session.submit("go depth 2", "bestmove",
+            info -> depths.add(info.getDepth() + ":" + info.getScoreCp() + ":" + info.getPvMove(0)));
+
+        engineLines("info string NNUE evaluation enabled", "info depth 1 score cp 20 nodes 20 pv e2e4",
+                "info depth 2 score cp 35 nodes 80 pv d2d4 d7d5", "bestmove d2d4 ponder d7d5");
+
+        assertEquals(List.of("info string NNUE evaluation enabled", "bestmove d2d4 ponder d7d5"),
+                result.get(5, TimeUnit.SECONDS));
+        assertEquals(List.of("1:20:e2e4", "2:35:d2d4"), depths);
+    }
+
+    @Test
+    void execute_engineMissesDeadline_throwsAndClosesSession() throws Exception {
+        assertThrows(EngineTimeoutException.class, () -> session.execute("go infinite", "bestmove", null, 50));
+
+        assertFalse(session.isOpen());
+        assertThrows(StockfishException.class, () -> session.submit("isready", "readyok"));
+    }
+
+    private void engineLines(String... lines) throws IOException {
+        for (String line : lines) {
+            engineStdout.write(line + "\n");
+        }
+        engineStdout.flush();
+    }
+}
@@ -16,7 +16,7 @@ export default class ChessPlayerClient extends BindingClass {
         super();
 
         const methodsToBind = ['clientLoaded', 'getIdentity', 'login', 'logout', 'getTokenOrThrow', 'createGame', 'createAlert',
-            'getGame', 'getAllGames', 'getNextMove', 'getPrivateUser', 'getPublicUser', 'createUser', 'resign', 'resetAccount', 'hideGames'];
+            'getGame', 'getAllGames', 'getNextMove', 'getPrivateUser', 'getPublicUser', 'createUser', 'resign', 'analyzeGame', 'resetAccount', 'hideGames'];
         this.bindClassMethods(methodsToBind, this);
 
         this.authenticator = new Authenticator();;
@@ -217,6 +217,21 @@ export default class ChessPlayerClient extends BindingClass {
         }
     }
 
+    async analyzeGame(gameId, errorCallback) {
+        try {
+            const token = await this.getTokenOrThrow("You are not logged in!");
+            const response = await this.axiosClient.put(`game/analyze/${gameId}`, {}, {
+                headers: {
+                    Authorization: `Bearer ${token}`
+                }
+            });
+            return response.data;
+        }
+        catch (error) {
+            errorCallback(error);
+        }
+    }
+
     async resetAccount(errorCallback) {
         try {
             const token = await this.getTokenOrThrow("You are not logged in!");